@@ -0,0 +1,174 @@
+package run.bareflow.core.context;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.OnErrorDefinition;
+import run.bareflow.core.definition.StepDefinition;
+
+/**
+ * Immutable assignment of context keys to integer slots.
+ *
+ * A layout is computed once per FlowDefinition from the keys the flow can
+ * touch:
+ * - keys written by output mappings (step and onError) and forEach.collect
+ * - root keys referenced by placeholders in any mapping, forEach.items and
+ * when conditions
+ *
+ * SlotExecutionContext stores the values of these keys in a flat array
+ * indexed by slot. Keys outside the layout are still supported, but fall back
+ * to a regular map.
+ *
+ * Slot lookup by key uses a private open-addressing table over the keys'
+ * cached String hash codes, so resolving a slot allocates nothing. A layout
+ * holds no state shared with other layouts; components compiled ahead of
+ * execution (such as the evaluator's placeholders) remember the slot they
+ * resolved per layout themselves.
+ */
+public final class ContextLayout {
+    private static final String PREFIX = "${";
+
+    private final String[] keys;
+    private final String[] table;
+    private final int[] tableSlots;
+    private final int mask;
+
+    private ContextLayout(String[] keys) {
+        this.keys = keys;
+
+        int capacity = Integer.highestOneBit(Math.max(2, keys.length * 2) - 1) << 1;
+        this.table = new String[capacity];
+        this.tableSlots = new int[capacity];
+        this.mask = capacity - 1;
+
+        for (int slot = 0; slot < keys.length; slot++) {
+            int i = spread(keys[slot].hashCode()) & mask;
+            while (table[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table[i] = keys[slot];
+            tableSlots[i] = slot;
+        }
+    }
+
+    /**
+     * Create a layout containing the given keys, in iteration order.
+     * Duplicates are ignored.
+     */
+    public static ContextLayout of(Collection<String> keys) {
+        return new ContextLayout(new LinkedHashSet<>(keys).toArray(new String[0]));
+    }
+
+    /**
+     * Compute the layout of all context keys a flow can touch.
+     */
+    public static ContextLayout of(FlowDefinition flow) {
+        Set<String> keys = new LinkedHashSet<>();
+
+        if (flow.getOnError() != null) {
+            collect(flow.getOnError(), keys);
+        }
+        for (StepDefinition step : flow.getSteps()) {
+            collectPlaceholders(step.getInput(), keys);
+            keys.addAll(step.getOutput().keySet());
+            collectPlaceholders(step.getOutput(), keys);
+            if (step.getOnError() != null) {
+                collect(step.getOnError(), keys);
+            }
+            if (step.getForEach() != null) {
+                collectPlaceholders(step.getForEach().getItems(), keys);
+                if (step.getForEach().getCollect() != null) {
+                    keys.add(step.getForEach().getCollect());
+                }
+            }
+            if (step.getWhen() != null) {
+                collectPlaceholders(step.getWhen(), keys);
+            }
+        }
+        return new ContextLayout(keys.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the slot assigned to the key, or -1 if the key is not part of
+     * this layout.
+     */
+    public int slotOf(String key) {
+        int i = spread(key.hashCode()) & mask;
+        String candidate;
+        while ((candidate = table[i]) != null) {
+            if (candidate == key || candidate.equals(key)) {
+                return tableSlots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key stored in the given slot.
+     */
+    public String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Number of slots in this layout.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextLayout" + Arrays.toString(keys);
+    }
+
+    private static void collect(OnErrorDefinition onError, Set<String> keys) {
+        keys.addAll(onError.getOutput().keySet());
+        collectPlaceholders(onError.getOutput(), keys);
+    }
+
+    /**
+     * Add the root key of every placeholder found in the mapping values.
+     * For path placeholders ("a.b[0]") only the root ("a") is a context key.
+     */
+    private static void collectPlaceholders(Map<String, Object> mapping, Set<String> keys) {
+        for (Object value : mapping.values()) {
+            if (value instanceof String) {
+                collectPlaceholders((String) value, keys);
+            }
+        }
+    }
+
+    /**
+     * Add the root key of every placeholder found in the string.
+     */
+    private static void collectPlaceholders(String s, Set<String> keys) {
+        if (s == null) {
+            return;
+        }
+        int open = s.indexOf(PREFIX);
+        while (open >= 0) {
+            int close = s.indexOf('}', open + PREFIX.length());
+            if (close < 0) {
+                break;
+            }
+            int end = open + PREFIX.length();
+            while (end < close && s.charAt(end) != '.' && s.charAt(end) != '[') {
+                end++;
+            }
+            if (end > open + PREFIX.length()) {
+                keys.add(s.substring(open + PREFIX.length(), end));
+            }
+            open = s.indexOf(PREFIX, close + 1);
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
\ No newline at end of file
@@ -19,9 +19,30 @@ import java.util.Map;
  *
  * This class is intentionally minimal and deterministic.
  * Higher-level semantics belong to FlowEngine and StepEvaluator.
+ *
+ * Every operation is defined over a backing Map. Subclasses with their own
+ * storage pass a Map implementing it to the protected constructor, and may
+ * override operations only to take faster paths.
  */
 public class ExecutionContext {
-    private final Map<String, Object> data = new HashMap<>();
+    private final Map<String, Object> data;
+
+    public ExecutionContext() {
+        this.data = new HashMap<>();
+    }
+
+    /**
+     * Constructor for subclasses that keep their own storage.
+     *
+     * @param storage backing map; must support get, containsKey, put and
+     *                iteration
+     */
+    protected ExecutionContext(Map<String, Object> storage) {
+        if (storage == null) {
+            throw new IllegalArgumentException("storage must not be null");
+        }
+        this.data = storage;
+    }
 
     /**
      * Retrieve a value by key.
@@ -0,0 +1,177 @@
+package run.bareflow.core.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * ExecutionContext layered on top of a parent context.
+ *
+ * Reads consult the local bindings first and fall back to the parent.
+ * Writes (put / merge) only ever touch the local bindings, so the parent is
+ * never modified through a scoped context. This is used to expose
+ * per-element bindings (such as the current forEach element) to the
+ * evaluator without copying the parent. view() is a live read-only Map of
+ * the parent overlaid with the local bindings.
+ *
+ * A scoped context is not thread-safe by itself, but any number of scoped
+ * contexts may read the same parent concurrently as long as the parent is
+ * not written at the same time.
+ */
+public class ScopedExecutionContext extends ExecutionContext {
+    private final Scope scope;
+
+    public ScopedExecutionContext(ExecutionContext parent) {
+        this(new Scope(parent));
+    }
+
+    private ScopedExecutionContext(Scope scope) {
+        super(scope);
+        this.scope = scope;
+    }
+
+    /**
+     * Returns the parent context.
+     */
+    public ExecutionContext getParent() {
+        return scope.parent;
+    }
+
+    /**
+     * Returns an immutable view of the bindings written to this scope.
+     */
+    public Map<String, Object> locals() {
+        return Collections.unmodifiableMap(scope.locals);
+    }
+
+    @Override
+    public Object get(String key) {
+        return scope.get(key);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        scope.locals.put(key, value);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return scope.containsKey(key);
+    }
+
+    @Override
+    public void merge(Map<String, Object> values) {
+        if (values != null) {
+            scope.locals.putAll(values);
+        }
+    }
+
+    /**
+     * Returns an immutable copy of the parent state overlaid with the local
+     * bindings.
+     */
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> copy = new HashMap<>(scope.parent.view());
+        copy.putAll(scope.locals);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Map of the parent's entries overlaid with the local bindings. Writes go
+     * to the local bindings.
+     */
+    private static final class Scope extends AbstractMap<String, Object> {
+        final ExecutionContext parent;
+        final Map<String, Object> locals = new HashMap<>(4);
+
+        Scope(ExecutionContext parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object value = locals.get(key);
+            if (value != null || locals.containsKey(key)) {
+                return value;
+            }
+            return key instanceof String ? parent.get((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return locals.containsKey(key) || key instanceof String && parent.contains((String) key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return locals.put(key, value);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    int size = locals.size();
+                    for (String key : parent.view().keySet()) {
+                        if (!locals.containsKey(key)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+
+        /**
+         * Parent entries not shadowed by a local binding, then the local
+         * bindings.
+         */
+        private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+            private final Iterator<Map.Entry<String, Object>> inherited = parent.view().entrySet().iterator();
+            private final Iterator<Map.Entry<String, Object>> own = locals.entrySet().iterator();
+            private Map.Entry<String, Object> next;
+
+            EntryIterator() {
+                advance();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<String, Object> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<String, Object> entry = next;
+                advance();
+                return entry;
+            }
+
+            private void advance() {
+                while (inherited.hasNext()) {
+                    Map.Entry<String, Object> e = inherited.next();
+                    if (!locals.containsKey(e.getKey())) {
+                        next = new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue());
+                        return;
+                    }
+                }
+                next = own.hasNext() ? new AbstractMap.SimpleImmutableEntry<>(own.next()) : null;
+            }
+        }
+    }
+}
\ No newline at end of file
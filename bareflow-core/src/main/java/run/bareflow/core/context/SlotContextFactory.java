@@ -0,0 +1,29 @@
+package run.bareflow.core.context;
+
+import java.util.function.Function;
+
+import run.bareflow.core.definition.FlowDefinition;
+
+/**
+ * Creates a SlotExecutionContext for each execution of a flow.
+ *
+ * The ContextLayout is cached on the FlowDefinition itself (see
+ * FlowDefinition.getContextLayout()), so every later execution of the same
+ * definition instance reuses it without any shared lookup, and replaced
+ * definitions take their layout with them.
+ *
+ * Instances are stateless and thread-safe.
+ */
+public class SlotContextFactory implements Function<FlowDefinition, ExecutionContext> {
+    @Override
+    public ExecutionContext apply(FlowDefinition flow) {
+        return new SlotExecutionContext(layoutOf(flow));
+    }
+
+    /**
+     * Returns the cached layout for the flow, computing it if necessary.
+     */
+    public ContextLayout layoutOf(FlowDefinition flow) {
+        return flow.getContextLayout();
+    }
+}
\ No newline at end of file
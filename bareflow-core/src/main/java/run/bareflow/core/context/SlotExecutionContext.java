@@ -0,0 +1,252 @@
+package run.bareflow.core.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import run.bareflow.core.util.CompactMap;
+
+/**
+ * ExecutionContext backed by a flat array of slots.
+ *
+ * Keys known to the ContextLayout are stored in an Object[] indexed by slot,
+ * so reads and writes perform no hashing beyond the layout lookup and
+ * allocate no map entries. Components that know the layout (such as the
+ * evaluator's compiled placeholders) can bypass key lookup entirely through
+ * getSlot()/putSlot().
+ *
+ * Keys that are not part of the layout (for example initial input that no
+ * step references) are kept in an overflow map, so the observable behavior is
+ * identical to ExecutionContext.
+ *
+ * The slots and the overflow map together form the backing map of the
+ * context, so view() is a live read-only Map over both storage areas;
+ * snapshot() returns an immutable copy, as in ExecutionContext.
+ */
+public class SlotExecutionContext extends ExecutionContext {
+    private final Slots slots;
+
+    public SlotExecutionContext(ContextLayout layout) {
+        this(new Slots(layout));
+    }
+
+    private SlotExecutionContext(Slots slots) {
+        super(slots);
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the layout this context was created for.
+     */
+    public ContextLayout getLayout() {
+        return slots.layout;
+    }
+
+    /**
+     * Retrieve the value stored in a slot, or null if the slot is empty.
+     */
+    public Object getSlot(int slot) {
+        return slots.getSlot(slot);
+    }
+
+    /**
+     * Store or overwrite the value of a slot.
+     */
+    public void putSlot(int slot, Object value) {
+        slots.putSlot(slot, value);
+    }
+
+    /**
+     * Check if a slot holds a value.
+     */
+    public boolean containsSlot(int slot) {
+        return slots.containsSlot(slot);
+    }
+
+    @Override
+    public Object get(String key) {
+        return slots.get(key);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        slots.put(key, value);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return slots.containsKey(key);
+    }
+
+    @Override
+    public void merge(Map<String, Object> values) {
+        if (values instanceof CompactMap) {
+            CompactMap compact = (CompactMap) values;
+            for (int i = 0; i < compact.size(); i++) {
+                slots.put(compact.keys().keyAt(i), compact.valueAt(i));
+            }
+            return;
+        }
+        if (values != null) {
+            for (Map.Entry<String, Object> e : values.entrySet()) {
+                slots.put(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> copy = new HashMap<>(Math.max(16, slots.size() * 2));
+        slots.copyTo(copy);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Map over the slots of a layout and the overflow map.
+     */
+    private static final class Slots extends AbstractMap<String, Object> {
+        /** Marker for slots that hold no value (distinct from a stored null). */
+        private static final Object ABSENT = new Object();
+
+        final ContextLayout layout;
+        private final Object[] values;
+        private int slotCount;
+        private Map<String, Object> overflow;
+
+        Slots(ContextLayout layout) {
+            this.layout = layout;
+            this.values = new Object[layout.size()];
+            Arrays.fill(values, ABSENT);
+        }
+
+        Object getSlot(int slot) {
+            Object value = values[slot];
+            return value == ABSENT ? null : value;
+        }
+
+        void putSlot(int slot, Object value) {
+            if (values[slot] == ABSENT) {
+                slotCount++;
+            }
+            values[slot] = value;
+        }
+
+        boolean containsSlot(int slot) {
+            return values[slot] != ABSENT;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int slot = layout.slotOf((String) key);
+            if (slot >= 0) {
+                return getSlot(slot);
+            }
+            return overflow == null ? null : overflow.get(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            int slot = layout.slotOf(key);
+            if (slot >= 0) {
+                Object previous = getSlot(slot);
+                putSlot(slot, value);
+                return previous;
+            }
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            return overflow.put(key, value);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+            int slot = layout.slotOf((String) key);
+            if (slot >= 0) {
+                return containsSlot(slot);
+            }
+            return overflow != null && overflow.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return slotCount + (overflow == null ? 0 : overflow.size());
+        }
+
+        void copyTo(Map<String, Object> target) {
+            for (int slot = 0; slot < values.length; slot++) {
+                if (values[slot] != ABSENT) {
+                    target.put(layout.keyAt(slot), values[slot]);
+                }
+            }
+            if (overflow != null) {
+                target.putAll(overflow);
+            }
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return Slots.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+
+        private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+            private int slot = -1;
+            private Iterator<Map.Entry<String, Object>> overflowIterator;
+
+            EntryIterator() {
+                advance();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < values.length || (overflowIterator != null && overflowIterator.hasNext());
+            }
+
+            @Override
+            public Map.Entry<String, Object> next() {
+                if (slot < values.length) {
+                    Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<>(layout.keyAt(slot),
+                            values[slot]);
+                    advance();
+                    return entry;
+                }
+                if (overflowIterator != null && overflowIterator.hasNext()) {
+                    Map.Entry<String, Object> e = overflowIterator.next();
+                    return new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue());
+                }
+                throw new NoSuchElementException();
+            }
+
+            private void advance() {
+                slot++;
+                while (slot < values.length && values[slot] == ABSENT) {
+                    slot++;
+                }
+                if (slot >= values.length && overflow != null) {
+                    overflowIterator = overflow.entrySet().iterator();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package run.bareflow.core.definition;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable model describing memoization of a step's raw output.
+ *
+ * When a step has a CacheDefinition, FlowEngine looks up the raw output by a
+ * key built from the evaluated input before invoking the module:
+ * - ttlMillis: time to live of an entry (0 = entries never expire)
+ * - maxEntries: maximum number of entries kept for the step
+ * - keys: input fields forming the cache key, in order; empty means the
+ * whole evaluated input
+ *
+ * Only successful invocations are cached. Caching is meant for pure
+ * lookups whose output depends on the input alone.
+ */
+public class CacheDefinition {
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final List<String> keys;
+
+    public CacheDefinition(long ttlMillis, int maxEntries, List<String> keys) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.keys = keys == null
+                ? Collections.emptyList()
+                : List.copyOf(keys);
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Input fields forming the cache key; empty means all fields.
+     */
+    public List<String> getKeys() {
+        return keys;
+    }
+}
\ No newline at end of file
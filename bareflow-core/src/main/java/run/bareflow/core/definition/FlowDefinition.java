@@ -3,6 +3,8 @@ package run.bareflow.core.definition;
 import java.util.List;
 import java.util.Map;
 
+import run.bareflow.core.context.ContextLayout;
+
 /**
  * Immutable model representing an entire flow definition.
  *
@@ -12,7 +14,9 @@ import java.util.Map;
  * - onError: optional flow-level default error handling policy
  * - metadata: optional user-defined metadata with no effect on execution
  *
- * This class contains no behavior and no validation logic.
+ * This class contains no behavior and no validation logic. The only derived
+ * state is the ContextLayout, computed from the structure above on first use
+ * and cached for every later execution.
  * Validation, loading, and parsing are responsibilities of the
  * FlowDefinitionResolver or higher-level runtime components.
  *
@@ -23,6 +27,7 @@ public class FlowDefinition {
     private final List<StepDefinition> steps;
     private final OnErrorDefinition onError; // optional flow-level default
     private final Map<String, Object> metadata; // optional metadata
+    private volatile ContextLayout contextLayout; // computed on first use
 
     public FlowDefinition(
             String name,
@@ -66,4 +71,18 @@ public class FlowDefinition {
     public Map<String, Object> getMetadata() {
         return metadata;
     }
+
+    /**
+     * Returns the ContextLayout of this flow, computing it on first use.
+     * Concurrent first calls may compute it more than once; all results are
+     * equivalent, and one of them is kept.
+     */
+    public ContextLayout getContextLayout() {
+        ContextLayout layout = contextLayout;
+        if (layout == null) {
+            layout = ContextLayout.of(this);
+            contextLayout = layout;
+        }
+        return layout;
+    }
 }
\ No newline at end of file
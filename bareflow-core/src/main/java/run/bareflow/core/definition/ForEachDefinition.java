@@ -0,0 +1,67 @@
+package run.bareflow.core.definition;
+
+/**
+ * Immutable model describing the fan-out of a step over a collection.
+ *
+ * A step with a ForEachDefinition invokes its module operation once per
+ * element of the collection resolved from items:
+ * - items: placeholder expression resolving to a Collection or array,
+ * e.g. "${orders}"
+ * - as: context key under which the current element is visible to the
+ * step's input and output mappings
+ * - maxConcurrency: maximum number of elements processed at the same time
+ * (1 = sequential)
+ * - collect: context key receiving the list of per-element results
+ *
+ * Per-element results are the evaluated output mapping of the step, or the
+ * raw output when the step has no output mapping. The result list keeps the
+ * order of the source collection.
+ *
+ * No validation or defaulting is performed here; see FlowYamlParser.
+ */
+public class ForEachDefinition {
+    private final String items;
+    private final String as;
+    private final int maxConcurrency;
+    private final String collect;
+
+    public ForEachDefinition(
+            String items,
+            String as,
+            int maxConcurrency,
+            String collect) {
+
+        this.items = items;
+        this.as = as;
+        this.maxConcurrency = maxConcurrency;
+        this.collect = collect;
+    }
+
+    /**
+     * Placeholder expression resolving to the collection to iterate.
+     */
+    public String getItems() {
+        return items;
+    }
+
+    /**
+     * Context key bound to the current element.
+     */
+    public String getAs() {
+        return as;
+    }
+
+    /**
+     * Maximum number of elements processed concurrently.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Context key receiving the ordered result list.
+     */
+    public String getCollect() {
+        return collect;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package run.bareflow.core.definition;
+
+/**
+ * Immutable model describing hedged invocation of an idempotent step.
+ *
+ * When the invocation has not completed after a delay derived from the
+ * step's observed latency, FlowEngine issues a second, identical invocation
+ * and uses whichever succeeds first:
+ * - percentile: observed latency percentile used as the hedge delay
+ * (exclusive range 0-100)
+ * - delayMillis: delay used until enough latencies have been observed
+ * - budgetPercent: maximum extra invocations, as a percentage of the
+ * step's invocations
+ *
+ * Declaring a hedge marks the operation as idempotent: it may run twice
+ * for one step attempt.
+ */
+public class HedgeDefinition {
+    private final double percentile;
+    private final long delayMillis;
+    private final double budgetPercent;
+
+    public HedgeDefinition(double percentile, long delayMillis, double budgetPercent) {
+        this.percentile = percentile;
+        this.delayMillis = delayMillis;
+        this.budgetPercent = budgetPercent;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    public double getBudgetPercent() {
+        return budgetPercent;
+    }
+}
\ No newline at end of file
@@ -1,8 +1,9 @@
 package run.bareflow.core.definition;
 
-import java.util.Collections;
 import java.util.Map;
 
+import run.bareflow.core.util.CompactMap;
+
 /**
  * Immutable model representing error-handling behavior for a step or flow.
  *
@@ -48,9 +49,7 @@ public class OnErrorDefinition {
 
         this.action = action;
         this.delayMillis = delayMillis;
-        this.output = output == null
-                ? Collections.emptyMap()
-                : Collections.unmodifiableMap(output);
+        this.output = CompactMap.copyOf(output);
     }
 
     public Action getAction() {
@@ -1,8 +1,9 @@
 package run.bareflow.core.definition;
 
-import java.util.Collections;
 import java.util.Map;
 
+import run.bareflow.core.util.CompactMap;
+
 /**
  * Immutable model representing a single step in a flow.
  *
@@ -13,6 +14,15 @@ import java.util.Map;
  * - output: raw output mapping (evaluated by StepEvaluator)
  * - retryPolicy: optional retry configuration for system-level errors
  * - onError: optional step-level error handling policy
+ * - forEach: optional fan-out over a collection (see ForEachDefinition)
+ * - flow: optional name of a sub-flow executed instead of module/operation
+ * - when: optional condition; the step is skipped when it evaluates to false
+ * - cache: optional memoization of the raw output (see CacheDefinition)
+ * - hedge: optional hedged invocation for idempotent operations (see
+ * HedgeDefinition)
+ *
+ * The constructor covers the fields up to onError; steps using forEach,
+ * flow, when, cache or hedge are created with builder().
  *
  * No validation or transformation is performed here.
  * Parsing, validation, and defaulting are responsibilities of the
@@ -28,6 +38,12 @@ public class StepDefinition {
 
     private final RetryPolicy retryPolicy;
     private final OnErrorDefinition onError;
+    private final ForEachDefinition forEach;
+    private final String flow;
+    private final String when;
+    private final CacheDefinition cache;
+    private final HedgeDefinition hedge;
+    private final String operationKey; // "module#operation", built once
 
     public StepDefinition(
             String name,
@@ -38,20 +54,40 @@ public class StepDefinition {
             RetryPolicy retryPolicy,
             OnErrorDefinition onError) {
 
-        this.name = name;
-        this.module = module;
-        this.operation = operation;
+        this(builder(name)
+                .module(module)
+                .operation(operation)
+                .input(input)
+                .output(output)
+                .retryPolicy(retryPolicy)
+                .onError(onError));
+    }
+
+    private StepDefinition(Builder builder) {
+        this.name = builder.name;
+        this.module = builder.module;
+        this.operation = builder.operation;
 
-        this.input = input == null
-                ? Collections.emptyMap()
-                : Collections.unmodifiableMap(input);
+        this.input = CompactMap.copyOf(builder.input);
 
-        this.output = output == null
-                ? Collections.emptyMap()
-                : Collections.unmodifiableMap(output);
+        this.output = CompactMap.copyOf(builder.output);
 
-        this.retryPolicy = retryPolicy;
-        this.onError = onError;
+        this.retryPolicy = builder.retryPolicy;
+        this.onError = builder.onError;
+        this.forEach = builder.forEach;
+        this.flow = builder.flow;
+        this.when = builder.when;
+        this.cache = builder.cache;
+        this.hedge = builder.hedge;
+        this.operationKey = module == null ? null : module + "#" + operation;
+    }
+
+    /**
+     * Start building a step with the given name. Every other field is
+     * optional and defaults to null, as with the constructor.
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
     }
 
     public String getName() {
@@ -66,6 +102,15 @@ public class StepDefinition {
         return operation;
     }
 
+    /**
+     * Returns "module#operation", or null for a step without a module.
+     * Built once, so per-invocation lookups (e.g. rate limits) do not
+     * concatenate.
+     */
+    public String getOperationKey() {
+        return operationKey;
+    }
+
     /**
      * Raw input mapping.
      * Evaluated by StepEvaluator before invocation.
@@ -97,4 +142,133 @@ public class StepDefinition {
     public OnErrorDefinition getOnError() {
         return onError;
     }
+
+    /**
+     * Optional fan-out definition.
+     * If present, the operation is invoked once per collection element and
+     * the retry policy applies to each element individually.
+     */
+    public ForEachDefinition getForEach() {
+        return forEach;
+    }
+
+    /**
+     * Optional sub-flow name.
+     * If present, the step executes that flow in a child ExecutionContext
+     * instead of invoking module/operation. The evaluated input becomes the
+     * child's initial context, and the output mapping is evaluated against
+     * the child's final context.
+     */
+    public String getFlow() {
+        return flow;
+    }
+
+    /**
+     * Optional condition expression, e.g. "${enabled} == true".
+     * If present and false, the step is skipped without evaluation,
+     * invocation or trace entry. See Condition for the syntax.
+     */
+    public String getWhen() {
+        return when;
+    }
+
+    /**
+     * Optional output cache.
+     * If present, the raw output is looked up by the evaluated input before
+     * invocation, and successful outputs are stored.
+     */
+    public CacheDefinition getCache() {
+        return cache;
+    }
+
+    /**
+     * Optional hedging.
+     * If present, a second invocation is started when the first one is
+     * slower than the step's observed latency percentile.
+     */
+    public HedgeDefinition getHedge() {
+        return hedge;
+    }
+
+    /**
+     * Collects the fields of a StepDefinition. Like StepDefinition itself,
+     * the builder performs no validation.
+     */
+    public static final class Builder {
+        private final String name;
+        private String module;
+        private String operation;
+        private Map<String, Object> input;
+        private Map<String, Object> output;
+        private RetryPolicy retryPolicy;
+        private OnErrorDefinition onError;
+        private ForEachDefinition forEach;
+        private String flow;
+        private String when;
+        private CacheDefinition cache;
+        private HedgeDefinition hedge;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder module(String module) {
+            this.module = module;
+            return this;
+        }
+
+        public Builder operation(String operation) {
+            this.operation = operation;
+            return this;
+        }
+
+        public Builder input(Map<String, Object> input) {
+            this.input = input;
+            return this;
+        }
+
+        public Builder output(Map<String, Object> output) {
+            this.output = output;
+            return this;
+        }
+
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public Builder onError(OnErrorDefinition onError) {
+            this.onError = onError;
+            return this;
+        }
+
+        public Builder forEach(ForEachDefinition forEach) {
+            this.forEach = forEach;
+            return this;
+        }
+
+        public Builder flow(String flow) {
+            this.flow = flow;
+            return this;
+        }
+
+        public Builder when(String when) {
+            this.when = when;
+            return this;
+        }
+
+        public Builder cache(CacheDefinition cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public Builder hedge(HedgeDefinition hedge) {
+            this.hedge = hedge;
+            return this;
+        }
+
+        public StepDefinition build() {
+            return new StepDefinition(this);
+        }
+    }
 }
\ No newline at end of file
@@ -1,22 +1,34 @@
 package run.bareflow.core.engine;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import run.bareflow.core.context.ExecutionContext;
 import run.bareflow.core.definition.FlowDefinition;
 import run.bareflow.core.definition.OnErrorDefinition;
 import run.bareflow.core.definition.RetryPolicy;
 import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.cache.StepCaches;
+import run.bareflow.core.engine.cache.StepOutputCache;
+import run.bareflow.core.engine.condition.Condition;
+import run.bareflow.core.engine.condition.StepConditions;
+import run.bareflow.core.engine.hedge.StepHedging;
 import run.bareflow.core.engine.evaluator.StepEvaluator;
 import run.bareflow.core.engine.event.FlowEngineEvent.*;
 import run.bareflow.core.engine.event.FlowEngineEventListener;
 import run.bareflow.core.engine.invoker.StepInvoker;
+import run.bareflow.core.engine.ratelimit.RateLimits;
 import run.bareflow.core.exception.BusinessException;
 import run.bareflow.core.exception.StepExecutionException;
 import run.bareflow.core.exception.SystemException;
 import run.bareflow.core.trace.StepTrace;
 import run.bareflow.core.trace.StepTraceEntry;
+import run.bareflow.core.trace.TraceSampler;
 
 /**
  * Formal implementation of BareFlow's execution engine.
@@ -45,37 +57,131 @@ import run.bareflow.core.trace.StepTraceEntry;
  * <li>BusinessException is never retried by RetryPolicy</li>
  * <li>onError.RETRY performs exactly one retry, independent of RetryPolicy</li>
  * </ul>
+ *
+ * <p>
+ * Steps with a ForEachDefinition invoke their operation once per collection
+ * element, with up to maxConcurrency elements in flight. RetryPolicy then
+ * applies per element; onError applies to the step as a whole. The ordered
+ * result list is stored in the context under forEach.collect.
+ * </p>
+ *
+ * <p>
+ * Steps that name a sub-flow execute that flow, resolved through the
+ * SubFlowRegistry, in a child ExecutionContext. The evaluated input seeds the
+ * child context, the output mapping reads the child's final context, and the
+ * child's trace is attached to the step's StepTraceEntry.
+ * </p>
+ *
+ * <p>
+ * Steps with a "when" condition are skipped when the condition is false:
+ * only a StepSkippedEvent is emitted, and no trace entry is recorded.
+ * </p>
+ *
+ * <p>
+ * Steps with a CacheDefinition look up their raw output in the StepCaches
+ * before invoking; a hit replaces the invocation (CacheHitEvent instead of
+ * InvokeStart/InvokeEnd), and successful invocations are stored.
+ * </p>
+ *
+ * <p>
+ * Steps with a HedgeDefinition are invoked through StepHedging, which may
+ * start a second invocation (HedgeStartEvent) and uses the first successful
+ * result.
+ * </p>
+ *
+ * <p>
+ * With RateLimits configured, every module invocation (including forEach
+ * elements) first takes a token of its module/operation limits, waiting for
+ * it if necessary (RateLimitWaitEvent). Hedged extra invocations only run if
+ * a token is available immediately.
+ * </p>
  */
 public class FlowEngine {
     private final StepEvaluator evaluator;
     private final StepInvoker invoker;
     private final FlowEngineEventListener listener;
+    private final ForEachRunner forEachRunner;
+    private final SubFlowRegistry subFlows;
+    private final Function<FlowDefinition, ExecutionContext> subFlowContextFactory;
+    private final StepCaches stepCaches;
+    private final StepHedging stepHedging;
+    private final RateLimits rateLimits;
+    private final Function<FlowDefinition, StepTrace> traceFactory;
+    private final TraceSampler traceSampler;
     private boolean onErrorRetryUsed = false;
 
     public FlowEngine(final StepEvaluator evaluator,
             final StepInvoker invoker,
             final FlowEngineEventListener listener) {
+        this(evaluator, invoker, listener, FlowEngineOptions.defaults());
+    }
+
+    public FlowEngine(final StepEvaluator evaluator,
+            final StepInvoker invoker,
+            final FlowEngineEventListener listener,
+            final FlowEngineOptions options) {
         this.evaluator = evaluator;
         this.invoker = invoker;
         this.listener = listener;
+        this.forEachRunner = new ForEachRunner(evaluator, invoker, listener, options.getForEachExecutor(),
+                options.getRateLimits());
+        this.subFlows = options.getSubFlows();
+        this.subFlowContextFactory = options.getSubFlowContextFactory();
+        this.stepCaches = options.getStepCaches();
+        this.stepHedging = options.getStepHedging();
+        this.rateLimits = options.getRateLimits();
+        this.traceFactory = options.getTraceFactory();
+        this.traceSampler = options.getTraceSampler();
     }
 
     /**
      * Execute a flow using the given context.
-     * Returns a StepTrace representing the full execution history.
+     * Returns a StepTrace representing the full execution history, or its
+     * summary if a TraceSampler is configured and does not keep it.
+     * The returned trace belongs to the caller, who closes it when it streams
+     * to a TraceSink. If the flow throws, the trace never reaches the caller
+     * and is closed here.
      */
     public StepTrace execute(final FlowDefinition flow, final ExecutionContext ctx) {
+        final StepTrace trace = this.traceFactory.apply(flow);
+        try {
+            this.executeFlow(flow, ctx, trace, this.traceSampler);
+        } catch (final Throwable e) {
+            try {
+                trace.close();
+            } catch (final RuntimeException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+        return trace;
+    }
+
+    /**
+     * Execute all steps of a flow into the given trace.
+     * Used for top-level flows and sub-flows alike; sub-flows pass no sampler,
+     * their traces are kept or dropped with the parent's.
+     */
+    private void executeFlow(final FlowDefinition flow, final ExecutionContext ctx, final StepTrace trace,
+            final TraceSampler sampler) {
         Instant flowStartTime = Instant.now();
         listener.onEvent(new FlowStartEvent(flow, flowStartTime));
 
-        final StepTrace trace = new StepTrace();
-
-        for (final StepDefinition step : flow.getSteps()) {
-            this.executeStepWithControl(flow, step, ctx, trace);
+        try {
+            for (final StepDefinition step : flow.getSteps()) {
+                this.executeStepWithControl(flow, step, ctx, trace);
+            }
+        } catch (final Throwable e) {
+            // Errors abort the flow too; listeners tracking in-flight executions rely on this event
+            listener.onEvent(new FlowAbortedEvent(flow, trace, e, flowStartTime, Instant.now()));
+            throw e;
         }
 
-        listener.onEvent(new FlowEndEvent(flow, trace, flowStartTime, Instant.now()));
-        return trace;
+        final Instant flowEndTime = Instant.now();
+        if (sampler != null && !sampler.shouldKeep(trace, Duration.between(flowStartTime, flowEndTime))) {
+            trace.summarize();
+        }
+        listener.onEvent(new FlowEndEvent(flow, trace, flowStartTime, flowEndTime));
     }
 
     /**
@@ -96,7 +202,14 @@ public class FlowEngine {
             final ExecutionContext ctx,
             final StepTrace trace) {
 
-        final RetryPolicy retryPolicy = step.getRetryPolicy();
+        final Condition condition = StepConditions.of(step);
+        if (condition != null && !condition.test(ctx)) {
+            listener.onEvent(new StepSkippedEvent(step, step.getWhen(), Instant.now()));
+            return;
+        }
+
+        // forEach steps apply RetryPolicy per element, not to the whole fan-out
+        final RetryPolicy retryPolicy = step.getForEach() == null ? step.getRetryPolicy() : null;
         int attempts = 0;
 
         while (true) {
@@ -105,8 +218,14 @@ public class FlowEngine {
 
             final Instant start = Instant.now();
             final Map<String, Object> before = ctx.snapshot();
+            final StepTrace childTrace = step.getFlow() != null ? new StepTrace() : null;
 
             try {
+                if (step.getForEach() != null) {
+                    this.executeForEach(step, attempts, start, before, ctx, trace);
+                    return; // success
+                }
+
                 // 1. Evaluate input
                 Instant inputEvalStartTime = Instant.now();
                 listener.onEvent(new InputEvaluationStartEvent(step, attempts, inputEvalStartTime));
@@ -116,14 +235,10 @@ public class FlowEngine {
                 listener.onEvent(
                         new InputEvaluationEndEvent(step, attempts, evaluatedInput, inputEvalStartTime, Instant.now()));
 
-                // 2. Invoke module operation
-                Instant invokeStartTime = Instant.now();
-                listener.onEvent(new InvokeStartEvent(step, attempts, evaluatedInput, invokeStartTime));
-
-                final Map<String, Object> rawOutput = this.invoker.invoke(step.getModule(), step.getOperation(),
-                        evaluatedInput);
-
-                listener.onEvent(new InvokeEndEvent(step, attempts, rawOutput, invokeStartTime, Instant.now()));
+                // 2. Invoke module operation (or serve it from the cache)
+                final Map<String, Object> rawOutput = step.getCache() != null
+                        ? this.invokeCached(step, attempts, evaluatedInput, childTrace)
+                        : this.invoke(step, attempts, evaluatedInput, childTrace);
 
                 // 3. Apply output mapping
                 if (!step.getOutput().isEmpty()) {
@@ -147,7 +262,8 @@ public class FlowEngine {
                         null,
                         start,
                         Instant.now(),
-                        attempts);
+                        attempts,
+                        childTrace);
                 trace.record(entry);
 
                 listener.onEvent(new StepEndEvent(step, attempts, start, Instant.now(), entry));
@@ -155,7 +271,7 @@ public class FlowEngine {
 
             } catch (final BusinessException e) {
                 listener.onEvent(new BusinessErrorEvent(step, attempts, e));
-                this.recordError(trace, step, before, e, start, attempts);
+                this.recordError(trace, step, before, e, start, attempts, childTrace);
 
                 // Business errors are not retried by RetryPolicy
                 final boolean retry = this.handleOnError(flow, step, attempts, e);
@@ -166,7 +282,7 @@ public class FlowEngine {
 
             } catch (final SystemException e) {
                 listener.onEvent(new SystemErrorEvent(step, attempts, e));
-                this.recordError(trace, step, before, e, start, attempts);
+                this.recordError(trace, step, before, e, start, attempts, childTrace);
 
                 // System errors may be retried by RetryPolicy
                 if (retryPolicy != null && attempts < retryPolicy.getMaxAttempts()) {
@@ -174,7 +290,7 @@ public class FlowEngine {
 
                     listener.onEvent(new RetryPolicyRetryEvent(step, attempts, delayMillis));
 
-                    this.sleep(delayMillis);
+                    sleep(delayMillis);
                     continue;
                 }
 
@@ -186,7 +302,7 @@ public class FlowEngine {
 
             } catch (final StepExecutionException e) {
                 listener.onEvent(new StepExecutionErrorEvent(step, attempts, e));
-                this.recordError(trace, step, before, e, start, attempts);
+                this.recordError(trace, step, before, e, start, attempts, childTrace);
 
                 // Treated the same as SystemException
                 if (retryPolicy != null && attempts < retryPolicy.getMaxAttempts()) {
@@ -194,7 +310,7 @@ public class FlowEngine {
 
                     listener.onEvent(new RetryPolicyRetryEvent(step, attempts, delayMillis));
 
-                    this.sleep(delayMillis);
+                    sleep(delayMillis);
                     continue;
                 }
 
@@ -207,6 +323,126 @@ public class FlowEngine {
         }
     }
 
+    /**
+     * Invoke the module operation, or the sub-flow, of a step.
+     */
+    private Map<String, Object> invoke(
+            final StepDefinition step,
+            final int attempts,
+            final Map<String, Object> evaluatedInput,
+            final StepTrace childTrace) {
+
+        if (childTrace == null) {
+            awaitPermit(this.rateLimits, listener, step, attempts);
+        }
+
+        Instant invokeStartTime = Instant.now();
+        listener.onEvent(new InvokeStartEvent(step, attempts, evaluatedInput, invokeStartTime));
+
+        final Map<String, Object> rawOutput;
+        if (childTrace != null) {
+            rawOutput = this.executeSubFlow(step, evaluatedInput, childTrace);
+        } else if (step.getHedge() != null) {
+            final AtomicBoolean permitted = new AtomicBoolean(true); // the first call took its token above
+            rawOutput = this.stepHedging.invoke(
+                    step,
+                    () -> {
+                        if (!permitted.getAndSet(false) && this.rateLimits != null
+                                && !this.rateLimits.tryAcquire(step)) {
+                            throw new SystemException("Rate limit exceeded: hedge of step " + step.getName());
+                        }
+                        return this.invoker.invoke(step.getModule(), step.getOperation(), evaluatedInput);
+                    },
+                    delayMillis -> listener.onEvent(new HedgeStartEvent(step, attempts, delayMillis, Instant.now())));
+        } else {
+            rawOutput = this.invoker.invoke(step.getModule(), step.getOperation(), evaluatedInput);
+        }
+
+        listener.onEvent(new InvokeEndEvent(step, attempts, rawOutput, invokeStartTime, Instant.now()));
+        return rawOutput;
+    }
+
+    /**
+     * Serve the raw output from the step's cache, invoking and storing it on
+     * a miss.
+     */
+    private Map<String, Object> invokeCached(
+            final StepDefinition step,
+            final int attempts,
+            final Map<String, Object> evaluatedInput,
+            final StepTrace childTrace) {
+
+        final StepOutputCache cache = this.stepCaches.cacheFor(step);
+        final Object key = StepCaches.keyOf(step.getCache(), evaluatedInput);
+
+        final Map<String, Object> cached = cache.get(key);
+        if (cached != null) {
+            listener.onEvent(new CacheHitEvent(step, attempts, key, cached, Instant.now()));
+            return cached;
+        }
+        listener.onEvent(new CacheMissEvent(step, attempts, key, Instant.now()));
+
+        final Map<String, Object> rawOutput = this.invoke(step, attempts, evaluatedInput, childTrace);
+        if (rawOutput != null) {
+            cache.put(key, rawOutput);
+        }
+        return rawOutput;
+    }
+
+    /**
+     * Execute the sub-flow of a step in a child context.
+     *
+     * @return the child's final context, used as the step's raw output
+     */
+    private Map<String, Object> executeSubFlow(
+            final StepDefinition step,
+            final Map<String, Object> evaluatedInput,
+            final StepTrace childTrace) {
+
+        if (this.subFlows == null) {
+            throw new SystemException("No SubFlowRegistry configured for sub-flow step: " + step.getName());
+        }
+
+        final FlowDefinition child = this.subFlows.get(step.getFlow());
+        final ExecutionContext childCtx = this.subFlowContextFactory.apply(child);
+        childCtx.merge(evaluatedInput);
+
+        this.executeFlow(child, childCtx, childTrace, null);
+        return childCtx.snapshot();
+    }
+
+    /**
+     * Execute all elements of a forEach step, store the result list and
+     * record the step-level entry. Element failures propagate as exceptions.
+     */
+    private void executeForEach(
+            final StepDefinition step,
+            final int attempts,
+            final Instant start,
+            final Map<String, Object> before,
+            final ExecutionContext ctx,
+            final StepTrace trace) {
+
+        final List<Object> results = this.forEachRunner.run(step, before, ctx, trace);
+
+        if (step.getForEach().getCollect() != null) {
+            ctx.put(step.getForEach().getCollect(), results);
+        }
+
+        final StepTraceEntry entry = new StepTraceEntry(
+                step.getName(),
+                before,
+                Map.of(),
+                Map.of("results", results),
+                null,
+                start,
+                Instant.now(),
+                attempts);
+        trace.record(entry);
+
+        listener.onEvent(new StepEndEvent(step, attempts, start, Instant.now(), entry));
+    }
+
     /**
      * Handle onError behavior (STOP / CONTINUE / RETRY).
      *
@@ -261,7 +497,8 @@ public class FlowEngine {
             final Map<String, Object> before,
             final Throwable error,
             final Instant start,
-            final int attempts) {
+            final int attempts,
+            final StepTrace childTrace) {
 
         trace.record(new StepTraceEntry(
                 step.getName(),
@@ -271,13 +508,38 @@ public class FlowEngine {
                 error,
                 start,
                 Instant.now(),
-                attempts));
+                attempts,
+                childTrace));
+    }
+
+    /**
+     * Take the rate limit tokens of the step's operation, waiting if needed.
+     * The engine runs flows synchronously, so the wait blocks the executing
+     * thread; see RateLimits for non-blocking use.
+     *
+     * @throws SystemException if the wait would exceed the limit's maximum
+     */
+    static void awaitPermit(
+            final RateLimits rateLimits,
+            final FlowEngineEventListener listener,
+            final StepDefinition step,
+            final int attempt) {
+
+        if (rateLimits == null) {
+            return;
+        }
+        final long waitNanos = rateLimits.reserve(step);
+        if (waitNanos > 0L) {
+            final long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos + 999_999L);
+            listener.onEvent(new RateLimitWaitEvent(step, attempt, waitMillis, Instant.now()));
+            sleep(waitMillis);
+        }
     }
 
     /**
      * Sleep helper for retry delays.
      */
-    private void sleep(final long millis) {
+    static void sleep(final long millis) {
         if (millis <= 0L) {
             return;
         }
@@ -0,0 +1,194 @@
+package run.bareflow.core.engine;
+
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.engine.cache.StepCaches;
+import run.bareflow.core.engine.hedge.StepHedging;
+import run.bareflow.core.engine.ratelimit.RateLimits;
+import run.bareflow.core.trace.StepTrace;
+import run.bareflow.core.trace.TraceSampler;
+
+/**
+ * Immutable set of optional collaborators and settings for FlowEngine.
+ *
+ * Options are derived from defaults() with the withXxx methods, each of which
+ * returns a new instance:
+ *
+ * <pre>
+ * FlowEngineOptions options = FlowEngineOptions.defaults()
+ *         .withForEachExecutor(executor)
+ *         .withSubFlows(new SubFlowRegistry(resolver));
+ * </pre>
+ *
+ * Defaults:
+ * - forEachExecutor: null (a shared pool of daemon threads owned by the
+ * engine is used, bounded to twice the number of processors and at least 4
+ * threads)
+ * - subFlows: null (steps that call a sub-flow fail with SystemException)
+ * - subFlowContextFactory: creates a plain ExecutionContext
+ * - stepCaches: one StepCaches instance shared by all engines using the
+ * defaults
+ * - stepHedging: one StepHedging instance (on a shared pool of daemon
+ * threads) shared by all engines using the defaults
+ * - rateLimits: null (invocations are not rate limited)
+ * - traceFactory: creates an in-memory StepTrace
+ * - traceSampler: null (every trace is kept in full)
+ */
+public final class FlowEngineOptions {
+    private static final FlowEngineOptions DEFAULTS = new FlowEngineOptions(
+            null,
+            null,
+            flow -> new ExecutionContext(),
+            new StepCaches(),
+            new StepHedging(),
+            null,
+            flow -> new StepTrace(),
+            null);
+
+    private final Executor forEachExecutor;
+    private final SubFlowRegistry subFlows;
+    private final Function<FlowDefinition, ExecutionContext> subFlowContextFactory;
+    private final StepCaches stepCaches;
+    private final StepHedging stepHedging;
+    private final RateLimits rateLimits;
+    private final Function<FlowDefinition, StepTrace> traceFactory;
+    private final TraceSampler traceSampler;
+
+    private FlowEngineOptions(
+            Executor forEachExecutor,
+            SubFlowRegistry subFlows,
+            Function<FlowDefinition, ExecutionContext> subFlowContextFactory,
+            StepCaches stepCaches,
+            StepHedging stepHedging,
+            RateLimits rateLimits,
+            Function<FlowDefinition, StepTrace> traceFactory,
+            TraceSampler traceSampler) {
+        this.forEachExecutor = forEachExecutor;
+        this.subFlows = subFlows;
+        this.subFlowContextFactory = subFlowContextFactory;
+        this.stepCaches = stepCaches;
+        this.stepHedging = stepHedging;
+        this.rateLimits = rateLimits;
+        this.traceFactory = traceFactory;
+        this.traceSampler = traceSampler;
+    }
+
+    /**
+     * Returns the default options.
+     */
+    public static FlowEngineOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Executor running the additional workers of forEach steps with
+     * maxConcurrency &gt; 1. The calling thread always acts as one worker.
+     * If the executor rejects a task, the step continues with the workers
+     * already started.
+     */
+    public FlowEngineOptions withForEachExecutor(Executor forEachExecutor) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Registry resolving the flows called by sub-flow steps.
+     */
+    public FlowEngineOptions withSubFlows(SubFlowRegistry subFlows) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Factory creating the child ExecutionContext of each sub-flow execution,
+     * e.g. a SlotContextFactory.
+     */
+    public FlowEngineOptions withSubFlowContextFactory(
+            Function<FlowDefinition, ExecutionContext> subFlowContextFactory) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Caches used by steps with a cache definition. Engines sharing a
+     * StepCaches instance share cached outputs.
+     */
+    public FlowEngineOptions withStepCaches(StepCaches stepCaches) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Latency windows, budgets and executor used by steps with a hedge
+     * definition.
+     */
+    public FlowEngineOptions withStepHedging(StepHedging stepHedging) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Rate limits applied before every module invocation. Engines sharing a
+     * RateLimits instance share its token buckets.
+     */
+    public FlowEngineOptions withRateLimits(RateLimits rateLimits) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Factory creating the StepTrace of each top-level flow execution, e.g.
+     * a StepTrace streaming to a FileTraceSink. Sub-flow traces are always
+     * held in memory by their parent entry. The engine closes a created trace
+     * only if the flow throws; otherwise the caller of execute() owns it.
+     */
+    public FlowEngineOptions withTraceFactory(Function<FlowDefinition, StepTrace> traceFactory) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    /**
+     * Tail-based retention policy: top-level traces the sampler does not keep
+     * are summarized before FlowEndEvent is emitted. Summarizing a streaming
+     * trace discards the entries its TraceSink already received.
+     */
+    public FlowEngineOptions withTraceSampler(TraceSampler traceSampler) {
+        return new FlowEngineOptions(forEachExecutor, subFlows, subFlowContextFactory, stepCaches, stepHedging,
+                rateLimits, traceFactory, traceSampler);
+    }
+
+    public Executor getForEachExecutor() {
+        return forEachExecutor;
+    }
+
+    public SubFlowRegistry getSubFlows() {
+        return subFlows;
+    }
+
+    public Function<FlowDefinition, ExecutionContext> getSubFlowContextFactory() {
+        return subFlowContextFactory;
+    }
+
+    public StepCaches getStepCaches() {
+        return stepCaches;
+    }
+
+    public StepHedging getStepHedging() {
+        return stepHedging;
+    }
+
+    public RateLimits getRateLimits() {
+        return rateLimits;
+    }
+
+    public Function<FlowDefinition, StepTrace> getTraceFactory() {
+        return traceFactory;
+    }
+
+    public TraceSampler getTraceSampler() {
+        return traceSampler;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+package run.bareflow.core.engine;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.context.ScopedExecutionContext;
+import run.bareflow.core.definition.ForEachDefinition;
+import run.bareflow.core.definition.RetryPolicy;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.evaluator.StepEvaluator;
+import run.bareflow.core.engine.event.FlowEngineEvent.ForEachItemEndEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.ForEachItemRetryEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.ForEachItemStartEvent;
+import run.bareflow.core.engine.event.FlowEngineEventListener;
+import run.bareflow.core.engine.invoker.StepInvoker;
+import run.bareflow.core.engine.ratelimit.RateLimits;
+import run.bareflow.core.exception.BusinessException;
+import run.bareflow.core.exception.StepExecutionException;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTrace;
+import run.bareflow.core.trace.StepTraceEntry;
+
+/**
+ * Executes the elements of a forEach step.
+ *
+ * Execution model:
+ * - The items expression is evaluated against the ExecutionContext and must
+ * yield a Collection or an array.
+ * - Each element is evaluated, invoked and output-mapped in its own
+ * ScopedExecutionContext, where the element is bound under forEach.as.
+ * Per-element writes never reach the flow context.
+ * - Up to maxConcurrency elements run at the same time. The calling thread
+ * is one of the workers; the others run on the configured executor. Workers
+ * pull the next unclaimed index, so elements are load-balanced. When the
+ * executor rejects a worker, no further workers are started and the step
+ * continues with the workers already running.
+ * - RetryPolicy applies to each element individually.
+ * - The first element that fails after its retries stops the remaining,
+ * unclaimed elements; its exception is rethrown once all workers finished.
+ *
+ * Every element attempt is recorded in the trace as "step[index]", in index
+ * order, after all workers have finished.
+ */
+final class ForEachRunner {
+    private static final String ITEMS_KEY = "items";
+
+    private final StepEvaluator evaluator;
+    private final StepInvoker invoker;
+    private final FlowEngineEventListener listener;
+    private final Executor executor;
+    private final RateLimits rateLimits;
+
+    ForEachRunner(
+            final StepEvaluator evaluator,
+            final StepInvoker invoker,
+            final FlowEngineEventListener listener,
+            final Executor executor,
+            final RateLimits rateLimits) {
+        this.evaluator = evaluator;
+        this.invoker = invoker;
+        this.listener = listener;
+        this.executor = executor != null ? executor : DefaultExecutor.INSTANCE;
+        this.rateLimits = rateLimits;
+    }
+
+    /**
+     * Run every element of the step.
+     *
+     * @return the per-element results in source order
+     */
+    List<Object> run(
+            final StepDefinition step,
+            final Map<String, Object> before,
+            final ExecutionContext ctx,
+            final StepTrace trace) {
+
+        final List<?> items = this.resolveItems(step, ctx);
+        final int size = items.size();
+
+        final Object[] results = new Object[size];
+        final List<List<StepTraceEntry>> entries = new ArrayList<>(Collections.nCopies(size, null));
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Runnable worker = () -> {
+            int index;
+            while (failure.get() == null && (index = next.getAndIncrement()) < size) {
+                final List<StepTraceEntry> itemEntries = new ArrayList<>(1);
+                entries.set(index, itemEntries);
+                try {
+                    results[index] = this.runItem(step, index, items.get(index), before, ctx, itemEntries);
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }
+        };
+
+        this.runWorkers(worker, Math.min(Math.max(1, step.getForEach().getMaxConcurrency()), size));
+
+        for (final List<StepTraceEntry> itemEntries : entries) {
+            if (itemEntries != null) {
+                itemEntries.forEach(trace::record);
+            }
+        }
+
+        final Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new StepExecutionException("forEach element failed", error);
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Execute a single element with per-element retry.
+     */
+    private Object runItem(
+            final StepDefinition step,
+            final int index,
+            final Object item,
+            final Map<String, Object> before,
+            final ExecutionContext ctx,
+            final List<StepTraceEntry> entries) {
+
+        final ForEachDefinition forEach = step.getForEach();
+        final RetryPolicy retryPolicy = step.getRetryPolicy();
+        final String entryName = step.getName() + "[" + index + "]";
+        int attempts = 0;
+
+        while (true) {
+            attempts++;
+            final Instant start = Instant.now();
+            listener.onEvent(new ForEachItemStartEvent(step, index, attempts, start));
+
+            final ScopedExecutionContext itemCtx = new ScopedExecutionContext(ctx);
+            itemCtx.put(forEach.getAs(), item);
+
+            try {
+                final Map<String, Object> evaluatedInput = this.evaluator.evaluateInput(step.getInput(), itemCtx);
+                FlowEngine.awaitPermit(this.rateLimits, listener, step, attempts);
+                final Map<String, Object> rawOutput = this.invoker.invoke(step.getModule(), step.getOperation(),
+                        evaluatedInput);
+                final Object result = step.getOutput().isEmpty()
+                        ? rawOutput
+                        : this.evaluator.evaluateOutput(step.getOutput(), rawOutput, itemCtx);
+
+                this.record(step, index, entries,
+                        new StepTraceEntry(entryName, before, evaluatedInput, rawOutput, null, start, Instant.now(),
+                                attempts));
+                return result;
+
+            } catch (final BusinessException e) {
+                this.record(step, index, entries,
+                        new StepTraceEntry(entryName, before, null, null, e, start, Instant.now(), attempts));
+                throw e;
+
+            } catch (final SystemException | StepExecutionException e) {
+                this.record(step, index, entries,
+                        new StepTraceEntry(entryName, before, null, null, e, start, Instant.now(), attempts));
+
+                if (retryPolicy != null && attempts < retryPolicy.getMaxAttempts()) {
+                    final long delayMillis = retryPolicy.getDelayMillis();
+                    listener.onEvent(new ForEachItemRetryEvent(step, index, attempts, delayMillis));
+                    FlowEngine.sleep(delayMillis);
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void record(
+            final StepDefinition step,
+            final int index,
+            final List<StepTraceEntry> entries,
+            final StepTraceEntry entry) {
+
+        entries.add(entry);
+        listener.onEvent(new ForEachItemEndEvent(step, index, entry.getAttempt(), entry.getStartTime(),
+                entry.getEndTime(), entry));
+    }
+
+    /**
+     * Run the worker on the calling thread and on up to (workers - 1)
+     * executor threads, and wait until all of them finished.
+     */
+    private void runWorkers(final Runnable worker, final int workers) {
+        if (workers <= 1) {
+            worker.run();
+            return;
+        }
+
+        // listeners may carry per-thread state over to the executor threads
+        final Runnable propagated = this.listener.propagate(worker);
+        final CountDownLatch done = new CountDownLatch(workers - 1);
+        for (int w = 1; w < workers; w++) {
+            final Runnable task = () -> {
+                try {
+                    propagated.run();
+                } finally {
+                    done.countDown();
+                }
+            };
+            try {
+                this.executor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                // executor saturated: continue with the workers started so far
+                for (int unstarted = w; unstarted < workers; unstarted++) {
+                    done.countDown();
+                }
+                break;
+            }
+        }
+
+        worker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<?> resolveItems(final StepDefinition step, final ExecutionContext ctx) {
+        final Object items = this.evaluator
+                .evaluateInput(Map.of(ITEMS_KEY, step.getForEach().getItems()), ctx)
+                .get(ITEMS_KEY);
+
+        if (items instanceof List && items instanceof RandomAccess) {
+            return (List<?>) items;
+        }
+        if (items instanceof Collection) {
+            return new ArrayList<>((Collection<?>) items);
+        }
+        if (items instanceof Object[]) {
+            return Arrays.asList((Object[]) items);
+        }
+        throw new StepExecutionException(
+                "forEach 'items' of step '" + step.getName() + "' did not resolve to a collection: "
+                        + step.getForEach().getItems());
+    }
+
+    /**
+     * Shared pool used when no forEach executor is configured.
+     * Threads are daemons and are reclaimed when idle. The pool holds at most
+     * MAX_THREADS threads across all engines and rejects workers beyond that,
+     * so concurrent forEach steps degrade to fewer workers per step instead
+     * of creating threads without bound.
+     */
+    static final class DefaultExecutor {
+        static final int MAX_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        static final ExecutorService INSTANCE = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    final Thread thread = new Thread(r, "bareflow-foreach-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package run.bareflow.core.engine;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.resolver.FlowDefinitionResolver;
+
+/**
+ * Resolves and caches the flows called by sub-flow steps.
+ *
+ * The first lookup of a flow name resolves it through the
+ * FlowDefinitionResolver together with every flow it calls, directly or
+ * indirectly, and rejects call cycles. Resolved definitions are cached for
+ * the lifetime of the registry, so later executions perform a single map
+ * lookup and never re-resolve or re-parse a definition.
+ *
+ * A registry is meant to be shared by all FlowEngine instances through
+ * FlowEngineOptions. Instances are thread-safe.
+ */
+public class SubFlowRegistry {
+    private final FlowDefinitionResolver resolver;
+    private final Map<String, FlowDefinition> flows = new ConcurrentHashMap<>();
+
+    public SubFlowRegistry(FlowDefinitionResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Returns the definition of the given flow, resolving it on first use.
+     *
+     * @throws SystemException if the flow or one of its sub-flows cannot be
+     *                         resolved, or if the flows call each other in a
+     *                         cycle
+     */
+    public FlowDefinition get(String flowName) {
+        FlowDefinition flow = flows.get(flowName);
+        if (flow != null) {
+            return flow;
+        }
+        return load(flowName, new LinkedHashSet<>());
+    }
+
+    /**
+     * Returns true if the flow has already been resolved and cached.
+     */
+    public boolean isCached(String flowName) {
+        return flows.containsKey(flowName);
+    }
+
+    private FlowDefinition load(String flowName, Set<String> path) {
+        FlowDefinition cached = flows.get(flowName);
+        if (cached != null) {
+            return cached;
+        }
+        if (!path.add(flowName)) {
+            throw new SystemException(
+                    "Sub-flow cycle detected: " + String.join(" -> ", path) + " -> " + flowName);
+        }
+
+        FlowDefinition flow;
+        try {
+            flow = resolver.resolve(flowName);
+        } catch (RuntimeException e) {
+            throw new SystemException("Failed to resolve sub-flow: " + flowName, e);
+        }
+        if (flow == null) {
+            throw new SystemException("Sub-flow not found: " + flowName);
+        }
+
+        for (StepDefinition step : flow.getSteps()) {
+            if (step.getFlow() != null) {
+                load(step.getFlow(), path);
+            }
+        }
+        path.remove(flowName);
+
+        FlowDefinition previous = flows.putIfAbsent(flowName, flow);
+        return previous != null ? previous : flow;
+    }
+}
\ No newline at end of file
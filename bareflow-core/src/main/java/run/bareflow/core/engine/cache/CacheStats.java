@@ -0,0 +1,20 @@
+package run.bareflow.core.engine.cache;
+
+/**
+ * Point-in-time statistics of a StepOutputCache.
+ *
+ * @param hits      lookups answered from the cache
+ * @param misses    lookups that found no live entry
+ * @param evictions entries removed by the size bound or by expiry, and new
+ *                  entries rejected by the admission policy
+ * @param size      entries currently held
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+    /**
+     * Fraction of lookups answered from the cache, or 0 if there were none.
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
\ No newline at end of file
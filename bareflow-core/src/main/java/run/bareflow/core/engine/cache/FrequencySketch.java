@@ -0,0 +1,84 @@
+package run.bareflow.core.engine.cache;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often keys were
+ * accessed, used by StepOutputCache for TinyLFU admission.
+ *
+ * Each key maps to one counter in each of four rows of a long[] table (16
+ * counters per long). The estimate is the minimum of the four counters.
+ * After sampleSize increments every counter is halved, so the sketch
+ * favours recent popularity over all-time popularity.
+ *
+ * Not thread-safe; StepOutputCache guards it with its lock.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0x97cb3127L, 0xab5a8d2bL, 0xc2b2ae35L, 0x27d4eb2fL };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maxEntries) {
+        int length = Integer.highestOneBit(Math.min(Math.max(8, maxEntries - 1), 1 << 24) << 1);
+        this.table = new long[length];
+        this.mask = length - 1;
+        this.sampleSize = 10 * Math.max(8, maxEntries);
+    }
+
+    /**
+     * Returns the estimated access count of the key (0-15).
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = 15;
+        for (int row = 0; row < 4; row++) {
+            long h = rehash(hash, row);
+            int index = (int) h & mask;
+            int shift = (int) ((h >>> 32) & 15) << 2;
+            min = Math.min(min, (int) ((table[index] >>> shift) & 15L));
+        }
+        return min;
+    }
+
+    /**
+     * Record one access of the key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            long h = rehash(hash, row);
+            int index = (int) h & mask;
+            int shift = (int) ((h >>> 32) & 15) << 2;
+            if (((table[index] >>> shift) & 15L) != 15L) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private static long rehash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 29);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        return h;
+    }
+}
\ No newline at end of file
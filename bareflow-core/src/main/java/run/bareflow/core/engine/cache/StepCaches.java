@@ -0,0 +1,60 @@
+package run.bareflow.core.engine.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import run.bareflow.core.definition.CacheDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.util.CompactMap;
+
+/**
+ * Holds one StepOutputCache per cached StepDefinition.
+ *
+ * Caches are created on first use from the step's CacheDefinition and are
+ * held weakly by definition, so caches of replaced definitions do not leak.
+ * A StepCaches instance is meant to be shared by all FlowEngine instances
+ * through FlowEngineOptions. Instances are thread-safe.
+ */
+public class StepCaches {
+    private final Map<StepDefinition, StepOutputCache> caches = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the cache of the step, creating it if necessary.
+     * The step must have a CacheDefinition.
+     */
+    public StepOutputCache cacheFor(StepDefinition step) {
+        return caches.computeIfAbsent(step, s -> new StepOutputCache(
+                s.getCache().getMaxEntries(),
+                s.getCache().getTtlMillis()));
+    }
+
+    /**
+     * Returns the statistics of the step's cache, or null if the step has not
+     * used its cache yet.
+     */
+    public CacheStats statsOf(StepDefinition step) {
+        StepOutputCache cache = caches.get(step);
+        return cache == null ? null : cache.stats();
+    }
+
+    /**
+     * Build the cache key for an evaluated input.
+     * With no key fields configured the whole input (as an immutable map) is
+     * the key; otherwise the key is the list of the configured fields' values.
+     */
+    public static Object keyOf(CacheDefinition cache, Map<String, Object> evaluatedInput) {
+        List<String> fields = cache.getKeys();
+        if (fields.isEmpty()) {
+            return CompactMap.copyOf(evaluatedInput);
+        }
+
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = evaluatedInput.get(fields.get(i));
+        }
+        return Arrays.asList(values);
+    }
+}
\ No newline at end of file
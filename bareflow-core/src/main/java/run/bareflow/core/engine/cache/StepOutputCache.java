@@ -0,0 +1,188 @@
+package run.bareflow.core.engine.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import run.bareflow.core.util.CompactMap;
+
+/**
+ * Concurrent, size-bounded cache of raw step outputs with W-TinyLFU-style
+ * admission.
+ *
+ * Structure:
+ * - Entries live in a ConcurrentHashMap, so lookups are lock-free.
+ * - Recency is tracked by two access-ordered LRU lists: a small window
+ * (about 1% of maxEntries) that every new entry enters first, and a main
+ * region holding the rest.
+ * - A FrequencySketch estimates how often each key was requested recently.
+ * When the window overflows, its eldest entry becomes a candidate for the
+ * main region. If the main region is full, the candidate replaces the main
+ * region's eldest entry only if it was requested more often; otherwise the
+ * candidate is dropped. One-off keys therefore cannot flush popular ones.
+ *
+ * Policy state (LRU lists and sketch) is guarded by a lock. Writes always
+ * take it; reads only record their access if the lock is free, so hot reads
+ * never block on each other.
+ *
+ * Entries older than the TTL are treated as absent and removed on access.
+ */
+public final class StepOutputCache {
+    private final long ttlNanos;
+    private final int windowMax;
+    private final int mainMax;
+    private final LongSupplier nanoTime;
+
+    private final Map<Object, Entry> data = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Object, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Object, Boolean> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries maximum number of entries (at least 1)
+     * @param ttlMillis  time to live of an entry, or 0 for no expiry
+     */
+    public StepOutputCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    StepOutputCache(int maxEntries, long ttlMillis, LongSupplier nanoTime) {
+        int capacity = Math.max(1, maxEntries);
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0L;
+        this.windowMax = Math.max(1, capacity / 100);
+        this.mainMax = capacity - windowMax;
+        this.nanoTime = nanoTime;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Returns the cached output for the key, or null if absent or expired.
+     */
+    public Map<String, Object> get(Object key) {
+        Entry entry = data.get(key);
+
+        if (entry != null && ttlNanos > 0 && nanoTime.getAsLong() - entry.writtenAt >= ttlNanos) {
+            expire(key, entry);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses.increment();
+            recordAccess(key, false);
+            return null;
+        }
+
+        hits.increment();
+        recordAccess(key, true);
+        return entry.value;
+    }
+
+    /**
+     * Store the output for the key. The output is copied into an immutable
+     * map.
+     */
+    public void put(Object key, Map<String, Object> output) {
+        Entry entry = new Entry(CompactMap.copyOf(output), nanoTime.getAsLong());
+
+        lock.lock();
+        try {
+            if (data.put(key, entry) != null) {
+                touch(key); // replaced a live entry, which keeps its region
+                return;
+            }
+            window.put(key, Boolean.TRUE);
+            if (window.size() > windowMax) {
+                Iterator<Object> eldest = window.keySet().iterator();
+                Object candidate = eldest.next();
+                eldest.remove();
+                admit(candidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current statistics.
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), data.size());
+    }
+
+    /**
+     * Move a candidate from the window into the main region, or drop it if
+     * the main region's eldest entry is more popular.
+     */
+    private void admit(Object candidate) {
+        if (main.size() < mainMax) {
+            main.put(candidate, Boolean.TRUE);
+            return;
+        }
+
+        Object victim = mainMax == 0 ? null : main.keySet().iterator().next();
+        if (victim != null && sketch.frequency(candidate) > sketch.frequency(victim)) {
+            main.remove(victim);
+            data.remove(victim);
+            main.put(candidate, Boolean.TRUE);
+        } else {
+            data.remove(candidate);
+        }
+        evictions.increment();
+    }
+
+    private void recordAccess(Object key, boolean hit) {
+        if (!lock.tryLock()) {
+            return; // contended: dropping one access sample is harmless
+        }
+        try {
+            sketch.increment(key);
+            if (hit) {
+                touch(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark the key as most recently used within its region.
+     */
+    private void touch(Object key) {
+        if (window.get(key) == null) {
+            main.get(key);
+        }
+    }
+
+    private void expire(Object key, Entry entry) {
+        lock.lock();
+        try {
+            if (data.remove(key, entry)) {
+                window.remove(key);
+                main.remove(key);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        final Map<String, Object> value;
+        final long writtenAt;
+
+        Entry(Map<String, Object> value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
\ No newline at end of file
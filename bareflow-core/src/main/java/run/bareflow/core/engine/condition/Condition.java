@@ -0,0 +1,45 @@
+package run.bareflow.core.engine.condition;
+
+import run.bareflow.core.context.ExecutionContext;
+
+/**
+ * Compiled predicate over an ExecutionContext, used for step "when"
+ * conditions.
+ *
+ * Expressions are compiled once into a tree of small predicate objects;
+ * evaluating a condition only reads the referenced context keys and performs
+ * no parsing.
+ *
+ * Syntax:
+ * - placeholders: ${name} (flat context keys, as in StepEvaluator)
+ * - literals: numbers (1, -2.5), strings ('a' or "a"), true, false, null
+ * - comparison: ==, !=, &lt;, &lt;=, &gt;, &gt;=
+ * - boolean operators: !, &amp;&amp;, || and parentheses
+ *
+ * Semantics:
+ * - a bare operand is true only if it is Boolean.TRUE or a non-null,
+ * non-Boolean value; null and Boolean.FALSE are false
+ * - numbers compare by value regardless of type (1 == 1.0)
+ * - == / != on other values use equals(); "== null" is a null check
+ * - &lt;, &lt;=, &gt;, &gt;= compare numbers or strings; any other operand
+ * types (including null) make the comparison false
+ * - &amp;&amp; and || short-circuit
+ */
+@FunctionalInterface
+public interface Condition {
+    /**
+     * Evaluate the condition against the context.
+     */
+    boolean test(ExecutionContext ctx);
+
+    /**
+     * Compile an expression. Every call parses the expression; callers keep
+     * the result (see StepConditions).
+     *
+     * @throws run.bareflow.core.exception.SystemException if the expression
+     *                                                     is not valid
+     */
+    static Condition compile(String expression) {
+        return ConditionParser.parse(expression);
+    }
+}
\ No newline at end of file
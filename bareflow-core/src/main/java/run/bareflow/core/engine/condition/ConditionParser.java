@@ -0,0 +1,355 @@
+package run.bareflow.core.engine.condition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * Recursive-descent compiler for Condition expressions.
+ *
+ * Grammar (lowest to highest precedence):
+ *
+ * <pre>
+ * or      := and ('||' and)*
+ * and     := unary ('&amp;&amp;' unary)*
+ * unary   := '!' unary | '(' or ')' | compare
+ * compare := operand (('==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=') operand)?
+ * operand := '${' key '}' | number | string | 'true' | 'false' | 'null'
+ * </pre>
+ */
+final class ConditionParser {
+    private final String expression;
+    private final List<Token> tokens;
+    private int pos;
+
+    private ConditionParser(String expression) {
+        this.expression = expression;
+        this.tokens = tokenize(expression);
+    }
+
+    static Condition parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new SystemException("Invalid condition: expression is empty");
+        }
+        ConditionParser parser = new ConditionParser(expression);
+        Condition condition = parser.parseOr();
+        if (parser.pos < parser.tokens.size()) {
+            throw parser.error(parser.tokens.get(parser.pos), "unexpected '" + parser.tokens.get(parser.pos).text + "'");
+        }
+        return condition;
+    }
+
+    // ------------------------------------------------------------
+    // Grammar
+    // ------------------------------------------------------------
+    private Condition parseOr() {
+        Condition left = parseAnd();
+        while (accept("||")) {
+            Condition l = left;
+            Condition r = parseAnd();
+            left = ctx -> l.test(ctx) || r.test(ctx);
+        }
+        return left;
+    }
+
+    private Condition parseAnd() {
+        Condition left = parseUnary();
+        while (accept("&&")) {
+            Condition l = left;
+            Condition r = parseUnary();
+            left = ctx -> l.test(ctx) && r.test(ctx);
+        }
+        return left;
+    }
+
+    private Condition parseUnary() {
+        if (accept("!")) {
+            Condition inner = parseUnary();
+            return ctx -> !inner.test(ctx);
+        }
+        if (accept("(")) {
+            Condition inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        return parseCompare();
+    }
+
+    private Condition parseCompare() {
+        Operand left = parseOperand();
+        Token op = peek();
+        if (op == null || op.kind != Kind.OPERATOR || !isComparison(op.text)) {
+            return ctx -> isTruthy(left.value(ctx));
+        }
+        pos++;
+        Operand right = parseOperand();
+
+        switch (op.text) {
+            case "==":
+                return ctx -> isEqual(left.value(ctx), right.value(ctx));
+            case "!=":
+                return ctx -> !isEqual(left.value(ctx), right.value(ctx));
+            case "<":
+                return ctx -> {
+                    int c = compare(left.value(ctx), right.value(ctx));
+                    return c != UNORDERED && c < 0;
+                };
+            case "<=":
+                return ctx -> {
+                    int c = compare(left.value(ctx), right.value(ctx));
+                    return c != UNORDERED && c <= 0;
+                };
+            case ">":
+                return ctx -> {
+                    int c = compare(left.value(ctx), right.value(ctx));
+                    return c != UNORDERED && c > 0;
+                };
+            default: // ">="
+                return ctx -> {
+                    int c = compare(left.value(ctx), right.value(ctx));
+                    return c != UNORDERED && c >= 0;
+                };
+        }
+    }
+
+    private Operand parseOperand() {
+        Token token = peek();
+        if (token == null) {
+            throw new SystemException("Invalid condition '" + expression + "': unexpected end of expression");
+        }
+        pos++;
+
+        switch (token.kind) {
+            case PLACEHOLDER: {
+                String key = token.text;
+                return ctx -> ctx.get(key);
+            }
+            case LITERAL: {
+                Object value = token.value;
+                return ctx -> value;
+            }
+            default:
+                throw error(token, "expected a placeholder or literal but found '" + token.text + "'");
+        }
+    }
+
+    private boolean accept(String operator) {
+        Token token = peek();
+        if (token != null && token.kind == Kind.OPERATOR && token.text.equals(operator)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String operator) {
+        if (!accept(operator)) {
+            Token token = peek();
+            if (token == null) {
+                throw new SystemException(
+                        "Invalid condition '" + expression + "': expected '" + operator + "' at end of expression");
+            }
+            throw error(token, "expected '" + operator + "'");
+        }
+    }
+
+    private Token peek() {
+        return pos < tokens.size() ? tokens.get(pos) : null;
+    }
+
+    private SystemException error(Token token, String message) {
+        return new SystemException(
+                "Invalid condition '" + expression + "' at position " + (token.start + 1) + ": " + message);
+    }
+
+    // ------------------------------------------------------------
+    // Value semantics
+    // ------------------------------------------------------------
+    /** Result of compare() for operands that have no ordering. */
+    private static final int UNORDERED = Integer.MIN_VALUE;
+
+    private static boolean isComparison(String op) {
+        switch (op) {
+            case "==":
+            case "!=":
+            case "<":
+            case "<=":
+            case ">":
+            case ">=":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isTruthy(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value != null;
+    }
+
+    private static boolean isEqual(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return compareNumbers((Number) a, (Number) b) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
+    /**
+     * Compare numbers or strings; returns UNORDERED for any other pair.
+     */
+    private static int compare(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return Integer.signum(compareNumbers((Number) a, (Number) b));
+        }
+        if (a instanceof String && b instanceof String) {
+            return Integer.signum(((String) a).compareTo((String) b));
+        }
+        return UNORDERED;
+    }
+
+    private static int compareNumbers(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        return Double.compare(a.doubleValue(), b.doubleValue());
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+    }
+
+    // ------------------------------------------------------------
+    // Tokenizer
+    // ------------------------------------------------------------
+    private enum Kind {
+        OPERATOR,
+        PLACEHOLDER,
+        LITERAL
+    }
+
+    private static final class Token {
+        final Kind kind;
+        final String text;
+        final Object value;
+        final int start;
+
+        Token(Kind kind, String text, Object value, int start) {
+            this.kind = kind;
+            this.text = text;
+            this.value = value;
+            this.start = start;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operand {
+        Object value(ExecutionContext ctx);
+    }
+
+    private List<Token> tokenize(String s) {
+        List<Token> result = new ArrayList<>();
+        int i = 0;
+
+        while (i < s.length()) {
+            char c = s.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+
+            } else if (s.startsWith("${", i)) {
+                int close = s.indexOf('}', i + 2);
+                if (close < 0) {
+                    throw tokenError(i, "unterminated placeholder");
+                }
+                String key = s.substring(i + 2, close).trim();
+                if (key.isEmpty()) {
+                    throw tokenError(i, "empty placeholder");
+                }
+                result.add(new Token(Kind.PLACEHOLDER, key, null, i));
+                i = close + 1;
+
+            } else if (c == '\'' || c == '"') {
+                StringBuilder sb = new StringBuilder();
+                int j = i + 1;
+                while (j < s.length() && s.charAt(j) != c) {
+                    if (s.charAt(j) == '\\' && j + 1 < s.length()) {
+                        j++;
+                    }
+                    sb.append(s.charAt(j));
+                    j++;
+                }
+                if (j >= s.length()) {
+                    throw tokenError(i, "unterminated string");
+                }
+                result.add(new Token(Kind.LITERAL, s.substring(i, j + 1), sb.toString(), i));
+                i = j + 1;
+
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < s.length() && Character.isDigit(s.charAt(i + 1)))) {
+                int j = i + 1;
+                boolean decimal = false;
+                while (j < s.length() && (Character.isDigit(s.charAt(j)) || (s.charAt(j) == '.' && !decimal))) {
+                    decimal |= s.charAt(j) == '.';
+                    j++;
+                }
+                String text = s.substring(i, j);
+                Object value;
+                try {
+                    value = decimal ? (Object) Double.valueOf(text) : (Object) Long.valueOf(text);
+                } catch (NumberFormatException e) {
+                    throw tokenError(i, "invalid number '" + text + "'");
+                }
+                result.add(new Token(Kind.LITERAL, text, value, i));
+                i = j;
+
+            } else if (Character.isLetter(c)) {
+                int j = i + 1;
+                while (j < s.length() && Character.isLetterOrDigit(s.charAt(j))) {
+                    j++;
+                }
+                String word = s.substring(i, j);
+                switch (word) {
+                    case "true":
+                        result.add(new Token(Kind.LITERAL, word, Boolean.TRUE, i));
+                        break;
+                    case "false":
+                        result.add(new Token(Kind.LITERAL, word, Boolean.FALSE, i));
+                        break;
+                    case "null":
+                        result.add(new Token(Kind.LITERAL, word, null, i));
+                        break;
+                    default:
+                        throw tokenError(i, "unknown identifier '" + word + "'");
+                }
+                i = j;
+
+            } else {
+                String op = operatorAt(s, i);
+                if (op == null) {
+                    throw tokenError(i, "unexpected character '" + c + "'");
+                }
+                result.add(new Token(Kind.OPERATOR, op, null, i));
+                i += op.length();
+            }
+        }
+        return result;
+    }
+
+    private static String operatorAt(String s, int i) {
+        for (String op : new String[] { "&&", "||", "==", "!=", "<=", ">=", "<", ">", "!", "(", ")" }) {
+            if (s.startsWith(op, i)) {
+                return op;
+            }
+        }
+        return null;
+    }
+
+    private SystemException tokenError(int index, String message) {
+        return new SystemException("Invalid condition '" + expression + "' at position " + (index + 1) + ": "
+                + message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package run.bareflow.core.engine.condition;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import run.bareflow.core.definition.StepDefinition;
+
+/**
+ * Compiled "when" conditions of steps.
+ *
+ * Each condition is compiled on first use and held weakly by its
+ * StepDefinition (like StepCaches), so definitions stay plain data and
+ * conditions of replaced definitions do not leak. Parsers call of() at load
+ * time to report syntax errors early; executions then reuse the compiled
+ * condition. Thread-safe.
+ */
+public final class StepConditions {
+    private static final Map<StepDefinition, Condition> COMPILED = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    private StepConditions() {
+    }
+
+    /**
+     * Returns the compiled condition of the step, or null if the step has no
+     * condition.
+     *
+     * @throws run.bareflow.core.exception.SystemException if the expression
+     *                                                     is not valid
+     */
+    public static Condition of(StepDefinition step) {
+        if (step.getWhen() == null) {
+            return null;
+        }
+        return COMPILED.computeIfAbsent(step, s -> Condition.compile(s.getWhen()));
+    }
+}
\ No newline at end of file
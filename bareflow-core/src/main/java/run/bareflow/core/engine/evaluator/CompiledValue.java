@@ -0,0 +1,148 @@
+package run.bareflow.core.engine.evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compiled form of a string mapping value.
+ *
+ * A string is scanned exactly once and classified as:
+ * - LITERAL: contains no placeholder and is returned as-is
+ * - PLACEHOLDER: exactly "${key}"; evaluates to the resolved object itself
+ * - TEMPLATE: literal text mixed with placeholders, e.g. "user:${id}:${region}";
+ * evaluates to a String
+ *
+ * Templates are stored as alternating segments: literals[0], accessors[0],
+ * literals[1], accessors[1], ..., literals[n]. Each placeholder key is
+ * compiled into a PlaceholderAccessor by the owning evaluator, so key
+ * interpretation (flat or path) is also fixed at compile time.
+ * Rendering walks the arrays and
+ * appends into a builder pre-sized from the literal length, so no scanning
+ * or parsing happens at evaluation time. Rendering is performed by the
+ * evaluator, which owns placeholder resolution.
+ *
+ * An unterminated "${" is treated as literal text, and so is "${}".
+ */
+final class CompiledValue {
+    enum Kind {
+        LITERAL,
+        PLACEHOLDER,
+        TEMPLATE
+    }
+
+    private static final String PREFIX = "${";
+    private static final char SUFFIX = '}';
+
+    /** Estimated rendered length of a single placeholder value. */
+    private static final int PLACEHOLDER_SIZE_HINT = 16;
+
+    private final Kind kind;
+    private final String source;
+    private final String[] literals;
+    private final PlaceholderAccessor[] accessors;
+    private final int sizeHint;
+
+    private CompiledValue(Kind kind, String source, String[] literals, PlaceholderAccessor[] accessors) {
+        this.kind = kind;
+        this.source = source;
+        this.literals = literals;
+        this.accessors = accessors;
+
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.sizeHint = literalLength + accessors.length * PLACEHOLDER_SIZE_HINT;
+    }
+
+    /**
+     * Compile a raw string value.
+     *
+     * @param s        raw string value from a mapping
+     * @param accessor compiles a placeholder key into its accessor
+     */
+    static CompiledValue compile(String s, Function<String, PlaceholderAccessor> accessor) {
+        int open = s.indexOf(PREFIX);
+        if (open < 0) {
+            return literal(s);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<PlaceholderAccessor> keys = new ArrayList<>();
+        StringBuilder pending = new StringBuilder();
+        int pos = 0;
+
+        while (open >= 0) {
+            int close = s.indexOf(SUFFIX, open + PREFIX.length());
+            if (close < 0) {
+                break; // unterminated → rest is literal
+            }
+            if (close == open + PREFIX.length()) {
+                // "${}" is not a placeholder
+                pending.append(s, pos, close + 1);
+                pos = close + 1;
+                open = s.indexOf(PREFIX, pos);
+                continue;
+            }
+
+            pending.append(s, pos, open);
+            literals.add(pending.toString());
+            pending.setLength(0);
+            keys.add(accessor.apply(s.substring(open + PREFIX.length(), close)));
+
+            pos = close + 1;
+            open = s.indexOf(PREFIX, pos);
+        }
+        pending.append(s, pos, s.length());
+        literals.add(pending.toString());
+
+        if (keys.isEmpty()) {
+            return literal(s);
+        }
+
+        Kind kind = keys.size() == 1 && literals.get(0).isEmpty() && literals.get(1).isEmpty()
+                ? Kind.PLACEHOLDER
+                : Kind.TEMPLATE;
+
+        return new CompiledValue(kind, s, literals.toArray(new String[0]),
+                keys.toArray(new PlaceholderAccessor[0]));
+    }
+
+    private static CompiledValue literal(String s) {
+        return new CompiledValue(Kind.LITERAL, s, new String[] { s }, new PlaceholderAccessor[0]);
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * The original string. For LITERAL values this is the evaluation result.
+     */
+    String source() {
+        return source;
+    }
+
+    /**
+     * Compiled placeholders in order of appearance.
+     */
+    PlaceholderAccessor[] accessors() {
+        return accessors;
+    }
+
+    /**
+     * Literal text preceding the placeholder at the given index;
+     * index accessors().length yields the trailing literal.
+     */
+    String literal(int index) {
+        return literals[index];
+    }
+
+    /**
+     * Initial capacity for the builder used to render a TEMPLATE value.
+     */
+    int sizeHint() {
+        return sizeHint;
+    }
+}
\ No newline at end of file
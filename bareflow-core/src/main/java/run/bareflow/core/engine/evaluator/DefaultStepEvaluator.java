@@ -1,9 +1,17 @@
 package run.bareflow.core.engine.evaluator;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.util.CompactMap;
 
 /**
  * Default implementation of StepEvaluator.
@@ -11,6 +19,17 @@ import run.bareflow.core.context.ExecutionContext;
  * BareFlow uses a simple placeholder model:
  * - Only flat placeholders of the form "${name}" are supported.
  * - Nested or hierarchical expressions such as "${a.b}" are not supported.
+ * - A value that is exactly "${name}" evaluates to the resolved object.
+ * - Placeholders embedded in text, e.g. "user:${id}:${region}", evaluate to
+ * a String; unresolved placeholders render as the empty string.
+ *
+ * String values are compiled once into literal/key segments (see
+ * CompiledValue) and cached per distinct expression string, so repeated
+ * evaluations of the same definition perform no scanning or parsing.
+ * Compilation happens on first use, or up-front via prepare(), which
+ * FlowExecutor calls for every flow it resolves. The cache is
+ * bounded; beyond MAX_COMPILED_VALUES expressions the least recently used
+ * one is dropped and compiled again when it is next evaluated.
  *
  * Resolution rules:
  * - For input evaluation: placeholders are resolved from the ExecutionContext.
@@ -18,11 +37,60 @@ import run.bareflow.core.context.ExecutionContext;
  * then from the ExecutionContext.
  *
  * Literal values are returned as-is.
- * Unresolved placeholders evaluate to null.
+ * A value that is exactly one unresolved placeholder evaluates to null;
+ * inside a template it renders as the empty string.
+ *
+ * Evaluated maps are immutable, exactly sized and keep the key order of the
+ * mapping. For mappings held by StepDefinition / OnErrorDefinition they share
+ * the definition's key array (see CompactMap).
  */
 public class DefaultStepEvaluator implements StepEvaluator {
-    private static final String PREFIX = "${";
-    private static final String SUFFIX = "}";
+    /**
+     * Upper bound for cached compiled values. Definitions are static, so the
+     * limit is only reached when evaluators are fed dynamically built
+     * mappings.
+     */
+    static final int MAX_COMPILED_VALUES = 10_000;
+
+    private final int maxCompiledValues;
+    private final Map<String, CompiledValue> compiledValues = new ConcurrentHashMap<>();
+    /** Access order of the cached expressions; guarded by lock. */
+    private final LinkedHashMap<String, Boolean> recency = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Flow definitions already prepared; held weakly. */
+    private final Map<FlowDefinition, Boolean> prepared = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public DefaultStepEvaluator() {
+        this(MAX_COMPILED_VALUES);
+    }
+
+    DefaultStepEvaluator(int maxCompiledValues) {
+        this.maxCompiledValues = maxCompiledValues;
+    }
+
+    /**
+     * Compile every mapping value of the given flow ahead of execution.
+     * Values are otherwise compiled on first evaluation. A definition is
+     * prepared once; later calls for it return immediately.
+     *
+     * @param flow flow definition to prepare
+     */
+    @Override
+    public void prepare(FlowDefinition flow) {
+        if (prepared.putIfAbsent(flow, Boolean.TRUE) != null) {
+            return;
+        }
+        if (flow.getOnError() != null) {
+            prepareMapping(flow.getOnError().getOutput());
+        }
+        for (StepDefinition step : flow.getSteps()) {
+            prepareMapping(step.getInput());
+            prepareMapping(step.getOutput());
+            if (step.getOnError() != null) {
+                prepareMapping(step.getOnError().getOutput());
+            }
+        }
+    }
 
     @Override
     public Map<String, Object> evaluateInput(Map<String, Object> input, ExecutionContext ctx) {
@@ -30,14 +98,7 @@ public class DefaultStepEvaluator implements StepEvaluator {
             return Map.of();
         }
 
-        Map<String, Object> result = new HashMap<>();
-
-        for (Map.Entry<String, Object> e : input.entrySet()) {
-            Object value = evaluateValue(e.getValue(), null, ctx);
-            result.put(e.getKey(), value);
-        }
-
-        return result;
+        return evaluateMapping(input, null, ctx);
     }
 
     @Override
@@ -50,14 +111,40 @@ public class DefaultStepEvaluator implements StepEvaluator {
             return Map.of();
         }
 
-        Map<String, Object> result = new HashMap<>();
+        return evaluateMapping(outputMapping, rawOutput, ctx);
+    }
 
-        for (Map.Entry<String, Object> e : outputMapping.entrySet()) {
-            Object value = evaluateValue(e.getValue(), rawOutput, ctx);
-            result.put(e.getKey(), value);
+    /**
+     * Evaluate every value of a mapping into an immutable map with the same
+     * keys in the same order.
+     *
+     * Mappings taken from StepDefinition / OnErrorDefinition are CompactMaps;
+     * their key array is shared with the result, so an evaluation allocates
+     * only the values array and the map wrapper.
+     */
+    private Map<String, Object> evaluateMapping(
+            Map<String, Object> mapping,
+            Map<String, Object> rawOutput,
+            ExecutionContext ctx) {
+
+        if (mapping instanceof CompactMap) {
+            CompactMap compact = (CompactMap) mapping;
+            Object[] values = new Object[compact.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = evaluateValue(compact.valueAt(i), rawOutput, ctx);
+            }
+            return CompactMap.of(compact.keys(), values);
         }
 
-        return result;
+        String[] names = new String[mapping.size()];
+        Object[] values = new Object[names.length];
+        int i = 0;
+        for (Map.Entry<String, Object> e : mapping.entrySet()) {
+            names[i] = e.getKey();
+            values[i] = evaluateValue(e.getValue(), rawOutput, ctx);
+            i++;
+        }
+        return CompactMap.of(CompactMap.Keys.of(names), values);
     }
 
     /**
@@ -65,42 +152,103 @@ public class DefaultStepEvaluator implements StepEvaluator {
      * Supports:
      * - literal values
      * - simple placeholders "${name}"
+     * - string templates "text ${name} text"
      *
      * No nested expressions such as "${a.b}" are supported.
-     * Unresolved placeholders evaluate to null.
+     * An unresolved simple placeholder evaluates to null; in a template it
+     * renders as the empty string.
      */
     private Object evaluateValue(Object expr, Map<String, Object> rawOutput, ExecutionContext ctx) {
         if (!(expr instanceof String)) {
             return expr; // literal
         }
 
-        String s = (String) expr;
+        CompiledValue compiled = compile((String) expr);
 
-        if (!isPlaceholder(s)) {
-            return s; // literal string
-        }
+        switch (compiled.kind()) {
+            case PLACEHOLDER:
+                return compiled.accessors()[0].resolve(rawOutput, ctx);
 
-        String key = extractKey(s);
+            case TEMPLATE:
+                return render(compiled, rawOutput, ctx);
 
-        // 1. raw output
-        if (rawOutput != null && rawOutput.containsKey(key)) {
-            return rawOutput.get(key);
+            default:
+                return compiled.source(); // literal string
         }
+    }
 
-        // 2. context
-        if (ctx.contains(key)) {
-            return ctx.get(key);
+    private String render(CompiledValue compiled, Map<String, Object> rawOutput, ExecutionContext ctx) {
+        PlaceholderAccessor[] accessors = compiled.accessors();
+        StringBuilder sb = new StringBuilder(compiled.sizeHint());
+
+        sb.append(compiled.literal(0));
+        for (int i = 0; i < accessors.length; i++) {
+            Object value = accessors[i].resolve(rawOutput, ctx);
+            if (value != null) {
+                sb.append(value);
+            }
+            sb.append(compiled.literal(i + 1));
         }
+        return sb.toString();
+    }
+
+    /**
+     * Compile a placeholder key into its accessor.
+     * The default evaluator treats every key as a flat name.
+     */
+    PlaceholderAccessor compileAccessor(String key) {
+        return PlaceholderAccessor.flat(key);
+    }
 
-        // 3. unresolved placeholder → null
-        return null;
+    private void prepareMapping(Map<String, Object> mapping) {
+        for (Object value : mapping.values()) {
+            if (value instanceof String) {
+                compile((String) value);
+            }
+        }
     }
 
-    private boolean isPlaceholder(String s) {
-        return s.startsWith(PREFIX) && s.endsWith(SUFFIX) && s.length() > 3;
+    /**
+     * Returns the cached compiled value, compiling and caching it on a miss.
+     *
+     * Lookups are lock-free. A hit records its access only if the lock is
+     * free, so concurrent evaluations never block on each other; a miss
+     * takes the lock to insert the value and evict the least recently used
+     * one beyond the bound.
+     */
+    private CompiledValue compile(String s) {
+        CompiledValue compiled = compiledValues.get(s);
+        if (compiled != null) {
+            if (lock.tryLock()) {
+                try {
+                    recency.get(s);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return compiled;
+        }
+
+        compiled = CompiledValue.compile(s, this::compileAccessor);
+        lock.lock();
+        try {
+            CompiledValue existing = compiledValues.putIfAbsent(s, compiled);
+            if (existing != null) {
+                return existing;
+            }
+            recency.put(s, Boolean.TRUE);
+            if (recency.size() > maxCompiledValues) {
+                Iterator<String> eldest = recency.keySet().iterator();
+                compiledValues.remove(eldest.next());
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return compiled;
     }
 
-    private String extractKey(String s) {
-        return s.substring(PREFIX.length(), s.length() - SUFFIX.length());
+    boolean isCompiled(String s) {
+        return compiledValues.containsKey(s);
     }
 }
\ No newline at end of file
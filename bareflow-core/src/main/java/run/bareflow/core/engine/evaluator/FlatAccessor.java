@@ -0,0 +1,62 @@
+package run.bareflow.core.engine.evaluator;
+
+import java.util.Map;
+
+import run.bareflow.core.context.ContextLayout;
+import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.context.SlotExecutionContext;
+
+/**
+ * PlaceholderAccessor for a flat key.
+ *
+ * Resolution order:
+ * 1. raw output (output evaluation only)
+ * 2. ExecutionContext
+ * 3. unresolved → null
+ *
+ * When the context is a SlotExecutionContext, the accessor remembers the
+ * slot of the key in the last layout it saw. Evaluations against the same
+ * layout (the common case: one layout per flow) therefore cost a reference
+ * comparison; a different layout costs one table lookup, which then becomes
+ * the remembered one.
+ */
+final class FlatAccessor implements PlaceholderAccessor {
+    private final String key;
+    /** Immutable, so publishing it across threads without locking is safe. */
+    private Binding binding = Binding.NONE;
+
+    FlatAccessor(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public Object resolve(Map<String, Object> rawOutput, ExecutionContext ctx) {
+        // 1. raw output
+        if (rawOutput != null) {
+            Object value = rawOutput.get(key);
+            if (value != null || rawOutput.containsKey(key)) {
+                return value;
+            }
+        }
+
+        // 2. context (absent keys yield null, so no separate contains() check)
+        if (ctx instanceof SlotExecutionContext) {
+            SlotExecutionContext slots = (SlotExecutionContext) ctx;
+            ContextLayout layout = slots.getLayout();
+            Binding b = binding;
+            if (b.layout() != layout) {
+                b = new Binding(layout, layout.slotOf(key));
+                binding = b;
+            }
+            return b.slot() >= 0 ? slots.getSlot(b.slot()) : ctx.get(key);
+        }
+        return ctx.get(key);
+    }
+
+    /**
+     * Slot of the key in a layout, or -1 if the layout does not contain it.
+     */
+    private record Binding(ContextLayout layout, int slot) {
+        static final Binding NONE = new Binding(null, -1);
+    }
+}
\ No newline at end of file
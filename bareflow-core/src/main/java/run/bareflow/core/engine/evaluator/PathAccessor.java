@@ -0,0 +1,137 @@
+package run.bareflow.core.engine.evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import run.bareflow.core.context.ExecutionContext;
+
+/**
+ * PlaceholderAccessor for nested paths such as "order.items[0].sku".
+ *
+ * The path is parsed once into a root key followed by a chain of segments.
+ * Each segment is either a map key (".name") or a list index ("[n]").
+ * Evaluation resolves the root like a flat placeholder, then walks the chain
+ * directly on the stored objects without copying them.
+ *
+ * Walking stops with null when an intermediate value is null, has the wrong
+ * type, or an index is out of range.
+ */
+final class PathAccessor implements PlaceholderAccessor {
+    private final FlatAccessor root;
+
+    /** Map key per segment, or null when the segment is a list index. */
+    private final String[] names;
+
+    /** List index per segment; only meaningful when names[i] is null. */
+    private final int[] indexes;
+
+    private PathAccessor(FlatAccessor root, String[] names, int[] indexes) {
+        this.root = root;
+        this.names = names;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Parse a placeholder key into an accessor.
+     * Keys without '.' or '[' and keys that are not valid paths are treated as
+     * flat names.
+     */
+    static PlaceholderAccessor compile(String key) {
+        if (key.indexOf('.') < 0 && key.indexOf('[') < 0) {
+            return PlaceholderAccessor.flat(key);
+        }
+
+        PathAccessor path = parse(key);
+        return path != null ? path : PlaceholderAccessor.flat(key);
+    }
+
+    private static PathAccessor parse(String key) {
+        int pos = identifierEnd(key, 0);
+        if (pos == 0) {
+            return null;
+        }
+        FlatAccessor root = new FlatAccessor(key.substring(0, pos));
+
+        List<String> names = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+
+        while (pos < key.length()) {
+            char c = key.charAt(pos);
+
+            if (c == '.') {
+                int end = identifierEnd(key, pos + 1);
+                if (end == pos + 1) {
+                    return null;
+                }
+                names.add(key.substring(pos + 1, end));
+                indexes.add(-1);
+                pos = end;
+
+            } else if (c == '[') {
+                int close = key.indexOf(']', pos + 1);
+                if (close < 0 || close == pos + 1) {
+                    return null;
+                }
+                int index = 0;
+                for (int i = pos + 1; i < close; i++) {
+                    char d = key.charAt(i);
+                    if (d < '0' || d > '9' || index > (Integer.MAX_VALUE - 9) / 10) {
+                        return null;
+                    }
+                    index = index * 10 + (d - '0');
+                }
+                names.add(null);
+                indexes.add(index);
+                pos = close + 1;
+
+            } else {
+                return null;
+            }
+        }
+
+        int[] idx = new int[indexes.size()];
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = indexes.get(i);
+        }
+        return new PathAccessor(root, names.toArray(new String[0]), idx);
+    }
+
+    private static int identifierEnd(String key, int from) {
+        int pos = from;
+        while (pos < key.length()) {
+            char c = key.charAt(pos);
+            if (c == '.' || c == '[' || c == ']') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    @Override
+    public Object resolve(Map<String, Object> rawOutput, ExecutionContext ctx) {
+        Object current = root.resolve(rawOutput, ctx);
+
+        for (int i = 0; i < names.length && current != null; i++) {
+            if (names[i] != null) {
+                current = current instanceof Map ? ((Map<?, ?>) current).get(names[i]) : null;
+            } else {
+                current = element(current, indexes[i]);
+            }
+        }
+        return current;
+    }
+
+    private static Object element(Object container, int index) {
+        if (container instanceof List) {
+            List<?> list = (List<?>) container;
+            return index < list.size() ? list.get(index) : null;
+        }
+        if (container instanceof Object[]) {
+            Object[] array = (Object[]) container;
+            return index < array.length ? array[index] : null;
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package run.bareflow.core.engine.evaluator;
+
+/**
+ * Opt-in StepEvaluator that resolves nested placeholder paths.
+ *
+ * In addition to everything supported by DefaultStepEvaluator, placeholder
+ * keys may address nested maps and lists:
+ * - "${order.id}" → value of "id" in the map stored under "order"
+ * - "${order.items[0].sku}" → "sku" of the first element of "items"
+ *
+ * The first path segment is resolved like a flat placeholder (raw output
+ * first for output mappings, then the ExecutionContext). Remaining segments
+ * walk the stored objects directly; nothing is copied or flattened.
+ * Missing keys, out-of-range indexes and type mismatches evaluate to null.
+ *
+ * Paths are parsed once into an accessor chain when the value is compiled
+ * (on first use or via prepare()), never during evaluation.
+ *
+ * Keys that are not valid paths are resolved as flat names, as in
+ * DefaultStepEvaluator. Note that a context key literally named "a.b" is
+ * therefore not reachable through this evaluator.
+ */
+public class PathStepEvaluator extends DefaultStepEvaluator {
+    @Override
+    PlaceholderAccessor compileAccessor(String key) {
+        return PathAccessor.compile(key);
+    }
+}
\ No newline at end of file
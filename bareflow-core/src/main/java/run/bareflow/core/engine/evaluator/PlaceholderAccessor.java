@@ -0,0 +1,32 @@
+package run.bareflow.core.engine.evaluator;
+
+import java.util.Map;
+
+import run.bareflow.core.context.ExecutionContext;
+
+/**
+ * Compiled resolution logic for a single placeholder key.
+ *
+ * Accessors are created once per distinct key when a value is compiled and
+ * are shared by every subsequent evaluation. Implementations must be
+ * immutable and thread-safe.
+ */
+interface PlaceholderAccessor {
+    /**
+     * Resolve the placeholder.
+     *
+     * @param rawOutput raw step output consulted first, or null for input
+     *                  evaluation
+     * @param ctx       execution context consulted when rawOutput does not
+     *                  contain the key
+     * @return the resolved value, or null if unresolved
+     */
+    Object resolve(Map<String, Object> rawOutput, ExecutionContext ctx);
+
+    /**
+     * Accessor for a flat key: rawOutput first, then the context.
+     */
+    static PlaceholderAccessor flat(String key) {
+        return new FlatAccessor(key);
+    }
+}
\ No newline at end of file
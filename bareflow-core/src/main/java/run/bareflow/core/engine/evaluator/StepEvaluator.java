@@ -3,13 +3,16 @@ package run.bareflow.core.engine.evaluator;
 import java.util.Map;
 
 import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.definition.FlowDefinition;
 
 /**
  * Evaluates input and output mappings for a step.
  *
  * BareFlow uses a simple placeholder model:
  * - Only flat placeholders of the form "${name}" are supported.
- * - Nested or hierarchical expressions such as "${a.b}" are not supported.
+ * - Placeholders may be embedded in text ("id:${name}"), producing a String.
+ * - Nested or hierarchical expressions such as "${a.b}" are not supported by
+ * DefaultStepEvaluator; the opt-in PathStepEvaluator resolves them.
  *
  * Resolution rules:
  * - For input evaluation: values are resolved from the ExecutionContext.
@@ -22,6 +25,18 @@ import run.bareflow.core.context.ExecutionContext;
  * BareFlow definitions and is generally discouraged.
  */
 public interface StepEvaluator {
+    /**
+     * Prepare the mappings of a flow ahead of its executions, e.g. by
+     * compiling their expressions. FlowExecutor calls this each time it
+     * resolves a flow, so repeated calls for the same definition should be
+     * cheap. Steps of sub-flows are not passed here.
+     * The default implementation does nothing.
+     *
+     * @param flow resolved flow definition
+     */
+    default void prepare(FlowDefinition flow) {
+    }
+
     /**
      * Evaluate the input mapping before invoking a step.
      * Literal values are returned as-is.
@@ -29,7 +44,9 @@ public interface StepEvaluator {
      *
      * @param input raw input mapping from StepDefinition
      * @param ctx   execution context
-     * @return evaluated input map
+     * @return evaluated input map; callers treat it as immutable (the
+     *         default implementation returns an immutable map, which is
+     *         passed to the StepInvoker as-is)
      */
     Map<String, Object> evaluateInput(Map<String, Object> input, ExecutionContext ctx);
 
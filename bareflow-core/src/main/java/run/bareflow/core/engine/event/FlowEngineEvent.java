@@ -27,6 +27,19 @@ public sealed interface FlowEngineEvent {
                         Instant endTime) implements FlowEngineEvent {
         }
 
+        /**
+         * Emitted instead of FlowEndEvent when a flow stops with an exception
+         * or an Error (onError STOP, an unhandled error, ...). It is rethrown
+         * to the caller after this event.
+         */
+        public record FlowAbortedEvent(
+                        FlowDefinition flow,
+                        StepTrace trace,
+                        Throwable error,
+                        Instant startTime,
+                        Instant endTime) implements FlowEngineEvent {
+        }
+
         // ------------------------------------------------------------
         // Step lifecycle
         // ------------------------------------------------------------
@@ -65,6 +78,35 @@ public sealed interface FlowEngineEvent {
                         Instant endTime) implements FlowEngineEvent {
         }
 
+        public record RateLimitWaitEvent(
+                        StepDefinition step,
+                        int attempt,
+                        long waitMillis,
+                        Instant time) implements FlowEngineEvent {
+        }
+
+        public record HedgeStartEvent(
+                        StepDefinition step,
+                        int attempt,
+                        long delayMillis,
+                        Instant time) implements FlowEngineEvent {
+        }
+
+        public record CacheHitEvent(
+                        StepDefinition step,
+                        int attempt,
+                        Object key,
+                        Map<String, Object> rawOutput,
+                        Instant time) implements FlowEngineEvent {
+        }
+
+        public record CacheMissEvent(
+                        StepDefinition step,
+                        int attempt,
+                        Object key,
+                        Instant time) implements FlowEngineEvent {
+        }
+
         public record OutputEvaluationStartEvent(
                         StepDefinition step,
                         int attempt,
@@ -80,6 +122,12 @@ public sealed interface FlowEngineEvent {
                         Instant endTime) implements FlowEngineEvent {
         }
 
+        public record StepSkippedEvent(
+                        StepDefinition step,
+                        String condition,
+                        Instant time) implements FlowEngineEvent {
+        }
+
         public record StepEndEvent(StepDefinition step,
                         int attempt,
                         Instant startTime,
@@ -102,6 +150,33 @@ public sealed interface FlowEngineEvent {
                         long delayMillis) implements FlowEngineEvent {
         }
 
+        // ------------------------------------------------------------
+        // ForEach lifecycle
+        // Emitted from worker threads when maxConcurrency > 1.
+        // ------------------------------------------------------------
+        public record ForEachItemStartEvent(
+                        StepDefinition step,
+                        int index,
+                        int attempt,
+                        Instant startTime) implements FlowEngineEvent {
+        }
+
+        public record ForEachItemRetryEvent(
+                        StepDefinition step,
+                        int index,
+                        int attempt,
+                        long delayMillis) implements FlowEngineEvent {
+        }
+
+        public record ForEachItemEndEvent(
+                        StepDefinition step,
+                        int index,
+                        int attempt,
+                        Instant startTime,
+                        Instant endTime,
+                        StepTraceEntry entry) implements FlowEngineEvent {
+        }
+
         // ------------------------------------------------------------
         // Error events
         // ------------------------------------------------------------
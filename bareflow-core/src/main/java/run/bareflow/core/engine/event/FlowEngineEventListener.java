@@ -7,4 +7,17 @@ public interface FlowEngineEventListener {
      * @param event the event emitted by the engine
      */
     void onEvent(FlowEngineEvent event);
+
+    /**
+     * Called on the thread executing the flow for a task the engine is about
+     * to run on another thread on its behalf (forEach workers). A listener
+     * correlating events by thread can return a wrapper carrying its state of
+     * the calling thread over to the task's thread.
+     *
+     * @param task the task to run on another thread
+     * @return the task to run instead; by default the task itself
+     */
+    default Runnable propagate(Runnable task) {
+        return task;
+    }
 }
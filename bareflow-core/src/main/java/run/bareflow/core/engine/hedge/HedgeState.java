@@ -0,0 +1,103 @@
+package run.bareflow.core.engine.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import run.bareflow.core.definition.HedgeDefinition;
+
+/**
+ * Per-step latency window and hedge budget, used by StepHedging.
+ *
+ * Latency:
+ * - The last WINDOW successful invocation latencies are kept in a ring
+ * buffer.
+ * - The hedge delay is the configured percentile of the window, recomputed
+ * after every RECOMPUTE_INTERVAL new samples; until MIN_SAMPLES latencies
+ * have been seen the definition's delayMillis is used.
+ *
+ * Budget:
+ * - Every invocation earns budgetPercent / 100 tokens (capped at
+ * MAX_TOKENS); a hedge costs one token. Extra load therefore stays below
+ * budgetPercent of the step's invocations, with short bursts allowed.
+ *
+ * All methods are synchronized; each is a handful of field updates except
+ * the periodic percentile recomputation over WINDOW samples.
+ */
+final class HedgeState {
+    static final int WINDOW = 128;
+    static final int MIN_SAMPLES = 20;
+    static final int RECOMPUTE_INTERVAL = 16;
+    private static final double MAX_TOKENS = 10.0;
+
+    private final HedgeDefinition definition;
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+    private int sinceRecompute;
+    private long delayNanos;
+
+    private double tokens;
+    private long invocations;
+    private long hedges;
+    private long hedgeWins;
+
+    HedgeState(HedgeDefinition definition) {
+        this.definition = definition;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(definition.getDelayMillis());
+    }
+
+    /**
+     * Count an invocation and return the current hedge delay.
+     */
+    synchronized long onInvocation() {
+        invocations++;
+        tokens = Math.min(MAX_TOKENS, tokens + definition.getBudgetPercent() / 100.0);
+        return delayNanos;
+    }
+
+    /**
+     * Take one hedge token if available.
+     */
+    synchronized boolean tryAcquireHedge() {
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        hedges++;
+        return true;
+    }
+
+    /**
+     * Give back a token taken by tryAcquireHedge when the hedge could not be
+     * started.
+     */
+    synchronized void releaseHedge() {
+        tokens = Math.min(MAX_TOKENS, tokens + 1.0);
+        hedges--;
+    }
+
+    /**
+     * Record the latency of a successful invocation.
+     */
+    synchronized void record(long latencyNanos, boolean hedgeWon) {
+        if (hedgeWon) {
+            hedgeWins++;
+        }
+        samples[next] = latencyNanos;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) {
+            count++;
+        }
+        if (count >= MIN_SAMPLES && ++sinceRecompute >= RECOMPUTE_INTERVAL) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(definition.getPercentile() / 100.0 * count) - 1;
+            delayNanos = sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+
+    synchronized HedgeStats stats() {
+        return new HedgeStats(invocations, hedges, hedgeWins);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package run.bareflow.core.engine.hedge;
+
+/**
+ * Snapshot of a step's hedging activity.
+ *
+ * @param invocations hedged-step invocations
+ * @param hedges      extra invocations issued
+ * @param hedgeWins   invocations answered by the extra invocation
+ */
+public record HedgeStats(long invocations, long hedges, long hedgeWins) {
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package run.bareflow.core.engine.hedge;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * Runs invocations of steps with a HedgeDefinition.
+ *
+ * The invocation runs on the executor while the calling thread waits up to
+ * the step's current hedge delay (see HedgeState). If it has not completed by
+ * then and the step's budget allows, an identical invocation is started; the
+ * first successful result is returned and the other invocation is cancelled
+ * (interrupted). If every started invocation fails, the last failure is
+ * rethrown as-is.
+ *
+ * If the executor rejects the hedged invocation, its token is given back and
+ * the caller keeps waiting for the original one. If it rejects the original
+ * invocation, a SystemException is thrown so the step's retry policy and
+ * onError apply.
+ *
+ * Latency windows and budgets are held per StepDefinition (weakly, like
+ * StepCaches). An instance is meant to be shared by all FlowEngine instances
+ * through FlowEngineOptions. Instances are thread-safe.
+ */
+public class StepHedging {
+    private final Executor executor;
+    private final Map<StepDefinition, HedgeState> states = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Use a shared pool of daemon threads.
+     */
+    public StepHedging() {
+        this(DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * @param executor runs both the original and the hedged invocation; it
+     *                 must be able to run two tasks concurrently
+     */
+    public StepHedging(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Invoke with hedging.
+     *
+     * @param step    step with a HedgeDefinition
+     * @param call    the invocation; may run twice, possibly concurrently
+     * @param onHedge called on the calling thread with the delay in
+     *                milliseconds when the hedged invocation is started
+     * @return output of the first successful invocation
+     */
+    public Map<String, Object> invoke(StepDefinition step, Supplier<Map<String, Object>> call, LongConsumer onHedge) {
+        HedgeState state = states.computeIfAbsent(step, s -> new HedgeState(s.getHedge()));
+        long delayNanos = state.onInvocation();
+
+        Race race = new Race(state, call);
+        Future<?> primary;
+        try {
+            primary = race.start(false);
+        } catch (RejectedExecutionException e) {
+            throw new SystemException("Hedge executor rejected invocation: " + step.getName(), e);
+        }
+        Future<?> hedge = null;
+
+        try {
+            try {
+                return race.result.get(delayNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (state.tryAcquireHedge()) {
+                    try {
+                        hedge = race.start(true);
+                    } catch (RejectedExecutionException rejected) {
+                        // executor saturated: keep waiting for the original invocation
+                        race.withdraw();
+                        state.releaseHedge();
+                    }
+                    if (hedge != null) {
+                        onHedge.accept(TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                    }
+                }
+            }
+            return race.result.get();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted during hedged invocation: " + step.getName(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SystemException("Hedged invocation failed: " + step.getName(), cause);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the hedging statistics of the step, or null if the step has not
+     * been invoked yet.
+     */
+    public HedgeStats statsOf(StepDefinition step) {
+        HedgeState state = states.get(step);
+        return state == null ? null : state.stats();
+    }
+
+    /**
+     * Invocations of one step attempt competing for the result.
+     */
+    private final class Race {
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        final HedgeState state;
+        final Supplier<Map<String, Object>> call;
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicBoolean decided = new AtomicBoolean();
+        volatile Throwable failure;
+
+        Race(HedgeState state, Supplier<Map<String, Object>> call) {
+            this.state = state;
+            this.call = call;
+        }
+
+        /**
+         * Start an invocation, or return null if the result is already
+         * decided. A RejectedExecutionException from the executor is
+         * propagated; call withdraw() for a hedge.
+         */
+        Future<?> start(boolean hedge) {
+            started.incrementAndGet();
+            if (result.isDone()) {
+                return null;
+            }
+            FutureTask<Void> task = new FutureTask<>(() -> run(hedge), null);
+            executor.execute(task);
+            return task;
+        }
+
+        /**
+         * Undo start() of an invocation the executor rejected. If every
+         * invocation that did start has already failed, report the failure.
+         */
+        void withdraw() {
+            int running = started.decrementAndGet();
+            if (failed.get() == running && failure != null) {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        private void run(boolean hedge) {
+            long start = System.nanoTime();
+            try {
+                Map<String, Object> output = call.get();
+                if (decided.compareAndSet(false, true)) {
+                    // statistics are updated before the caller is released
+                    state.record(System.nanoTime() - start, hedge);
+                    result.complete(output);
+                }
+            } catch (Throwable t) {
+                failure = t;
+                // the last running invocation reports the failure
+                if (failed.incrementAndGet() == started.get()) {
+                    result.completeExceptionally(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lazily created pool used when no executor is configured.
+     * Threads are daemons and are reclaimed when idle.
+     */
+    private static final class DefaultExecutor {
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "bareflow-hedge-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
\ No newline at end of file
@@ -15,7 +15,10 @@ public interface StepInvoker {
      *
      * @param module    module name
      * @param operation operation name within the module
-     * @param input     evaluated input map
+     * @param input     evaluated input map; immutable, and possibly shared
+     *                  with the trace, the step cache and a concurrent hedged
+     *                  invocation; copy it before handing it to code that
+     *                  modifies it
      * @return output map to be merged into ExecutionContext
      *
      * @throws BusinessException domain-specific failure (no retry)
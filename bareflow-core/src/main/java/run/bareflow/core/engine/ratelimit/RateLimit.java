@@ -0,0 +1,43 @@
+package run.bareflow.core.engine.ratelimit;
+
+/**
+ * Token bucket settings of one module or module operation.
+ *
+ * - permitsPerSecond: sustained rate (greater than 0)
+ * - burst: tokens that may accumulate while idle, i.e. the number of calls
+ * allowed back-to-back (at least 1)
+ * - maxWaitMillis: longest acceptable wait for a token; callers that would
+ * wait longer fail immediately instead of queueing
+ */
+public class RateLimit {
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long maxWaitMillis;
+
+    public RateLimit(double permitsPerSecond, int burst, long maxWaitMillis) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be at least 1");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis must not be negative");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package run.bareflow.core.engine.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * Token bucket rate limits per module and per module operation.
+ *
+ * Limits are keyed by module name ("Payment") or by module and operation
+ * ("Payment#charge"). A call is subject to both its operation limit and its
+ * module limit, if present; calls of modules without a limit are free.
+ *
+ * FlowEngine reserves a token before every module invocation and waits for
+ * it (RateLimitWaitEvent). The engine executes flows synchronously and has no
+ * async mode, so this wait blocks the executing thread. Callers that must not
+ * block can use reserve() directly and schedule the call after the returned
+ * delay, or use tryAcquire().
+ *
+ * One instance shares its buckets between every engine and flow it is
+ * passed to via FlowEngineOptions.withRateLimits(...). Instances are
+ * thread-safe.
+ */
+public class RateLimits {
+    private final Map<String, TokenBucket> buckets;
+    private final LongSupplier nanoTime;
+
+    /**
+     * @param limits limit per "module" or "module#operation" key
+     */
+    public RateLimits(Map<String, RateLimit> limits) {
+        this(limits, System::nanoTime);
+    }
+
+    RateLimits(Map<String, RateLimit> limits, LongSupplier nanoTime) {
+        long now = nanoTime.getAsLong();
+        Map<String, TokenBucket> map = new HashMap<>(limits.size() * 2);
+        for (Map.Entry<String, RateLimit> e : limits.entrySet()) {
+            map.put(e.getKey(), new TokenBucket(e.getValue(), now));
+        }
+        this.buckets = Map.copyOf(map);
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Reserve the tokens for one call without waiting.
+     *
+     * @return nanoseconds the caller must wait before invoking (0 if it may
+     *         invoke immediately)
+     * @throws SystemException if a limit's wait would exceed its
+     *                         maxWaitMillis; no token is taken
+     */
+    public long reserve(String module, String operation) {
+        return buckets.isEmpty() ? 0L : take(module, module + "#" + operation, true);
+    }
+
+    /**
+     * Same as reserve(module, operation) for the step's invocation, using the
+     * step's prebuilt operation key.
+     */
+    public long reserve(StepDefinition step) {
+        return take(step.getModule(), step.getOperationKey(), true);
+    }
+
+    /**
+     * Take the tokens for one call only if they are available now.
+     */
+    public boolean tryAcquire(String module, String operation) {
+        return buckets.isEmpty() || tryTake(module, module + "#" + operation);
+    }
+
+    /**
+     * Same as tryAcquire(module, operation) for the step's invocation, using
+     * the step's prebuilt operation key.
+     */
+    public boolean tryAcquire(StepDefinition step) {
+        return tryTake(step.getModule(), step.getOperationKey());
+    }
+
+    private boolean tryTake(String module, String operationKey) {
+        try {
+            return take(module, operationKey, false) == 0L;
+        } catch (SystemException e) {
+            return false;
+        }
+    }
+
+    private long take(String module, String operationKey, boolean wait) {
+        if (buckets.isEmpty()) {
+            return 0L;
+        }
+        TokenBucket operationBucket = operationKey == null ? null : buckets.get(operationKey);
+        TokenBucket moduleBucket = buckets.get(module);
+        long now = nanoTime.getAsLong();
+
+        long operationWait = 0L;
+        if (operationBucket != null) {
+            operationWait = operationBucket.reserve(now, wait);
+            if (operationWait == TokenBucket.REJECTED) {
+                throw rejected(operationKey);
+            }
+        }
+
+        long moduleWait = 0L;
+        if (moduleBucket != null) {
+            moduleWait = moduleBucket.reserve(now, wait);
+            if (moduleWait == TokenBucket.REJECTED) {
+                if (operationBucket != null) {
+                    operationBucket.refund();
+                }
+                throw rejected(module);
+            }
+        }
+        return Math.max(operationWait, moduleWait);
+    }
+
+    private static SystemException rejected(String key) {
+        return new SystemException("Rate limit exceeded: " + key);
+    }
+}
\ No newline at end of file
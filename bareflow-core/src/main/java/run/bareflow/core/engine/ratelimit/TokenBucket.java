@@ -0,0 +1,67 @@
+package run.bareflow.core.engine.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket with reservations, used by RateLimits.
+ *
+ * The bucket refills at permitsPerSecond up to burst tokens. A reservation
+ * always takes one token; if none is available the balance goes negative and
+ * the caller is told how long to wait until its token has been refilled.
+ * Later callers therefore queue behind earlier ones in reservation order
+ * without any thread holding a lock while waiting.
+ */
+final class TokenBucket {
+    /** Returned by reserve() when the wait would exceed the limit. */
+    static final long REJECTED = -1L;
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final long maxWaitNanos;
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(RateLimit limit, long now) {
+        this.permitsPerNano = limit.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.burst = limit.getBurst();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(limit.getMaxWaitMillis());
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Take one token.
+     *
+     * @param wait false to accept only an immediately available token
+     * @return nanoseconds to wait before using the token, or REJECTED (no
+     *         token taken)
+     */
+    synchronized long reserve(long now, boolean wait) {
+        refill(now);
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0L;
+        }
+        long waitNanos = (long) Math.ceil((1.0 - tokens) / permitsPerNano);
+        if (!wait || waitNanos > maxWaitNanos) {
+            return REJECTED;
+        }
+        tokens -= 1.0;
+        return waitNanos;
+    }
+
+    /**
+     * Give back a token taken by reserve().
+     */
+    synchronized void refund() {
+        tokens = Math.min(burst, tokens + 1.0);
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package run.bareflow.core.trace;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Before-context of a StepTraceEntry stored as the difference to the
+ * before-context of the previous entry.
+ *
+ * The full context is rebuilt on demand by walking back to the nearest entry
+ * that still holds a full snapshot, or whose context was rebuilt recently,
+ * and re-applying the deltas in order. StepTrace keeps a full snapshot every
+ * CHECKPOINT_INTERVAL entries, which bounds the length of that walk; reading
+ * entries in order rebuilds each context from its predecessor's.
+ *
+ * Instances are immutable.
+ */
+final class ContextDelta {
+    /** Maximum number of consecutive delta-encoded entries. */
+    static final int CHECKPOINT_INTERVAL = 32;
+
+    private static final String[] NO_KEYS = new String[0];
+
+    private final StepTraceEntry previous;
+    private final Map<String, Object> changed;
+    private final String[] removed;
+
+    private ContextDelta(StepTraceEntry previous, Map<String, Object> changed, String[] removed) {
+        this.previous = previous;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    /**
+     * Compute the delta from the previous entry's context to the current one.
+     *
+     * @return the delta, or null if it would not be smaller than the current
+     *         context itself
+     */
+    static ContextDelta between(
+            StepTraceEntry previous,
+            Map<String, Object> previousContext,
+            Map<String, Object> context) {
+
+        Map<String, Object> changed = null;
+        int added = 0;
+        for (Map.Entry<String, Object> e : context.entrySet()) {
+            Object old = previousContext.get(e.getKey());
+            boolean isNew = old == null && !previousContext.containsKey(e.getKey());
+            if (isNew || !Objects.equals(old, e.getValue())) {
+                if (changed == null) {
+                    changed = new HashMap<>();
+                }
+                changed.put(e.getKey(), e.getValue());
+                if (isNew) {
+                    added++;
+                }
+            }
+        }
+
+        String[] removed = NO_KEYS;
+        int kept = context.size() - added;
+        if (kept < previousContext.size()) {
+            // previousContext holds keys the current context does not
+            removed = new String[previousContext.size() - kept];
+            int i = 0;
+            for (String key : previousContext.keySet()) {
+                if (!context.containsKey(key)) {
+                    removed[i++] = key;
+                }
+            }
+        }
+
+        int size = (changed == null ? 0 : changed.size()) + removed.length;
+        if (size * 2 > context.size()) {
+            return null;
+        }
+        return new ContextDelta(
+                previous,
+                changed == null ? Collections.emptyMap() : changed,
+                removed);
+    }
+
+    /**
+     * Rebuild the full context.
+     */
+    Map<String, Object> apply() {
+        Deque<ContextDelta> chain = new ArrayDeque<>();
+        chain.push(this);
+
+        Map<String, Object> base = previous.availableBeforeContext();
+        ContextDelta next = previous.beforeContextDelta();
+        while (base == null) {
+            chain.push(next);
+            base = next.previous.availableBeforeContext();
+            next = next.previous.beforeContextDelta();
+        }
+
+        Map<String, Object> context = new HashMap<>(base);
+        for (ContextDelta delta : chain) {
+            for (String key : delta.removed) {
+                context.remove(key);
+            }
+            context.putAll(delta.changed);
+        }
+        return Collections.unmodifiableMap(context);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package run.bareflow.core.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * TraceSink writing entries to an append-only file.
+ *
+ * Each entry is one record: a 4-byte big-endian length followed by the entry
+ * encoded by TraceEntryCodec. Writes are buffered; iterator() flushes the
+ * buffer and reads the records back from the file, so memory use does not
+ * depend on the number of entries. All iterators read through one shared
+ * channel, opened by the first iterator() call.
+ *
+ * The file is created (or truncated) by the constructor. discard() truncates
+ * it again. close() releases the write stream and the read channel but does
+ * not delete the file; it belongs to the caller. Instances are thread-safe.
+ * I/O failures are reported as SystemException.
+ */
+public class FileTraceSink implements TraceSink {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final FileChannel writer;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private FileChannel reader;
+    private long size;
+    private boolean closed;
+
+    public FileTraceSink(Path file) {
+        this.file = file;
+        try {
+            this.writer = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(writer)));
+        } catch (IOException e) {
+            throw new SystemException("Failed to open trace file: " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void append(StepTraceEntry entry) {
+        if (closed) {
+            throw new SystemException("Trace file is closed: " + file);
+        }
+        try {
+            record.reset();
+            TraceEntryCodec.write(new DataOutputStream(record), entry);
+            out.writeInt(record.size());
+            record.writeTo(out);
+            size++;
+        } catch (IOException e) {
+            throw new SystemException("Failed to write trace file: " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Read back the entries appended so far. The file is read in 64 KB chunks
+     * with positional reads on the shared channel, so iterators may be used
+     * concurrently and an abandoned iterator holds no resource of its own.
+     * Iterating after close() fails with SystemException.
+     */
+    @Override
+    public Iterator<StepTraceEntry> iterator() {
+        long count;
+        FileChannel channel;
+        synchronized (this) {
+            if (closed) {
+                throw new SystemException("Trace file is closed: " + file);
+            }
+            count = size;
+            if (count == 0) {
+                return Collections.emptyIterator();
+            }
+            try {
+                out.flush();
+                if (reader == null) {
+                    reader = FileChannel.open(file, StandardOpenOption.READ);
+                }
+            } catch (IOException e) {
+                throw new SystemException("Failed to read trace file: " + file, e);
+            }
+            channel = reader;
+        }
+        return new RecordIterator(channel, count);
+    }
+
+    /**
+     * Truncate the file. Iterators created before fail with SystemException
+     * once they reach the removed records.
+     */
+    @Override
+    public synchronized void discard() {
+        if (closed) {
+            throw new SystemException("Trace file is closed: " + file);
+        }
+        try {
+            out.flush();
+            writer.truncate(0);
+            size = 0;
+        } catch (IOException e) {
+            throw new SystemException("Failed to truncate trace file: " + file, e);
+        }
+    }
+
+    /**
+     * Flush and close the file, releasing the write stream and the read
+     * channel.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.close();
+            if (reader != null) {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new SystemException("Failed to close trace file: " + file, e);
+        }
+    }
+
+    private final class RecordIterator implements Iterator<StepTraceEntry> {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).flip();
+        private long position;
+        private long remaining;
+
+        RecordIterator(FileChannel channel, long count) {
+            this.channel = channel;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public StepTraceEntry next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            try {
+                ensure(Integer.BYTES);
+                byte[] bytes = new byte[buffer.getInt()];
+                ensure(bytes.length);
+                buffer.get(bytes);
+                remaining--;
+                return TraceEntryCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+            } catch (IOException e) {
+                remaining = 0;
+                throw new SystemException("Failed to read trace file: " + file, e);
+            }
+        }
+
+        /**
+         * Make at least n bytes readable from the buffer.
+         */
+        private void ensure(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            if (buffer.capacity() < n) {
+                buffer = ByteBuffer.allocate(n).put(buffer);
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < n) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Truncated trace file: " + file);
+                }
+                position += read;
+            }
+            buffer.flip();
+        }
+    }
+}
\ No newline at end of file
@@ -1,8 +1,15 @@
 package run.bareflow.core.trace;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents the full execution trace of a flow.
@@ -10,30 +17,308 @@ import java.util.List;
  *
  * StepTrace is mutable only through the record() method.
  * Consumers receive an immutable view of the entries.
+ *
+ * Consecutive entries usually differ by the few keys the previous step
+ * merged, so record() keeps the full before-context only of every
+ * ContextDelta.CHECKPOINT_INTERVAL-th entry (or when most keys changed) and
+ * stores the others as deltas. Trace memory thus grows with the changes
+ * rather than with steps x context size. This reduces retention only: the
+ * engine still takes a full context snapshot per attempt, which becomes
+ * garbage once the entry is encoded.
+ *
+ * A StepTrace created with a TraceSink streams every entry to the sink and
+ * keeps only the last tailSize entries in memory, so its memory use does not
+ * depend on the length of the flow. In that mode getEntries() returns the
+ * tail, while iterator() reads the full history back from the sink.
+ *
+ * Aggregates (success/failure counts, highest attempt, total duration and
+ * the last entry per step name) are maintained by record(), so the queries
+ * run in constant time and cover the full history in both modes. A trace
+ * with a sink still holds the last entry of each distinct step name.
+ *
+ * summarize() reduces a finished trace to these aggregates: the entries are
+ * dropped and the last entry of each step name is replaced by a copy without
+ * context, input, output and child trace, and the entries already streamed
+ * to a sink are discarded (TraceSink.discard()). FlowEngine does this for
+ * flows a TraceSampler decides not to keep, so a sampled-out flow leaves no
+ * records in the sink even though its entries were written while it ran.
+ *
+ * A trace owns its sink and close() closes it. FlowEngine closes the trace
+ * itself only when execute() throws; a trace returned by execute() belongs
+ * to the caller, who closes it once done reading it. Closing a trace
+ * without a sink does nothing.
  */
-public class StepTrace {
-    private final List<StepTraceEntry> entries = new ArrayList<>();
+public class StepTrace implements Iterable<StepTraceEntry>, AutoCloseable {
+    private final ArrayList<StepTraceEntry> entries = new ArrayList<>();
+    private final TraceSink sink;
+    private final int tailSize;
+
+    /** Full before-context of the last recorded entry. */
+    private Map<String, Object> lastContext;
+
+    /** Number of delta-encoded entries since the last full snapshot. */
+    private int sinceCheckpoint;
+
+    private long entryCount;
+    private long failureCount;
+    private int maxAttempt;
+    private long totalDurationNanos;
+    private StepTraceEntry lastEntry;
+    private final Map<String, StepIndex> steps = new HashMap<>();
+    private boolean summarized;
+
+    /**
+     * Create a trace holding all entries in memory.
+     */
+    public StepTrace() {
+        this.sink = null;
+        this.tailSize = 0;
+    }
+
+    /**
+     * Create a trace streaming its entries to a sink.
+     *
+     * @param sink     receives every recorded entry
+     * @param tailSize number of most recent entries kept in memory (at
+     *                 least 1)
+     */
+    public StepTrace(TraceSink sink, int tailSize) {
+        if (sink == null) {
+            throw new IllegalArgumentException("sink must not be null");
+        }
+        if (tailSize < 1) {
+            throw new IllegalArgumentException("tailSize must be at least 1");
+        }
+        this.sink = sink;
+        this.tailSize = tailSize;
+    }
 
     /**
      * Record a new step execution entry.
      */
     public void record(StepTraceEntry entry) {
+        if (summarized) {
+            throw new IllegalStateException("StepTrace has been summarized");
+        }
+        if (sink != null) {
+            // the sink receives the entry while its context is still full
+            sink.append(entry);
+        }
+        encode(entry);
         entries.add(entry);
+        aggregate(entry);
+
+        if (sink != null && entries.size() >= 2 * tailSize) {
+            // trimmed in batches so that recording stays O(1) amortized
+            entries.subList(0, entries.size() - tailSize).clear();
+        }
+    }
+
+    private void encode(StepTraceEntry entry) {
+        Map<String, Object> context = entry.fullBeforeContext();
+        if (context == null) {
+            // no snapshot, or already encoded by another trace:
+            // the next entry starts a new chain
+            lastContext = null;
+            return;
+        }
+
+        ContextDelta delta = null;
+        if (lastContext != null && sinceCheckpoint < ContextDelta.CHECKPOINT_INTERVAL) {
+            delta = ContextDelta.between(entries.get(entries.size() - 1), lastContext, context);
+        }
+        lastContext = context;
+
+        if (delta == null) {
+            sinceCheckpoint = 0;
+        } else {
+            sinceCheckpoint++;
+            entry.encodeBeforeContext(delta);
+        }
+    }
+
+    private void aggregate(StepTraceEntry entry) {
+        if (!entry.isSuccess()) {
+            failureCount++;
+        }
+        maxAttempt = Math.max(maxAttempt, entry.getAttempt());
+        if (entry.getStartTime() != null && entry.getEndTime() != null) {
+            totalDurationNanos += Duration.between(entry.getStartTime(), entry.getEndTime()).toNanos();
+        }
+        lastEntry = entry;
+
+        StepIndex index = steps.computeIfAbsent(entry.getStepName(), name -> new StepIndex(sink == null));
+        index.last = entry;
+        index.lastIndex = entryCount;
+        index.count++;
+        if (index.entries != null) {
+            index.entries.add(entry);
+        }
+        entryCount++;
+    }
+
+    /**
+     * Drop all entries and keep only the aggregates. Afterwards getEntries()
+     * and iterator() are empty, getLastEntry() returns compact copies, and
+     * record() fails with IllegalStateException. Entries already streamed to
+     * a sink are discarded from it.
+     */
+    public void summarize() {
+        if (summarized) {
+            return;
+        }
+        summarized = true;
+        if (sink != null) {
+            sink.discard();
+        }
+        entries.clear();
+        entries.trimToSize();
+        lastContext = null;
+
+        Map<StepTraceEntry, StepTraceEntry> copies = new IdentityHashMap<>();
+        for (StepIndex index : steps.values()) {
+            index.entries = null;
+            index.last = copies.computeIfAbsent(index.last, StepTrace::compact);
+        }
+        if (lastEntry != null) {
+            lastEntry = copies.computeIfAbsent(lastEntry, StepTrace::compact);
+        }
+    }
+
+    private static StepTraceEntry compact(StepTraceEntry entry) {
+        return new StepTraceEntry(entry.getStepName(), null, null, null, entry.getError(),
+                entry.getStartTime(), entry.getEndTime(), entry.getAttempt());
+    }
+
+    /**
+     * Returns true if summarize() has been called.
+     */
+    public boolean isSummary() {
+        return summarized;
     }
 
     /**
      * Returns an immutable list of all recorded entries.
+     * For a trace with a sink, only the in-memory tail is returned, as a
+     * copy that later record() calls do not affect.
      */
     public List<StepTraceEntry> getEntries() {
+        if (sink != null) {
+            return List.copyOf(entries.subList(Math.max(0, entries.size() - tailSize), entries.size()));
+        }
         return Collections.unmodifiableList(entries);
     }
 
+    /**
+     * Iterates over all recorded entries in order; for a trace with a sink,
+     * they are read back from the sink.
+     */
+    @Override
+    public Iterator<StepTraceEntry> iterator() {
+        if (summarized) {
+            return Collections.emptyIterator();
+        }
+        return sink != null ? sink.iterator() : getEntries().iterator();
+    }
+
+    /**
+     * Returns the number of recorded entries, including those no longer held
+     * in memory.
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the number of recorded attempts that succeeded.
+     */
+    public long getSuccessCount() {
+        return entryCount - failureCount;
+    }
+
+    /**
+     * Returns the number of recorded attempts that failed.
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the sum of the durations of all recorded attempts. Entries
+     * without start or end time do not contribute.
+     */
+    public Duration getTotalDuration() {
+        return Duration.ofNanos(totalDurationNanos);
+    }
+
+    /**
+     * Returns the entries recorded under the step name, in order, or an empty
+     * list. forEach elements are recorded as name[index].
+     * For a trace with a sink, the entries are read back from the sink.
+     */
+    public List<StepTraceEntry> getEntries(String stepName) {
+        StepIndex index = steps.get(stepName);
+        if (index == null || summarized) {
+            return Collections.emptyList();
+        }
+        if (index.entries != null) {
+            return Collections.unmodifiableList(index.entries);
+        }
+        return StreamSupport.stream(spliterator(), false)
+                .filter(e -> stepName.equals(e.getStepName()))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Returns the last entry recorded under the step name, or null.
+     */
+    public StepTraceEntry getLastEntry(String stepName) {
+        StepIndex index = steps.get(stepName);
+        return index == null ? null : index.last;
+    }
+
+    /**
+     * Returns the position (0-based, in record order) of the last entry
+     * recorded under the step name, or -1.
+     */
+    public long getLastEntryIndex(String stepName) {
+        StepIndex index = steps.get(stepName);
+        return index == null ? -1 : index.lastIndex;
+    }
+
+    /**
+     * Returns the number of entries recorded under the step name.
+     */
+    public int getAttemptCount(String stepName) {
+        StepIndex index = steps.get(stepName);
+        return index == null ? 0 : index.count;
+    }
+
+    /**
+     * Returns true if this trace streams its entries to a sink.
+     */
+    public boolean isStreaming() {
+        return sink != null;
+    }
+
+    /**
+     * Close the sink of this trace, if any. The in-memory tail and the
+     * aggregates remain available; iterating over a trace with a closed sink
+     * fails as the sink does.
+     */
+    @Override
+    public void close() {
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
     /**
      * Returns true only if every recorded attempt succeeded.
      * This is stricter than "flow succeeded", because retries record failures.
      */
     public boolean isAllSuccessful() {
-        return entries.stream().allMatch(StepTraceEntry::isSuccess);
+        return failureCount == 0;
     }
 
     /**
@@ -41,9 +326,9 @@ public class StepTrace {
      * This represents the final outcome of the step, regardless of retries.
      */
     public boolean isFinallySuccessful() {
-        if (entries.isEmpty())
+        if (lastEntry == null)
             return false;
-        return entries.get(entries.size() - 1).getError() == null;
+        return lastEntry.getError() == null;
     }
 
     /**
@@ -51,7 +336,7 @@ public class StepTrace {
      * regardless of whether the retry was caused by RetryPolicy or onError.RETRY.
      */
     public boolean wasRetried() {
-        return entries.stream().anyMatch(e -> e.getAttempt() > 1);
+        return maxAttempt > 1;
     }
 
     /**
@@ -59,9 +344,21 @@ public class StepTrace {
      * including the initial attempt and any retries.
      */
     public int getTotalAttempts() {
-        return entries.stream()
-                .mapToInt(StepTraceEntry::getAttempt)
-                .max()
-                .orElse(0);
+        return maxAttempt;
+    }
+
+    /**
+     * Per-step-name index maintained by record().
+     */
+    private static final class StepIndex {
+        /** All entries of the step; null for a trace with a sink or a summary. */
+        List<StepTraceEntry> entries;
+        StepTraceEntry last;
+        long lastIndex;
+        int count;
+
+        StepIndex(boolean keepEntries) {
+            this.entries = keepEntries ? new ArrayList<>(1) : null;
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package run.bareflow.core.trace;
 
+import java.lang.ref.SoftReference;
 import java.time.Instant;
 import java.util.Map;
 
@@ -16,19 +17,36 @@ import java.util.Map;
  * <li>the error thrown during execution (if any)</li>
  * <li>the start and end timestamps of the attempt</li>
  * <li>the attempt number (1 = first attempt, 2+ = retries)</li>
+ * <li>the trace of the sub-flow executed by the step (if any)</li>
  * </ul>
  *
  * <p>
- * All fields are immutable. StepTraceEntry is a pure data carrier and
- * contains no business logic beyond simple success/error checks.
+ * All fields except the context snapshot are immutable. StepTraceEntry is a
+ * pure data carrier and contains no business logic beyond simple
+ * success/error checks.
+ * </p>
+ *
+ * <p>
+ * Once recorded in a StepTrace, the context snapshot may be replaced by its
+ * difference to the previous entry's snapshot (see ContextDelta). Both forms
+ * live in one volatile field, so readers on any thread observe either the
+ * full map or the delta, never an intermediate state. getBeforeContext()
+ * then rebuilds an equal map and keeps it softly reachable, so repeated
+ * reads reuse it while memory allows.
  * </p>
  */
 public class StepTraceEntry {
     /** The logical step name defined in the FlowDefinition. */
     private final String stepName;
 
-    /** Snapshot of the ExecutionContext before this attempt started. */
-    private final Map<String, Object> beforeContext;
+    /**
+     * Snapshot of the ExecutionContext before this attempt started: a Map,
+     * a ContextDelta once it has been delta-encoded, or null.
+     */
+    private volatile Object beforeContext;
+
+    /** Context last rebuilt from the delta; may be cleared by the GC. */
+    private volatile SoftReference<Map<String, Object>> rebuiltContext;
 
     /** Input after placeholder evaluation. */
     private final Map<String, Object> evaluatedInput;
@@ -54,6 +72,9 @@ public class StepTraceEntry {
      */
     private final int attempt;
 
+    /** Trace of the sub-flow executed by this attempt, or null. */
+    private final StepTrace childTrace;
+
     public StepTraceEntry(
             final String stepName,
             final Map<String, Object> beforeContext,
@@ -64,6 +85,20 @@ public class StepTraceEntry {
             final Instant endTime,
             final int attempt) {
 
+        this(stepName, beforeContext, evaluatedInput, rawOutput, error, startTime, endTime, attempt, null);
+    }
+
+    public StepTraceEntry(
+            final String stepName,
+            final Map<String, Object> beforeContext,
+            final Map<String, Object> evaluatedInput,
+            final Map<String, Object> rawOutput,
+            final Throwable error,
+            final Instant startTime,
+            final Instant endTime,
+            final int attempt,
+            final StepTrace childTrace) {
+
         this.stepName = stepName;
         this.beforeContext = beforeContext;
         this.evaluatedInput = evaluatedInput;
@@ -72,6 +107,7 @@ public class StepTraceEntry {
         this.startTime = startTime;
         this.endTime = endTime;
         this.attempt = attempt;
+        this.childTrace = childTrace;
     }
 
     public String getStepName() {
@@ -79,7 +115,56 @@ public class StepTraceEntry {
     }
 
     public Map<String, Object> getBeforeContext() {
-        return beforeContext;
+        Object before = beforeContext;
+        if (!(before instanceof ContextDelta)) {
+            return asMap(before);
+        }
+        Map<String, Object> context = rebuiltBeforeContext();
+        if (context == null) {
+            context = ((ContextDelta) before).apply();
+            rebuiltContext = new SoftReference<>(context);
+        }
+        return context;
+    }
+
+    /**
+     * Returns the snapshot if it is held in full, or null if it has been
+     * delta-encoded.
+     */
+    Map<String, Object> fullBeforeContext() {
+        Object before = beforeContext;
+        return before instanceof ContextDelta ? null : asMap(before);
+    }
+
+    /**
+     * Returns the full snapshot, or the context last rebuilt from the delta
+     * if it is still reachable, without rebuilding anything.
+     */
+    Map<String, Object> availableBeforeContext() {
+        Map<String, Object> context = fullBeforeContext();
+        return context != null ? context : rebuiltBeforeContext();
+    }
+
+    ContextDelta beforeContextDelta() {
+        Object before = beforeContext;
+        return before instanceof ContextDelta ? (ContextDelta) before : null;
+    }
+
+    /**
+     * Replace the full snapshot with its delta. Called by StepTrace only.
+     */
+    void encodeBeforeContext(ContextDelta delta) {
+        this.beforeContext = delta;
+    }
+
+    private Map<String, Object> rebuiltBeforeContext() {
+        SoftReference<Map<String, Object>> ref = rebuiltContext;
+        return ref == null ? null : ref.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object context) {
+        return (Map<String, Object>) context;
     }
 
     public Map<String, Object> getEvaluatedInput() {
@@ -109,6 +194,14 @@ public class StepTraceEntry {
         return attempt;
     }
 
+    /**
+     * Returns the nested trace of the sub-flow executed by this attempt,
+     * or null if the step did not execute a sub-flow.
+     */
+    public StepTrace getChildTrace() {
+        return childTrace;
+    }
+
     /**
      * Returns true if this attempt succeeded (i.e., no error was thrown).
      */
@@ -0,0 +1,300 @@
+package run.bareflow.core.trace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of StepTraceEntry used by FileTraceSink.
+ *
+ * Context, input and output values are written with a small tagged format:
+ * - null, String, Integer, Long, Double, Boolean, Map and List natively
+ * - other Serializable values with Java serialization, followed by their
+ * toString()
+ * - anything else as its toString()
+ *
+ * Errors are written with Java serialization, followed by their class name
+ * and message. Child traces are written inline and read back as in-memory
+ * StepTraces.
+ *
+ * Serialized values and errors are read through DESERIALIZATION_FILTER,
+ * which only admits classes from java.lang, java.util, java.time, java.math
+ * and run.bareflow. A value whose graph contains any other class is read
+ * back as its toString(), an error as a RuntimeException carrying the
+ * original class name and message. A trace file thus never instantiates
+ * arbitrary classes, even if it was tampered with.
+ */
+final class TraceEntryCodec {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte MAP = 6;
+    private static final byte LIST = 7;
+    private static final byte SERIALIZED = 8;
+
+    private static final byte ERROR_SERIALIZED = 1;
+    private static final byte ERROR_DESCRIBED = 2;
+
+    static final ObjectInputFilter DESERIALIZATION_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=64;java.lang.*;java.util.*;java.time.*;java.math.*;run.bareflow.**;!*");
+
+    private TraceEntryCodec() {
+    }
+
+    static void write(DataOutputStream out, StepTraceEntry entry) throws IOException {
+        writeString(out, entry.getStepName());
+        out.writeInt(entry.getAttempt());
+        writeInstant(out, entry.getStartTime());
+        writeInstant(out, entry.getEndTime());
+        writeValue(out, entry.getBeforeContext());
+        writeValue(out, entry.getEvaluatedInput());
+        writeValue(out, entry.getRawOutput());
+        writeError(out, entry.getError());
+
+        StepTrace child = entry.getChildTrace();
+        if (child == null) {
+            out.writeInt(-1);
+        } else {
+            List<StepTraceEntry> childEntries = new ArrayList<>();
+            child.forEach(childEntries::add);
+            out.writeInt(childEntries.size());
+            for (StepTraceEntry childEntry : childEntries) {
+                write(out, childEntry);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static StepTraceEntry read(DataInputStream in) throws IOException {
+        String stepName = readString(in);
+        int attempt = in.readInt();
+        Instant start = readInstant(in);
+        Instant end = readInstant(in);
+        Map<String, Object> before = (Map<String, Object>) readValue(in);
+        Map<String, Object> input = (Map<String, Object>) readValue(in);
+        Map<String, Object> output = (Map<String, Object>) readValue(in);
+        Throwable error = readError(in);
+
+        StepTrace child = null;
+        int childCount = in.readInt();
+        if (childCount >= 0) {
+            child = new StepTrace();
+            for (int i = 0; i < childCount; i++) {
+                child.record(read(in));
+            }
+        }
+        return new StepTraceEntry(stepName, before, input, output, error, start, end, attempt, child);
+    }
+
+    // ------------------------------------------------------------
+    // Values
+    // ------------------------------------------------------------
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeString(out, String.valueOf(e.getKey()));
+                writeValue(out, e.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            byte[] serialized = value instanceof Serializable ? serialize(value) : null;
+            if (serialized != null) {
+                out.writeByte(SERIALIZED);
+                out.writeInt(serialized.length);
+                out.write(serialized);
+                writeString(out, value.toString());
+            } else {
+                out.writeByte(STRING);
+                writeString(out, value.toString());
+            }
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case MAP: {
+                int size = in.readInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    map.put(key, readValue(in));
+                }
+                return Collections.unmodifiableMap(map);
+            }
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            case SERIALIZED: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                String text = readString(in);
+                Object value = deserialize(bytes);
+                return value != null ? value : text;
+            }
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Errors
+    // ------------------------------------------------------------
+    private static void writeError(DataOutputStream out, Throwable error) throws IOException {
+        if (error == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        byte[] serialized = serialize(error);
+        if (serialized != null) {
+            out.writeByte(ERROR_SERIALIZED);
+            out.writeInt(serialized.length);
+            out.write(serialized);
+        } else {
+            out.writeByte(ERROR_DESCRIBED);
+        }
+        writeString(out, error.getClass().getName() + ": " + error.getMessage());
+    }
+
+    private static Throwable readError(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case ERROR_SERIALIZED: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                String description = readString(in);
+                Object error = deserialize(bytes);
+                return error instanceof Throwable ? (Throwable) error : new RuntimeException(description);
+            }
+            case ERROR_DESCRIBED:
+                return new RuntimeException(readString(in));
+            default:
+                throw new IOException("Unknown error tag: " + tag);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Primitives
+    // ------------------------------------------------------------
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    /**
+     * Java-serialize the object, or return null if part of its graph is not
+     * serializable.
+     */
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Java-deserialize the object through DESERIALIZATION_FILTER, or return
+     * null if the filter rejects a class of its graph or the class is not
+     * available.
+     */
+    private static Object deserialize(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(DESERIALIZATION_FILTER);
+            return in.readObject();
+        } catch (InvalidClassException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package run.bareflow.core.trace;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tail-based retention policy for top-level flow traces.
+ *
+ * FlowEngine records every flow into its StepTrace as usual and asks the
+ * sampler at the end of the flow, before FlowEndEvent is emitted, whether the
+ * full trace is worth keeping. A trace is kept if:
+ * - any recorded attempt failed (including retried and continued errors)
+ * - the flow took at least latencyThreshold
+ * - the flow falls into the head sample (a random headRate fraction of all
+ * flows, independent of the outcome)
+ *
+ * Otherwise the trace is reduced with StepTrace.summarize(), so listeners and
+ * callers receive only its aggregates. Memory held after the flow and the
+ * cost of exporting traces thus scale with the slow and failed flows.
+ */
+public final class TraceSampler {
+    private final double headRate;
+    private final Duration latencyThreshold;
+
+    /**
+     * @param headRate         fraction of flows kept regardless of outcome,
+     *                         between 0 and 1
+     * @param latencyThreshold flows taking at least this long are kept; null
+     *                         disables the latency rule
+     */
+    public TraceSampler(double headRate, Duration latencyThreshold) {
+        if (!(headRate >= 0.0 && headRate <= 1.0)) {
+            throw new IllegalArgumentException("headRate must be between 0 and 1: " + headRate);
+        }
+        if (latencyThreshold != null && latencyThreshold.isNegative()) {
+            throw new IllegalArgumentException("latencyThreshold must not be negative");
+        }
+        this.headRate = headRate;
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    /**
+     * Returns true if the full trace of a finished flow should be kept.
+     */
+    public boolean shouldKeep(StepTrace trace, Duration duration) {
+        if (!trace.isAllSuccessful()) {
+            return true;
+        }
+        if (latencyThreshold != null && duration.compareTo(latencyThreshold) >= 0) {
+            return true;
+        }
+        return headRate > 0.0 && (headRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < headRate);
+    }
+
+    public double getHeadRate() {
+        return headRate;
+    }
+
+    public Duration getLatencyThreshold() {
+        return latencyThreshold;
+    }
+}
\ No newline at end of file
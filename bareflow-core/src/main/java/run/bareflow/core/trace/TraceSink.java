@@ -0,0 +1,53 @@
+package run.bareflow.core.trace;
+
+import java.util.Iterator;
+
+/**
+ * Destination of the entries of a StepTrace created with a sink.
+ *
+ * The sink holds the complete history of the trace, while the StepTrace
+ * itself keeps only a bounded tail in memory. Implementations decide where
+ * entries go (e.g. FileTraceSink writes an append-only file).
+ *
+ * StepTrace calls append() from the thread executing the flow, in record
+ * order. iterator() may be called from other threads.
+ *
+ * A sink is owned by the StepTrace it was created with and is closed by
+ * StepTrace.close(); see there for who closes the trace. Entries reach the
+ * sink as they are recorded, before a TraceSampler has decided whether the
+ * trace is kept; StepTrace.summarize() therefore calls discard().
+ */
+public interface TraceSink extends AutoCloseable {
+    /**
+     * Append an entry. Its before-context is still held in full.
+     */
+    void append(StepTraceEntry entry);
+
+    /**
+     * Returns the number of entries appended so far.
+     */
+    long size();
+
+    /**
+     * Iterate over all entries appended so far, in order. The returned
+     * entries are equal in content to the appended ones but need not be the
+     * same instances.
+     */
+    Iterator<StepTraceEntry> iterator();
+
+    /**
+     * Drop the entries appended so far; size() becomes 0. Called when the
+     * trace is summarized, e.g. because a TraceSampler did not keep it. The
+     * default does nothing, leaving the entries in place for sinks that
+     * cannot remove them.
+     */
+    default void discard() {
+    }
+
+    /**
+     * Release the resources held by the sink. The default does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,223 @@
+package run.bareflow.core.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, insertion-ordered map with String keys backed by two arrays.
+ *
+ * The keys are held in a shared {@link Keys} instance, so maps with the same
+ * key set (for example, a step's input mapping and every evaluated input
+ * produced from it) share one key array and differ only in their values
+ * array.
+ *
+ * Lookup is a linear scan for up to {@value #LINEAR_SCAN_LIMIT} keys, which is
+ * the common case for step mappings; larger key sets build a hash index once
+ * per Keys instance.
+ *
+ * Null values are permitted; null keys are not. Every mutating operation
+ * throws UnsupportedOperationException.
+ */
+public final class CompactMap extends AbstractMap<String, Object> {
+    /** Maximum number of keys resolved by linear scan. */
+    public static final int LINEAR_SCAN_LIMIT = 8;
+
+    private static final CompactMap EMPTY = new CompactMap(new Keys(new String[0]), new Object[0]);
+
+    private final Keys keys;
+    private final Object[] values;
+
+    private CompactMap(Keys keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Returns the empty map.
+     */
+    public static CompactMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create an immutable copy of the given map, preserving iteration order.
+     * Returns the argument itself if it already is a CompactMap.
+     */
+    public static CompactMap copyOf(Map<String, ?> source) {
+        if (source instanceof CompactMap) {
+            return (CompactMap) source;
+        }
+        if (source == null || source.isEmpty()) {
+            return EMPTY;
+        }
+
+        String[] names = new String[source.size()];
+        Object[] values = new Object[names.length];
+        int i = 0;
+        for (Map.Entry<String, ?> e : source.entrySet()) {
+            names[i] = Objects.requireNonNull(e.getKey(), "key");
+            values[i] = e.getValue();
+            i++;
+        }
+        return new CompactMap(new Keys(names), values);
+    }
+
+    /**
+     * Create a map from a shared key set and a values array parallel to it.
+     * The array is not copied and must not be modified afterwards.
+     */
+    public static CompactMap of(Keys keys, Object[] values) {
+        if (values.length != keys.size()) {
+            throw new IllegalArgumentException("values length " + values.length + " != keys " + keys.size());
+        }
+        return new CompactMap(keys, values);
+    }
+
+    /**
+     * Returns the shared key set of this map.
+     */
+    public Keys keys() {
+        return keys;
+    }
+
+    /**
+     * Returns the value at the given position (iteration order).
+     */
+    public Object valueAt(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = keys.indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int index = keys.indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        return new SimpleImmutableEntry<>(keys.keyAt(i), values[i]);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Ordered, immutable key set shared between CompactMaps.
+     */
+    public static final class Keys {
+        private final String[] names;
+        private final Map<String, Integer> index;
+
+        private Keys(String[] names) {
+            this.names = names;
+            if (names.length > LINEAR_SCAN_LIMIT) {
+                Map<String, Integer> idx = new HashMap<>(names.length * 2);
+                for (int i = 0; i < names.length; i++) {
+                    idx.put(names[i], i);
+                }
+                this.index = idx;
+            } else {
+                this.index = null;
+            }
+        }
+
+        /**
+         * Create a key set from distinct, non-null names.
+         * The array is not copied and must not be modified afterwards.
+         */
+        public static Keys of(String... names) {
+            for (String name : names) {
+                Objects.requireNonNull(name, "key");
+            }
+            return new Keys(names);
+        }
+
+        /**
+         * Number of keys.
+         */
+        public int size() {
+            return names.length;
+        }
+
+        /**
+         * Returns the key at the given position.
+         */
+        public String keyAt(int index) {
+            return names[index];
+        }
+
+        /**
+         * Returns the position of the key, or -1 if absent.
+         */
+        public int indexOf(Object key) {
+            if (index != null) {
+                Integer i = index.get(key);
+                return i == null ? -1 : i;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] == key) {
+                    return i;
+                }
+            }
+            if (key == null) {
+                return -1;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
\ No newline at end of file
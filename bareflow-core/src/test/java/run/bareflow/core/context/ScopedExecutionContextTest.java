@@ -0,0 +1,72 @@
+package run.bareflow.core.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ScopedExecutionContextTest {
+    @Test
+    void testReadsFallBackToParent() {
+        ExecutionContext parent = new ExecutionContext();
+        parent.put("a", 1);
+        parent.put("b", 2);
+
+        ScopedExecutionContext scoped = new ScopedExecutionContext(parent);
+        scoped.put("b", 20);
+        scoped.put("c", null);
+
+        assertEquals(1, scoped.get("a"));
+        assertEquals(20, scoped.get("b"));
+        assertNull(scoped.get("c"));
+        assertTrue(scoped.contains("c"));
+        assertFalse(scoped.contains("missing"));
+    }
+
+    @Test
+    void testWritesDoNotReachParent() {
+        ExecutionContext parent = new ExecutionContext();
+        parent.put("a", 1);
+
+        ScopedExecutionContext scoped = new ScopedExecutionContext(parent);
+        scoped.put("a", 10);
+        scoped.merge(Map.of("x", "y"));
+
+        assertEquals(1, parent.get("a"));
+        assertFalse(parent.contains("x"));
+        assertEquals(Map.of("a", 10, "x", "y"), scoped.locals());
+    }
+
+    @Test
+    void testSnapshotOverlaysLocals() {
+        ExecutionContext parent = new ExecutionContext();
+        parent.put("a", 1);
+        parent.put("b", 2);
+
+        ScopedExecutionContext scoped = new ScopedExecutionContext(parent);
+        scoped.put("b", 20);
+
+        Map<String, Object> snapshot = scoped.snapshot();
+
+        assertEquals(Map.of("a", 1, "b", 20), snapshot);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("c", 3));
+        assertEquals(snapshot, scoped.view());
+    }
+
+    @Test
+    void testViewIsLiveOverlay() {
+        ExecutionContext parent = new ExecutionContext();
+        parent.put("a", 1);
+
+        ScopedExecutionContext scoped = new ScopedExecutionContext(parent);
+        Map<String, Object> view = scoped.view();
+        scoped.put("a", 10);
+        scoped.put("b", 2);
+        parent.put("c", 3);
+
+        assertEquals(Map.of("a", 10, "b", 2, "c", 3), view);
+        assertEquals(3, view.size());
+        assertThrows(UnsupportedOperationException.class, () -> view.put("d", 4));
+    }
+}
\ No newline at end of file
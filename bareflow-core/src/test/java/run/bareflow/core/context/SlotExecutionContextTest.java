@@ -0,0 +1,123 @@
+package run.bareflow.core.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.OnErrorDefinition;
+import run.bareflow.core.definition.StepDefinition;
+
+public class SlotExecutionContextTest {
+    private SlotExecutionContext ctx() {
+        return new SlotExecutionContext(ContextLayout.of(List.of("a", "b", "c")));
+    }
+
+    @Test
+    void testLayoutFromFlowDefinition() {
+        StepDefinition s1 = new StepDefinition("s1", "m", "op",
+                Map.of("x", "${userId}", "y", "id:${order.items[0]}"),
+                Map.of("result", "${raw}"),
+                null,
+                new OnErrorDefinition(OnErrorDefinition.Action.CONTINUE, 0, Map.of("failed", true)));
+        FlowDefinition flow = new FlowDefinition("flow", List.of(s1), null, null);
+
+        ContextLayout layout = ContextLayout.of(flow);
+
+        assertTrue(layout.slotOf("userId") >= 0);
+        assertTrue(layout.slotOf("order") >= 0);
+        assertTrue(layout.slotOf("result") >= 0);
+        assertTrue(layout.slotOf("raw") >= 0);
+        assertTrue(layout.slotOf("failed") >= 0);
+        assertEquals(-1, layout.slotOf("x"));
+        assertEquals("userId", layout.keyAt(layout.slotOf("userId")));
+    }
+
+    @Test
+    void testPutAndGetInSlotsAndOverflow() {
+        SlotExecutionContext ctx = ctx();
+
+        ctx.put("a", 1);
+        ctx.put("other", "overflow");
+
+        assertEquals(1, ctx.get("a"));
+        assertEquals(1, ctx.getSlot(ctx.getLayout().slotOf("a")));
+        assertEquals("overflow", ctx.get("other"));
+        assertNull(ctx.get("b"));
+        assertNull(ctx.get("missing"));
+    }
+
+    @Test
+    void testContainsDistinguishesNullFromAbsent() {
+        SlotExecutionContext ctx = ctx();
+
+        ctx.put("a", null);
+
+        assertTrue(ctx.contains("a"));
+        assertFalse(ctx.contains("b"));
+        assertFalse(ctx.contains("missing"));
+    }
+
+    @Test
+    void testMergeOverwritesExistingKeys() {
+        SlotExecutionContext ctx = ctx();
+
+        ctx.put("a", 1);
+        ctx.merge(Map.of("a", 999, "z", 0));
+        ctx.merge(null);
+
+        assertEquals(999, ctx.get("a"));
+        assertEquals(0, ctx.get("z"));
+    }
+
+    @Test
+    void testSnapshotIsImmutableCopy() {
+        SlotExecutionContext ctx = ctx();
+        ctx.put("a", 1);
+        ctx.put("z", 2);
+
+        Map<String, Object> snap = ctx.snapshot();
+        ctx.put("a", 100);
+
+        assertEquals(Map.of("a", 1, "z", 2), snap);
+        assertThrows(UnsupportedOperationException.class, () -> snap.put("b", 1));
+    }
+
+    @Test
+    void testViewIsLiveAndMapCompatible() {
+        SlotExecutionContext ctx = ctx();
+        ctx.put("b", 2);
+        ctx.put("z", 26);
+
+        Map<String, Object> view = ctx.view();
+        ctx.put("a", 1);
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+        expected.put("z", 26);
+
+        assertEquals(expected, view);
+        assertEquals(3, view.size());
+        assertTrue(view.containsKey("z"));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("c", 3));
+    }
+
+    @Test
+    void testFactoryReusesLayoutPerDefinition() {
+        StepDefinition s1 = new StepDefinition("s1", "m", "op", Map.of(), Map.of("out", "${v}"), null, null);
+        FlowDefinition flow = new FlowDefinition("flow", List.of(s1), null, null);
+        SlotContextFactory factory = new SlotContextFactory();
+
+        SlotExecutionContext first = (SlotExecutionContext) factory.apply(flow);
+        SlotExecutionContext second = (SlotExecutionContext) factory.apply(flow);
+
+        assertSame(first.getLayout(), second.getLayout());
+        assertSame(flow.getContextLayout(), first.getLayout());
+        assertNotSame(first, second);
+    }
+}
\ No newline at end of file
@@ -131,4 +131,30 @@ public class StepDefinitionTest {
 
         assertSame(onError, step.getOnError());
     }
+
+    @Test
+    void testBuilderSetsOptionalFields() {
+        ForEachDefinition forEach = new ForEachDefinition("${items}", "item", 2, "results");
+        HedgeDefinition hedge = new HedgeDefinition(95, 10, 5);
+
+        StepDefinition step = StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .input(Map.of("in", 1))
+                .forEach(forEach)
+                .when("${enabled}")
+                .hedge(hedge)
+                .build();
+
+        assertEquals("s", step.getName());
+        assertEquals("m#o", step.getOperationKey());
+        assertEquals(Map.of("in", 1), step.getInput());
+        assertTrue(step.getOutput().isEmpty());
+        assertSame(forEach, step.getForEach());
+        assertEquals("${enabled}", step.getWhen());
+        assertSame(hedge, step.getHedge());
+        assertNull(step.getFlow());
+        assertNull(step.getCache());
+        assertNull(step.getRetryPolicy());
+    }
 }
\ No newline at end of file
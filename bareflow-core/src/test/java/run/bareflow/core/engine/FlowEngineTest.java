@@ -3,17 +3,28 @@ package run.bareflow.core.engine;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
 import run.bareflow.core.context.ExecutionContext;
 import run.bareflow.core.definition.*;
+import run.bareflow.core.engine.cache.StepCaches;
+import run.bareflow.core.engine.evaluator.DefaultStepEvaluator;
+import run.bareflow.core.engine.hedge.StepHedging;
+import run.bareflow.core.engine.ratelimit.RateLimit;
+import run.bareflow.core.engine.ratelimit.RateLimits;
 import run.bareflow.core.engine.evaluator.StepEvaluator;
 import run.bareflow.core.engine.event.FlowEngineEvent;
 import run.bareflow.core.engine.event.FlowEngineEventListener;
 import run.bareflow.core.engine.invoker.StepInvoker;
 import run.bareflow.core.exception.*;
 import run.bareflow.core.trace.StepTrace;
+import run.bareflow.core.trace.StepTraceEntry;
+import run.bareflow.core.trace.TraceSampler;
+import run.bareflow.core.trace.TraceSink;
 
 public class FlowEngineTest {
     // ------------------------------------------------------------
@@ -387,4 +398,688 @@ public class FlowEngineTest {
 
         assertEquals(1, retryEvents);
     }
-}
\ No newline at end of file
+
+    // ------------------------------------------------------------
+    // 10. forEach: 要素ごとの実行と結果の収集
+    // ------------------------------------------------------------
+    @Test
+    public void test_forEach_collects_results_in_order() {
+        RecordingListener listener = new RecordingListener();
+        StepInvoker invoker = (module, operation, input) -> Map.of("doubled", (Integer) input.get("n") * 2);
+
+        FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), invoker, listener);
+
+        StepDefinition step = StepDefinition.builder("double")
+                .module("m")
+                .operation("o")
+                .input(Map.of("n", "${num}"))
+                .output(Map.of("value", "${doubled}"))
+                .forEach(new ForEachDefinition("${numbers}", "num", 1, "results"))
+                .build();
+
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("numbers", List.of(1, 2, 3));
+
+        StepTrace trace = engine.execute(flow, ctx);
+
+        assertEquals(List.of(Map.of("value", 2), Map.of("value", 4), Map.of("value", 6)), ctx.get("results"));
+        assertFalse(ctx.contains("num"));
+        assertFalse(ctx.contains("value"));
+
+        assertEquals(List.of("double[0]", "double[1]", "double[2]", "double"),
+                trace.getEntries().stream().map(e -> e.getStepName()).toList());
+
+        long itemEvents = listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.ForEachItemEndEvent)
+                .count();
+        assertEquals(3, itemEvents);
+    }
+
+    // ------------------------------------------------------------
+    // 11. forEach: maxConcurrency による並列実行
+    // ------------------------------------------------------------
+    @Test
+    public void test_forEach_runs_in_parallel_up_to_max_concurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        StepInvoker invoker = (module, operation, input) -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return input;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), invoker, event -> {
+            }, FlowEngineOptions.defaults().withForEachExecutor(executor));
+
+            StepDefinition step = StepDefinition.builder("fan")
+                    .module("m")
+                    .operation("o")
+                    .input(Map.of("id", "${item}"))
+                    .forEach(new ForEachDefinition("${ids}", "item", 3, "out"))
+                    .build();
+
+            FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+            ExecutionContext ctx = new ExecutionContext();
+            ctx.put("ids", new Integer[] { 0, 1, 2, 3, 4, 5, 6, 7 });
+
+            engine.execute(flow, ctx);
+
+            List<?> out = (List<?>) ctx.get("out");
+            assertEquals(8, out.size());
+            for (int i = 0; i < 8; i++) {
+                assertEquals(Map.of("id", i), out.get(i));
+            }
+            assertTrue(maxRunning.get() > 1);
+            assertTrue(maxRunning.get() <= 3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 12. forEach: RetryPolicy は要素単位で適用される
+    // ------------------------------------------------------------
+    @Test
+    public void test_forEach_retries_per_item() {
+        RecordingListener listener = new RecordingListener();
+        Set<Object> failedOnce = new HashSet<>();
+
+        StepInvoker invoker = (module, operation, input) -> {
+            if (input.get("v").equals("b") && failedOnce.add("b")) {
+                throw new SystemException("transient");
+            }
+            return Map.of("ok", input.get("v"));
+        };
+
+        FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), invoker, listener);
+
+        StepDefinition step = StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .input(Map.of("v", "${item}"))
+                .retryPolicy(new RetryPolicy(2, 0))
+                .forEach(new ForEachDefinition("${values}", "item", 1, "out"))
+                .build();
+
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("values", List.of("a", "b", "c"));
+
+        StepTrace trace = engine.execute(flow, ctx);
+
+        assertEquals(List.of(Map.of("ok", "a"), Map.of("ok", "b"), Map.of("ok", "c")), ctx.get("out"));
+        assertEquals(1, listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.ForEachItemRetryEvent).count());
+        assertEquals(0, listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.RetryPolicyRetryEvent).count());
+        assertEquals(List.of("s[0]", "s[1]", "s[1]", "s[2]", "s"),
+                trace.getEntries().stream().map(e -> e.getStepName()).toList());
+        assertEquals(2, trace.getEntries().get(2).getAttempt());
+    }
+
+    // ------------------------------------------------------------
+    // 13. forEach: 要素の失敗はステップの onError で扱われる
+    // ------------------------------------------------------------
+    @Test
+    public void test_forEach_item_failure_is_handled_by_step_onError() {
+        StepInvoker invoker = (module, operation, input) -> {
+            if (input.get("v").equals("bad")) {
+                throw new BusinessException("rejected");
+            }
+            return input;
+        };
+
+        FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), invoker, new RecordingListener());
+
+        StepDefinition step = StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .input(Map.of("v", "${item}"))
+                .onError(new OnErrorDefinition(OnErrorDefinition.Action.CONTINUE, 0, null))
+                .forEach(new ForEachDefinition("${values}", "item", 1, "out"))
+                .build();
+
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("values", List.of("ok", "bad", "never"));
+
+        StepTrace trace = engine.execute(flow, ctx);
+
+        assertFalse(ctx.contains("out"));
+        assertEquals(List.of("s[0]", "s[1]", "s"),
+                trace.getEntries().stream().map(e -> e.getStepName()).toList());
+        assertInstanceOf(BusinessException.class, trace.getEntries().get(2).getError());
+    }
+
+    // ------------------------------------------------------------
+    // 14. forEach: items がコレクションでない場合
+    // ------------------------------------------------------------
+    @Test
+    public void test_forEach_items_must_resolve_to_collection() {
+        FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), new FixedInvoker(Map.of()),
+                new RecordingListener());
+
+        StepDefinition step = StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .forEach(new ForEachDefinition("${missing}", "item", 1, "out"))
+                .build();
+
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        assertThrows(StepExecutionException.class, () -> engine.execute(flow, new ExecutionContext()));
+    }
+
+    // ------------------------------------------------------------
+    // 15. サブフロー: 子コンテキストと入れ子トレース
+    // ------------------------------------------------------------
+    @Test
+    public void test_sub_flow_runs_in_child_context_with_nested_trace() {
+        RecordingListener listener = new RecordingListener();
+        StepInvoker invoker = (module, operation, input) -> Map.of("userId", "u-" + input.get("token"));
+
+        StepDefinition login = new StepDefinition(
+                "login",
+                "Auth",
+                "login",
+                Map.of("token", "${token}"),
+                Map.of("userId", "${userId}", "internal", "secret"),
+                null,
+                null);
+        FlowDefinition authFlow = new FlowDefinition("auth", List.of(login), null, null);
+
+        StepDefinition callAuth = StepDefinition.builder("authenticate")
+                .input(Map.of("token", "${requestToken}"))
+                .output(Map.of("user", "${userId}"))
+                .flow("auth")
+                .build();
+        FlowDefinition flow = new FlowDefinition("main", List.of(callAuth), null, null);
+
+        FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), invoker, listener,
+                FlowEngineOptions.defaults().withSubFlows(new SubFlowRegistry(name -> authFlow)));
+
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("requestToken", "abc");
+
+        StepTrace trace = engine.execute(flow, ctx);
+
+        assertEquals("u-abc", ctx.get("user"));
+        assertFalse(ctx.contains("internal"));
+        assertFalse(ctx.contains("userId"));
+
+        assertEquals(1, trace.getEntries().size());
+        StepTrace child = trace.getEntries().get(0).getChildTrace();
+        assertNotNull(child);
+        assertEquals("login", child.getEntries().get(0).getStepName());
+        assertEquals(Map.of("token", "abc"), child.getEntries().get(0).getEvaluatedInput());
+
+        long flowStarts = listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.FlowStartEvent)
+                .count();
+        assertEquals(2, flowStarts);
+    }
+
+    // ------------------------------------------------------------
+    // 16. サブフロー: レジストリ未設定
+    // ------------------------------------------------------------
+    @Test
+    public void test_sub_flow_without_registry_fails_step() {
+        FlowEngine engine = new FlowEngine(new PassthroughEvaluator(), new FixedInvoker(Map.of()),
+                new RecordingListener());
+
+        StepDefinition step = StepDefinition.builder("call")
+                .flow("auth")
+                .build();
+        FlowDefinition flow = new FlowDefinition("main", List.of(step), null, null);
+
+        StepExecutionException e = assertThrows(StepExecutionException.class,
+                () -> engine.execute(flow, new ExecutionContext()));
+        assertInstanceOf(SystemException.class, e.getCause());
+    }
+
+    // ------------------------------------------------------------
+    // 17. when 条件: false ならスキップ（イベントのみ、トレースなし）
+    // ------------------------------------------------------------
+    @Test
+    public void test_when_condition_skips_step() {
+        RecordingListener listener = new RecordingListener();
+        List<String> invoked = new ArrayList<>();
+        StepInvoker invoker = (module, operation, input) -> {
+            invoked.add(operation);
+            return Map.of();
+        };
+
+        FlowEngine engine = new FlowEngine(new PassthroughEvaluator(), invoker, listener);
+
+        StepDefinition skipped = StepDefinition.builder("notify")
+                .module("m")
+                .operation("notify")
+                .when("${sendMail} == true")
+                .build();
+        StepDefinition executed = StepDefinition.builder("charge")
+                .module("m")
+                .operation("charge")
+                .when("${amount} > 0 && ${currency} != null")
+                .build();
+
+        FlowDefinition flow = new FlowDefinition("flow", List.of(skipped, executed), null, null);
+
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("sendMail", false);
+        ctx.put("amount", 10);
+        ctx.put("currency", "EUR");
+
+        StepTrace trace = engine.execute(flow, ctx);
+
+        assertEquals(List.of("charge"), invoked);
+        assertEquals(1, trace.getEntries().size());
+        assertEquals("charge", trace.getEntries().get(0).getStepName());
+
+        FlowEngineEvent.StepSkippedEvent event = listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.StepSkippedEvent)
+                .map(e -> (FlowEngineEvent.StepSkippedEvent) e)
+                .findFirst()
+                .orElseThrow();
+        assertSame(skipped, event.step());
+        assertEquals("${sendMail} == true", event.condition());
+        assertEquals(0, listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.StepStartEvent
+                        && ((FlowEngineEvent.StepStartEvent) e).step() == skipped)
+                .count());
+    }
+
+    // ------------------------------------------------------------
+    // 18. cache: 同じキーの 2 回目は呼び出しを省略
+    // ------------------------------------------------------------
+    @Test
+    public void test_cache_skips_invocation_on_hit() {
+        RecordingListener listener = new RecordingListener();
+        AtomicInteger calls = new AtomicInteger();
+        StepInvoker invoker = (module, operation, input) -> {
+            calls.incrementAndGet();
+            return Map.of("rate", 1.5);
+        };
+
+        StepCaches caches = new StepCaches();
+        FlowEngineOptions options = FlowEngineOptions.defaults().withStepCaches(caches);
+
+        StepDefinition step = StepDefinition.builder("rate")
+                .module("fx")
+                .operation("rate")
+                .input(Map.of("from", "${from}"))
+                .output(Map.of("rate", "${rate}"))
+                .cache(new CacheDefinition(0, 10, List.of("from")))
+                .build();
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        for (int i = 0; i < 2; i++) {
+            ExecutionContext ctx = new ExecutionContext();
+            ctx.put("from", "EUR");
+            StepTrace trace = new FlowEngine(new DefaultStepEvaluator(), invoker, listener, options)
+                    .execute(flow, ctx);
+
+            assertEquals(1.5, ctx.get("rate"));
+            assertEquals(Map.of("rate", 1.5), trace.getEntries().get(0).getRawOutput());
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, caches.statsOf(step).hits());
+        assertEquals(1, caches.statsOf(step).misses());
+
+        FlowEngineEvent.CacheHitEvent hit = listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.CacheHitEvent)
+                .map(e -> (FlowEngineEvent.CacheHitEvent) e)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of("EUR"), hit.key());
+        assertEquals(1, listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.CacheMissEvent).count());
+        assertEquals(1, listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.InvokeStartEvent).count());
+    }
+
+    // ------------------------------------------------------------
+    // 19. cache: 失敗はキャッシュしない
+    // ------------------------------------------------------------
+    @Test
+    public void test_cache_does_not_store_failures() {
+        AtomicInteger calls = new AtomicInteger();
+        StepInvoker invoker = (module, operation, input) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new BusinessException("unavailable");
+            }
+            return Map.of("ok", true);
+        };
+
+        FlowEngineOptions options = FlowEngineOptions.defaults().withStepCaches(new StepCaches());
+        StepDefinition step = StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .onError(new OnErrorDefinition(OnErrorDefinition.Action.CONTINUE, 0, Map.of()))
+                .cache(new CacheDefinition(0, 10, null))
+                .build();
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        FlowEngine engine = new FlowEngine(new PassthroughEvaluator(), invoker, new RecordingListener(), options);
+        engine.execute(flow, new ExecutionContext());
+        engine.execute(flow, new ExecutionContext());
+        engine.execute(flow, new ExecutionContext());
+
+        assertEquals(2, calls.get());
+    }
+
+    // ------------------------------------------------------------
+    // 20. hedge: 遅い呼び出しを追い越した結果を採用
+    // ------------------------------------------------------------
+    @Test
+    public void test_hedge_uses_first_successful_invocation() {
+        RecordingListener listener = new RecordingListener();
+        AtomicInteger calls = new AtomicInteger();
+        StepInvoker invoker = (module, operation, input) -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of("from", "primary");
+            }
+            return Map.of("from", "hedge");
+        };
+
+        FlowEngineOptions options = FlowEngineOptions.defaults().withStepHedging(new StepHedging());
+        StepDefinition step = StepDefinition.builder("quote")
+                .module("m")
+                .operation("quote")
+                .hedge(new HedgeDefinition(95, 5, 100))
+                .build();
+        FlowDefinition flow = new FlowDefinition("flow", List.of(step), null, null);
+
+        StepTrace trace = new FlowEngine(new PassthroughEvaluator(), invoker, listener, options)
+                .execute(flow, new ExecutionContext());
+
+        assertEquals(Map.of("from", "hedge"), trace.getEntries().get(0).getRawOutput());
+
+        FlowEngineEvent.HedgeStartEvent hedge = listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.HedgeStartEvent)
+                .map(e -> (FlowEngineEvent.HedgeStartEvent) e)
+                .findFirst()
+                .orElseThrow();
+        assertSame(step, hedge.step());
+        assertEquals(1, hedge.attempt());
+        assertEquals(5, hedge.delayMillis());
+    }
+
+    // ------------------------------------------------------------
+    // 21. rateLimits: トークン待ちは RateLimitWaitEvent として通知
+    // ------------------------------------------------------------
+    @Test
+    public void test_rate_limit_waits_before_invoke() {
+        RecordingListener listener = new RecordingListener();
+        List<Long> invokedAt = new ArrayList<>();
+        StepInvoker invoker = (module, operation, input) -> {
+            invokedAt.add(System.nanoTime());
+            return Map.of();
+        };
+
+        FlowEngineOptions options = FlowEngineOptions.defaults()
+                .withRateLimits(new RateLimits(Map.of("Api", new RateLimit(20, 1, 1_000))));
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("first", "Api", "get", Map.of(), Map.of(), null, null),
+                new StepDefinition("second", "Api", "get", Map.of(), Map.of(), null, null),
+                new StepDefinition("other", "Other", "get", Map.of(), Map.of(), null, null)), null, null);
+
+        new FlowEngine(new PassthroughEvaluator(), invoker, listener, options).execute(flow, new ExecutionContext());
+
+        assertEquals(3, invokedAt.size());
+        assertTrue(invokedAt.get(1) - invokedAt.get(0) >= 40_000_000L);
+
+        List<FlowEngineEvent.RateLimitWaitEvent> waits = listener.events.stream()
+                .filter(e -> e instanceof FlowEngineEvent.RateLimitWaitEvent)
+                .map(e -> (FlowEngineEvent.RateLimitWaitEvent) e)
+                .toList();
+        assertEquals(1, waits.size());
+        assertEquals("second", waits.get(0).step().getName());
+        assertTrue(waits.get(0).waitMillis() > 0 && waits.get(0).waitMillis() <= 50);
+    }
+
+    // ------------------------------------------------------------
+    // 22. traceFactory: フローごとの StepTrace を差し替え可能
+    // ------------------------------------------------------------
+    @Test
+    public void test_trace_factory_supplies_streaming_trace() {
+        List<String> appended = new ArrayList<>();
+        TraceSink sink = new TraceSink() {
+            @Override
+            public void append(StepTraceEntry entry) {
+                appended.add(entry.getStepName());
+            }
+
+            @Override
+            public long size() {
+                return appended.size();
+            }
+
+            @Override
+            public Iterator<StepTraceEntry> iterator() {
+                return Collections.emptyIterator();
+            }
+        };
+
+        FlowEngineOptions options = FlowEngineOptions.defaults()
+                .withTraceFactory(flow -> new StepTrace(sink, 1));
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("a", "m", "op", Map.of(), Map.of(), null, null),
+                new StepDefinition("b", "m", "op", Map.of(), Map.of(), null, null)), null, null);
+
+        StepTrace trace = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> Map.of(), new RecordingListener(),
+                options).execute(flow, new ExecutionContext());
+
+        assertTrue(trace.isStreaming());
+        assertEquals(List.of("a", "b"), appended);
+        assertEquals(1, trace.getEntries().size());
+    }
+
+    // ------------------------------------------------------------
+    // 23. traceSampler: 失敗のない通常フローは要約のみ残す
+    // ------------------------------------------------------------
+    @Test
+    public void test_trace_sampler_keeps_only_failed_traces() {
+        FlowEngineOptions options = FlowEngineOptions.defaults()
+                .withTraceSampler(new TraceSampler(0.0, null));
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("a", "m", "op", Map.of(), Map.of(), new RetryPolicy(2, 0), null)), null, null);
+
+        RecordingListener listener = new RecordingListener();
+        StepTrace fast = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> Map.of(), listener, options)
+                .execute(flow, new ExecutionContext());
+
+        assertTrue(fast.isSummary());
+        assertEquals(1, fast.getEntryCount());
+        assertTrue(fast.getEntries().isEmpty());
+        FlowEngineEvent.FlowEndEvent end = (FlowEngineEvent.FlowEndEvent) listener.events
+                .get(listener.events.size() - 1);
+        assertSame(fast, end.trace());
+
+        AtomicInteger calls = new AtomicInteger();
+        StepTrace retried = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new SystemException("fail once");
+            }
+            return Map.of();
+        }, new RecordingListener(), options).execute(flow, new ExecutionContext());
+
+        assertFalse(retried.isSummary());
+        assertEquals(2, retried.getEntries().size());
+    }
+
+    // ------------------------------------------------------------
+    // 24. 例外で中断したフローは FlowAbortedEvent を通知
+    // ------------------------------------------------------------
+    @Test
+    public void test_aborted_flow_emits_flow_aborted_event() {
+        RecordingListener listener = new RecordingListener();
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("a", "m", "op", Map.of(), Map.of(), null, null)), null, null);
+
+        FlowEngine engine = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> {
+            throw new SystemException("fail");
+        }, listener);
+
+        StepExecutionException thrown = assertThrows(StepExecutionException.class,
+                () -> engine.execute(flow, new ExecutionContext()));
+
+        FlowEngineEvent last = listener.events.get(listener.events.size() - 1);
+        assertTrue(last instanceof FlowEngineEvent.FlowAbortedEvent);
+        FlowEngineEvent.FlowAbortedEvent aborted = (FlowEngineEvent.FlowAbortedEvent) last;
+        assertSame(thrown, aborted.error());
+        assertEquals(1, aborted.trace().getFailureCount());
+        assertTrue(listener.events.stream().noneMatch(e -> e instanceof FlowEngineEvent.FlowEndEvent));
+    }
+
+    // ------------------------------------------------------------
+    // 25. forEach: Executor が拒否した場合は起動済みのワーカーで継続
+    // ------------------------------------------------------------
+    @Test
+    public void test_forEach_continues_when_executor_rejects_workers() {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        StepInvoker invoker = (module, operation, input) -> {
+            threads.add(Thread.currentThread().getName());
+            return input;
+        };
+        FlowEngine engine = new FlowEngine(new DefaultStepEvaluator(), invoker, event -> {
+        }, FlowEngineOptions.defaults().withForEachExecutor(task -> {
+            throw new java.util.concurrent.RejectedExecutionException("saturated");
+        }));
+
+        StepDefinition step = StepDefinition.builder("fan")
+                .module("m")
+                .operation("o")
+                .input(Map.of("id", "${item}"))
+                .forEach(new ForEachDefinition("${ids}", "item", 4, "out"))
+                .build();
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("ids", List.of(0, 1, 2, 3, 4));
+
+        engine.execute(new FlowDefinition("flow", List.of(step), null, null), ctx);
+
+        assertEquals(5, ((List<?>) ctx.get("out")).size());
+        assertEquals(Set.of(Thread.currentThread().getName()), new HashSet<>(threads));
+    }
+
+    // ------------------------------------------------------------
+    // 26. 例外で中断したフローの StepTrace はエンジンが close する
+    // ------------------------------------------------------------
+    @Test
+    public void test_aborted_flow_closes_its_trace_sink() {
+        List<String> closed = new ArrayList<>();
+        FlowEngineOptions options = FlowEngineOptions.defaults()
+                .withTraceFactory(flow -> new StepTrace(new TraceSink() {
+                    @Override
+                    public void append(StepTraceEntry entry) {
+                    }
+
+                    @Override
+                    public long size() {
+                        return 0;
+                    }
+
+                    @Override
+                    public Iterator<StepTraceEntry> iterator() {
+                        return Collections.emptyIterator();
+                    }
+
+                    @Override
+                    public void close() {
+                        closed.add(flow.getName());
+                    }
+                }, 1));
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("a", "m", "op", Map.of(), Map.of(), null, null)), null, null);
+
+        FlowEngine engine = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> {
+            throw new SystemException("fail");
+        }, new RecordingListener(), options);
+
+        assertThrows(StepExecutionException.class, () -> engine.execute(flow, new ExecutionContext()));
+        assertEquals(List.of("flow"), closed);
+    }
+
+    // ------------------------------------------------------------
+    // 27. Error で中断したフローも FlowAbortedEvent を通知
+    // ------------------------------------------------------------
+    @Test
+    public void test_flow_aborted_by_error_emits_flow_aborted_event() {
+        RecordingListener listener = new RecordingListener();
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("a", "m", "op", Map.of(), Map.of(), null, null)), null, null);
+        AssertionError error = new AssertionError("broken");
+
+        FlowEngine engine = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> {
+            throw error;
+        }, listener);
+
+        assertSame(error, assertThrows(AssertionError.class, () -> engine.execute(flow, new ExecutionContext())));
+
+        FlowEngineEvent last = listener.events.get(listener.events.size() - 1);
+        assertTrue(last instanceof FlowEngineEvent.FlowAbortedEvent);
+        assertSame(error, ((FlowEngineEvent.FlowAbortedEvent) last).error());
+    }
+
+    // ------------------------------------------------------------
+    // 28. traceSampler が保持しないフローは sink のレコードも破棄
+    // ------------------------------------------------------------
+    @Test
+    public void test_trace_sampler_discards_streamed_entries() {
+        List<String> appended = new ArrayList<>();
+        TraceSink sink = new TraceSink() {
+            @Override
+            public void append(StepTraceEntry entry) {
+                appended.add(entry.getStepName());
+            }
+
+            @Override
+            public long size() {
+                return appended.size();
+            }
+
+            @Override
+            public Iterator<StepTraceEntry> iterator() {
+                return Collections.emptyIterator();
+            }
+
+            @Override
+            public void discard() {
+                appended.clear();
+            }
+        };
+
+        FlowEngineOptions options = FlowEngineOptions.defaults()
+                .withTraceFactory(flow -> new StepTrace(sink, 1))
+                .withTraceSampler(new TraceSampler(0.0, null));
+        FlowDefinition flow = new FlowDefinition("flow", List.of(
+                new StepDefinition("a", "m", "op", Map.of(), Map.of(), null, null),
+                new StepDefinition("b", "m", "op", Map.of(), Map.of(), null, null)), null, null);
+
+        StepTrace trace = new FlowEngine(new PassthroughEvaluator(), (m, o, i) -> Map.of(), new RecordingListener(),
+                options).execute(flow, new ExecutionContext());
+
+        assertTrue(trace.isSummary());
+        assertEquals(2, trace.getEntryCount());
+        assertTrue(appended.isEmpty());
+    }
+}
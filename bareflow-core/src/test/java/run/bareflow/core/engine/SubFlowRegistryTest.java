@@ -0,0 +1,105 @@
+package run.bareflow.core.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.resolver.FlowDefinitionResolver;
+
+public class SubFlowRegistryTest {
+    private static class CountingResolver implements FlowDefinitionResolver {
+        final Map<String, FlowDefinition> flows = new HashMap<>();
+        final List<String> resolved = new ArrayList<>();
+
+        @Override
+        public FlowDefinition resolve(String flowName) {
+            resolved.add(flowName);
+            return flows.get(flowName);
+        }
+    }
+
+    private static FlowDefinition flow(String name, String... calls) {
+        List<StepDefinition> steps = new ArrayList<>();
+        steps.add(new StepDefinition("work", "m", "o", null, null, null, null));
+        for (String call : calls) {
+            steps.add(StepDefinition.builder("call-" + call)
+                    .flow(call)
+                    .build());
+        }
+        return new FlowDefinition(name, steps, null, null);
+    }
+
+    // ------------------------------------------------------------
+    // 1. 初回のみ解決し、以降はキャッシュを返す
+    // ------------------------------------------------------------
+    @Test
+    void testResolvesOnceAndCaches() {
+        CountingResolver resolver = new CountingResolver();
+        resolver.flows.put("auth", flow("auth"));
+
+        SubFlowRegistry registry = new SubFlowRegistry(resolver);
+
+        FlowDefinition first = registry.get("auth");
+        FlowDefinition second = registry.get("auth");
+
+        assertSame(first, second);
+        assertTrue(registry.isCached("auth"));
+        assertEquals(List.of("auth"), resolver.resolved);
+    }
+
+    // ------------------------------------------------------------
+    // 2. 入れ子のサブフローもまとめて解決される
+    // ------------------------------------------------------------
+    @Test
+    void testResolvesNestedSubFlowsEagerly() {
+        CountingResolver resolver = new CountingResolver();
+        resolver.flows.put("enrich", flow("enrich", "audit"));
+        resolver.flows.put("audit", flow("audit"));
+
+        SubFlowRegistry registry = new SubFlowRegistry(resolver);
+        registry.get("enrich");
+
+        assertTrue(registry.isCached("audit"));
+        registry.get("audit");
+        assertEquals(List.of("enrich", "audit"), resolver.resolved);
+    }
+
+    // ------------------------------------------------------------
+    // 3. 循環呼び出しは拒否される
+    // ------------------------------------------------------------
+    @Test
+    void testRejectsCycles() {
+        CountingResolver resolver = new CountingResolver();
+        resolver.flows.put("a", flow("a", "b"));
+        resolver.flows.put("b", flow("b", "a"));
+
+        SubFlowRegistry registry = new SubFlowRegistry(resolver);
+
+        SystemException e = assertThrows(SystemException.class, () -> registry.get("a"));
+        assertEquals("Sub-flow cycle detected: a -> b -> a", e.getMessage());
+        assertFalse(registry.isCached("a"));
+    }
+
+    // ------------------------------------------------------------
+    // 4. 解決できないフロー
+    // ------------------------------------------------------------
+    @Test
+    void testUnknownFlow() {
+        SubFlowRegistry registry = new SubFlowRegistry(new CountingResolver());
+        assertThrows(SystemException.class, () -> registry.get("missing"));
+
+        SubFlowRegistry failing = new SubFlowRegistry(name -> {
+            throw new IllegalStateException("boom");
+        });
+        SystemException e = assertThrows(SystemException.class, () -> failing.get("x"));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package run.bareflow.core.engine.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.CacheDefinition;
+import run.bareflow.core.definition.StepDefinition;
+
+public class StepCachesTest {
+    private static StepDefinition step(CacheDefinition cache) {
+        return StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .cache(cache)
+                .build();
+    }
+
+    // ------------------------------------------------------------
+    // 1. ステップごとに同じキャッシュを返す
+    // ------------------------------------------------------------
+    @Test
+    void testCachePerStep() {
+        StepCaches caches = new StepCaches();
+        StepDefinition a = step(new CacheDefinition(0, 10, null));
+        StepDefinition b = step(new CacheDefinition(0, 10, null));
+
+        assertSame(caches.cacheFor(a), caches.cacheFor(a));
+        assertNotSame(caches.cacheFor(a), caches.cacheFor(b));
+        assertNull(caches.statsOf(step(new CacheDefinition(0, 10, null))));
+
+        caches.cacheFor(a).put("k", Map.of());
+        assertEquals(1, caches.statsOf(a).size());
+    }
+
+    // ------------------------------------------------------------
+    // 2. キー: 指定フィールドのみ / 未指定なら入力全体
+    // ------------------------------------------------------------
+    @Test
+    void testKeyOf() {
+        Map<String, Object> input = Map.of("id", 1, "lang", "ja", "traceId", "x");
+
+        assertEquals(input, StepCaches.keyOf(new CacheDefinition(0, 10, List.of()), input));
+        assertEquals(Arrays.asList(1, "ja"),
+                StepCaches.keyOf(new CacheDefinition(0, 10, List.of("id", "lang")), input));
+        assertEquals(
+                StepCaches.keyOf(new CacheDefinition(0, 10, List.of("id")), input),
+                StepCaches.keyOf(new CacheDefinition(0, 10, List.of("id")), Map.of("id", 1, "traceId", "y")));
+        assertEquals(Arrays.asList((Object) null),
+                StepCaches.keyOf(new CacheDefinition(0, 10, List.of("missing")), input));
+    }
+}
\ No newline at end of file
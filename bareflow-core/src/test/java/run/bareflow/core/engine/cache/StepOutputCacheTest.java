@@ -0,0 +1,116 @@
+package run.bareflow.core.engine.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class StepOutputCacheTest {
+    // ------------------------------------------------------------
+    // 1. ヒット / ミスと統計
+    // ------------------------------------------------------------
+    @Test
+    void testHitMissAndStats() {
+        StepOutputCache cache = new StepOutputCache(10, 0);
+
+        assertNull(cache.get("a"));
+        cache.put("a", Map.of("v", 1));
+
+        assertEquals(Map.of("v", 1), cache.get("a"));
+        assertEquals(Map.of("v", 1), cache.get("a"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0, stats.evictions());
+        assertEquals(1, stats.size());
+        assertEquals(2.0 / 3.0, stats.hitRate(), 1e-9);
+    }
+
+    // ------------------------------------------------------------
+    // 2. 保存時に不変コピーを取る
+    // ------------------------------------------------------------
+    @Test
+    void testStoresImmutableCopy() {
+        StepOutputCache cache = new StepOutputCache(10, 0);
+        Map<String, Object> output = new HashMap<>();
+        output.put("v", 1);
+
+        cache.put("a", output);
+        output.put("v", 2);
+
+        Map<String, Object> cached = cache.get("a");
+        assertEquals(1, cached.get("v"));
+        assertThrows(UnsupportedOperationException.class, () -> cached.put("v", 3));
+    }
+
+    // ------------------------------------------------------------
+    // 3. TTL 経過で期限切れ
+    // ------------------------------------------------------------
+    @Test
+    void testExpiresAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        StepOutputCache cache = new StepOutputCache(10, 100, now::get);
+
+        cache.put("a", Map.of("v", 1));
+
+        now.set(TimeUnit.MILLISECONDS.toNanos(99));
+        assertNotNull(cache.get("a"));
+
+        now.set(TimeUnit.MILLISECONDS.toNanos(100));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.stats().size());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    // ------------------------------------------------------------
+    // 4. 一度きりのキーは頻出キーを追い出さない
+    // ------------------------------------------------------------
+    @Test
+    void testOneOffKeysDoNotEvictPopularKeys() {
+        StepOutputCache cache = new StepOutputCache(100, 0);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot" + i, Map.of("v", i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                assertNotNull(cache.get("hot" + i));
+            }
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("scan" + i, Map.of("v", i));
+        }
+
+        for (int i = 0; i < 99; i++) {
+            assertNotNull(cache.get("hot" + i), "hot" + i);
+        }
+        assertTrue(cache.stats().size() <= 100);
+    }
+
+    // ------------------------------------------------------------
+    // 5. 頻繁に要求された新規キーは受け入れる
+    // ------------------------------------------------------------
+    @Test
+    void testFrequentNewcomerIsAdmitted() {
+        StepOutputCache cache = new StepOutputCache(100, 0);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("old" + i, Map.of("v", i));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertNull(cache.get("new"));
+        }
+
+        cache.put("new", Map.of("v", -1));
+        cache.put("next", Map.of("v", -2)); // pushes "new" out of the window
+
+        assertEquals(Map.of("v", -1), cache.get("new"));
+        assertTrue(cache.stats().size() <= 100);
+    }
+}
\ No newline at end of file
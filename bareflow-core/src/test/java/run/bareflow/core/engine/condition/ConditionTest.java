@@ -0,0 +1,124 @@
+package run.bareflow.core.engine.condition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+
+public class ConditionTest {
+    private ExecutionContext ctx() {
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("enabled", true);
+        ctx.put("disabled", false);
+        ctx.put("count", 5);
+        ctx.put("ratio", 0.5);
+        ctx.put("region", "eu");
+        ctx.put("nothing", null);
+        return ctx;
+    }
+
+    private boolean eval(String expression) {
+        return Condition.compile(expression).test(ctx());
+    }
+
+    // ------------------------------------------------------------
+    // 1. 単独のオペランド（真偽判定）
+    // ------------------------------------------------------------
+    @Test
+    void testTruthiness() {
+        assertTrue(eval("${enabled}"));
+        assertFalse(eval("${disabled}"));
+        assertFalse(eval("${nothing}"));
+        assertFalse(eval("${missing}"));
+        assertTrue(eval("${region}"));
+        assertTrue(eval("true"));
+    }
+
+    // ------------------------------------------------------------
+    // 2. 等価比較と null チェック
+    // ------------------------------------------------------------
+    @Test
+    void testEquality() {
+        assertTrue(eval("${region} == 'eu'"));
+        assertTrue(eval("${region} != \"us\""));
+        assertTrue(eval("${count} == 5"));
+        assertTrue(eval("${count} == 5.0"));
+        assertTrue(eval("${enabled} == true"));
+        assertTrue(eval("${nothing} == null"));
+        assertTrue(eval("${missing} == null"));
+        assertTrue(eval("${region} != null"));
+        assertFalse(eval("${count} == '5'"));
+    }
+
+    // ------------------------------------------------------------
+    // 3. 数値・文字列の大小比較
+    // ------------------------------------------------------------
+    @Test
+    void testOrdering() {
+        assertTrue(eval("${count} > 4"));
+        assertTrue(eval("${count} >= 5"));
+        assertFalse(eval("${count} < 5"));
+        assertTrue(eval("${count} <= 5"));
+        assertTrue(eval("${ratio} < 1"));
+        assertTrue(eval("${ratio} > -1"));
+        assertTrue(eval("${region} < 'fr'"));
+
+        // incomparable operands are never ordered
+        assertFalse(eval("${nothing} < 1"));
+        assertFalse(eval("${nothing} >= 1"));
+        assertFalse(eval("${region} > 1"));
+    }
+
+    // ------------------------------------------------------------
+    // 4. 論理演算子と優先順位
+    // ------------------------------------------------------------
+    @Test
+    void testBooleanOperators() {
+        assertTrue(eval("${enabled} && ${count} > 1"));
+        assertFalse(eval("${enabled} && ${disabled}"));
+        assertTrue(eval("${disabled} || ${enabled}"));
+        assertTrue(eval("!${disabled}"));
+        assertTrue(eval("${disabled} && ${enabled} || ${enabled}"));
+        assertFalse(eval("${disabled} && (${enabled} || ${enabled})"));
+        assertTrue(eval("!(${count} < 3 || ${region} == 'us')"));
+    }
+
+    // ------------------------------------------------------------
+    // 5. コンパイル結果は StepDefinition ごとに保持
+    // ------------------------------------------------------------
+    @Test
+    void testCompiledConditionIsKeptPerStep() {
+        StepDefinition step = StepDefinition.builder("s")
+                .module("m")
+                .operation("op")
+                .when("${count} > 1")
+                .build();
+        StepDefinition unconditional = new StepDefinition("s", "m", "op", Map.of(), Map.of(), null, null);
+
+        assertSame(StepConditions.of(step), StepConditions.of(step));
+        assertTrue(StepConditions.of(step).test(ctx()));
+        assertNull(StepConditions.of(unconditional));
+    }
+
+    // ------------------------------------------------------------
+    // 6. 構文エラー
+    // ------------------------------------------------------------
+    @Test
+    void testSyntaxErrors() {
+        assertThrows(SystemException.class, () -> Condition.compile(""));
+        assertThrows(SystemException.class, () -> Condition.compile("${count} >"));
+        assertThrows(SystemException.class, () -> Condition.compile("(${enabled}"));
+        assertThrows(SystemException.class, () -> Condition.compile("${enabled} ${count}"));
+        assertThrows(SystemException.class, () -> Condition.compile("${count"));
+        assertThrows(SystemException.class, () -> Condition.compile("'open"));
+        assertThrows(SystemException.class, () -> Condition.compile("yes"));
+
+        SystemException e = assertThrows(SystemException.class, () -> Condition.compile("${a} = 1"));
+        assertEquals("Invalid condition '${a} = 1' at position 6: unexpected character '='", e.getMessage());
+    }
+}
\ No newline at end of file
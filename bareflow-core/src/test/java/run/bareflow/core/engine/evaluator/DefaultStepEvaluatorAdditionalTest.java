@@ -2,11 +2,17 @@ package run.bareflow.core.engine.evaluator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
+import run.bareflow.core.context.ContextLayout;
 import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.context.SlotExecutionContext;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.util.CompactMap;
 
 public class DefaultStepEvaluatorAdditionalTest {
     private final DefaultStepEvaluator evaluator = new DefaultStepEvaluator();
@@ -63,4 +69,140 @@ public class DefaultStepEvaluatorAdditionalTest {
 
         assertEquals("hello ${world", result.get("x"));
     }
+
+    @Test
+    void testTemplateRendersLiteralAndPlaceholderSegments() {
+        ExecutionContext ctx = ctx();
+        ctx.put("id", 42);
+        Map<String, Object> input = Map.of("x", "user:${id}:${name}");
+
+        Map<String, Object> result = evaluator.evaluateInput(input, ctx);
+
+        assertEquals("user:42:Alice", result.get("x"));
+    }
+
+    @Test
+    void testTemplateUnresolvedPlaceholderRendersEmpty() {
+        Map<String, Object> input = Map.of("x", "[${unknown}]");
+
+        Map<String, Object> result = evaluator.evaluateInput(input, ctx());
+
+        assertEquals("[]", result.get("x"));
+    }
+
+    @Test
+    void testTemplateInOutputResolvesRawOutputFirst() {
+        Map<String, Object> outputMapping = Map.of("x", "${name}/${code}");
+
+        Map<String, Object> result = evaluator.evaluateOutput(outputMapping, Map.of("code", 7), ctx());
+
+        assertEquals("Alice/7", result.get("x"));
+    }
+
+    @Test
+    void testAdjacentPlaceholdersFormTemplate() {
+        ExecutionContext ctx = ctx();
+        ctx.put("n", 1);
+        Map<String, Object> input = Map.of("x", "${name}${n}");
+
+        Map<String, Object> result = evaluator.evaluateInput(input, ctx);
+
+        assertEquals("Alice1", result.get("x"));
+    }
+
+    @Test
+    void testEmptyPlaceholderIsLiteral() {
+        Map<String, Object> input = Map.of("x", "a${}b");
+
+        Map<String, Object> result = evaluator.evaluateInput(input, ctx());
+
+        assertEquals("a${}b", result.get("x"));
+    }
+
+    @Test
+    void testCompiledTemplateIsReusedAcrossEvaluations() {
+        Map<String, Object> input = Map.of("x", "hi ${name}");
+        ExecutionContext ctx = ctx();
+
+        assertEquals("hi Alice", evaluator.evaluateInput(input, ctx).get("x"));
+
+        ctx.put("name", "Bob");
+        assertEquals("hi Bob", evaluator.evaluateInput(input, ctx).get("x"));
+    }
+
+    @Test
+    void testCompiledValuesAreEvictedLeastRecentlyUsedFirst() {
+        DefaultStepEvaluator bounded = new DefaultStepEvaluator(2);
+
+        bounded.evaluateInput(Map.of("x", "${a}"), ctx());
+        bounded.evaluateInput(Map.of("x", "${b}"), ctx());
+        bounded.evaluateInput(Map.of("x", "${a}"), ctx());
+        bounded.evaluateInput(Map.of("x", "${c}"), ctx());
+
+        assertTrue(bounded.isCompiled("${a}"));
+        assertFalse(bounded.isCompiled("${b}"));
+        assertTrue(bounded.isCompiled("${c}"));
+
+        // an evicted value is compiled and cached again on its next use
+        assertEquals("Alice", bounded.evaluateOutput(Map.of("x", "${b}"), Map.of("b", "Alice"), ctx()).get("x"));
+        assertTrue(bounded.isCompiled("${b}"));
+        assertFalse(bounded.isCompiled("${a}"));
+    }
+
+    @Test
+    void testSlotContextResolvesThroughSlotsAndOverflow() {
+        SlotExecutionContext ctx = new SlotExecutionContext(ContextLayout.of(List.of("name")));
+        ctx.put("name", "Alice");
+        ctx.put("extra", 1);
+        Map<String, Object> input = Map.of("x", "${name}", "y", "${extra}", "z", "${missing}");
+
+        Map<String, Object> first = evaluator.evaluateInput(input, ctx);
+        ctx.put("name", "Bob");
+        Map<String, Object> second = evaluator.evaluateInput(input, ctx);
+
+        assertEquals("Alice", first.get("x"));
+        assertEquals(1, first.get("y"));
+        assertNull(first.get("z"));
+        assertEquals("Bob", second.get("x"));
+
+        // the same compiled placeholder keeps working with a plain context
+        assertEquals("Alice", evaluator.evaluateInput(input, ctx()).get("x"));
+    }
+
+    @Test
+    void testSharedPlaceholderAcrossInterleavedLayouts() {
+        SlotExecutionContext a = new SlotExecutionContext(ContextLayout.of(List.of("name", "other")));
+        SlotExecutionContext b = new SlotExecutionContext(ContextLayout.of(List.of("other", "x", "name")));
+        a.put("name", "Alice");
+        b.put("name", "Bob");
+        Map<String, Object> input = Map.of("x", "${name}");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Alice", evaluator.evaluateInput(input, a).get("x"));
+            assertEquals("Bob", evaluator.evaluateInput(input, b).get("x"));
+        }
+    }
+
+    @Test
+    void testRawOutputNullValueDoesNotFallBackToContext() {
+        Map<String, Object> rawOutput = new HashMap<>();
+        rawOutput.put("name", null);
+
+        Map<String, Object> result = evaluator.evaluateOutput(Map.of("x", "${name}"), rawOutput, ctx());
+
+        assertNull(result.get("x"));
+    }
+
+    @Test
+    void testEvaluatedMapSharesDefinitionKeysAndIsImmutable() {
+        StepDefinition step = new StepDefinition("s", "m", "op",
+                Map.of("x", "${name}", "y", "lit"), Map.of(), null, null);
+
+        Map<String, Object> result = evaluator.evaluateInput(step.getInput(), ctx());
+
+        assertInstanceOf(CompactMap.class, result);
+        assertSame(((CompactMap) step.getInput()).keys(), ((CompactMap) result).keys());
+        assertEquals(Map.of("x", "Alice", "y", "lit"), result);
+        assertThrows(UnsupportedOperationException.class, () -> result.put("z", 1));
+    }
 }
\ No newline at end of file
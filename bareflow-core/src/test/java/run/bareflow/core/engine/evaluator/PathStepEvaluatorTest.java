@@ -0,0 +1,120 @@
+package run.bareflow.core.engine.evaluator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+
+public class PathStepEvaluatorTest extends StepEvaluatorContractTest {
+    @Override
+    protected StepEvaluator createEvaluator() {
+        return new PathStepEvaluator();
+    }
+
+    private ExecutionContext orderContext() {
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("order", Map.of(
+                "id", "o-1",
+                "items", List.of(
+                        Map.of("sku", "A-100", "qty", 2),
+                        Map.of("sku", "B-200", "qty", 1))));
+        return ctx;
+    }
+
+    @Test
+    void testNestedMapAndListPath() {
+        StepEvaluator evaluator = createEvaluator();
+
+        Map<String, Object> result = evaluator.evaluateInput(
+                Map.of("id", "${order.id}", "sku", "${order.items[1].sku}"),
+                orderContext());
+
+        assertEquals("o-1", result.get("id"));
+        assertEquals("B-200", result.get("sku"));
+    }
+
+    @Test
+    void testPathReturnsNestedObjectWithoutCopy() {
+        StepEvaluator evaluator = createEvaluator();
+        ExecutionContext ctx = orderContext();
+
+        Map<String, Object> result = evaluator.evaluateInput(Map.of("items", "${order.items}"), ctx);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> order = (Map<String, Object>) ctx.get("order");
+        assertSame(order.get("items"), result.get("items"));
+    }
+
+    @Test
+    void testMissingSegmentsEvaluateToNull() {
+        StepEvaluator evaluator = createEvaluator();
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("a", "${order.unknown.sku}");
+        input.put("b", "${order.items[5].sku}");
+        input.put("c", "${order.id[0]}");
+        input.put("d", "${missing.id}");
+
+        Map<String, Object> result = evaluator.evaluateInput(input, orderContext());
+
+        assertNull(result.get("a"));
+        assertNull(result.get("b"));
+        assertNull(result.get("c"));
+        assertNull(result.get("d"));
+    }
+
+    @Test
+    void testPathInOutputResolvesRawOutputFirst() {
+        StepEvaluator evaluator = createEvaluator();
+
+        Map<String, Object> result = evaluator.evaluateOutput(
+                Map.of("sku", "${order.items[0].sku}"),
+                Map.of("order", Map.of("items", List.of(Map.of("sku", "RAW")))),
+                orderContext());
+
+        assertEquals("RAW", result.get("sku"));
+    }
+
+    @Test
+    void testPathInsideTemplate() {
+        StepEvaluator evaluator = createEvaluator();
+
+        Map<String, Object> result = evaluator.evaluateInput(
+                Map.of("key", "order:${order.id}:${order.items[0].qty}"),
+                orderContext());
+
+        assertEquals("order:o-1:2", result.get("key"));
+    }
+
+    @Test
+    void testInvalidPathFallsBackToFlatKey() {
+        StepEvaluator evaluator = createEvaluator();
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.put("a..b", 1);
+        ctx.put("x[y]", 2);
+
+        Map<String, Object> result = evaluator.evaluateInput(Map.of("p", "${a..b}", "q", "${x[y]}"), ctx);
+
+        assertEquals(1, result.get("p"));
+        assertEquals(2, result.get("q"));
+    }
+
+    @Test
+    void testPrepareCompilesFlowAheadOfExecution() {
+        PathStepEvaluator evaluator = new PathStepEvaluator();
+        StepDefinition step = new StepDefinition("s", "m", "op",
+                Map.of("sku", "${order.items[0].sku}"), Map.of(), null, null);
+
+        evaluator.prepare(new FlowDefinition("flow", List.of(step), null, null));
+
+        assertTrue(evaluator.isCompiled("${order.items[0].sku}"));
+        assertEquals("A-100", evaluator.evaluateInput(step.getInput(), orderContext()).get("sku"));
+    }
+}
\ No newline at end of file
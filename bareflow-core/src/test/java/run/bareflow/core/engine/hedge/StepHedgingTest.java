@@ -0,0 +1,186 @@
+package run.bareflow.core.engine.hedge;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.HedgeDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.BusinessException;
+import run.bareflow.core.exception.SystemException;
+
+public class StepHedgingTest {
+    private static StepDefinition step(HedgeDefinition hedge) {
+        return StepDefinition.builder("s")
+                .module("m")
+                .operation("o")
+                .hedge(hedge)
+                .build();
+    }
+
+    // ------------------------------------------------------------
+    // 1. 遅延内に完了すればヘッジしない
+    // ------------------------------------------------------------
+    @Test
+    void testFastInvocationIsNotHedged() {
+        StepHedging hedging = new StepHedging();
+        StepDefinition step = step(new HedgeDefinition(95, 1_000, 100));
+        List<Long> hedges = new ArrayList<>();
+
+        Map<String, Object> out = hedging.invoke(step, () -> Map.of("v", 1), hedges::add);
+
+        assertEquals(Map.of("v", 1), out);
+        assertTrue(hedges.isEmpty());
+        assertEquals(new HedgeStats(1, 0, 0), hedging.statsOf(step));
+    }
+
+    // ------------------------------------------------------------
+    // 2. 遅い呼び出しはヘッジし、先に成功した結果を返して他方をキャンセル
+    // ------------------------------------------------------------
+    @Test
+    void testSlowInvocationIsHedgedAndLoserCancelled() throws Exception {
+        StepHedging hedging = new StepHedging();
+        StepDefinition step = step(new HedgeDefinition(95, 10, 100));
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch primaryInterrupted = new CountDownLatch(1);
+        List<Long> hedges = new ArrayList<>();
+
+        Map<String, Object> out = hedging.invoke(step, () -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    primaryInterrupted.countDown();
+                }
+                return Map.of("v", "primary");
+            }
+            return Map.of("v", "hedge");
+        }, hedges::add);
+
+        assertEquals(Map.of("v", "hedge"), out);
+        assertEquals(List.of(10L), hedges);
+        assertTrue(primaryInterrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(new HedgeStats(1, 1, 1), hedging.statsOf(step));
+    }
+
+    // ------------------------------------------------------------
+    // 3. 予算が無ければヘッジせず元の呼び出しを待つ
+    // ------------------------------------------------------------
+    @Test
+    void testBudgetLimitsHedges() {
+        StepHedging hedging = new StepHedging();
+        StepDefinition step = step(new HedgeDefinition(95, 1, 10));
+        AtomicInteger calls = new AtomicInteger();
+        List<Long> hedges = new ArrayList<>();
+
+        Map<String, Object> out = hedging.invoke(step, () -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("v", 1);
+        }, hedges::add);
+
+        assertEquals(Map.of("v", 1), out);
+        assertEquals(1, calls.get());
+        assertTrue(hedges.isEmpty());
+    }
+
+    // ------------------------------------------------------------
+    // 4. すべて失敗した場合は例外をそのまま再スロー
+    // ------------------------------------------------------------
+    @Test
+    void testFailureIsRethrown() {
+        StepHedging hedging = new StepHedging();
+        StepDefinition step = step(new HedgeDefinition(95, 1, 100));
+        BusinessException failure = new BusinessException("rejected");
+
+        BusinessException thrown = assertThrows(BusinessException.class,
+                () -> hedging.invoke(step, () -> {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw failure;
+                }, delay -> {
+                }));
+
+        assertSame(failure, thrown);
+    }
+
+    // ------------------------------------------------------------
+    // 5. 遅延は観測レイテンシのパーセンタイルに追従
+    // ------------------------------------------------------------
+    @Test
+    void testDelayFollowsObservedPercentile() {
+        HedgeState state = new HedgeState(new HedgeDefinition(90, 500, 10));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), state.onInvocation());
+
+        for (int i = 1; i <= 100; i++) {
+            state.record(TimeUnit.MILLISECONDS.toNanos(i), false);
+        }
+        // recomputed after samples 35, 51, 67, 83 and 99
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(90), state.onInvocation());
+    }
+
+    // ------------------------------------------------------------
+    // 6. ヘッジが拒否されたら予算を戻して元の呼び出しを待つ
+    // ------------------------------------------------------------
+    @Test
+    void testRejectedHedgeWaitsForPrimary() {
+        AtomicInteger submitted = new AtomicInteger();
+        Executor executor = task -> {
+            if (submitted.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("saturated");
+            }
+            new Thread(task).start();
+        };
+        StepHedging hedging = new StepHedging(executor);
+        StepDefinition step = step(new HedgeDefinition(95, 1, 100));
+        List<Long> hedges = new ArrayList<>();
+
+        Map<String, Object> out = hedging.invoke(step, () -> {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("v", "primary");
+        }, hedges::add);
+
+        assertEquals(Map.of("v", "primary"), out);
+        assertEquals(2, submitted.get());
+        assertTrue(hedges.isEmpty());
+        assertEquals(new HedgeStats(1, 0, 0), hedging.statsOf(step));
+    }
+
+    // ------------------------------------------------------------
+    // 7. 元の呼び出しが拒否されたら SystemException
+    // ------------------------------------------------------------
+    @Test
+    void testRejectedPrimaryThrowsSystemException() {
+        StepHedging hedging = new StepHedging(task -> {
+            throw new RejectedExecutionException("saturated");
+        });
+        StepDefinition step = step(new HedgeDefinition(95, 1, 100));
+
+        SystemException thrown = assertThrows(SystemException.class,
+                () -> hedging.invoke(step, () -> Map.of("v", 1), delay -> {
+                }));
+
+        assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+    }
+}
\ No newline at end of file
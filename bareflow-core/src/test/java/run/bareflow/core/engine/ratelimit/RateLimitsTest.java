@@ -0,0 +1,110 @@
+package run.bareflow.core.engine.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+
+public class RateLimitsTest {
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    // ------------------------------------------------------------
+    // 1. バースト分は即時、それ以降は予約順に待機
+    // ------------------------------------------------------------
+    @Test
+    void testBurstThenQueuedWaits() {
+        AtomicLong now = new AtomicLong();
+        RateLimits limits = new RateLimits(Map.of("Api", new RateLimit(10, 2, 1_000)), now::get);
+
+        assertEquals(0, limits.reserve("Api", "get"));
+        assertEquals(0, limits.reserve("Api", "get"));
+        assertEquals(millis(100), limits.reserve("Api", "get"));
+        assertEquals(millis(200), limits.reserve("Api", "get"));
+
+        // after 1s the debt is paid and the bucket refilled to burst
+        now.addAndGet(millis(1_000));
+        assertEquals(0, limits.reserve("Api", "get"));
+        assertEquals(0, limits.reserve("Api", "get"));
+        assertEquals(millis(100), limits.reserve("Api", "get"));
+    }
+
+    // ------------------------------------------------------------
+    // 2. 最大待機時間を超える場合は即座に失敗（トークンは消費しない）
+    // ------------------------------------------------------------
+    @Test
+    void testWaitBeyondMaximumFails() {
+        AtomicLong now = new AtomicLong();
+        RateLimits limits = new RateLimits(Map.of("Api", new RateLimit(10, 1, 150)), now::get);
+
+        assertEquals(0, limits.reserve("Api", "get"));
+        assertEquals(millis(100), limits.reserve("Api", "get"));
+        assertThrows(SystemException.class, () -> limits.reserve("Api", "get"));
+
+        now.addAndGet(millis(100));
+        assertEquals(millis(100), limits.reserve("Api", "get"));
+    }
+
+    // ------------------------------------------------------------
+    // 3. operation と module の両方の制限を適用
+    // ------------------------------------------------------------
+    @Test
+    void testOperationAndModuleLimitsBothApply() {
+        AtomicLong now = new AtomicLong();
+        RateLimits limits = new RateLimits(Map.of(
+                "Api", new RateLimit(1, 1, 0),
+                "Api#search", new RateLimit(100, 5, 0)), now::get);
+
+        assertTrue(limits.tryAcquire("Api", "search"));
+        // module bucket is empty: rejected, and the operation token is refunded
+        assertFalse(limits.tryAcquire("Api", "search"));
+        assertFalse(limits.tryAcquire("Api", "get"));
+
+        now.addAndGet(millis(1_000));
+        assertTrue(limits.tryAcquire("Api", "get"));
+
+        // unlimited modules are free
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limits.reserve("Other", "op"));
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 4. tryAcquire は待機せず、トークンも借りない
+    // ------------------------------------------------------------
+    @Test
+    void testTryAcquireNeverBorrows() {
+        AtomicLong now = new AtomicLong();
+        RateLimits limits = new RateLimits(Map.of("Api", new RateLimit(10, 1, 1_000)), now::get);
+
+        assertTrue(limits.tryAcquire("Api", "get"));
+        assertFalse(limits.tryAcquire("Api", "get"));
+
+        now.addAndGet(millis(100));
+        assertEquals(0, limits.reserve("Api", "get"));
+    }
+
+    // ------------------------------------------------------------
+    // 5. StepDefinition 版は事前構築した operation キーを使用
+    // ------------------------------------------------------------
+    @Test
+    void testStepVariantUsesOperationKey() {
+        AtomicLong now = new AtomicLong();
+        RateLimits limits = new RateLimits(Map.of("Api#get", new RateLimit(10, 1, 1_000)), now::get);
+        StepDefinition get = new StepDefinition("s", "Api", "get", Map.of(), Map.of(), null, null);
+        StepDefinition search = new StepDefinition("s", "Api", "search", Map.of(), Map.of(), null, null);
+
+        assertEquals("Api#get", get.getOperationKey());
+        assertTrue(limits.tryAcquire(get));
+        assertFalse(limits.tryAcquire(get));
+        assertEquals(millis(100), limits.reserve(get));
+        assertEquals(0, limits.reserve(search));
+    }
+}
\ No newline at end of file
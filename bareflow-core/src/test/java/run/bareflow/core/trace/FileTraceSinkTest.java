@@ -0,0 +1,170 @@
+package run.bareflow.core.trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import run.bareflow.core.exception.BusinessException;
+import run.bareflow.core.exception.SystemException;
+
+public class FileTraceSinkTest {
+    @TempDir
+    Path dir;
+
+    private static List<StepTraceEntry> readAll(final TraceSink sink) {
+        final List<StepTraceEntry> result = new ArrayList<>();
+        sink.iterator().forEachRemaining(result::add);
+        return result;
+    }
+
+    // ------------------------------------------------------------
+    // 1. 書き込んだエントリを同じ内容で読み戻せる
+    // ------------------------------------------------------------
+    @Test
+    public void testRoundTrip() {
+        final Instant start = Instant.parse("2026-01-01T00:00:00.123456789Z");
+        final StepTrace child = new StepTrace();
+        child.record(new StepTraceEntry("inner", Map.of(), Map.of(), Map.of("r", true), null, start, start, 1));
+
+        final Map<String, Object> before = Map.of(
+                "s", "text",
+                "n", 1,
+                "l", 2L,
+                "d", 1.5,
+                "nested", Map.of("list", List.of("a", 1)),
+                "decimal", new BigDecimal("1.10"));
+
+        try (FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"))) {
+            sink.append(new StepTraceEntry("step", before, Map.of("x", 10), Map.of("y", 20), null, start,
+                    start.plusMillis(5), 1, child));
+            sink.append(new StepTraceEntry("step", null, null, null, new BusinessException("rejected"), null,
+                    null, 2));
+
+            assertEquals(2, sink.size());
+            final List<StepTraceEntry> entries = readAll(sink);
+            assertEquals(2, entries.size());
+
+            final StepTraceEntry first = entries.get(0);
+            assertEquals("step", first.getStepName());
+            assertEquals(before, first.getBeforeContext());
+            assertEquals(Map.of("x", 10), first.getEvaluatedInput());
+            assertEquals(Map.of("y", 20), first.getRawOutput());
+            assertEquals(start, first.getStartTime());
+            assertEquals(start.plusMillis(5), first.getEndTime());
+            assertEquals(Map.of("r", true), first.getChildTrace().getEntries().get(0).getRawOutput());
+
+            final StepTraceEntry second = entries.get(1);
+            assertNull(second.getBeforeContext());
+            assertEquals(2, second.getAttempt());
+            assertInstanceOf(BusinessException.class, second.getError());
+            assertEquals("rejected", second.getError().getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 2. シリアライズできない値は文字列として保存
+    // ------------------------------------------------------------
+    @Test
+    public void testNonSerializableValuesAreStoredAsText() {
+        final Object opaque = new Object() {
+            @Override
+            public String toString() {
+                return "opaque";
+            }
+        };
+
+        try (FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"))) {
+            sink.append(new StepTraceEntry("step", Map.of("o", opaque), null, null, null, null, null, 1));
+            assertEquals(Map.of("o", "opaque"), readAll(sink).get(0).getBeforeContext());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 3. 追記途中でも読み出せ、バッファより大きいレコードも扱える
+    // ------------------------------------------------------------
+    @Test
+    public void testReadWhileAppendingAndLargeRecords() throws Exception {
+        final Path file = dir.resolve("trace.bin");
+        final String large = "x".repeat(200_000);
+
+        try (FileTraceSink sink = new FileTraceSink(file)) {
+            for (int i = 0; i < 500; i++) {
+                sink.append(new StepTraceEntry("s" + i, Map.of("i", i), null, null, null, null, null, 1));
+            }
+            final Iterator<StepTraceEntry> partial = sink.iterator();
+            assertEquals("s0", partial.next().getStepName());
+
+            sink.append(new StepTraceEntry("large", Map.of("v", large), null, null, null, null, null, 1));
+
+            final List<StepTraceEntry> entries = readAll(sink);
+            assertEquals(501, entries.size());
+            assertEquals(499, entries.get(499).getBeforeContext().get("i"));
+            assertEquals(large, entries.get(500).getBeforeContext().get("v"));
+        }
+        assertTrue(Files.size(file) > 200_000);
+    }
+
+    // ------------------------------------------------------------
+    // 4. 許可リスト外のクラスはデシリアライズせず文字列で読み戻す
+    // ------------------------------------------------------------
+    @Test
+    public void testClassesOutsideAllowListAreNotDeserialized() {
+        final URI uri = URI.create("https://example.com/a");
+        final UncheckedIOException error = new UncheckedIOException("disk", new IOException("full"));
+
+        try (FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"))) {
+            sink.append(new StepTraceEntry("step", Map.of("uri", uri), null, null, error, null, null, 1));
+
+            final StepTraceEntry entry = readAll(sink).get(0);
+            assertEquals(Map.of("uri", "https://example.com/a"), entry.getBeforeContext());
+            assertEquals(RuntimeException.class, entry.getError().getClass());
+            assertEquals("java.io.UncheckedIOException: disk", entry.getError().getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 5. close 後は読み出しできない
+    // ------------------------------------------------------------
+    @Test
+    public void testIteratorFailsAfterClose() {
+        final FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"));
+        sink.append(new StepTraceEntry("step", null, null, null, null, null, null, 1));
+        sink.close();
+
+        assertThrows(SystemException.class, sink::iterator);
+    }
+
+    // ------------------------------------------------------------
+    // 6. discard() でファイルを切り詰め、その後も追記できる
+    // ------------------------------------------------------------
+    @Test
+    public void testDiscardTruncatesFile() throws IOException {
+        final Path file = dir.resolve("trace.bin");
+        try (FileTraceSink sink = new FileTraceSink(file)) {
+            sink.append(new StepTraceEntry("a", null, null, null, null, null, null, 1));
+            sink.append(new StepTraceEntry("b", null, null, null, null, null, null, 1));
+
+            sink.discard();
+
+            assertEquals(0, sink.size());
+            assertEquals(0, Files.size(file));
+            assertFalse(sink.iterator().hasNext());
+
+            sink.append(new StepTraceEntry("c", null, null, null, null, null, null, 1));
+            assertEquals(List.of("c"), readAll(sink).stream().map(StepTraceEntry::getStepName).toList());
+        }
+    }
+}
\ No newline at end of file
@@ -2,13 +2,21 @@ package run.bareflow.core.trace;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class StepTraceTest {
+    @TempDir
+    Path dir;
+
     private StepTraceEntry successEntry(int attempt) {
         return new StepTraceEntry(
                 "step",
@@ -136,4 +144,212 @@ public class StepTraceTest {
 
         assertEquals(3, trace.getTotalAttempts());
     }
+
+    // ------------------------------------------------------------
+    // 7. beforeContext は差分で保持され、元と等しい Map に復元される
+    // ------------------------------------------------------------
+    @Test
+    public void testBeforeContextIsDeltaEncoded() {
+        StepTrace trace = new StepTrace();
+        List<Map<String, Object>> expected = new ArrayList<>();
+        Map<String, Object> ctx = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            ctx.put("k" + i, "v" + i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            ctx.put("step" + i, i);
+            if (i % 3 == 0) {
+                ctx.put("k" + (i % 20), null);
+            }
+            if (i % 7 == 0) {
+                ctx.remove("step" + (i / 2));
+            }
+            Map<String, Object> snapshot = new HashMap<>(ctx);
+            expected.add(snapshot);
+            trace.record(new StepTraceEntry("s" + i, snapshot, null, null, null, Instant.now(), Instant.now(), 1));
+        }
+
+        List<StepTraceEntry> entries = trace.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(expected.get(i), entries.get(i).getBeforeContext(), "entry " + i);
+        }
+
+        // only the first entry and periodic checkpoints keep the full snapshot
+        assertNotNull(entries.get(0).fullBeforeContext());
+        assertNull(entries.get(1).fullBeforeContext());
+        long full = entries.stream().filter(e -> e.fullBeforeContext() != null).count();
+        assertTrue(full <= 1 + entries.size() / ContextDelta.CHECKPOINT_INTERVAL, "full=" + full);
+
+        // a rebuilt context is reused while it is reachable
+        assertSame(entries.get(1).getBeforeContext(), entries.get(1).getBeforeContext());
+    }
+
+    // ------------------------------------------------------------
+    // 8. 大半が変わった場合・null の場合は全体を保持
+    // ------------------------------------------------------------
+    @Test
+    public void testMostlyChangedOrNullContextIsKept() {
+        StepTrace trace = new StepTrace();
+        trace.record(new StepTraceEntry("a", Map.of("x", 1, "y", 2), null, null, null, null, null, 1));
+        trace.record(new StepTraceEntry("b", Map.of("x", 9, "z", 3), null, null, null, null, null, 1));
+        trace.record(new StepTraceEntry("c", null, null, null, null, null, null, 1));
+        trace.record(new StepTraceEntry("d", Map.of("x", 9, "z", 3), null, null, null, null, null, 1));
+
+        List<StepTraceEntry> entries = trace.getEntries();
+        assertNotNull(entries.get(1).fullBeforeContext());
+        assertNull(entries.get(2).getBeforeContext());
+        assertEquals(Map.of("x", 9, "z", 3), entries.get(3).getBeforeContext());
+        assertNotNull(entries.get(3).fullBeforeContext());
+    }
+
+    // ------------------------------------------------------------
+    // 9. sink 付き: メモリには末尾のみ、全履歴は sink から読み戻す
+    // ------------------------------------------------------------
+    @Test
+    public void testStreamingTraceKeepsBoundedTail() {
+        try (FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"))) {
+            StepTrace trace = new StepTrace(sink, 3);
+            trace.record(failureEntry(1));
+            for (int i = 0; i < 99; i++) {
+                trace.record(new StepTraceEntry("s" + i, Map.of("i", i), null, null, null, null, null, 1));
+            }
+
+            assertTrue(trace.isStreaming());
+            assertEquals(100, trace.getEntryCount());
+            List<StepTraceEntry> tail = trace.getEntries();
+            assertEquals(3, tail.size());
+            assertEquals("s98", tail.get(2).getStepName());
+            assertEquals(Map.of("i", 98), tail.get(2).getBeforeContext());
+
+            List<StepTraceEntry> all = new ArrayList<>();
+            trace.forEach(all::add);
+            assertEquals(100, all.size());
+            assertEquals("step", all.get(0).getStepName());
+            assertEquals(Map.of("i", 50), all.get(51).getBeforeContext());
+
+            // aggregates cover entries no longer held in memory
+            assertFalse(trace.isAllSuccessful());
+            assertTrue(trace.isFinallySuccessful());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new StepTrace(null, 1));
+    }
+
+    // ------------------------------------------------------------
+    // 10. 集計値とステップ名による検索は record() 時に更新される
+    // ------------------------------------------------------------
+    private static StepTraceEntry timed(String name, int attempt, long millis, boolean success) {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        return new StepTraceEntry(name, Map.of(), null, null, success ? null : new RuntimeException("fail"),
+                start, start.plusMillis(millis), attempt);
+    }
+
+    @Test
+    public void testAggregatesAndLookupByStepName() {
+        StepTrace trace = new StepTrace();
+        assertEquals(0, trace.getTotalAttempts());
+        assertTrue(trace.isAllSuccessful());
+        assertNull(trace.getLastEntry("a"));
+        assertEquals(-1, trace.getLastEntryIndex("a"));
+        assertTrue(trace.getEntries("a").isEmpty());
+
+        StepTraceEntry a1 = timed("a", 1, 10, false);
+        StepTraceEntry a2 = timed("a", 2, 20, true);
+        StepTraceEntry b1 = timed("b", 1, 5, true);
+        trace.record(a1);
+        trace.record(a2);
+        trace.record(b1);
+        trace.record(new StepTraceEntry("c", null, null, null, null, null, null, 1));
+
+        assertEquals(4, trace.getEntryCount());
+        assertEquals(3, trace.getSuccessCount());
+        assertEquals(1, trace.getFailureCount());
+        assertEquals(Duration.ofMillis(35), trace.getTotalDuration());
+        assertEquals(2, trace.getTotalAttempts());
+        assertTrue(trace.wasRetried());
+        assertFalse(trace.isAllSuccessful());
+
+        assertEquals(List.of(a1, a2), trace.getEntries("a"));
+        assertSame(a2, trace.getLastEntry("a"));
+        assertEquals(1, trace.getLastEntryIndex("a"));
+        assertEquals(2, trace.getLastEntryIndex("b"));
+        assertEquals(2, trace.getAttemptCount("a"));
+        assertThrows(UnsupportedOperationException.class, () -> trace.getEntries("a").add(b1));
+    }
+
+    @Test
+    public void testAggregatesWithSink() {
+        try (FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"))) {
+            StepTrace trace = new StepTrace(sink, 1);
+            trace.record(timed("a", 1, 10, false));
+            trace.record(timed("a", 2, 10, true));
+            trace.record(timed("b", 1, 10, true));
+
+            assertEquals(1, trace.getEntries().size());
+            assertEquals(1, trace.getFailureCount());
+            assertEquals(2, trace.getTotalAttempts());
+            assertEquals(2, trace.getLastEntry("a").getAttempt());
+
+            List<StepTraceEntry> a = trace.getEntries("a");
+            assertEquals(2, a.size());
+            assertFalse(a.get(0).isSuccess());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 11. summarize() はエントリを破棄し集計値だけを残す
+    // ------------------------------------------------------------
+    @Test
+    public void testSummarizeKeepsAggregates() {
+        StepTrace trace = new StepTrace();
+        StepTraceEntry child = timed("child", 1, 1, true);
+        StepTrace childTrace = new StepTrace();
+        childTrace.record(child);
+        trace.record(timed("a", 1, 10, false));
+        trace.record(new StepTraceEntry("a", Map.of("k", "v"), Map.of("in", 1), Map.of("out", 2), null,
+                Instant.EPOCH, Instant.EPOCH.plusMillis(20), 2, childTrace));
+
+        trace.summarize();
+
+        assertTrue(trace.isSummary());
+        assertTrue(trace.getEntries().isEmpty());
+        assertTrue(trace.getEntries("a").isEmpty());
+        assertFalse(trace.iterator().hasNext());
+        assertEquals(2, trace.getEntryCount());
+        assertEquals(1, trace.getFailureCount());
+        assertEquals(Duration.ofMillis(30), trace.getTotalDuration());
+        assertEquals(2, trace.getAttemptCount("a"));
+        assertTrue(trace.isFinallySuccessful());
+
+        StepTraceEntry last = trace.getLastEntry("a");
+        assertEquals(2, last.getAttempt());
+        assertEquals(Instant.EPOCH.plusMillis(20), last.getEndTime());
+        assertNull(last.getBeforeContext());
+        assertNull(last.getEvaluatedInput());
+        assertNull(last.getRawOutput());
+        assertNull(last.getChildTrace());
+
+        assertThrows(IllegalStateException.class, () -> trace.record(timed("b", 1, 1, true)));
+    }
+
+    // ------------------------------------------------------------
+    // 12. sink 付き: getEntries() の結果は後続の record() の影響を受けない
+    // ------------------------------------------------------------
+    @Test
+    public void testStreamingTailSurvivesLaterRecords() {
+        try (FileTraceSink sink = new FileTraceSink(dir.resolve("trace.bin"))) {
+            StepTrace trace = new StepTrace(sink, 2);
+            trace.record(timed("a", 1, 1, true));
+            trace.record(timed("b", 1, 1, true));
+            trace.record(timed("c", 1, 1, true));
+
+            List<StepTraceEntry> tail = trace.getEntries();
+            // trims the in-memory entries
+            trace.record(timed("d", 1, 1, true));
+            trace.record(timed("e", 1, 1, true));
+
+            assertEquals(List.of("b", "c"), tail.stream().map(StepTraceEntry::getStepName).toList());
+            assertEquals(List.of("d", "e"), trace.getEntries().stream().map(StepTraceEntry::getStepName).toList());
+        }
+    }
 }
\ No newline at end of file
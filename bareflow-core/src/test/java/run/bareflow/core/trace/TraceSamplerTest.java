@@ -0,0 +1,66 @@
+package run.bareflow.core.trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class TraceSamplerTest {
+    private static StepTrace trace(boolean success) {
+        StepTrace trace = new StepTrace();
+        trace.record(new StepTraceEntry("step", Map.of(), null, null,
+                success ? null : new RuntimeException("fail"), Instant.now(), Instant.now(), 1));
+        return trace;
+    }
+
+    // ------------------------------------------------------------
+    // 1. 失敗を含むトレースは常に保持
+    // ------------------------------------------------------------
+    @Test
+    public void testKeepsFailedTrace() {
+        TraceSampler sampler = new TraceSampler(0.0, null);
+        assertTrue(sampler.shouldKeep(trace(false), Duration.ZERO));
+        assertFalse(sampler.shouldKeep(trace(true), Duration.ofHours(1)));
+    }
+
+    // ------------------------------------------------------------
+    // 2. 閾値以上に遅いフローは保持
+    // ------------------------------------------------------------
+    @Test
+    public void testKeepsSlowTrace() {
+        TraceSampler sampler = new TraceSampler(0.0, Duration.ofMillis(100));
+        assertTrue(sampler.shouldKeep(trace(true), Duration.ofMillis(100)));
+        assertFalse(sampler.shouldKeep(trace(true), Duration.ofMillis(99)));
+    }
+
+    // ------------------------------------------------------------
+    // 3. ヘッドサンプリング率
+    // ------------------------------------------------------------
+    @Test
+    public void testHeadRate() {
+        assertTrue(new TraceSampler(1.0, null).shouldKeep(trace(true), Duration.ZERO));
+
+        TraceSampler half = new TraceSampler(0.5, null);
+        int kept = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (half.shouldKeep(trace(true), Duration.ZERO)) {
+                kept++;
+            }
+        }
+        assertTrue(kept > 350 && kept < 650, "kept " + kept);
+    }
+
+    // ------------------------------------------------------------
+    // 4. 不正な設定は拒否
+    // ------------------------------------------------------------
+    @Test
+    public void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TraceSampler(-0.1, null));
+        assertThrows(IllegalArgumentException.class, () -> new TraceSampler(1.1, null));
+        assertThrows(IllegalArgumentException.class, () -> new TraceSampler(Double.NaN, null));
+        assertThrows(IllegalArgumentException.class, () -> new TraceSampler(0.5, Duration.ofMillis(-1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package run.bareflow.core.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CompactMapTest {
+    @Test
+    void testCopyOfPreservesOrderAndValues() {
+        Map<String, Object> source = new LinkedHashMap<>();
+        source.put("z", 1);
+        source.put("a", null);
+        source.put("m", "x");
+
+        CompactMap map = CompactMap.copyOf(source);
+
+        assertEquals(List.of("z", "a", "m"), List.copyOf(map.keySet()));
+        assertEquals(3, map.size());
+        assertEquals(1, map.get("z"));
+        assertNull(map.get("a"));
+        assertTrue(map.containsKey("a"));
+        assertFalse(map.containsKey("missing"));
+        assertEquals("d", map.getOrDefault("missing", "d"));
+        assertNull(map.getOrDefault("a", "d"));
+        assertEquals(source, map);
+        assertEquals(source.hashCode(), map.hashCode());
+    }
+
+    @Test
+    void testNullAndEmptySourcesShareEmptyInstance() {
+        assertSame(CompactMap.empty(), CompactMap.copyOf(null));
+        assertSame(CompactMap.empty(), CompactMap.copyOf(Map.of()));
+        assertTrue(CompactMap.empty().isEmpty());
+    }
+
+    @Test
+    void testCopyOfCompactMapReturnsSameInstance() {
+        CompactMap map = CompactMap.copyOf(Map.of("a", 1));
+        assertSame(map, CompactMap.copyOf(map));
+    }
+
+    @Test
+    void testIsImmutable() {
+        CompactMap map = CompactMap.copyOf(Map.of("a", 1));
+
+        assertThrows(UnsupportedOperationException.class, () -> map.put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove("a"));
+        assertThrows(UnsupportedOperationException.class, () -> map.clear());
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue(3));
+        assertThrows(UnsupportedOperationException.class, () -> {
+            var it = map.entrySet().iterator();
+            it.next();
+            it.remove();
+        });
+    }
+
+    @Test
+    void testOfSharesKeysAcrossMaps() {
+        CompactMap mapping = CompactMap.copyOf(Map.of("a", "${x}"));
+
+        CompactMap first = CompactMap.of(mapping.keys(), new Object[] { 1 });
+        CompactMap second = CompactMap.of(mapping.keys(), new Object[] { 2 });
+
+        assertSame(first.keys(), second.keys());
+        assertEquals(1, first.get("a"));
+        assertEquals(2, second.get("a"));
+        assertThrows(IllegalArgumentException.class, () -> CompactMap.of(mapping.keys(), new Object[0]));
+    }
+
+    @Test
+    void testLookupAboveLinearScanLimit() {
+        Map<String, Object> source = new HashMap<>();
+        for (int i = 0; i < CompactMap.LINEAR_SCAN_LIMIT * 2; i++) {
+            source.put("key" + i, i);
+        }
+
+        CompactMap map = CompactMap.copyOf(source);
+
+        for (int i = 0; i < CompactMap.LINEAR_SCAN_LIMIT * 2; i++) {
+            assertEquals(i, map.get(new String("key" + i)));
+        }
+        assertNull(map.get("key-1"));
+        assertFalse(map.containsKey(null));
+        assertEquals(source, map);
+    }
+}
\ No newline at end of file
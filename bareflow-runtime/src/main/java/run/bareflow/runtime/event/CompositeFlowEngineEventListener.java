@@ -1,18 +1,55 @@
 package run.bareflow.runtime.event;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.FlowAbortedEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.FlowEndEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.FlowStartEvent;
 import run.bareflow.core.engine.event.FlowEngineEventListener;
 
 /**
- * A simple composite that forwards {@link FlowEngineEvent} instances to
- * multiple
+ * A composite that forwards {@link FlowEngineEvent} instances to multiple
  * {@link FlowEngineEventListener} implementations.
  *
  * <p>
- * This listener performs no filtering, transformation, or error handling.
- * Each registered listener receives the event in the order provided.
+ * This listener performs no filtering or transformation. Observation must
+ * never break execution, so an exception thrown by a listener is caught and
+ * counted instead of aborting the step that emitted the event; the other
+ * listeners still receive the event.
+ * </p>
+ *
+ * <p>
+ * Each registered listener receives the event in the order provided, on the
+ * calling thread. With a time budget, a delivery taking longer than the
+ * budget is counted as slow.
+ * </p>
+ *
+ * <p>
+ * With an executor as well, a listener marked as
+ * {@link ThreadSafeEventListener} that has been slow once is moved off the
+ * calling thread: from then on its events are queued and delivered in order
+ * by a single task at a time on the executor, and the calling thread no
+ * longer waits for it. Fast listeners keep running inline and cost no task
+ * submission. While more than {@link #MAX_PENDING} events are queued for a
+ * listener, further step events for it are dropped and counted; flow
+ * lifecycle events ({@link FlowStartEvent}, {@link FlowEndEvent},
+ * {@link FlowAbortedEvent}) are always queued. If the executor rejects the
+ * task, the queue is drained on the calling thread.
+ * </p>
+ *
+ * <p>
+ * Counters per listener are available from {@link #getStats()}.
  * </p>
  *
  * <p>
@@ -22,21 +59,175 @@ import run.bareflow.core.engine.event.FlowEngineEventListener;
  * </p>
  */
 public final class CompositeFlowEngineEventListener implements FlowEngineEventListener {
-    private final List<FlowEngineEventListener> listeners;
+    /** Queued events per slow listener beyond which step events are dropped. */
+    static final int MAX_PENDING = 1024;
+
+    private final List<Slot> slots;
+    private final Executor executor;
+    private final long budgetNanos;
 
     /**
-     * Creates a composite listener that delegates events to the given listeners.
+     * Creates a composite listener that delegates events to the given listeners
+     * on the calling thread.
      *
      * @param listeners the listeners to notify, in order
      */
     public CompositeFlowEngineEventListener(List<FlowEngineEventListener> listeners) {
-        this.listeners = List.copyOf(listeners);
+        this(listeners, null, null);
+    }
+
+    /**
+     * Creates a composite listener that moves slow thread-safe listeners to an
+     * executor.
+     *
+     * @param listeners the listeners to notify
+     * @param executor  runs the deliveries to {@link ThreadSafeEventListener}
+     *                  instances that exceeded the budget, or {@code null} to
+     *                  notify all listeners on the calling thread
+     * @param budget    time budget of a single delivery; required with an
+     *                  executor, otherwise {@code null} for none
+     */
+    public CompositeFlowEngineEventListener(List<? extends FlowEngineEventListener> listeners, Executor executor,
+            Duration budget) {
+        if (budget != null && (budget.isNegative() || budget.isZero())) {
+            throw new IllegalArgumentException("budget must be positive");
+        }
+        if (executor != null && budget == null) {
+            throw new IllegalArgumentException("an executor requires a budget");
+        }
+        List<Slot> slots = new ArrayList<>(listeners.size());
+        for (FlowEngineEventListener listener : listeners) {
+            slots.add(new Slot(listener, executor != null && listener instanceof ThreadSafeEventListener));
+        }
+        this.slots = List.copyOf(slots);
+        this.executor = executor;
+        this.budgetNanos = budget == null ? 0 : budget.toNanos();
     }
 
     @Override
     public void onEvent(FlowEngineEvent event) {
-        for (FlowEngineEventListener listener : listeners) {
-            listener.onEvent(event);
+        for (Slot slot : slots) {
+            if (slot.offloaded) {
+                slot.enqueue(event);
+            } else {
+                slot.deliver(event);
+            }
+        }
+    }
+
+    /**
+     * Lets every listener wrap the task, in registration order. A listener
+     * failing to do so is counted and leaves the task as it was.
+     */
+    @Override
+    public Runnable propagate(Runnable task) {
+        Runnable wrapped = task;
+        for (Slot slot : slots) {
+            try {
+                wrapped = slot.listener.propagate(wrapped);
+            } catch (RuntimeException e) {
+                slot.failures.increment();
+                slot.lastError = e;
+            }
+        }
+        return wrapped;
+    }
+
+    /**
+     * Returns the counters of each listener, in registration order.
+     */
+    public List<ListenerStats> getStats() {
+        List<ListenerStats> stats = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            stats.add(new ListenerStats(slot.listener, slot.events.sum(), slot.failures.sum(), slot.slow.sum(),
+                    slot.dropped.sum(), Duration.ofNanos(slot.maxNanos.get()), slot.lastError));
+        }
+        return stats;
+    }
+
+    private static boolean isLifecycle(FlowEngineEvent event) {
+        return event instanceof FlowStartEvent || event instanceof FlowEndEvent || event instanceof FlowAbortedEvent;
+    }
+
+    /**
+     * A registered listener and its counters.
+     */
+    private final class Slot {
+        final FlowEngineEventListener listener;
+        /** True if the listener may be moved to the executor once slow. */
+        final boolean offloadable;
+
+        final LongAdder events = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        volatile RuntimeException lastError;
+
+        /** Set once the listener has been slow; never reset. */
+        volatile boolean offloaded;
+        final Queue<FlowEngineEvent> pending = new ConcurrentLinkedQueue<>();
+        /** Queued events, including the one being delivered. */
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Slot(FlowEngineEventListener listener, boolean offloadable) {
+            this.listener = listener;
+            this.offloadable = offloadable;
+        }
+
+        void deliver(FlowEngineEvent event) {
+            long start = System.nanoTime();
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                failures.increment();
+                lastError = e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                events.increment();
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+                if (budgetNanos > 0 && elapsed > budgetNanos) {
+                    slow.increment();
+                    if (offloadable) {
+                        offloaded = true;
+                    }
+                }
+            }
+        }
+
+        void enqueue(FlowEngineEvent event) {
+            if (queued.get() >= MAX_PENDING && !isLifecycle(event)) {
+                dropped.increment();
+                return;
+            }
+            queued.incrementAndGet();
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            FlowEngineEvent event;
+            while ((event = pending.poll()) != null) {
+                deliver(event);
+                queued.decrementAndGet();
+            }
+            draining.set(false);
+            // an event queued after the last poll but before the flag was reset
+            if (!pending.isEmpty()) {
+                schedule();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package run.bareflow.runtime.event;
+
+import java.time.Duration;
+
+import run.bareflow.core.engine.event.FlowEngineEventListener;
+
+/**
+ * Snapshot of the dispatch counters {@link CompositeFlowEngineEventListener}
+ * keeps for one listener.
+ *
+ * @param listener    the listener
+ * @param events      events delivered to the listener
+ * @param failures    deliveries that threw an exception
+ * @param slow        deliveries that took longer than the time budget
+ * @param dropped     events not delivered because the listener was still
+ *                    busy past its budget
+ * @param maxDuration longest single delivery
+ * @param lastError   the most recent exception thrown by the listener, or
+ *                    {@code null}
+ */
+public record ListenerStats(
+        FlowEngineEventListener listener,
+        long events,
+        long failures,
+        long slow,
+        long dropped,
+        Duration maxDuration,
+        RuntimeException lastError) {
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package run.bareflow.runtime.event;
+
+import run.bareflow.core.engine.event.FlowEngineEventListener;
+
+/**
+ * Marker for {@link FlowEngineEventListener} implementations that can be
+ * called from several threads at the same time, including threads other than
+ * the one executing the flow.
+ *
+ * <p>
+ * When it has been given an executor, {@link CompositeFlowEngineEventListener}
+ * moves such a listener to the executor once a delivery exceeded its time
+ * budget. Any listener can be marked
+ * at registration time with a method reference:
+ * </p>
+ *
+ * <pre>
+ * ThreadSafeEventListener metrics = metricsListener::onEvent;
+ * </pre>
+ */
+@FunctionalInterface
+public interface ThreadSafeEventListener extends FlowEngineEventListener {
+}
\ No newline at end of file
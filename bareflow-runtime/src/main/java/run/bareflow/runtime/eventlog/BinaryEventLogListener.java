@@ -0,0 +1,451 @@
+package run.bareflow.runtime.eventlog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.runtime.event.ThreadSafeEventListener;
+
+/**
+ * FlowEngineEventListener that writes every event as a compact binary record
+ * to rotating memory-mapped segment files.
+ *
+ * Segment layout (see EventLogReader):
+ * - header: magic "BFEL" and format version (two 4-byte ints)
+ * - records until the first zero byte (the unwritten, zero-filled rest of
+ * the mapping)
+ *
+ * A record starts with its type byte. DICTIONARY records define a string id
+ * (step, flow, module#operation, error class, ...) the first time a string is
+ * used in a segment; event records refer to strings by id. Each segment has
+ * its own dictionary, so every segment can be read on its own. Event records
+ * hold, as varints: time delta to the previous record (microseconds,
+ * zigzag), name id, flow id, attempt, value, aux and detail id (0 = null).
+ *
+ * The flow of a step event is the flow definition containing the step, known
+ * from the FlowStartEvent of a running flow; it is 0 (null) for steps outside
+ * any running flow.
+ *
+ * Field usage per event:
+ * - value: duration of *End events, wait/delay of RateLimitWait, HedgeStart
+ * and retry events (microseconds)
+ * - value: duration of FlowAborted
+ * - aux: element index of ForEachItem* events, failed attempts of FlowEnd
+ * and FlowAborted
+ * - detail: module#operation of Invoke* events, error class of error events,
+ * FlowAborted and failed ForEachItemEnd, condition of StepSkipped
+ *
+ * Context, input and output maps are not written. When the next record does
+ * not fit into the current segment, a new segment file is started; with
+ * maxSegments set, the oldest segments are deleted. A segment that cannot be
+ * deleted yet (on Windows, a file still mapped by this listener or by a
+ * reader) is retried on the next rotation and on close(). Strings longer
+ * than MAX_STRING_CHARS are truncated.
+ *
+ * onEvent() is synchronized, so the listener can receive events from forEach
+ * worker threads or concurrent CompositeFlowEngineEventListener dispatch.
+ * Other I/O failures are reported as SystemException.
+ */
+public final class BinaryEventLogListener implements ThreadSafeEventListener, AutoCloseable {
+    static final int MAGIC = 0x4246454C; // "BFEL"
+    static final int VERSION = 2;
+    static final int DICTIONARY = 0x7F;
+    static final int HEADER_BYTES = 8;
+    static final String SUFFIX = ".bfe";
+
+    /** Longest string written to the dictionary. */
+    public static final int MAX_STRING_CHARS = 1024;
+
+    private static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+    private static final int MIN_SEGMENT_BYTES = 16 * 1024;
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final Deque<Path> segments = new ArrayDeque<>();
+    /** Segments dropped by retention whose deletion failed. */
+    private final Deque<Path> expired = new ArrayDeque<>();
+    /** Running executions per flow definition. */
+    private final Map<FlowDefinition, Integer> activeFlows = new IdentityHashMap<>();
+    private final Map<StepDefinition, String> stepFlows = new IdentityHashMap<>();
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final Encoder encoder = new Encoder();
+    private int nextSegment;
+    private MappedByteBuffer current;
+    private long lastMicros;
+    private boolean closed;
+
+    /**
+     * Write 16 MiB segments named events-NNNNNN.bfe and keep all of them.
+     */
+    public BinaryEventLogListener(Path directory) {
+        this(directory, "events", DEFAULT_SEGMENT_BYTES, 0);
+    }
+
+    /**
+     * @param directory    directory of the segment files; created if missing
+     * @param prefix       file name prefix; files are prefix-NNNNNN.bfe
+     * @param segmentBytes size of each segment file (at least 16 KiB)
+     * @param maxSegments  number of segment files to keep, or 0 to keep all
+     */
+    public BinaryEventLogListener(Path directory, String prefix, int segmentBytes, int maxSegments) {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("segmentBytes must be at least " + MIN_SEGMENT_BYTES);
+        }
+        if (maxSegments < 0) {
+            throw new IllegalArgumentException("maxSegments must not be negative");
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+
+        try {
+            Files.createDirectories(directory);
+            // continue after segments written by earlier instances
+            for (Path existing : EventLogReader.segments(directory, prefix)) {
+                segments.addLast(existing);
+                nextSegment = Math.max(nextSegment, EventLogReader.segmentNumber(existing, prefix) + 1);
+            }
+        } catch (IOException e) {
+            throw new SystemException("Failed to open event log directory: " + directory, e);
+        }
+        rotate();
+    }
+
+    @Override
+    public synchronized void onEvent(FlowEngineEvent event) {
+        if (closed) {
+            return;
+        }
+
+        if (event instanceof FlowStartEvent e) {
+            start(e.flow());
+            writeFlow(EventType.FLOW_START, e.startTime(), e.flow(), 0, 0, null);
+        } else if (event instanceof FlowEndEvent e) {
+            writeFlow(EventType.FLOW_END, e.endTime(), e.flow(), micros(e.startTime(), e.endTime()),
+                    e.trace().getFailureCount(), null);
+            finish(e.flow());
+        } else if (event instanceof FlowAbortedEvent e) {
+            writeFlow(EventType.FLOW_ABORTED, e.endTime(), e.flow(), micros(e.startTime(), e.endTime()),
+                    e.trace().getFailureCount(), errorClass(e.error()));
+            finish(e.flow());
+        } else if (event instanceof StepStartEvent e) {
+            writeStep(EventType.STEP_START, e.startTime(), e.step(), e.attempt(), 0, 0, null);
+        } else if (event instanceof InputEvaluationStartEvent e) {
+            writeStep(EventType.INPUT_EVALUATION_START, e.startTime(), e.step(), e.attempt(), 0, 0, null);
+        } else if (event instanceof InputEvaluationEndEvent e) {
+            writeStep(EventType.INPUT_EVALUATION_END, e.endTime(), e.step(), e.attempt(),
+                    micros(e.startTime(), e.endTime()), 0, null);
+        } else if (event instanceof InvokeStartEvent e) {
+            writeStep(EventType.INVOKE_START, e.startTime(), e.step(), e.attempt(), 0, 0, target(e.step()));
+        } else if (event instanceof InvokeEndEvent e) {
+            writeStep(EventType.INVOKE_END, e.endTime(), e.step(), e.attempt(),
+                    micros(e.startTime(), e.endTime()), 0, target(e.step()));
+        } else if (event instanceof RateLimitWaitEvent e) {
+            writeStep(EventType.RATE_LIMIT_WAIT, e.time(), e.step(), e.attempt(), e.waitMillis() * 1000, 0, null);
+        } else if (event instanceof HedgeStartEvent e) {
+            writeStep(EventType.HEDGE_START, e.time(), e.step(), e.attempt(), e.delayMillis() * 1000, 0, null);
+        } else if (event instanceof CacheHitEvent e) {
+            writeStep(EventType.CACHE_HIT, e.time(), e.step(), e.attempt(), 0, 0, null);
+        } else if (event instanceof CacheMissEvent e) {
+            writeStep(EventType.CACHE_MISS, e.time(), e.step(), e.attempt(), 0, 0, null);
+        } else if (event instanceof OutputEvaluationStartEvent e) {
+            writeStep(EventType.OUTPUT_EVALUATION_START, e.startTime(), e.step(), e.attempt(), 0, 0, null);
+        } else if (event instanceof OutputEvaluationEndEvent e) {
+            writeStep(EventType.OUTPUT_EVALUATION_END, e.endTime(), e.step(), e.attempt(),
+                    micros(e.startTime(), e.endTime()), 0, null);
+        } else if (event instanceof StepSkippedEvent e) {
+            writeStep(EventType.STEP_SKIPPED, e.time(), e.step(), 0, 0, 0, e.condition());
+        } else if (event instanceof StepEndEvent e) {
+            writeStep(EventType.STEP_END, e.endTime(), e.step(), e.attempt(),
+                    micros(e.startTime(), e.endTime()), 0, null);
+        } else if (event instanceof RetryPolicyRetryEvent e) {
+            writeStep(EventType.RETRY_POLICY_RETRY, null, e.step(), e.attempt(), e.delayMillis() * 1000, 0, null);
+        } else if (event instanceof OnErrorRetryEvent e) {
+            writeStep(EventType.ON_ERROR_RETRY, null, e.step(), e.attempt(), e.delayMillis() * 1000, 0, null);
+        } else if (event instanceof ForEachItemStartEvent e) {
+            writeStep(EventType.FOR_EACH_ITEM_START, e.startTime(), e.step(), e.attempt(), 0, e.index(), null);
+        } else if (event instanceof ForEachItemRetryEvent e) {
+            writeStep(EventType.FOR_EACH_ITEM_RETRY, null, e.step(), e.attempt(), e.delayMillis() * 1000,
+                    e.index(), null);
+        } else if (event instanceof ForEachItemEndEvent e) {
+            Throwable error = e.entry() == null ? null : e.entry().getError();
+            writeStep(EventType.FOR_EACH_ITEM_END, e.endTime(), e.step(), e.attempt(),
+                    micros(e.startTime(), e.endTime()), e.index(), error == null ? null : error.getClass().getName());
+        } else if (event instanceof BusinessErrorEvent e) {
+            writeStep(EventType.BUSINESS_ERROR, null, e.step(), e.attempt(), 0, 0, errorClass(e.error()));
+        } else if (event instanceof SystemErrorEvent e) {
+            writeStep(EventType.SYSTEM_ERROR, null, e.step(), e.attempt(), 0, 0, errorClass(e.error()));
+        } else if (event instanceof StepExecutionErrorEvent e) {
+            writeStep(EventType.STEP_EXECUTION_ERROR, null, e.step(), e.attempt(), 0, 0, errorClass(e.error()));
+        } else if (event instanceof UnhandledErrorEvent e) {
+            writeStep(EventType.UNHANDLED_ERROR, null, e.step(), e.attempt(), 0, 0, errorClass(e.error()));
+        }
+    }
+
+    /**
+     * Force the written records of the current segment to the storage
+     * device.
+     */
+    public synchronized void flush() {
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    /**
+     * Flush and stop writing. Later events are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        current = null;
+        deleteExpired();
+    }
+
+    /**
+     * Returns the segment files currently kept, oldest first.
+     */
+    public synchronized List<Path> getSegments() {
+        return List.copyOf(segments);
+    }
+
+    // ------------------------------------------------------------
+    // Flows of steps
+    // ------------------------------------------------------------
+    /**
+     * Map the steps of the definition to its name on its first execution in
+     * flight.
+     */
+    private void start(FlowDefinition flow) {
+        if (activeFlows.merge(flow, 1, Integer::sum) == 1) {
+            for (StepDefinition step : flow.getSteps()) {
+                stepFlows.put(step, flow.getName());
+            }
+        }
+    }
+
+    private void finish(FlowDefinition flow) {
+        Integer running = activeFlows.get(flow);
+        if (running == null) {
+            return;
+        }
+        if (running > 1) {
+            activeFlows.put(flow, running - 1);
+            return;
+        }
+        activeFlows.remove(flow);
+        for (StepDefinition step : flow.getSteps()) {
+            stepFlows.remove(step);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Encoding
+    // ------------------------------------------------------------
+    private void writeFlow(EventType type, Instant time, FlowDefinition flow, long value, long aux,
+            String detail) {
+        write(type, time, flow.getName(), flow.getName(), 0, value, aux, detail);
+    }
+
+    private void writeStep(EventType type, Instant time, StepDefinition step, int attempt, long value, long aux,
+            String detail) {
+        String name = step == null ? null : step.getName();
+        String flow = step == null ? null : stepFlows.get(step);
+        write(type, time, name, flow, attempt, value, aux, detail);
+    }
+
+    private void write(EventType type, Instant time, String name, String flow, int attempt, long value,
+            long aux, String detail) {
+        long micros = epochMicros(time != null ? time : Instant.now());
+        if (!encode(type, micros, name, flow, attempt, value, aux, detail)) {
+            rotate();
+            if (!encode(type, micros, name, flow, attempt, value, aux, detail)) {
+                throw new SystemException("Event record does not fit into a segment: " + type);
+            }
+        }
+    }
+
+    /**
+     * Encode the record (and dictionary entries for new strings) into the
+     * current segment. Returns false, leaving the segment unchanged, if it
+     * does not fit.
+     */
+    private boolean encode(EventType type, long micros, String name, String flow, int attempt, long value,
+            long aux, String detail) {
+        encoder.reset();
+        Map<String, Integer> added = new HashMap<>(2);
+        int nameId = intern(name, added);
+        int flowId = intern(flow, added);
+        int detailId = intern(detail, added);
+
+        encoder.writeByte(type.getCode());
+        encoder.writeVarLong(zigzag(micros - lastMicros));
+        encoder.writeVarLong(nameId);
+        encoder.writeVarLong(flowId);
+        encoder.writeVarLong(attempt);
+        encoder.writeVarLong(zigzag(value));
+        encoder.writeVarLong(zigzag(aux));
+        encoder.writeVarLong(detailId);
+
+        // keep one zero byte after the last record as end marker
+        if (encoder.size >= current.remaining()) {
+            return false;
+        }
+        current.put(encoder.bytes, 0, encoder.size);
+        dictionary.putAll(added);
+        lastMicros = micros;
+        return true;
+    }
+
+    private int intern(String value, Map<String, Integer> added) {
+        if (value == null) {
+            return 0;
+        }
+        if (value.length() > MAX_STRING_CHARS) {
+            value = value.substring(0, MAX_STRING_CHARS);
+        }
+        Integer id = dictionary.get(value);
+        if (id == null) {
+            id = added.get(value);
+        }
+        if (id != null) {
+            return id;
+        }
+        int newId = dictionary.size() + added.size() + 1;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        encoder.writeByte(DICTIONARY);
+        encoder.writeVarLong(newId);
+        encoder.writeVarLong(bytes.length);
+        encoder.writeBytes(bytes);
+        added.put(value, newId);
+        return newId;
+    }
+
+    private void rotate() {
+        if (current != null) {
+            current.force();
+        }
+        Path file = directory.resolve(String.format("%s-%06d%s", prefix, nextSegment++, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new SystemException("Failed to create event log segment: " + file, e);
+        }
+        current.putInt(MAGIC);
+        current.putInt(VERSION);
+        dictionary.clear();
+        lastMicros = 0;
+
+        segments.addLast(file);
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            expired.addLast(segments.removeFirst());
+        }
+        deleteExpired();
+    }
+
+    /**
+     * Delete the segments dropped by retention. Mapped buffers are only
+     * unmapped when they are garbage collected, so on Windows a recent
+     * segment may not be deletable yet; it is kept for a later attempt
+     * instead of failing the event being written.
+     */
+    private void deleteExpired() {
+        for (Iterator<Path> it = expired.iterator(); it.hasNext();) {
+            try {
+                Files.deleteIfExists(it.next());
+                it.remove();
+            } catch (IOException e) {
+                // still in use; retried on the next rotation or close()
+            }
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Helpers
+    // ------------------------------------------------------------
+    private static String target(StepDefinition step) {
+        return step == null ? null : step.getModule() + "#" + step.getOperation();
+    }
+
+    private static String errorClass(Throwable error) {
+        return error == null ? null : error.getClass().getName();
+    }
+
+    private static long micros(Instant start, Instant end) {
+        return start == null || end == null ? 0 : Duration.between(start, end).toNanos() / 1000;
+    }
+
+    private static long epochMicros(Instant time) {
+        return time.getEpochSecond() * 1_000_000L + time.getNano() / 1000;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reusable record buffer.
+     */
+    private static final class Encoder {
+        byte[] bytes = new byte[256];
+        int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void writeBytes(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, bytes, size, b.length);
+            size += b.length;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensure(int n) {
+            if (size + n > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + n));
+            }
+        }
+    }
+}
\ No newline at end of file
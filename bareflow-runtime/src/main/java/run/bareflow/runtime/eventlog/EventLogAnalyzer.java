@@ -0,0 +1,173 @@
+package run.bareflow.runtime.eventlog;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Offline analysis of binary event logs.
+ *
+ * Computes, from the records it is fed:
+ * - step latency distributions (StepEnd durations per flow/step)
+ * - invocation latency distributions (InvokeEnd durations per
+ * module#operation)
+ * - error breakdown per flow/step and error type (error events, and failed
+ * forEach elements)
+ *
+ * Steps are keyed as "flow/step", so steps of the same name in different
+ * flows are kept apart; a step without a recorded flow is keyed by its name
+ * alone.
+ *
+ * Command line:
+ *
+ * <pre>
+ * java -cp ... run.bareflow.runtime.eventlog.EventLogAnalyzer &lt;directory&gt; [prefix]
+ * </pre>
+ *
+ * prints a text report of all segments in the directory (prefix defaults to
+ * "events").
+ */
+public final class EventLogAnalyzer implements Consumer<EventLogRecord> {
+    private final Map<String, Samples> stepLatencies = new TreeMap<>();
+    private final Map<String, Samples> invokeLatencies = new TreeMap<>();
+    private final Map<String, Map<String, Long>> errors = new TreeMap<>();
+
+    /**
+     * Analyze all segments with the given prefix in the directory.
+     */
+    public static EventLogAnalyzer analyze(Path directory, String prefix) {
+        EventLogAnalyzer analyzer = new EventLogAnalyzer();
+        EventLogReader.readAll(directory, prefix, analyzer);
+        return analyzer;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: EventLogAnalyzer <directory> [prefix]");
+            System.exit(2);
+        }
+        String prefix = args.length == 2 ? args[1] : "events";
+        System.out.print(analyze(Path.of(args[0]), prefix).report());
+    }
+
+    @Override
+    public void accept(EventLogRecord record) {
+        switch (record.type()) {
+            case STEP_END:
+                stepLatencies.computeIfAbsent(stepKey(record), k -> new Samples()).add(record.value());
+                break;
+            case INVOKE_END:
+                invokeLatencies.computeIfAbsent(record.detail(), k -> new Samples()).add(record.value());
+                break;
+            case FOR_EACH_ITEM_END:
+                if (record.detail() != null) {
+                    countError(stepKey(record), record.detail());
+                }
+                break;
+            default:
+                if (record.type().isError()) {
+                    countError(record.type() == EventType.FLOW_ABORTED ? record.name() : stepKey(record),
+                            record.detail());
+                }
+        }
+    }
+
+    /**
+     * Returns the StepEnd latency distribution per flow/step.
+     */
+    public Map<String, LatencySummary> getStepLatencies() {
+        return summarize(stepLatencies);
+    }
+
+    /**
+     * Returns the InvokeEnd latency distribution per module#operation.
+     */
+    public Map<String, LatencySummary> getInvokeLatencies() {
+        return summarize(invokeLatencies);
+    }
+
+    /**
+     * Returns the number of errors per flow/step (or flow name, for aborted
+     * flows) and error class.
+     */
+    public Map<String, Map<String, Long>> getErrors() {
+        Map<String, Map<String, Long>> copy = new LinkedHashMap<>();
+        errors.forEach((step, byType) -> copy.put(step, Collections.unmodifiableMap(new TreeMap<>(byType))));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Returns a text report of all results.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        appendLatencies(sb, "Step latency (ms)", getStepLatencies());
+        sb.append('\n');
+        appendLatencies(sb, "Invoke latency (ms)", getInvokeLatencies());
+        sb.append('\n');
+        sb.append("Errors\n");
+        sb.append(String.format("%-32s %-48s %10s%n", "step", "error", "count"));
+        getErrors().forEach((step, byType) -> byType.forEach(
+                (type, count) -> sb.append(String.format("%-32s %-48s %10d%n", step, type, count))));
+        return sb.toString();
+    }
+
+    private static String stepKey(EventLogRecord record) {
+        return record.flow() == null ? String.valueOf(record.name()) : record.flow() + "/" + record.name();
+    }
+
+    private void countError(String step, String type) {
+        errors.computeIfAbsent(String.valueOf(step), k -> new TreeMap<>())
+                .merge(String.valueOf(type), 1L, Long::sum);
+    }
+
+    private static Map<String, LatencySummary> summarize(Map<String, Samples> samples) {
+        Map<String, LatencySummary> result = new LinkedHashMap<>();
+        samples.forEach((name, s) -> result.put(String.valueOf(name), s.summary()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static void appendLatencies(StringBuilder sb, String title, Map<String, LatencySummary> latencies) {
+        sb.append(title).append('\n');
+        sb.append(String.format("%-32s %10s %10s %10s %10s %10s %10s%n",
+                "name", "count", "p50", "p90", "p99", "max", "mean"));
+        latencies.forEach((name, l) -> sb.append(String.format("%-32s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                name, l.count(), l.p50() / 1000.0, l.p90() / 1000.0, l.p99() / 1000.0, l.max() / 1000.0,
+                l.mean() / 1000.0)));
+    }
+
+    /**
+     * Growable array of latency samples.
+     */
+    private static final class Samples {
+        long[] values = new long[16];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        LatencySummary summary() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            long sum = 0;
+            for (long v : sorted) {
+                sum += v;
+            }
+            return new LatencySummary(size, sorted[0], percentile(sorted, 50), percentile(sorted, 90),
+                    percentile(sorted, 99), sorted[size - 1], (double) sum / size);
+        }
+
+        private static long percentile(long[] sorted, int p) {
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package run.bareflow.runtime.eventlog;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * Reads the segment files written by BinaryEventLogListener.
+ *
+ * Segments are read through a read-only mapping. The segment a listener is
+ * currently writing may end in a partially written record; read it after the
+ * listener has been closed. Segments of format version 1, written before
+ * records carried their flow, are read with a null flow. I/O failures and
+ * malformed segments are reported as SystemException.
+ */
+public final class EventLogReader {
+    private EventLogReader() {
+    }
+
+    /**
+     * Read all segments with the given prefix in the directory, oldest first.
+     */
+    public static void readAll(Path directory, String prefix, Consumer<EventLogRecord> consumer) {
+        for (Path segment : segments(directory, prefix)) {
+            read(segment, consumer);
+        }
+    }
+
+    /**
+     * Read all records of one segment in order.
+     */
+    public static void read(Path segment, Consumer<EventLogRecord> consumer) {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new SystemException("Failed to open event log segment: " + segment, e);
+        }
+
+        try {
+            if (buffer.remaining() < BinaryEventLogListener.HEADER_BYTES
+                    || buffer.getInt() != BinaryEventLogListener.MAGIC) {
+                throw new SystemException("Not an event log segment: " + segment);
+            }
+            int version = buffer.getInt();
+            if (version != 1 && version != BinaryEventLogListener.VERSION) {
+                throw new SystemException("Unsupported event log version " + version + ": " + segment);
+            }
+
+            List<String> dictionary = new ArrayList<>();
+            dictionary.add(null); // id 0
+            long micros = 0;
+
+            while (buffer.hasRemaining()) {
+                int code = buffer.get() & 0xFF;
+                if (code == 0) {
+                    break; // end of written data
+                }
+                if (code == BinaryEventLogListener.DICTIONARY) {
+                    int id = (int) readVarLong(buffer);
+                    byte[] bytes = new byte[(int) readVarLong(buffer)];
+                    buffer.get(bytes);
+                    if (id != dictionary.size()) {
+                        throw new SystemException("Corrupt event log dictionary at " + buffer.position() + ": "
+                                + segment);
+                    }
+                    dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+                    continue;
+                }
+
+                EventType type = EventType.fromCode(code);
+                if (type == null) {
+                    throw new SystemException("Unknown event type " + code + " at " + (buffer.position() - 1)
+                            + ": " + segment);
+                }
+                micros += unzigzag(readVarLong(buffer));
+                String name = dictionary.get((int) readVarLong(buffer));
+                String flow = version == 1 ? null : dictionary.get((int) readVarLong(buffer));
+                int attempt = (int) readVarLong(buffer);
+                long value = unzigzag(readVarLong(buffer));
+                long aux = unzigzag(readVarLong(buffer));
+                String detail = dictionary.get((int) readVarLong(buffer));
+
+                consumer.accept(new EventLogRecord(type, micros, name, flow, attempt, value, aux, detail));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new SystemException("Truncated or corrupt event log segment: " + segment, e);
+        }
+    }
+
+    /**
+     * Returns the segment files with the given prefix, oldest first.
+     */
+    public static List<Path> segments(Path directory, String prefix) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> segmentNumber(p, prefix) >= 0)
+                    .sorted((a, b) -> Integer.compare(segmentNumber(a, prefix), segmentNumber(b, prefix)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new SystemException("Failed to list event log directory: " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the number of a segment file name (prefix-NNNNNN.bfe), or -1
+     * if the file is not a segment with that prefix.
+     */
+    static int segmentNumber(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        String start = prefix + "-";
+        if (!name.startsWith(start) || !name.endsWith(BinaryEventLogListener.SUFFIX)) {
+            return -1;
+        }
+        String digits = name.substring(start.length(), name.length() - BinaryEventLogListener.SUFFIX.length());
+        if (digits.isEmpty() || !digits.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new SystemException("Malformed varint in event log");
+            }
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
\ No newline at end of file
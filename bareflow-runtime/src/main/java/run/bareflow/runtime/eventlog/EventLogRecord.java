@@ -0,0 +1,29 @@
+package run.bareflow.runtime.eventlog;
+
+/**
+ * One event read from a binary event log.
+ *
+ * All event types share this shape; the meaning of value, aux and detail
+ * depends on the type (see BinaryEventLogListener).
+ *
+ * @param type        event type
+ * @param epochMicros time of the event in microseconds since the epoch
+ * @param name        flow name (flow events) or step name (all others)
+ * @param flow        flow name, or null for a step that ran outside any
+ *                    flow known to the listener
+ * @param attempt     attempt number, or 0 for flow events
+ * @param value       duration or delay in microseconds, or 0
+ * @param aux         forEach element index, or 0
+ * @param detail      error class, module#operation, condition or flow
+ *                    outcome, or null
+ */
+public record EventLogRecord(
+        EventType type,
+        long epochMicros,
+        String name,
+        String flow,
+        int attempt,
+        long value,
+        long aux,
+        String detail) {
+}
\ No newline at end of file
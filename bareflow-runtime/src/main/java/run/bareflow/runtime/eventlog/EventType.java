@@ -0,0 +1,68 @@
+package run.bareflow.runtime.eventlog;
+
+/**
+ * Event types of the binary event log, one per FlowEngineEvent record.
+ *
+ * The code is the type byte of a log record and must never change for an
+ * existing type; new types get new codes.
+ */
+public enum EventType {
+    FLOW_START(1),
+    FLOW_END(2),
+    STEP_START(3),
+    INPUT_EVALUATION_START(4),
+    INPUT_EVALUATION_END(5),
+    INVOKE_START(6),
+    INVOKE_END(7),
+    RATE_LIMIT_WAIT(8),
+    HEDGE_START(9),
+    CACHE_HIT(10),
+    CACHE_MISS(11),
+    OUTPUT_EVALUATION_START(12),
+    OUTPUT_EVALUATION_END(13),
+    STEP_SKIPPED(14),
+    STEP_END(15),
+    RETRY_POLICY_RETRY(16),
+    ON_ERROR_RETRY(17),
+    FOR_EACH_ITEM_START(18),
+    FOR_EACH_ITEM_RETRY(19),
+    FOR_EACH_ITEM_END(20),
+    BUSINESS_ERROR(21),
+    SYSTEM_ERROR(22),
+    STEP_EXECUTION_ERROR(23),
+    UNHANDLED_ERROR(24),
+    FLOW_ABORTED(25);
+
+    private static final EventType[] BY_CODE = new EventType[32];
+
+    static {
+        for (EventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    EventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the type with the given code, or null if there is none.
+     */
+    public static EventType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Returns true for the error event types.
+     */
+    public boolean isError() {
+        return this == BUSINESS_ERROR || this == SYSTEM_ERROR || this == STEP_EXECUTION_ERROR
+                || this == UNHANDLED_ERROR || this == FLOW_ABORTED;
+    }
+}
\ No newline at end of file
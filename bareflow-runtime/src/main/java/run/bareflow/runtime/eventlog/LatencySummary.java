@@ -0,0 +1,16 @@
+package run.bareflow.runtime.eventlog;
+
+/**
+ * Latency distribution computed by EventLogAnalyzer. All values are in
+ * microseconds; percentiles use the nearest-rank method.
+ *
+ * @param count number of samples
+ * @param min   smallest sample
+ * @param p50   median
+ * @param p90   90th percentile
+ * @param p99   99th percentile
+ * @param max   largest sample
+ * @param mean  arithmetic mean
+ */
+public record LatencySummary(long count, long min, long p50, long p90, long p99, long max, double mean) {
+}
\ No newline at end of file
@@ -17,8 +17,11 @@ import java.util.function.Function;
  * This executor is intentionally minimal and transparent.
  *
  * Responsibilities:
- * - Resolve FlowDefinition using FlowDefinitionResolver
- * - Initialize ExecutionContext with initial input
+ * - Resolve FlowDefinition using FlowDefinitionResolver, and let the
+ * StepEvaluator prepare it
+ * - Initialize ExecutionContext with initial input, using the configured
+ * context factory (a plain ExecutionContext by default; SlotContextFactory
+ * provides the slot-indexed variant)
  * - Construct FlowEngine with provided evaluator and invoker
  * - Execute the flow and return FlowResult
  *
@@ -27,11 +30,11 @@ import java.util.function.Function;
  */
 public class FlowExecutor {
     private final FlowDefinitionResolver definitionResolver;
-    @SuppressWarnings("unused")
     private final StepEvaluator evaluator;
     @SuppressWarnings("unused")
     private final StepInvoker invoker;
     private final Function<FlowExecutor, FlowEngine> engineFactory;
+    private final Function<FlowDefinition, ExecutionContext> contextFactory;
 
     public FlowExecutor(
             FlowDefinitionResolver definitionResolver,
@@ -39,10 +42,25 @@ public class FlowExecutor {
             StepInvoker invoker,
             Function<FlowExecutor, FlowEngine> engineFactory) {
 
+        this(definitionResolver, evaluator, invoker, engineFactory, flow -> new ExecutionContext());
+    }
+
+    /**
+     * @param contextFactory creates the ExecutionContext for each execution of
+     *                       a resolved flow
+     */
+    public FlowExecutor(
+            FlowDefinitionResolver definitionResolver,
+            StepEvaluator evaluator,
+            StepInvoker invoker,
+            Function<FlowExecutor, FlowEngine> engineFactory,
+            Function<FlowDefinition, ExecutionContext> contextFactory) {
+
         this.definitionResolver = definitionResolver;
         this.evaluator = evaluator;
         this.invoker = invoker;
         this.engineFactory = engineFactory;
+        this.contextFactory = contextFactory;
     }
 
     /**
@@ -56,9 +74,10 @@ public class FlowExecutor {
         try {
             // 1. Resolve FlowDefinition
             FlowDefinition definition = definitionResolver.resolve(flowName);
+            evaluator.prepare(definition);
 
             // 2. Create ExecutionContext
-            ExecutionContext context = new ExecutionContext();
+            ExecutionContext context = contextFactory.apply(definition);
             if (input != null) {
                 context.merge(input);
             }
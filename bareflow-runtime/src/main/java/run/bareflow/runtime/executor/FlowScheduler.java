@@ -0,0 +1,349 @@
+package run.bareflow.runtime.executor;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.resolver.FlowDefinitionResolver;
+
+/**
+ * Admission-controlled, priority-ordered front-end for FlowExecutor.
+ *
+ * Requests are queued per Priority and executed by a fixed number of worker
+ * threads, which always take the oldest request of the highest non-empty
+ * priority. Lower priorities therefore absorb overload while critical flows
+ * keep their latency.
+ *
+ * Admission (at submit):
+ * - rejected: the priority's queue is at capacity
+ * - shed: the oldest queued request of the priority has waited longer than
+ * its maxQueueTimeMillis, i.e. the queue is not draining in time
+ * - expired: the remaining time to the deadline is shorter than the flow's
+ * observed execution time
+ *
+ * At dequeue, requests whose deadline can no longer be met, or that waited
+ * longer than maxQueueTimeMillis, are dropped instead of executed.
+ *
+ * Refused and dropped requests complete their future exceptionally with a
+ * SystemException. The observed execution time is an exponentially weighted
+ * moving average per flow name.
+ *
+ * The "priority" metadata of a flow is resolved on its first submission
+ * without a priority and cached per flow name; clearPriorities() drops the
+ * cache after definitions changed. A failed resolution fails the returned
+ * future and is not cached.
+ *
+ * Worker threads are daemons started by the constructor; close() stops them
+ * and fails every queued request.
+ */
+public class FlowScheduler implements AutoCloseable {
+    private static final PriorityClass DEFAULT_CLASS = new PriorityClass(1_000, 0);
+    private static final double EWMA_WEIGHT = 0.2;
+
+    private final FlowExecutor executor;
+    private final FlowDefinitionResolver definitionResolver;
+    private final Map<Priority, PriorityClass> classes;
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final Map<String, Long> executionNanos = new ConcurrentHashMap<>();
+    private final Map<String, Priority> priorities = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private boolean closed;
+
+    /**
+     * @param executor           executes admitted requests
+     * @param definitionResolver used to read the "priority" metadata of flows
+     *                           submitted without a priority; may be null
+     * @param workers            number of worker threads (at least 1)
+     * @param classes            queue settings per priority; missing priorities
+     *                           use capacity 1000 without queue time limit
+     */
+    public FlowScheduler(
+            FlowExecutor executor,
+            FlowDefinitionResolver definitionResolver,
+            int workers,
+            Map<Priority, PriorityClass> classes) {
+
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1");
+        }
+        this.executor = executor;
+        this.definitionResolver = definitionResolver;
+        this.classes = Map.copyOf(classes);
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane());
+        }
+
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "bareflow-scheduler-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Submit a flow with the priority from its metadata and no deadline.
+     */
+    public CompletableFuture<FlowResult> submit(String flowName, Map<String, Object> input) {
+        return submit(flowName, input, null, null);
+    }
+
+    /**
+     * Submit a flow.
+     *
+     * @param priority priority class, or null to read it from the flow
+     *                 metadata
+     * @param timeout  time from now by which the flow must have completed, or
+     *                 null for no deadline
+     * @return future completed with the FlowResult, or exceptionally with a
+     *         SystemException if the request was refused, dropped or failed
+     */
+    public CompletableFuture<FlowResult> submit(
+            String flowName,
+            Map<String, Object> input,
+            Priority priority,
+            Duration timeout) {
+
+        Priority effective = priority;
+        if (effective == null) {
+            try {
+                effective = priorityOf(flowName);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(
+                        new SystemException("Failed to resolve priority of flow: " + flowName, e));
+            }
+        }
+        PriorityClass pc = classes.getOrDefault(effective, DEFAULT_CLASS);
+        long now = System.nanoTime();
+        Request request = timeout != null
+                ? new Request(flowName, input, now, true, now + timeout.toNanos())
+                : new Request(flowName, input, now, false, 0L);
+
+        lock.lock();
+        try {
+            Lane lane = lanes.get(effective);
+            if (closed) {
+                return refuse(request, "Scheduler is closed");
+            }
+            if (lane.queue.size() >= pc.getCapacity()) {
+                lane.rejected++;
+                return refuse(request, "Queue full: priority=" + effective + ", capacity=" + pc.getCapacity());
+            }
+            if (overQueueTime(lane.queue.peekFirst(), pc, now)) {
+                lane.shed++;
+                return refuse(request, "Load shed: priority=" + effective + ", queue time over "
+                        + pc.getMaxQueueTimeMillis() + "ms");
+            }
+            if (cannotMeetDeadline(request, now)) {
+                lane.expired++;
+                return refuse(request, "Deadline cannot be met: flow=" + flowName);
+            }
+
+            lane.queue.addLast(request);
+            lane.accepted++;
+            available.signal();
+            return request.result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the statistics of a priority class.
+     */
+    public SchedulerStats getStats(Priority priority) {
+        lock.lock();
+        try {
+            Lane lane = lanes.get(priority);
+            return new SchedulerStats(lane.queue.size(), lane.accepted, lane.rejected, lane.shed, lane.expired,
+                    lane.completed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget the cached metadata priorities, so the next submission of each
+     * flow resolves its definition again.
+     */
+    public void clearPriorities() {
+        priorities.clear();
+    }
+
+    /**
+     * Stop the workers after their current request and fail all queued
+     * requests.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Lane lane : lanes.values()) {
+                for (Request request : lane.queue) {
+                    request.result.completeExceptionally(new SystemException("Scheduler is closed"));
+                }
+                lane.queue.clear();
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Workers
+    // ------------------------------------------------------------
+    private void work() {
+        while (true) {
+            Request request;
+            Lane lane;
+
+            lock.lock();
+            try {
+                Priority next = nextPriority();
+                while (next == null) {
+                    if (closed) {
+                        return;
+                    }
+                    available.awaitUninterruptibly();
+                    next = nextPriority();
+                }
+                lane = lanes.get(next);
+                request = lane.queue.pollFirst();
+
+                long now = System.nanoTime();
+                if (overQueueTime(request, classes.getOrDefault(next, DEFAULT_CLASS), now)
+                        || cannotMeetDeadline(request, now)) {
+                    lane.expired++;
+                    request.result.completeExceptionally(new SystemException(
+                            "Request expired in queue: flow=" + request.flowName + ", priority=" + next));
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            execute(request, lane);
+        }
+    }
+
+    private void execute(Request request, Lane lane) {
+        long start = System.nanoTime();
+        FlowResult result = null;
+        Throwable failure = null;
+        try {
+            result = executor.execute(request.flowName, request.input);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        executionNanos.merge(request.flowName, elapsed,
+                (previous, sample) -> (long) (previous + EWMA_WEIGHT * (sample - previous)));
+
+        lock.lock();
+        try {
+            lane.completed++;
+        } finally {
+            lock.unlock();
+        }
+
+        // statistics are updated before the caller is released
+        if (failure != null) {
+            request.result.completeExceptionally(failure);
+        } else {
+            request.result.complete(result);
+        }
+    }
+
+    /**
+     * Highest priority with a queued request, or null. Caller holds the lock.
+     */
+    private Priority nextPriority() {
+        for (Priority priority : Priority.values()) {
+            if (!lanes.get(priority).queue.isEmpty()) {
+                return priority;
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------
+    // Admission helpers
+    // ------------------------------------------------------------
+    private Priority priorityOf(String flowName) {
+        if (definitionResolver == null) {
+            return Priority.NORMAL;
+        }
+        Priority cached = priorities.get(flowName);
+        if (cached != null) {
+            return cached;
+        }
+        FlowDefinition definition = definitionResolver.resolve(flowName);
+        Priority priority = definition == null ? null : Priority.fromMetadata(definition.getMetadata().get("priority"));
+        priority = priority != null ? priority : Priority.NORMAL;
+        priorities.put(flowName, priority);
+        return priority;
+    }
+
+    private static boolean overQueueTime(Request request, PriorityClass pc, long now) {
+        return request != null
+                && pc.getMaxQueueTimeMillis() > 0
+                && now - request.enqueuedAt > TimeUnit.MILLISECONDS.toNanos(pc.getMaxQueueTimeMillis());
+    }
+
+    private boolean cannotMeetDeadline(Request request, long now) {
+        if (!request.hasDeadline) {
+            return false;
+        }
+        long remaining = request.deadline - now;
+        return remaining <= 0 || remaining < executionNanos.getOrDefault(request.flowName, 0L);
+    }
+
+    private static CompletableFuture<FlowResult> refuse(Request request, String message) {
+        request.result.completeExceptionally(new SystemException(message));
+        return request.result;
+    }
+
+    /**
+     * Queue and counters of one priority. Guarded by the scheduler lock.
+     */
+    private static final class Lane {
+        final ArrayDeque<Request> queue = new ArrayDeque<>();
+        long accepted;
+        long rejected;
+        long shed;
+        long expired;
+        long completed;
+    }
+
+    private static final class Request {
+        final String flowName;
+        final Map<String, Object> input;
+        final long enqueuedAt;
+        final boolean hasDeadline;
+        final long deadline;
+        final CompletableFuture<FlowResult> result = new CompletableFuture<>();
+
+        Request(String flowName, Map<String, Object> input, long enqueuedAt, boolean hasDeadline, long deadline) {
+            this.flowName = flowName;
+            this.input = input;
+            this.enqueuedAt = enqueuedAt;
+            this.hasDeadline = hasDeadline;
+            this.deadline = deadline;
+        }
+    }
+}
\ No newline at end of file
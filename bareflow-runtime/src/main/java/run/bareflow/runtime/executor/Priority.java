@@ -0,0 +1,31 @@
+package run.bareflow.runtime.executor;
+
+import java.util.Locale;
+
+/**
+ * Priority classes of FlowScheduler, highest first.
+ *
+ * A flow's priority is given per call, or read from the "priority" entry of
+ * the flow metadata (case-insensitive enum name), defaulting to NORMAL.
+ */
+public enum Priority {
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    BATCH;
+
+    /**
+     * Parse a metadata value; returns null if the value is not a priority
+     * name.
+     */
+    static Priority fromMetadata(Object value) {
+        if (!(value instanceof String)) {
+            return null;
+        }
+        try {
+            return valueOf(((String) value).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
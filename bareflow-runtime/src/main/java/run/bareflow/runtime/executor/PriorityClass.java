@@ -0,0 +1,34 @@
+package run.bareflow.runtime.executor;
+
+/**
+ * Queue settings of one Priority in FlowScheduler.
+ *
+ * - capacity: maximum number of queued requests; further submissions are
+ * rejected
+ * - maxQueueTimeMillis: longest time a request may wait. Requests that waited
+ * longer are dropped when dequeued, and while the oldest queued request is
+ * over this limit new submissions are shed. 0 disables the limit.
+ */
+public class PriorityClass {
+    private final int capacity;
+    private final long maxQueueTimeMillis;
+
+    public PriorityClass(int capacity, long maxQueueTimeMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (maxQueueTimeMillis < 0) {
+            throw new IllegalArgumentException("maxQueueTimeMillis must not be negative");
+        }
+        this.capacity = capacity;
+        this.maxQueueTimeMillis = maxQueueTimeMillis;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMaxQueueTimeMillis() {
+        return maxQueueTimeMillis;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package run.bareflow.runtime.executor;
+
+/**
+ * Snapshot of one priority class of FlowScheduler.
+ *
+ * @param queued    requests currently waiting
+ * @param accepted  requests admitted to the queue
+ * @param rejected  submissions refused because the queue was full
+ * @param shed      submissions refused because queue time was over the limit
+ * @param expired   requests dropped because their deadline or queue time
+ *                  could not be met
+ * @param completed requests executed (successfully or not)
+ */
+public record SchedulerStats(int queued, long accepted, long rejected, long shed, long expired, long completed) {
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package run.bareflow.runtime.invoker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * Concurrency limiter of a single module, used by BulkheadStepInvoker.
+ *
+ * The limit starts at maxConcurrent. With a target latency configured it is
+ * adjusted after every invocation (AIMD):
+ * - additive increase: +1/limit per invocation within the target, i.e.
+ * about +1 per round of limit invocations
+ * - multiplicative decrease: x0.9 per invocation slower than the target or
+ * failing with a SystemException
+ * The limit stays between 1 and maxConcurrent.
+ */
+final class Bulkhead {
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final String module;
+    private final BulkheadConfig config;
+    private final long targetLatencyNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long rejected;
+    private long timedOut;
+
+    Bulkhead(String module, BulkheadConfig config) {
+        this.module = module;
+        this.config = config;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(config.getTargetLatencyMillis());
+        this.limit = config.getMaxConcurrent();
+    }
+
+    /**
+     * Take a slot, waiting up to the configured timeout.
+     *
+     * @throws SystemException if the queue is full, the wait timed out or the
+     *                         thread was interrupted
+     */
+    void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return;
+            }
+            if (waiting >= config.getMaxQueue()) {
+                rejected++;
+                throw new SystemException("Bulkhead full: module=" + module + ", inFlight=" + inFlight
+                        + ", waiting=" + waiting);
+            }
+
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(config.getWaitTimeoutMillis());
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        timedOut++;
+                        throw new SystemException("Bulkhead wait timed out: module=" + module + ", waited "
+                                + config.getWaitTimeoutMillis() + "ms");
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+                inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SystemException("Interrupted while waiting for bulkhead: module=" + module, e);
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a slot and feed the invocation outcome into the limit.
+     *
+     * @param latencyNanos duration of the invocation
+     * @param overloaded   true if the invocation failed with a SystemException
+     */
+    void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (targetLatencyNanos > 0) {
+                if (overloaded || latencyNanos > targetLatencyNanos) {
+                    limit = Math.max(1.0, limit * DECREASE_FACTOR);
+                } else {
+                    limit = Math.min(config.getMaxConcurrent(), limit + 1.0 / limit);
+                }
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    BulkheadStats stats() {
+        lock.lock();
+        try {
+            return new BulkheadStats(currentLimit(), inFlight, waiting, rejected, timedOut);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package run.bareflow.runtime.invoker;
+
+/**
+ * Capacity settings of one module's bulkhead.
+ *
+ * - maxConcurrent: upper bound of concurrent invocations (at least 1)
+ * - maxQueue: callers allowed to wait for a free slot; further callers are
+ * rejected immediately (0 = no waiting)
+ * - waitTimeoutMillis: maximum time a caller waits for a slot
+ * - targetLatencyMillis: latency above which the module is considered
+ * overloaded. If positive, the concurrency limit adapts (AIMD) between 1 and
+ * maxConcurrent; if 0, the limit is fixed at maxConcurrent.
+ */
+public class BulkheadConfig {
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long waitTimeoutMillis;
+    private final long targetLatencyMillis;
+
+    /**
+     * Fixed limit without adaptation.
+     */
+    public BulkheadConfig(int maxConcurrent, int maxQueue, long waitTimeoutMillis) {
+        this(maxConcurrent, maxQueue, waitTimeoutMillis, 0);
+    }
+
+    public BulkheadConfig(int maxConcurrent, int maxQueue, long waitTimeoutMillis, long targetLatencyMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        if (maxQueue < 0 || waitTimeoutMillis < 0 || targetLatencyMillis < 0) {
+            throw new IllegalArgumentException("maxQueue, waitTimeoutMillis and targetLatencyMillis must not be negative");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.targetLatencyMillis = targetLatencyMillis;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    public long getTargetLatencyMillis() {
+        return targetLatencyMillis;
+    }
+}
\ No newline at end of file
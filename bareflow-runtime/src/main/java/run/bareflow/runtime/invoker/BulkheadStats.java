@@ -0,0 +1,13 @@
+package run.bareflow.runtime.invoker;
+
+/**
+ * Snapshot of a module's bulkhead.
+ *
+ * @param limit    current concurrency limit
+ * @param inFlight invocations currently running
+ * @param waiting  callers currently waiting for a slot
+ * @param rejected callers rejected because the queue was full
+ * @param timedOut callers that gave up waiting
+ */
+public record BulkheadStats(int limit, int inFlight, int waiting, long rejected, long timedOut) {
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package run.bareflow.runtime.invoker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import run.bareflow.core.engine.invoker.StepInvoker;
+import run.bareflow.core.exception.SystemException;
+
+/**
+ * StepInvoker decorator that isolates modules with per-module bulkheads.
+ *
+ * Each module gets its own concurrency limit, wait queue and wait timeout
+ * (BulkheadConfig), so a slow module can only occupy its own slots while
+ * invocations of other modules proceed. Callers that find the queue full, or
+ * that wait longer than the timeout, fail fast with a SystemException, which
+ * the engine treats like any other system failure (RetryPolicy applies).
+ *
+ * With a target latency configured, the limit adapts to the latency measured
+ * around each delegate invocation (AIMD; see Bulkhead): slow or failing
+ * invocations shrink it, fast ones let it grow back to maxConcurrent.
+ *
+ * Modules without their own config use the default config, or are not
+ * limited at all if no default is given.
+ *
+ * Instances are thread-safe and are meant to be shared by all FlowEngine
+ * instances.
+ */
+public class BulkheadStepInvoker implements StepInvoker {
+    private final StepInvoker delegate;
+    private final Map<String, BulkheadConfig> configs;
+    private final BulkheadConfig defaultConfig;
+    private final LongSupplier nanoTime;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Limit only the listed modules.
+     */
+    public BulkheadStepInvoker(StepInvoker delegate, Map<String, BulkheadConfig> configs) {
+        this(delegate, configs, null);
+    }
+
+    /**
+     * @param configs       config per module name
+     * @param defaultConfig config of every other module (one bulkhead per
+     *                      module), or null to leave them unlimited
+     */
+    public BulkheadStepInvoker(StepInvoker delegate, Map<String, BulkheadConfig> configs,
+            BulkheadConfig defaultConfig) {
+        this(delegate, configs, defaultConfig, System::nanoTime);
+    }
+
+    BulkheadStepInvoker(StepInvoker delegate, Map<String, BulkheadConfig> configs, BulkheadConfig defaultConfig,
+            LongSupplier nanoTime) {
+        this.delegate = delegate;
+        this.configs = Map.copyOf(configs);
+        this.defaultConfig = defaultConfig;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public Map<String, Object> invoke(
+            String module,
+            String operation,
+            Map<String, Object> input) {
+
+        Bulkhead bulkhead = bulkheadOf(module);
+        if (bulkhead == null) {
+            return delegate.invoke(module, operation, input);
+        }
+
+        bulkhead.acquire();
+        long start = nanoTime.getAsLong();
+        boolean overloaded = false;
+        try {
+            return delegate.invoke(module, operation, input);
+        } catch (SystemException e) {
+            overloaded = true;
+            throw e;
+        } finally {
+            bulkhead.release(nanoTime.getAsLong() - start, overloaded);
+        }
+    }
+
+    /**
+     * Returns the bulkhead statistics of the module, or null if the module is
+     * not limited or has not been invoked yet.
+     */
+    public BulkheadStats getStats(String module) {
+        Bulkhead bulkhead = bulkheads.get(module);
+        return bulkhead == null ? null : bulkhead.stats();
+    }
+
+    private Bulkhead bulkheadOf(String module) {
+        Bulkhead bulkhead = bulkheads.get(module);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        BulkheadConfig config = configs.getOrDefault(module, defaultConfig);
+        if (config == null) {
+            return null;
+        }
+        return bulkheads.computeIfAbsent(module, m -> new Bulkhead(m, config));
+    }
+}
\ No newline at end of file
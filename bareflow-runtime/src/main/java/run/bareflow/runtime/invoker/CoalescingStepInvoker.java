@@ -0,0 +1,172 @@
+package run.bareflow.runtime.invoker;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+import run.bareflow.core.engine.invoker.StepInvoker;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.util.CompactMap;
+
+/**
+ * StepInvoker decorator that collapses identical concurrent invocations
+ * (single-flight).
+ *
+ * Invocations are identical when module, operation and evaluated input are
+ * equal. The first caller (the leader) invokes the delegate; callers arriving
+ * while it is in flight (followers) wait for the leader and receive the same
+ * outcome:
+ * - the leader's output, as an immutable copy
+ * - or the leader's exception, rethrown as-is so BusinessException and
+ * SystemException keep their retry semantics
+ *
+ * Only concurrent calls are collapsed: once the leader finishes, the next
+ * identical call invokes the delegate again. Results are not cached.
+ *
+ * Coalescing is only safe for operations without side effects. The
+ * constructor taking a predicate restricts it to selected module/operation
+ * pairs; all other calls go straight to the delegate.
+ *
+ * Instances are thread-safe and are meant to be shared by all FlowEngine
+ * instances.
+ */
+public class CoalescingStepInvoker implements StepInvoker {
+    private final StepInvoker delegate;
+    private final BiPredicate<String, String> coalesce;
+
+    private final Map<Key, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Coalesce every module operation.
+     */
+    public CoalescingStepInvoker(StepInvoker delegate) {
+        this(delegate, (module, operation) -> true);
+    }
+
+    /**
+     * Coalesce only the module operations accepted by the predicate.
+     *
+     * @param coalesce receives module and operation names
+     */
+    public CoalescingStepInvoker(StepInvoker delegate, BiPredicate<String, String> coalesce) {
+        this.delegate = delegate;
+        this.coalesce = coalesce;
+    }
+
+    @Override
+    public Map<String, Object> invoke(
+            String module,
+            String operation,
+            Map<String, Object> input) {
+
+        if (!coalesce.test(module, operation)) {
+            return delegate.invoke(module, operation, input);
+        }
+
+        Key key = new Key(module, operation, input);
+        CompletableFuture<Map<String, Object>> flight = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> leader = inFlight.putIfAbsent(key, flight);
+
+        if (leader != null) {
+            collapsed.increment();
+            return await(leader);
+        }
+
+        invocations.increment();
+        Map<String, Object> output;
+        try {
+            output = delegate.invoke(module, operation, input);
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+
+        inFlight.remove(key, flight);
+        flight.complete(output == null ? null : CompactMap.copyOf(output));
+        return output;
+    }
+
+    /**
+     * Number of calls that invoked the delegate as leader.
+     */
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+
+    /**
+     * Number of calls that were served by another call's invocation.
+     */
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Number of distinct invocations currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Map<String, Object> await(CompletableFuture<Map<String, Object>> leader) {
+        try {
+            return leader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while waiting for a coalesced invocation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SystemException("Coalesced invocation failed", cause);
+        }
+    }
+
+    /**
+     * Identity of an invocation. The hash is computed once since the input
+     * map is hashed on every probe otherwise.
+     */
+    private static final class Key {
+        final String module;
+        final String operation;
+        final Map<String, Object> input;
+        final int hash;
+
+        Key(String module, String operation, Map<String, Object> input) {
+            this.module = module;
+            this.operation = operation;
+            this.input = input;
+            this.hash = Objects.hash(module, operation, input);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && Objects.equals(module, other.module)
+                    && Objects.equals(operation, other.operation)
+                    && Objects.equals(input, other.input);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
\ No newline at end of file
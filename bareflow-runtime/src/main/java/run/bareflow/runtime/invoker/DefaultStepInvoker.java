@@ -2,6 +2,7 @@ package run.bareflow.runtime.invoker;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import run.bareflow.core.engine.invoker.StepInvoker;
@@ -17,7 +18,12 @@ import run.bareflow.runtime.resolver.ModuleResolver;
  * - Instantiate the module via its no-arg constructor
  * - Locate the operation method with signature: Map<String,Object> →
  * Map<String,Object>
- * - Invoke the method and return its result
+ * - Invoke the method with a mutable copy of the evaluated input and
+ * return its result
+ *
+ * The evaluated input is immutable (see StepEvaluator) and may be shared
+ * with the trace, the step cache and hedged invocations; modules receive
+ * their own copy, so they may modify it as before.
  *
  * Error handling:
  * - BusinessException thrown by the target method is propagated as-is
@@ -50,7 +56,7 @@ public class DefaultStepInvoker implements StepInvoker {
             Method method = resolveMethod(clazz, operation);
 
             // 4. Invoke method
-            Object result = method.invoke(instance, input);
+            Object result = method.invoke(instance, new LinkedHashMap<>(input));
 
             // 5. Validate return type
             if (!(result instanceof Map)) {
@@ -0,0 +1,62 @@
+package run.bareflow.runtime.json;
+
+/**
+ * Helpers shared by the JSON writers of the runtime (JsonLogFormatter,
+ * OtlpHttpSpanExporter).
+ *
+ * Writers build their output in a StringBuilder; these methods append to it
+ * directly and allocate nothing.
+ */
+public final class Json {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Append value as a quoted JSON string, or null if value is null.
+     */
+    public static void quote(StringBuilder sb, CharSequence value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        escape(sb, value, value.length());
+        sb.append('"');
+    }
+
+    /**
+     * Append the first length characters of value as the content of a JSON
+     * string (without quotes): quote, backslash and control characters are
+     * escaped.
+     */
+    public static void escape(StringBuilder sb, CharSequence value, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+    }
+}
\ No newline at end of file
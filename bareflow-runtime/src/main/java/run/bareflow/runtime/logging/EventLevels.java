@@ -0,0 +1,124 @@
+package run.bareflow.runtime.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.event.Level;
+
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+
+/**
+ * Immutable mapping from {@link FlowEngineEvent} types to the SLF4J level at
+ * which {@link LoggingAdapter} logs them.
+ *
+ * <p>
+ * Event types without a level are not logged. Derive custom routings from
+ * {@link #defaults()} or {@link #none()}:
+ * </p>
+ *
+ * <pre>
+ * EventLevels levels = EventLevels.defaults()
+ *         .withLevel(InvokeEndEvent.class, Level.DEBUG)
+ *         .withoutLevel(StepStartEvent.class);
+ * </pre>
+ *
+ * <p>
+ * Defaults:
+ * </p>
+ *
+ * <ul>
+ * <li>INFO — flow start/end</li>
+ * <li>DEBUG — step start/end/skip, retries, rate limit waits, hedges, cache
+ * hits/misses</li>
+ * <li>TRACE — input/output evaluation, invocation and forEach element
+ * events</li>
+ * <li>WARN — business and system errors</li>
+ * <li>ERROR — step execution and unhandled errors, aborted flows</li>
+ * </ul>
+ */
+public final class EventLevels {
+    private static final EventLevels NONE = new EventLevels(Map.of());
+    private static final EventLevels DEFAULTS = createDefaults();
+
+    private final Map<Class<? extends FlowEngineEvent>, Level> levels;
+
+    private EventLevels(Map<Class<? extends FlowEngineEvent>, Level> levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Returns the default routing.
+     */
+    public static EventLevels defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns a routing that logs no event.
+     */
+    public static EventLevels none() {
+        return NONE;
+    }
+
+    /**
+     * Returns a copy that logs the event type at the given level.
+     */
+    public EventLevels withLevel(Class<? extends FlowEngineEvent> type, Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("level must not be null");
+        }
+        Map<Class<? extends FlowEngineEvent>, Level> copy = new HashMap<>(levels);
+        copy.put(type, level);
+        return new EventLevels(Map.copyOf(copy));
+    }
+
+    /**
+     * Returns a copy that does not log the event type.
+     */
+    public EventLevels withoutLevel(Class<? extends FlowEngineEvent> type) {
+        Map<Class<? extends FlowEngineEvent>, Level> copy = new HashMap<>(levels);
+        copy.remove(type);
+        return new EventLevels(Map.copyOf(copy));
+    }
+
+    /**
+     * Returns the level of the event type, or null if it is not logged.
+     */
+    public Level levelOf(Class<? extends FlowEngineEvent> type) {
+        return levels.get(type);
+    }
+
+    private static EventLevels createDefaults() {
+        Map<Class<? extends FlowEngineEvent>, Level> m = new HashMap<>();
+        m.put(FlowStartEvent.class, Level.INFO);
+        m.put(FlowEndEvent.class, Level.INFO);
+
+        m.put(StepStartEvent.class, Level.DEBUG);
+        m.put(StepEndEvent.class, Level.DEBUG);
+        m.put(StepSkippedEvent.class, Level.DEBUG);
+        m.put(RetryPolicyRetryEvent.class, Level.DEBUG);
+        m.put(OnErrorRetryEvent.class, Level.DEBUG);
+        m.put(ForEachItemRetryEvent.class, Level.DEBUG);
+        m.put(RateLimitWaitEvent.class, Level.DEBUG);
+        m.put(HedgeStartEvent.class, Level.DEBUG);
+        m.put(CacheHitEvent.class, Level.DEBUG);
+        m.put(CacheMissEvent.class, Level.DEBUG);
+
+        m.put(InputEvaluationStartEvent.class, Level.TRACE);
+        m.put(InputEvaluationEndEvent.class, Level.TRACE);
+        m.put(InvokeStartEvent.class, Level.TRACE);
+        m.put(InvokeEndEvent.class, Level.TRACE);
+        m.put(OutputEvaluationStartEvent.class, Level.TRACE);
+        m.put(OutputEvaluationEndEvent.class, Level.TRACE);
+        m.put(ForEachItemStartEvent.class, Level.TRACE);
+        m.put(ForEachItemEndEvent.class, Level.TRACE);
+
+        m.put(BusinessErrorEvent.class, Level.WARN);
+        m.put(SystemErrorEvent.class, Level.WARN);
+        m.put(StepExecutionErrorEvent.class, Level.ERROR);
+        m.put(UnhandledErrorEvent.class, Level.ERROR);
+        m.put(FlowAbortedEvent.class, Level.ERROR);
+        return new EventLevels(Map.copyOf(m));
+    }
+}
\ No newline at end of file
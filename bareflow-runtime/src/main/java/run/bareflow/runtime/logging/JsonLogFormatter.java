@@ -0,0 +1,423 @@
+package run.bareflow.runtime.logging;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.trace.StepTraceEntry;
+import run.bareflow.runtime.json.Json;
+
+/**
+ * {@link LogFormatter} that renders each {@link FlowEngineEvent} as a single
+ * JSON object, e.g.
+ *
+ * <pre>
+ * {"event":"InvokeEnd","step":"charge","attempt":1,"startTime":"...","endTime":"...","durationMicros":1520}
+ * </pre>
+ *
+ * <p>
+ * The level methods control the amount of detail:
+ * </p>
+ *
+ * <ul>
+ * <li>{@code formatError} — error events only (other events return
+ * {@code null}, which {@link LoggingAdapter} does not log)</li>
+ * <li>{@code formatInfo} — identifiers, attempts, times, durations and
+ * errors</li>
+ * <li>{@code formatDebug} — additionally input, output and mapped output</li>
+ * <li>{@code formatTrace} — additionally the before-context of trace
+ * entries</li>
+ * </ul>
+ *
+ * <p>
+ * Output is built in a reusable per-thread {@link StringBuilder} by a
+ * reusable per-thread writer. Strings are escaped while they are appended,
+ * numbers and durations are appended as primitives and times are formatted
+ * directly into the builder, so no intermediate strings are built for the
+ * fields. Besides the resulting string, allocations are left to the JDK
+ * (time and floating-point formatting) and to {@code toString()} of values
+ * that are not strings, numbers or booleans.
+ * </p>
+ *
+ * <p>
+ * An optional allow-list restricts the written fields ({@code "event"} is
+ * always written). Strings and other scalar values longer than
+ * {@code maxValueChars} are cut and marked with {@code "..."}.
+ * </p>
+ *
+ * <p>
+ * Field names: event, flow, step, attempt, index, time, startTime, endTime,
+ * durationMicros, delayMillis, waitMillis, condition, key, entries, failures,
+ * error, input, output, mappedOutput, context.
+ * </p>
+ */
+public final class JsonLogFormatter implements LogFormatter {
+    private static final int ERROR = 0;
+    private static final int INFO = 1;
+    private static final int DEBUG = 2;
+    private static final int TRACE = 3;
+
+    /** Builders that grew beyond this are not kept for reuse. */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ClassValue<String> EVENT_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getSimpleName();
+            return name.endsWith("Event") ? name.substring(0, name.length() - "Event".length()) : name;
+        }
+    };
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private final Set<String> fields;
+    private final int maxValueChars;
+    private final ThreadLocal<Writer> writers = ThreadLocal.withInitial(Writer::new);
+
+    /**
+     * Creates a formatter writing all fields and cutting values at 256
+     * characters.
+     */
+    public JsonLogFormatter() {
+        this(null, 256);
+    }
+
+    /**
+     * @param fields        names of the fields to write, or {@code null} for
+     *                      all fields
+     * @param maxValueChars maximum length of a written value (at least 1)
+     */
+    public JsonLogFormatter(Set<String> fields, int maxValueChars) {
+        if (maxValueChars < 1) {
+            throw new IllegalArgumentException("maxValueChars must be at least 1");
+        }
+        this.fields = fields == null ? null : Set.copyOf(fields);
+        this.maxValueChars = maxValueChars;
+    }
+
+    @Override
+    public String formatError(FlowEngineEvent event) {
+        if (!(event instanceof BusinessErrorEvent
+                || event instanceof SystemErrorEvent
+                || event instanceof StepExecutionErrorEvent
+                || event instanceof UnhandledErrorEvent
+                || event instanceof FlowAbortedEvent)) {
+            return null;
+        }
+        return format(event, ERROR);
+    }
+
+    @Override
+    public String formatInfo(FlowEngineEvent event) {
+        return format(event, INFO);
+    }
+
+    @Override
+    public String formatDebug(FlowEngineEvent event) {
+        return format(event, DEBUG);
+    }
+
+    @Override
+    public String formatTrace(FlowEngineEvent event) {
+        return format(event, TRACE);
+    }
+
+    /**
+     * Appends the JSON object of the event at trace detail to the given
+     * builder, for callers that manage their own buffers.
+     */
+    public void formatTo(StringBuilder out, FlowEngineEvent event) {
+        write(out, event, TRACE);
+    }
+
+    private String format(FlowEngineEvent event, int level) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        write(sb, event, level);
+        String result = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.set(new StringBuilder(512));
+        }
+        return result;
+    }
+
+    private void write(StringBuilder out, FlowEngineEvent event, int level) {
+        Writer writer = writers.get();
+        writer.sb = out;
+        writer.level = level;
+        try {
+            writer.event(event);
+        } finally {
+            writer.sb = null; // do not retain the caller's builder
+        }
+    }
+
+    /**
+     * Writes one event at a time; holds the per-call state and is reused by
+     * its thread.
+     */
+    private final class Writer {
+        private StringBuilder sb;
+        private int level;
+
+        void event(FlowEngineEvent event) {
+            sb.append("{\"event\":\"").append(EVENT_NAMES.get(event.getClass())).append('"');
+
+            if (event instanceof FlowStartEvent e) {
+                string("flow", e.flow().getName());
+                time("startTime", e.startTime());
+            } else if (event instanceof FlowEndEvent e) {
+                string("flow", e.flow().getName());
+                span(e.startTime(), e.endTime());
+                number("entries", e.trace().getEntryCount());
+                number("failures", e.trace().getFailureCount());
+            } else if (event instanceof FlowAbortedEvent e) {
+                string("flow", e.flow().getName());
+                span(e.startTime(), e.endTime());
+                number("entries", e.trace().getEntryCount());
+                number("failures", e.trace().getFailureCount());
+                error(e.error());
+            } else if (event instanceof StepStartEvent e) {
+                step(e.step(), e.attempt());
+                time("startTime", e.startTime());
+            } else if (event instanceof InputEvaluationStartEvent e) {
+                step(e.step(), e.attempt());
+                time("startTime", e.startTime());
+            } else if (event instanceof InputEvaluationEndEvent e) {
+                step(e.step(), e.attempt());
+                span(e.startTime(), e.endTime());
+                detail("input", e.evaluatedInput(), DEBUG);
+            } else if (event instanceof InvokeStartEvent e) {
+                step(e.step(), e.attempt());
+                time("startTime", e.startTime());
+                detail("input", e.evaluatedInput(), DEBUG);
+            } else if (event instanceof InvokeEndEvent e) {
+                step(e.step(), e.attempt());
+                span(e.startTime(), e.endTime());
+                detail("output", e.rawOutput(), DEBUG);
+            } else if (event instanceof RateLimitWaitEvent e) {
+                step(e.step(), e.attempt());
+                number("waitMillis", e.waitMillis());
+                time("time", e.time());
+            } else if (event instanceof HedgeStartEvent e) {
+                step(e.step(), e.attempt());
+                number("delayMillis", e.delayMillis());
+                time("time", e.time());
+            } else if (event instanceof CacheHitEvent e) {
+                step(e.step(), e.attempt());
+                time("time", e.time());
+                detail("key", e.key(), DEBUG);
+                detail("output", e.rawOutput(), DEBUG);
+            } else if (event instanceof CacheMissEvent e) {
+                step(e.step(), e.attempt());
+                time("time", e.time());
+                detail("key", e.key(), DEBUG);
+            } else if (event instanceof OutputEvaluationStartEvent e) {
+                step(e.step(), e.attempt());
+                time("startTime", e.startTime());
+                detail("output", e.rawOutput(), DEBUG);
+            } else if (event instanceof OutputEvaluationEndEvent e) {
+                step(e.step(), e.attempt());
+                span(e.startTime(), e.endTime());
+                detail("mappedOutput", e.mappedOutput(), DEBUG);
+            } else if (event instanceof StepSkippedEvent e) {
+                step(e.step(), 0);
+                string("condition", e.condition());
+                time("time", e.time());
+            } else if (event instanceof StepEndEvent e) {
+                step(e.step(), e.attempt());
+                span(e.startTime(), e.endTime());
+                entry(e.entry());
+            } else if (event instanceof RetryPolicyRetryEvent e) {
+                step(e.step(), e.attempt());
+                number("delayMillis", e.delayMillis());
+            } else if (event instanceof OnErrorRetryEvent e) {
+                step(e.step(), e.attempt());
+                number("delayMillis", e.delayMillis());
+            } else if (event instanceof ForEachItemStartEvent e) {
+                step(e.step(), e.attempt());
+                number("index", e.index());
+                time("startTime", e.startTime());
+            } else if (event instanceof ForEachItemRetryEvent e) {
+                step(e.step(), e.attempt());
+                number("index", e.index());
+                number("delayMillis", e.delayMillis());
+            } else if (event instanceof ForEachItemEndEvent e) {
+                step(e.step(), e.attempt());
+                number("index", e.index());
+                span(e.startTime(), e.endTime());
+                if (e.entry() != null) {
+                    error(e.entry().getError());
+                }
+                entry(e.entry());
+            } else if (event instanceof BusinessErrorEvent e) {
+                step(e.step(), e.attempt());
+                error(e.error());
+            } else if (event instanceof SystemErrorEvent e) {
+                step(e.step(), e.attempt());
+                error(e.error());
+            } else if (event instanceof StepExecutionErrorEvent e) {
+                step(e.step(), e.attempt());
+                error(e.error());
+            } else if (event instanceof UnhandledErrorEvent e) {
+                step(e.step(), e.attempt());
+                error(e.error());
+            }
+
+            sb.append('}');
+        }
+
+        // ------------------------------------------------------------
+        // Fields
+        // ------------------------------------------------------------
+        private void step(StepDefinition step, int attempt) {
+            if (step != null) {
+                string("step", step.getName());
+            }
+            if (attempt > 0) {
+                number("attempt", attempt);
+            }
+        }
+
+        private void span(Instant start, Instant end) {
+            time("startTime", start);
+            time("endTime", end);
+            if (start != null && end != null && allowed("durationMicros")) {
+                long nanos = (end.getEpochSecond() - start.getEpochSecond()) * 1_000_000_000L
+                        + (end.getNano() - start.getNano());
+                number("durationMicros", nanos / 1000);
+            }
+        }
+
+        private void entry(StepTraceEntry entry) {
+            if (entry != null) {
+                detail("context", entry.getBeforeContext(), TRACE);
+            }
+        }
+
+        private void error(Throwable error) {
+            if (error == null || !allowed("error")) {
+                return;
+            }
+            name("error");
+            sb.append("{\"type\":");
+            string(error.getClass().getName());
+            sb.append(",\"message\":");
+            string(error.getMessage());
+            sb.append('}');
+        }
+
+        private void number(String field, long value) {
+            if (allowed(field)) {
+                name(field);
+                sb.append(value);
+            }
+        }
+
+        private void string(String field, String value) {
+            if (allowed(field)) {
+                name(field);
+                string(value);
+            }
+        }
+
+        private void time(String field, Instant value) {
+            if (value != null && allowed(field)) {
+                name(field);
+                sb.append('"');
+                DateTimeFormatter.ISO_INSTANT.formatTo(value, sb);
+                sb.append('"');
+            }
+        }
+
+        private void detail(String field, Object value, int minLevel) {
+            if (level >= minLevel && allowed(field)) {
+                name(field);
+                value(value);
+            }
+        }
+
+        private boolean allowed(String field) {
+            return fields == null || fields.contains(field);
+        }
+
+        private void name(String field) {
+            sb.append(",\"").append(field).append("\":");
+        }
+
+        // ------------------------------------------------------------
+        // Values
+        // ------------------------------------------------------------
+        private void value(Object value) {
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof CharSequence) {
+                string((CharSequence) value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                    || value instanceof Byte) {
+                sb.append(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                sb.append(((Boolean) value).booleanValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                double d = ((Number) value).doubleValue();
+                if (Double.isFinite(d)) {
+                    sb.append(d);
+                } else {
+                    string(String.valueOf(d));
+                }
+            } else if (value instanceof Map) {
+                sb.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                    if (!first) {
+                        sb.append(',');
+                    }
+                    first = false;
+                    Object key = e.getKey();
+                    string(key instanceof CharSequence ? (CharSequence) key : String.valueOf(key));
+                    sb.append(':');
+                    value(e.getValue());
+                }
+                sb.append('}');
+            } else if (value instanceof Collection) {
+                sb.append('[');
+                boolean first = true;
+                for (Object element : (Collection<?>) value) {
+                    if (!first) {
+                        sb.append(',');
+                    }
+                    first = false;
+                    value(element);
+                }
+                sb.append(']');
+            } else {
+                string(value.toString());
+            }
+        }
+
+        /**
+         * Append a quoted, escaped and possibly cut string.
+         */
+        private void string(CharSequence value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            int length = Math.min(value.length(), maxValueChars);
+            if (length < value.length() && Character.isHighSurrogate(value.charAt(length - 1))) {
+                length--; // do not split a surrogate pair
+            }
+            sb.append('"');
+            Json.escape(sb, value, length);
+            if (length < value.length()) {
+                sb.append("...");
+            }
+            sb.append('"');
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package run.bareflow.runtime.logging;
 
+import java.time.Duration;
+
 import org.slf4j.Logger;
+import org.slf4j.event.Level;
 
 import run.bareflow.core.engine.event.FlowEngineEvent;
 import run.bareflow.core.engine.event.FlowEngineEventListener;
@@ -43,12 +46,45 @@ import run.bareflow.core.engine.event.FlowEngineEventListener;
  * </ul>
  *
  * <p>
- * If multiple log levels are enabled, the most verbose level takes precedence.
+ * Without {@link EventLevels}, every event is logged at the most verbose
+ * enabled level. A formatter may return {@code null} to skip an event at that
+ * level.
+ * </p>
+ *
+ * <p>
+ * With {@link EventLevels}, each event type is logged at its own level (for
+ * example flow events at INFO and evaluation events at TRACE). Events whose
+ * level is disabled are dropped before any formatting; enabled events are
+ * passed to the SLF4J fluent API with a deferred message supplier, so the
+ * formatter only runs if the backend actually writes the line. In this mode
+ * the formatter should not return {@code null} for routed events.
+ * </p>
+ *
+ * <p>
+ * Enabled levels are cached and re-read from the logger at most once per
+ * refresh interval (one second by default). Call {@link #refreshLevels()}
+ * from a logging configuration listener to apply changes immediately.
+ * </p>
+ *
+ * <p>
+ * {@link #setTraceMode(boolean)} switches the adapter to trace detail at
+ * runtime without touching the logging configuration: every event is then
+ * formatted with {@link LogFormatter#formatTrace(FlowEngineEvent)} and logged
+ * at INFO, or at WARN/ERROR if that is its routed level.
  * </p>
  */
 public final class LoggingAdapter implements FlowEngineEventListener {
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
     private final Logger log;
     private final LogFormatter formatter;
+    private final EventLevels levels;
+    private final long refreshIntervalNanos;
+
+    /** Bit {@code 1 << level.ordinal()} is set for each enabled level. */
+    private volatile int enabledLevels;
+    private volatile long nextRefresh;
+    private volatile boolean traceMode;
 
     /**
      * Creates a new adapter that logs events using the given SLF4J logger and
@@ -59,20 +95,141 @@ public final class LoggingAdapter implements FlowEngineEventListener {
      *                  strings
      */
     public LoggingAdapter(Logger logger, LogFormatter formatter) {
+        this(logger, formatter, null, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Creates a new adapter that logs each event type at the level given by
+     * {@code levels}.
+     *
+     * @param logger    the SLF4J logger to emit log lines to
+     * @param formatter the formatter responsible for converting events into log
+     *                  strings
+     * @param levels    the level of each event type
+     */
+    public LoggingAdapter(Logger logger, LogFormatter formatter, EventLevels levels) {
+        this(logger, formatter, levels, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Creates a new adapter with an explicit level cache refresh interval.
+     *
+     * @param logger          the SLF4J logger to emit log lines to
+     * @param formatter       the formatter responsible for converting events
+     *                        into log strings
+     * @param levels          the level of each event type, or {@code null} to
+     *                        log every event at the most verbose enabled level
+     * @param refreshInterval how often enabled levels are re-read from the
+     *                        logger; {@link Duration#ZERO} re-reads them only
+     *                        on {@link #refreshLevels()}
+     */
+    public LoggingAdapter(Logger logger, LogFormatter formatter, EventLevels levels, Duration refreshInterval) {
+        if (refreshInterval == null || refreshInterval.isNegative()) {
+            throw new IllegalArgumentException("refreshInterval must not be negative");
+        }
         this.log = logger;
         this.formatter = formatter;
+        this.levels = levels;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        refreshLevels();
+    }
+
+    /**
+     * Re-reads the enabled levels from the logger.
+     */
+    public void refreshLevels() {
+        int mask = 0;
+        if (log.isTraceEnabled()) {
+            mask |= bit(Level.TRACE);
+        }
+        if (log.isDebugEnabled()) {
+            mask |= bit(Level.DEBUG);
+        }
+        if (log.isInfoEnabled()) {
+            mask |= bit(Level.INFO);
+        }
+        if (log.isWarnEnabled()) {
+            mask |= bit(Level.WARN);
+        }
+        if (log.isErrorEnabled()) {
+            mask |= bit(Level.ERROR);
+        }
+        enabledLevels = mask;
+        nextRefresh = System.nanoTime() + refreshIntervalNanos;
+    }
+
+    /**
+     * Turns trace detail for all events on or off.
+     */
+    public void setTraceMode(boolean traceMode) {
+        this.traceMode = traceMode;
+    }
+
+    public boolean isTraceMode() {
+        return traceMode;
     }
 
     @Override
     public void onEvent(FlowEngineEvent event) {
-        if (log.isTraceEnabled()) {
-            log.trace(formatter.formatTrace(event));
-        } else if (log.isDebugEnabled()) {
-            log.debug(formatter.formatDebug(event));
-        } else if (log.isInfoEnabled()) {
-            log.info(formatter.formatInfo(event));
-        } else if (log.isWarnEnabled() || log.isErrorEnabled()) {
-            log.error(formatter.formatError(event));
+        if (refreshIntervalNanos > 0 && System.nanoTime() - nextRefresh >= 0) {
+            refreshLevels();
+        }
+        int mask = enabledLevels;
+
+        if (traceMode) {
+            Level routed = levels == null ? null : levels.levelOf(event.getClass());
+            Level level = routed == Level.WARN || routed == Level.ERROR ? routed : Level.INFO;
+            if ((mask & bit(level)) != 0) {
+                log.atLevel(level).setMessage(() -> formatter.formatTrace(event)).log();
+            }
+            return;
         }
+
+        if (levels != null) {
+            Level level = levels.levelOf(event.getClass());
+            if (level != null && (mask & bit(level)) != 0) {
+                log.atLevel(level).setMessage(() -> format(level, event)).log();
+            }
+            return;
+        }
+
+        if ((mask & bit(Level.TRACE)) != 0) {
+            String message = formatter.formatTrace(event);
+            if (message != null) {
+                log.trace(message);
+            }
+        } else if ((mask & bit(Level.DEBUG)) != 0) {
+            String message = formatter.formatDebug(event);
+            if (message != null) {
+                log.debug(message);
+            }
+        } else if ((mask & bit(Level.INFO)) != 0) {
+            String message = formatter.formatInfo(event);
+            if (message != null) {
+                log.info(message);
+            }
+        } else if (mask != 0) {
+            String message = formatter.formatError(event);
+            if (message != null) {
+                log.error(message);
+            }
+        }
+    }
+
+    private String format(Level level, FlowEngineEvent event) {
+        switch (level) {
+            case TRACE:
+                return formatter.formatTrace(event);
+            case DEBUG:
+                return formatter.formatDebug(event);
+            case INFO:
+                return formatter.formatInfo(event);
+            default:
+                return formatter.formatError(event);
+        }
+    }
+
+    private static int bit(Level level) {
+        return 1 << level.ordinal();
     }
 }
\ No newline at end of file
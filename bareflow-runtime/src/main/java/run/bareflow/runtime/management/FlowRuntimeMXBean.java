@@ -0,0 +1,59 @@
+package run.bareflow.runtime.management;
+
+import java.util.Map;
+
+/**
+ * JMX management interface of {@link FlowRuntimeMonitor}.
+ *
+ * <p>
+ * Maps are keyed by flow name or, for step statistics, by "flow/step" and
+ * appear as tabular data in JMX clients. Latency percentiles are computed over the most recent
+ * {@link FlowRuntimeMonitor#LATENCY_WINDOW} executions of each step. Hit rates
+ * are between 0 and 1 (0 when there were no lookups).
+ * </p>
+ */
+public interface FlowRuntimeMXBean {
+    /** Finished executions (completed or aborted) per flow. */
+    Map<String, Long> getExecutionCounts();
+
+    /** Aborted executions per flow. */
+    Map<String, Long> getAbortCounts();
+
+    /** Executions currently running, over all flows. */
+    long getInFlight();
+
+    /** Executions currently running per flow. */
+    Map<String, Long> getInFlightByFlow();
+
+    Map<String, Long> getStepLatencyP50Micros();
+
+    Map<String, Long> getStepLatencyP90Micros();
+
+    Map<String, Long> getStepLatencyP99Micros();
+
+    Map<String, Long> getStepLatencyMaxMicros();
+
+    /** RetryPolicy, onError and forEach element retries per step. */
+    Map<String, Long> getRetryCounts();
+
+    /** Error events per step. */
+    Map<String, Long> getErrorCounts();
+
+    double getStepCacheHitRate();
+
+    double getDefinitionCacheHitRate();
+
+    double getModuleCacheHitRate();
+
+    boolean isTraceLogging();
+
+    /** Switch the monitored LoggingAdapter to trace detail. */
+    void setTraceLogging(boolean traceLogging);
+
+    void clearDefinitionCache();
+
+    void clearModuleCache();
+
+    /** Reset all counters and latency windows; in-flight counts are kept. */
+    void resetStatistics();
+}
\ No newline at end of file
@@ -0,0 +1,365 @@
+package run.bareflow.runtime.management;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.runtime.event.ThreadSafeEventListener;
+import run.bareflow.runtime.logging.LoggingAdapter;
+import run.bareflow.runtime.resolver.CachingFlowDefinitionResolver;
+import run.bareflow.runtime.resolver.CachingModuleResolver;
+
+/**
+ * Live runtime statistics, collected from engine events and published as a
+ * JMX MXBean.
+ *
+ * Register the monitor as (one of) the engines' listeners and with an
+ * MBeanServer:
+ *
+ * <pre>
+ * FlowRuntimeMonitor monitor = new FlowRuntimeMonitor(definitions, modules, loggingAdapter);
+ * monitor.register();   // run.bareflow:type=FlowRuntime,name=default
+ * </pre>
+ *
+ * Collected from events:
+ * - executions, aborts and in-flight executions per flow (sub-flows count
+ * under their own name)
+ * - step latency percentiles over the last LATENCY_WINDOW StepEnd events of
+ * each step
+ * - retries and errors per step, step output cache hit rate
+ *
+ * Step statistics are keyed by "flow/step", so equally named steps of
+ * different flows are counted apart. Step events do not name their flow:
+ * while a FlowDefinition has executions in flight, its steps are mapped to
+ * their keys, which works whichever thread delivers the events. A step
+ * event without a preceding FlowStartEvent is keyed by the step name alone.
+ *
+ * The optional collaborators add the definition and module resolution hit
+ * rates and the operations to clear those caches and to toggle trace logging;
+ * without them the rates are 0 and the operations do nothing.
+ *
+ * Instances are thread-safe.
+ */
+public final class FlowRuntimeMonitor implements ThreadSafeEventListener, FlowRuntimeMXBean {
+    /** Number of recent executions per step the latency percentiles cover. */
+    public static final int LATENCY_WINDOW = 1024;
+
+    private final CachingFlowDefinitionResolver definitions;
+    private final CachingModuleResolver modules;
+    private final LoggingAdapter logging;
+
+    private final Map<String, LongAdder> executions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> aborts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> retries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    /** Executions in flight per definition instance. */
+    private final Map<FlowDefinition, Integer> activeFlows = new ConcurrentHashMap<>();
+    /** "flow/step" key of each step of an active definition. */
+    private final Map<StepDefinition, String> stepKeys = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * Monitor collecting event statistics only.
+     */
+    public FlowRuntimeMonitor() {
+        this(null, null, null);
+    }
+
+    /**
+     * @param definitions caching definition resolver to report and clear, or
+     *                    null
+     * @param modules     caching module resolver to report and clear, or null
+     * @param logging     logging adapter whose trace mode can be toggled, or
+     *                    null
+     */
+    public FlowRuntimeMonitor(CachingFlowDefinitionResolver definitions, CachingModuleResolver modules,
+            LoggingAdapter logging) {
+        this.definitions = definitions;
+        this.modules = modules;
+        this.logging = logging;
+    }
+
+    /**
+     * Register with the platform MBeanServer as
+     * run.bareflow:type=FlowRuntime,name=default.
+     */
+    public ObjectName register() {
+        return register(ManagementFactory.getPlatformMBeanServer(), "default");
+    }
+
+    /**
+     * Register with the given MBeanServer as
+     * run.bareflow:type=FlowRuntime,name=&lt;name&gt;.
+     */
+    public ObjectName register(MBeanServer server, String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            server.registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new SystemException("Failed to register FlowRuntime MBean: " + name, e);
+        }
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("run.bareflow:type=FlowRuntime,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public void onEvent(FlowEngineEvent event) {
+        if (event instanceof FlowStartEvent e) {
+            start(e.flow());
+            inFlight.computeIfAbsent(e.flow().getName(), k -> new AtomicLong()).incrementAndGet();
+        } else if (event instanceof FlowEndEvent e) {
+            finish(e.flow());
+        } else if (event instanceof FlowAbortedEvent e) {
+            finish(e.flow());
+            increment(aborts, e.flow().getName());
+        } else if (event instanceof StepEndEvent e) {
+            latencies.computeIfAbsent(keyOf(e.step()), k -> new LatencyWindow())
+                    .add(micros(e.startTime(), e.endTime()));
+        } else if (event instanceof RetryPolicyRetryEvent e) {
+            increment(retries, keyOf(e.step()));
+        } else if (event instanceof OnErrorRetryEvent e) {
+            increment(retries, keyOf(e.step()));
+        } else if (event instanceof ForEachItemRetryEvent e) {
+            increment(retries, keyOf(e.step()));
+        } else if (event instanceof BusinessErrorEvent e) {
+            increment(errors, keyOf(e.step()));
+        } else if (event instanceof SystemErrorEvent e) {
+            increment(errors, keyOf(e.step()));
+        } else if (event instanceof StepExecutionErrorEvent e) {
+            increment(errors, keyOf(e.step()));
+        } else if (event instanceof UnhandledErrorEvent e) {
+            increment(errors, keyOf(e.step()));
+        } else if (event instanceof CacheHitEvent) {
+            cacheHits.increment();
+        } else if (event instanceof CacheMissEvent) {
+            cacheMisses.increment();
+        }
+    }
+
+    /**
+     * Map the steps of the definition to their keys on its first execution
+     * in flight.
+     */
+    private void start(FlowDefinition flow) {
+        activeFlows.compute(flow, (f, running) -> {
+            if (running == null) {
+                for (StepDefinition step : f.getSteps()) {
+                    stepKeys.put(step, f.getName() + "/" + step.getName());
+                }
+                return 1;
+            }
+            return running + 1;
+        });
+    }
+
+    private void finish(FlowDefinition flow) {
+        activeFlows.computeIfPresent(flow, (f, running) -> {
+            if (running > 1) {
+                return running - 1;
+            }
+            for (StepDefinition step : f.getSteps()) {
+                stepKeys.remove(step);
+            }
+            return null;
+        });
+        AtomicLong running = inFlight.get(flow.getName());
+        if (running != null) {
+            running.decrementAndGet();
+        }
+        increment(executions, flow.getName());
+    }
+
+    private String keyOf(StepDefinition step) {
+        String key = stepKeys.get(step);
+        return key != null ? key : step.getName();
+    }
+
+    private static void increment(Map<String, LongAdder> counters, String name) {
+        counters.computeIfAbsent(String.valueOf(name), k -> new LongAdder()).increment();
+    }
+
+    private static long micros(Instant start, Instant end) {
+        return start == null || end == null ? 0 : Duration.between(start, end).toNanos() / 1000;
+    }
+
+    // ------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------
+    @Override
+    public Map<String, Long> getExecutionCounts() {
+        return sums(executions);
+    }
+
+    @Override
+    public Map<String, Long> getAbortCounts() {
+        return sums(aborts);
+    }
+
+    @Override
+    public long getInFlight() {
+        long total = 0;
+        for (AtomicLong running : inFlight.values()) {
+            total += running.get();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getInFlightByFlow() {
+        Map<String, Long> result = new TreeMap<>();
+        inFlight.forEach((flow, running) -> result.put(flow, running.get()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getStepLatencyP50Micros() {
+        return latencies(sorted -> percentile(sorted, 50));
+    }
+
+    @Override
+    public Map<String, Long> getStepLatencyP90Micros() {
+        return latencies(sorted -> percentile(sorted, 90));
+    }
+
+    @Override
+    public Map<String, Long> getStepLatencyP99Micros() {
+        return latencies(sorted -> percentile(sorted, 99));
+    }
+
+    @Override
+    public Map<String, Long> getStepLatencyMaxMicros() {
+        return latencies(sorted -> sorted[sorted.length - 1]);
+    }
+
+    @Override
+    public Map<String, Long> getRetryCounts() {
+        return sums(retries);
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return sums(errors);
+    }
+
+    @Override
+    public double getStepCacheHitRate() {
+        return rate(cacheHits.sum(), cacheMisses.sum());
+    }
+
+    @Override
+    public double getDefinitionCacheHitRate() {
+        return definitions == null ? 0.0 : rate(definitions.getHits(), definitions.getMisses());
+    }
+
+    @Override
+    public double getModuleCacheHitRate() {
+        return modules == null ? 0.0 : rate(modules.getHits(), modules.getMisses());
+    }
+
+    @Override
+    public boolean isTraceLogging() {
+        return logging != null && logging.isTraceMode();
+    }
+
+    @Override
+    public void setTraceLogging(boolean traceLogging) {
+        if (logging != null) {
+            logging.setTraceMode(traceLogging);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------
+    @Override
+    public void clearDefinitionCache() {
+        if (definitions != null) {
+            definitions.clear();
+        }
+    }
+
+    @Override
+    public void clearModuleCache() {
+        if (modules != null) {
+            modules.clear();
+        }
+    }
+
+    @Override
+    public void resetStatistics() {
+        executions.clear();
+        aborts.clear();
+        latencies.clear();
+        retries.clear();
+        errors.clear();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, counter.sum()));
+        return result;
+    }
+
+    private Map<String, Long> latencies(ToLongFunction<long[]> statistic) {
+        Map<String, Long> result = new TreeMap<>();
+        latencies.forEach((step, window) -> {
+            long[] sorted = window.sorted();
+            if (sorted.length > 0) {
+                result.put(step, statistic.applyAsLong(sorted));
+            }
+        });
+        return result;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double rate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Ring buffer of the most recent step latencies.
+     */
+    private static final class LatencyWindow {
+        private final long[] values = new long[LATENCY_WINDOW];
+        private long count;
+
+        synchronized void add(long micros) {
+            values[(int) (count++ % LATENCY_WINDOW)] = micros;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, (int) Math.min(count, LATENCY_WINDOW));
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,440 @@
+package run.bareflow.runtime.parser;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.CacheDefinition;
+import run.bareflow.core.definition.ForEachDefinition;
+import run.bareflow.core.definition.HedgeDefinition;
+import run.bareflow.core.definition.OnErrorDefinition;
+import run.bareflow.core.definition.RetryPolicy;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.exception.SystemException;
+
+import org.snakeyaml.engine.v2.api.ConstructNode;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.lowlevel.Parse;
+import org.snakeyaml.engine.v2.events.Event;
+import org.snakeyaml.engine.v2.events.ScalarEvent;
+import org.snakeyaml.engine.v2.exceptions.Mark;
+import org.snakeyaml.engine.v2.nodes.ScalarNode;
+import org.snakeyaml.engine.v2.nodes.Tag;
+import org.snakeyaml.engine.v2.resolver.ScalarResolver;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Streaming reader used by {@link FlowYamlParser} in STREAMING mode.
+ *
+ * Consumes the snakeyaml-engine event stream and builds definition objects
+ * directly. Only the values that end up inside the definition (input/output
+ * mappings, metadata, and the small retry/onError/forEach/cache/hedge blocks) are materialized;
+ * the document itself is never loaded as a tree. The blocks are validated by
+ * FlowYamlParser, with errors reporting the position of the offending value.
+ *
+ * Scalars are resolved with the same schema as the tree loader, so both
+ * parsing modes produce identical values. Like the tree loader, the reader
+ * rejects a key that occurs twice in the same map, reporting the position of
+ * the second occurrence.
+ *
+ * Instances are stateless and may be shared between threads.
+ */
+final class FlowYamlEventReader {
+    private final Parse parser;
+    private final ScalarResolver scalarResolver;
+    private final Map<Tag, ConstructNode> scalarConstructors;
+
+    FlowYamlEventReader(LoadSettings settings) {
+        this.parser = new Parse(settings);
+        this.scalarResolver = settings.getSchema().getScalarResolver();
+        this.scalarConstructors = settings.getSchema().getSchemaTagConstructors();
+    }
+
+    /**
+     * Read a single flow document from the given stream.
+     */
+    FlowDefinition read(InputStream inputStream) {
+        Cursor cursor = new Cursor(parser.parseInputStream(inputStream).iterator());
+
+        cursor.expect(Event.ID.StreamStart, "stream start");
+        cursor.expect(Event.ID.DocumentStart, "document start");
+
+        Event rootStart = cursor.next();
+        if (rootStart.getEventId() != Event.ID.MappingStart) {
+            throw error(rootStart, "root must be a map");
+        }
+
+        String name = null;
+        Map<String, Object> metadata = Map.of();
+        List<StepDefinition> steps = null;
+        Event stepsEvent = null;
+        OnErrorDefinition onError = null;
+        Set<String> keys = new HashSet<>();
+
+        while (cursor.peek().getEventId() != Event.ID.MappingEnd) {
+            String key = readKey(cursor, keys);
+
+            switch (key) {
+                case "name":
+                    name = readString(cursor, "Flow 'name'");
+                    break;
+                case "metadata":
+                    metadata = readMap(cursor, "Flow 'metadata'");
+                    break;
+                case "steps":
+                    stepsEvent = cursor.peek();
+                    steps = readSteps(cursor);
+                    break;
+                case "onError":
+                    onError = FlowYamlParser.parseOnError(readBlock(cursor, "Flow 'onError'", "onError"));
+                    break;
+                default:
+                    readValue(cursor);
+            }
+        }
+        cursor.next(); // MappingEnd
+
+        if (name == null) {
+            throw error(rootStart, "Flow 'name' is required");
+        }
+        if (steps == null || steps.isEmpty()) {
+            throw error(stepsEvent != null ? stepsEvent : rootStart, "Flow must contain at least one step");
+        }
+
+        Event end = cursor.next();
+        if (end.getEventId() != Event.ID.DocumentEnd || cursor.peek().getEventId() != Event.ID.StreamEnd) {
+            throw error(end, "expected a single YAML document");
+        }
+
+        return new FlowDefinition(name, steps, onError, metadata);
+    }
+
+    private List<StepDefinition> readSteps(Cursor cursor) {
+        Event start = cursor.next();
+        if (start.getEventId() == Event.ID.Scalar && isNull((ScalarEvent) start)) {
+            return null;
+        }
+        if (start.getEventId() != Event.ID.SequenceStart) {
+            throw error(start, "Flow 'steps' must be a list");
+        }
+
+        List<StepDefinition> steps = new ArrayList<>();
+        while (cursor.peek().getEventId() != Event.ID.SequenceEnd) {
+            steps.add(readStep(cursor));
+        }
+        cursor.next(); // SequenceEnd
+        return steps;
+    }
+
+    private StepDefinition readStep(Cursor cursor) {
+        Event start = cursor.next();
+        if (start.getEventId() != Event.ID.MappingStart) {
+            throw error(start, "Step must be a map");
+        }
+
+        String name = null;
+        String module = null;
+        String operation = null;
+        String flow = null;
+        String when = null;
+        Map<String, Object> input = Map.of();
+        Map<String, Object> output = Map.of();
+        RetryPolicy retryPolicy = null;
+        OnErrorDefinition onError = null;
+        ForEachDefinition forEach = null;
+        CacheDefinition cache = null;
+        HedgeDefinition hedge = null;
+        Set<String> keys = new HashSet<>();
+
+        while (cursor.peek().getEventId() != Event.ID.MappingEnd) {
+            String key = readKey(cursor, keys);
+
+            switch (key) {
+                case "name":
+                    name = readString(cursor, "Step 'name'");
+                    break;
+                case "module":
+                    module = readString(cursor, "Step 'module'");
+                    break;
+                case "operation":
+                    operation = readString(cursor, "Step 'operation'");
+                    break;
+                case "flow":
+                    flow = readString(cursor, "Step 'flow'");
+                    break;
+                case "when":
+                    when = FlowYamlParser.parseWhen(readString(cursor, "Step 'when'"));
+                    break;
+                case "input":
+                    input = readMap(cursor, "Step 'input'");
+                    break;
+                case "output":
+                    output = readMap(cursor, "Step 'output'");
+                    break;
+                case "retry":
+                    retryPolicy = FlowYamlParser.parseRetryPolicy(readBlock(cursor, "Step 'retry'", "retry"));
+                    break;
+                case "onError":
+                    onError = FlowYamlParser.parseOnError(readBlock(cursor, "Step 'onError'", "onError"));
+                    break;
+                case "forEach":
+                    forEach = FlowYamlParser.parseForEach(readBlock(cursor, "Step 'forEach'", "forEach"));
+                    break;
+                case "cache":
+                    cache = FlowYamlParser.parseCache(readBlock(cursor, "Step 'cache'", "cache"));
+                    break;
+                case "hedge":
+                    hedge = FlowYamlParser.parseHedge(readBlock(cursor, "Step 'hedge'", "hedge"));
+                    break;
+                default:
+                    readValue(cursor);
+            }
+        }
+        cursor.next(); // MappingEnd
+
+        if (name == null)
+            throw error(start, "Step 'name' is required");
+        if (flow != null) {
+            if (module != null || operation != null)
+                throw error(start, "Step 'flow' cannot be combined with 'module'/'operation'");
+            if (forEach != null)
+                throw error(start, "Step 'flow' cannot be combined with 'forEach'");
+            if (hedge != null)
+                throw error(start, "Step 'flow' cannot be combined with 'hedge'");
+        } else {
+            if (module == null)
+                throw error(start, "Step 'module' is required");
+            if (operation == null)
+                throw error(start, "Step 'operation' is required");
+        }
+        if (cache != null && forEach != null)
+            throw error(start, "Step 'cache' cannot be combined with 'forEach'");
+        if (hedge != null && forEach != null)
+            throw error(start, "Step 'hedge' cannot be combined with 'forEach'");
+
+        return FlowYamlParser.compileWhen(StepDefinition.builder(name)
+                .module(module)
+                .operation(operation)
+                .input(input)
+                .output(output)
+                .retryPolicy(retryPolicy)
+                .onError(onError)
+                .forEach(forEach)
+                .flow(flow)
+                .when(when)
+                .cache(cache)
+                .hedge(hedge)
+                .build());
+    }
+
+    // ------------------------------------------------------------
+    // Generic value readers
+    // ------------------------------------------------------------
+
+    /**
+     * Read a map key, rejecting keys already read from the same map.
+     */
+    private String readKey(Cursor cursor, Set<String> seen) {
+        Event event = cursor.next();
+        if (event.getEventId() != Event.ID.Scalar) {
+            throw error(event, "map keys must be scalars");
+        }
+        String key = ((ScalarEvent) event).getValue();
+        if (!seen.add(key)) {
+            throw error(event, "duplicate key '" + key + "'");
+        }
+        return key;
+    }
+
+    private String readString(Cursor cursor, String what) {
+        Event event = cursor.peek();
+        Object value = readValue(cursor);
+        if (value != null && !(value instanceof String)) {
+            throw error(event, what + " must be a string");
+        }
+        return (String) value;
+    }
+
+    /**
+     * Read a map value. An explicit null yields null, mirroring the tree loader.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readMap(Cursor cursor, String what) {
+        Event event = cursor.peek();
+        Object value = readValue(cursor);
+        if (value != null && !(value instanceof Map)) {
+            throw error(event, what + " must be a map");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Read a retry/onError/forEach/cache/hedge block. The start event of each
+     * value is kept, so that validation errors point at the value, or at the
+     * block for a missing key. An explicit null yields null.
+     */
+    private FlowYamlParser.Block readBlock(Cursor cursor, String what, String name) {
+        Event start = cursor.next();
+        if (start.getEventId() == Event.ID.Scalar && isNull((ScalarEvent) start)) {
+            return null;
+        }
+        if (start.getEventId() != Event.ID.MappingStart) {
+            throw error(start, what + " must be a map");
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<String, Event> valueEvents = new HashMap<>();
+        Set<String> keys = new HashSet<>();
+        while (cursor.peek().getEventId() != Event.ID.MappingEnd) {
+            String key = readKey(cursor, keys);
+            valueEvents.put(key, cursor.peek());
+            values.put(key, readValue(cursor));
+        }
+        cursor.next(); // MappingEnd
+        return new PositionedBlock(name, values, start, valueEvents);
+    }
+
+    /**
+     * Read an arbitrary value (scalar, sequence or mapping) starting at the
+     * next event.
+     */
+    private Object readValue(Cursor cursor) {
+        Event event = cursor.next();
+
+        switch (event.getEventId()) {
+            case Scalar:
+                return constructScalar((ScalarEvent) event);
+
+            case SequenceStart: {
+                List<Object> list = new ArrayList<>();
+                while (cursor.peek().getEventId() != Event.ID.SequenceEnd) {
+                    list.add(readValue(cursor));
+                }
+                cursor.next();
+                return list;
+            }
+
+            case MappingStart: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                Set<String> keys = new HashSet<>();
+                while (cursor.peek().getEventId() != Event.ID.MappingEnd) {
+                    String key = readKey(cursor, keys);
+                    map.put(key, readValue(cursor));
+                }
+                cursor.next();
+                return map;
+            }
+
+            case Alias:
+                throw error(event, "anchors and aliases are not supported in streaming mode");
+
+            default:
+                throw error(event, "unexpected " + event.getEventId());
+        }
+    }
+
+    private Object constructScalar(ScalarEvent event) {
+        Tag tag = resolveTag(event);
+        if (Tag.STR.equals(tag)) {
+            return event.getValue();
+        }
+
+        ConstructNode constructor = scalarConstructors.get(tag);
+        if (constructor == null) {
+            return event.getValue();
+        }
+        return constructor.construct(new ScalarNode(tag, event.getValue(), event.getScalarStyle()));
+    }
+
+    private Tag resolveTag(ScalarEvent event) {
+        Optional<String> explicit = event.getTag();
+        if (explicit.isPresent() && !"!".equals(explicit.get())) {
+            return new Tag(explicit.get());
+        }
+        if (!event.isPlain()) {
+            return Tag.STR;
+        }
+        return scalarResolver.resolve(event.getValue(), event.getImplicit().canOmitTagInPlainScalar());
+    }
+
+    private boolean isNull(ScalarEvent event) {
+        return Tag.NULL.equals(resolveTag(event));
+    }
+
+    private static SystemException error(Event event, String message) {
+        Optional<Mark> mark = event.getStartMark();
+        if (mark.isEmpty()) {
+            return new SystemException("Invalid YAML: " + message);
+        }
+        return new SystemException("Invalid YAML at line " + (mark.get().getLine() + 1)
+                + ", column " + (mark.get().getColumn() + 1) + ": " + message);
+    }
+
+    /**
+     * Block whose validation errors carry the line and column of the value.
+     */
+    private static final class PositionedBlock extends FlowYamlParser.Block {
+        private final Event start;
+        private final Map<String, Event> valueEvents;
+
+        PositionedBlock(String name, Map<String, Object> values, Event start, Map<String, Event> valueEvents) {
+            super(name, values);
+            this.start = start;
+            this.valueEvents = valueEvents;
+        }
+
+        @Override
+        SystemException error(String key, String message) {
+            return FlowYamlEventReader.error(valueEvents.getOrDefault(key, start), describe(key, message));
+        }
+    }
+
+    /**
+     * One-event lookahead over the parser output. Comment events are skipped.
+     */
+    private static final class Cursor {
+        private final Iterator<Event> events;
+        private Event lookahead;
+
+        Cursor(Iterator<Event> events) {
+            this.events = events;
+        }
+
+        Event peek() {
+            if (lookahead == null) {
+                lookahead = fetch();
+            }
+            return lookahead;
+        }
+
+        Event next() {
+            Event event = peek();
+            lookahead = null;
+            return event;
+        }
+
+        void expect(Event.ID id, String what) {
+            Event event = next();
+            if (event.getEventId() != id) {
+                throw error(event, "expected " + what);
+            }
+        }
+
+        private Event fetch() {
+            while (events.hasNext()) {
+                Event event = events.next();
+                if (event.getEventId() != Event.ID.Comment) {
+                    return event;
+                }
+            }
+            throw new SystemException("Invalid YAML: unexpected end of stream");
+        }
+    }
+}
\ No newline at end of file
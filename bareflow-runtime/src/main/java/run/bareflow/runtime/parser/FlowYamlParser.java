@@ -1,15 +1,20 @@
 package run.bareflow.runtime.parser;
 
 import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.CacheDefinition;
+import run.bareflow.core.definition.ForEachDefinition;
+import run.bareflow.core.definition.HedgeDefinition;
 import run.bareflow.core.definition.OnErrorDefinition;
 import run.bareflow.core.definition.RetryPolicy;
 import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.condition.StepConditions;
 import run.bareflow.core.exception.SystemException;
 
 import org.snakeyaml.engine.v2.api.Load;
 import org.snakeyaml.engine.v2.api.LoadSettings;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -17,13 +22,43 @@ import java.util.Map;
  * Parses a YAML file into a FlowDefinition.
  * This parser is intentionally minimal and transparent,
  * converting YAML structures directly into BareFlow definition objects.
+ *
+ * Two parsing modes are available:
+ * - TREE (default): loads the document into a generic Map/List tree first,
+ * then converts it into definition objects.
+ * - STREAMING: consumes the low-level YAML event stream and builds
+ * StepDefinitions directly, without an intermediate tree. Validation errors
+ * report the line and column of the offending node. Anchors and aliases are
+ * not supported in this mode.
+ *
+ * Both modes accept the same YAML structure and produce equivalent
+ * FlowDefinitions.
  */
 public class FlowYamlParser {
+    /**
+     * Parsing strategy used by {@link FlowYamlParser#parse(InputStream)}.
+     */
+    public enum Mode {
+        TREE,
+        STREAMING
+    }
+
+    private final Mode mode;
     private final Load yamlLoader;
+    private final FlowYamlEventReader eventReader;
 
     public FlowYamlParser() {
+        this(Mode.TREE);
+    }
+
+    /**
+     * @param mode parsing strategy to use
+     */
+    public FlowYamlParser(Mode mode) {
         LoadSettings settings = LoadSettings.builder().build();
+        this.mode = mode;
         this.yamlLoader = new Load(settings);
+        this.eventReader = new FlowYamlEventReader(settings);
     }
 
     /**
@@ -32,8 +67,19 @@ public class FlowYamlParser {
      * @param inputStream YAML file input
      * @return FlowDefinition
      */
-    @SuppressWarnings("unchecked")
     public FlowDefinition parse(InputStream inputStream) {
+        if (mode == Mode.STREAMING) {
+            try {
+                return eventReader.read(inputStream);
+            } catch (Exception e) {
+                throw new SystemException("Failed to parse YAML flow definition", e);
+            }
+        }
+        return parseTree(inputStream);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FlowDefinition parseTree(InputStream inputStream) {
         try {
             Object loaded = yamlLoader.loadFromInputStream(inputStream);
 
@@ -84,40 +130,68 @@ public class FlowYamlParser {
         String name = (String) raw.get("name");
         String module = (String) raw.get("module");
         String operation = (String) raw.get("operation");
+        String flow = (String) raw.get("flow");
 
         if (name == null)
             throw new SystemException("Invalid YAML: Step 'name' is required");
-        if (module == null)
-            throw new SystemException("Invalid YAML: Step 'module' is required");
-        if (operation == null)
-            throw new SystemException("Invalid YAML: Step 'operation' is required");
+        if (flow != null) {
+            if (module != null || operation != null)
+                throw new SystemException("Invalid YAML: Step 'flow' cannot be combined with 'module'/'operation'");
+            if (raw.containsKey("forEach"))
+                throw new SystemException("Invalid YAML: Step 'flow' cannot be combined with 'forEach'");
+            if (raw.containsKey("hedge"))
+                throw new SystemException("Invalid YAML: Step 'flow' cannot be combined with 'hedge'");
+        } else {
+            if (module == null)
+                throw new SystemException("Invalid YAML: Step 'module' is required");
+            if (operation == null)
+                throw new SystemException("Invalid YAML: Step 'operation' is required");
+        }
 
         Map<String, Object> input = (Map<String, Object>) raw.getOrDefault("input", Map.of());
         Map<String, Object> output = (Map<String, Object>) raw.getOrDefault("output", Map.of());
 
         RetryPolicy retryPolicy = parseRetryPolicy((Map<String, Object>) raw.get("retry"));
         OnErrorDefinition onError = parseOnError((Map<String, Object>) raw.get("onError"));
+        ForEachDefinition forEach = parseForEach((Map<String, Object>) raw.get("forEach"));
+        String when = parseWhen(raw.get("when"));
+        CacheDefinition cache = parseCache((Map<String, Object>) raw.get("cache"));
+        HedgeDefinition hedge = parseHedge((Map<String, Object>) raw.get("hedge"));
+
+        if (cache != null && forEach != null)
+            throw new SystemException("Invalid YAML: Step 'cache' cannot be combined with 'forEach'");
+        if (hedge != null && forEach != null)
+            throw new SystemException("Invalid YAML: Step 'hedge' cannot be combined with 'forEach'");
 
-        return new StepDefinition(
-                name,
-                module,
-                operation,
-                input,
-                output,
-                retryPolicy,
-                onError);
+        return compileWhen(StepDefinition.builder(name)
+                .module(module)
+                .operation(operation)
+                .input(input)
+                .output(output)
+                .retryPolicy(retryPolicy)
+                .onError(onError)
+                .forEach(forEach)
+                .flow(flow)
+                .when(when)
+                .cache(cache)
+                .hedge(hedge)
+                .build());
     }
 
     /**
      * Parse retry policy block.
      */
-    private RetryPolicy parseRetryPolicy(Map<String, Object> raw) {
-        if (raw == null) {
+    static RetryPolicy parseRetryPolicy(Map<String, Object> raw) {
+        return raw == null ? null : parseRetryPolicy(new Block("retry", raw));
+    }
+
+    static RetryPolicy parseRetryPolicy(Block block) {
+        if (block == null) {
             return null;
         }
 
-        Integer maxAttempts = (Integer) raw.getOrDefault("maxAttempts", 1);
-        Integer delayMillis = (Integer) raw.getOrDefault("delayMillis", 0);
+        int maxAttempts = block.integer("maxAttempts", 1);
+        int delayMillis = block.integer("delayMillis", 0);
 
         return new RetryPolicy(maxAttempts, delayMillis);
     }
@@ -125,27 +199,244 @@ public class FlowYamlParser {
     /**
      * Parse onError block.
      */
-    @SuppressWarnings("unchecked")
-    private OnErrorDefinition parseOnError(Map<String, Object> raw) {
-        if (raw == null) {
+    static OnErrorDefinition parseOnError(Map<String, Object> raw) {
+        return raw == null ? null : parseOnError(new Block("onError", raw));
+    }
+
+    static OnErrorDefinition parseOnError(Block block) {
+        if (block == null) {
             return null;
         }
 
-        String actionStr = (String) raw.get("action");
-        if (actionStr == null) {
-            throw new SystemException("Invalid YAML: onError 'action' is required");
-        }
+        String actionStr = block.requiredString("action");
 
         OnErrorDefinition.Action action;
         try {
             action = OnErrorDefinition.Action.valueOf(actionStr);
         } catch (IllegalArgumentException e) {
-            throw new SystemException("Invalid YAML: onError 'action' must be one of STOP, CONTINUE, RETRY");
+            throw block.error("action", "must be one of STOP, CONTINUE, RETRY");
         }
 
-        Integer delayMillis = (Integer) raw.getOrDefault("delayMillis", 0);
-        Map<String, Object> output = (Map<String, Object>) raw.getOrDefault("output", Map.of());
+        int delayMillis = block.integer("delayMillis", 0);
+        Map<String, Object> output = block.map("output");
 
         return new OnErrorDefinition(action, delayMillis, output);
     }
+
+    /**
+     * Validate the type of a when condition. Its syntax is checked by
+     * compileWhen() once the step has been built.
+     */
+    static String parseWhen(Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        if (!(raw instanceof String)) {
+            throw new SystemException("Invalid YAML: Step 'when' must be a string");
+        }
+        return (String) raw;
+    }
+
+    /**
+     * Compile the step's 'when' condition at load time. The compiled
+     * Condition is kept by StepConditions, so executions never parse it.
+     */
+    static StepDefinition compileWhen(StepDefinition step) {
+        try {
+            StepConditions.of(step);
+        } catch (SystemException e) {
+            throw new SystemException("Invalid YAML: " + e.getMessage(), e);
+        }
+        return step;
+    }
+
+    /**
+     * Parse forEach block.
+     * - items (required): placeholder expression resolving to a collection
+     * - as (optional, default "item"): context key of the current element
+     * - maxConcurrency (optional, default 1): must be at least 1
+     * - collect (required): context key receiving the result list
+     */
+    static ForEachDefinition parseForEach(Map<String, Object> raw) {
+        return raw == null ? null : parseForEach(new Block("forEach", raw));
+    }
+
+    static ForEachDefinition parseForEach(Block block) {
+        if (block == null) {
+            return null;
+        }
+
+        String items = block.requiredString("items");
+        String collect = block.requiredString("collect");
+        String as = block.string("as", "item");
+        int maxConcurrency = block.integer("maxConcurrency", 1);
+        if (maxConcurrency < 1) {
+            throw block.error("maxConcurrency", "must be at least 1");
+        }
+
+        return new ForEachDefinition(items, as, maxConcurrency, collect);
+    }
+
+    /**
+     * Parse cache block.
+     * - ttlMillis (optional, default 0 = no expiry): must not be negative
+     * - maxEntries (optional, default 1000): must be at least 1
+     * - keys (optional): input fields forming the cache key; the whole input
+     * if omitted
+     */
+    static CacheDefinition parseCache(Map<String, Object> raw) {
+        return raw == null ? null : parseCache(new Block("cache", raw));
+    }
+
+    static CacheDefinition parseCache(Block block) {
+        if (block == null) {
+            return null;
+        }
+
+        long ttlMillis = block.number("ttlMillis", 0).longValue();
+        if (ttlMillis < 0) {
+            throw block.error("ttlMillis", "must not be negative");
+        }
+
+        int maxEntries = block.integer("maxEntries", 1000);
+        if (maxEntries < 1) {
+            throw block.error("maxEntries", "must be at least 1");
+        }
+
+        return new CacheDefinition(ttlMillis, maxEntries, block.strings("keys"));
+    }
+
+    /**
+     * Parse hedge block.
+     * - percentile (optional, default 95): latency percentile used as delay,
+     * greater than 0 and less than 100
+     * - delayMillis (optional, default 100): delay until enough latencies
+     * have been observed; must not be negative
+     * - budgetPercent (optional, default 10): maximum extra invocations in
+     * percent; greater than 0 and at most 100
+     */
+    static HedgeDefinition parseHedge(Map<String, Object> raw) {
+        return raw == null ? null : parseHedge(new Block("hedge", raw));
+    }
+
+    static HedgeDefinition parseHedge(Block block) {
+        if (block == null) {
+            return null;
+        }
+
+        double percentile = block.number("percentile", 95).doubleValue();
+        if (percentile <= 0 || percentile >= 100) {
+            throw block.error("percentile", "must be greater than 0 and less than 100");
+        }
+
+        long delayMillis = block.number("delayMillis", 100).longValue();
+        if (delayMillis < 0) {
+            throw block.error("delayMillis", "must not be negative");
+        }
+
+        double budgetPercent = block.number("budgetPercent", 10).doubleValue();
+        if (budgetPercent <= 0 || budgetPercent > 100) {
+            throw block.error("budgetPercent", "must be greater than 0 and at most 100");
+        }
+
+        return new HedgeDefinition(percentile, delayMillis, budgetPercent);
+    }
+
+    /**
+     * Typed access to the keys of a retry/onError/forEach/cache/hedge block.
+     * A missing or null key yields the default; a value of the wrong type is
+     * reported as "Invalid YAML: <block> '<key>' must be ...". The streaming
+     * reader overrides error() to add the position of the value.
+     */
+    static class Block {
+        private final String name;
+        private final Map<String, Object> raw;
+
+        Block(String name, Map<String, Object> raw) {
+            this.name = name;
+            this.raw = raw;
+        }
+
+        SystemException error(String key, String message) {
+            return new SystemException("Invalid YAML: " + describe(key, message));
+        }
+
+        final String describe(String key, String message) {
+            return name + " '" + key + "' " + message;
+        }
+
+        String string(String key, String defaultValue) {
+            Object value = raw.get(key);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof String)) {
+                throw error(key, "must be a string");
+            }
+            return (String) value;
+        }
+
+        String requiredString(String key) {
+            String value = string(key, null);
+            if (value == null) {
+                throw error(key, "is required");
+            }
+            return value;
+        }
+
+        int integer(String key, int defaultValue) {
+            Object value = raw.get(key);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof Integer)) {
+                throw error(key, "must be an integer");
+            }
+            return (Integer) value;
+        }
+
+        Number number(String key, Number defaultValue) {
+            Object value = raw.get(key);
+            if (value == null) {
+                return defaultValue;
+            }
+            if (!(value instanceof Number)) {
+                throw error(key, "must be a number");
+            }
+            return (Number) value;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map(String key) {
+            Object value = raw.get(key);
+            if (value == null) {
+                return Map.of();
+            }
+            if (!(value instanceof Map)) {
+                throw error(key, "must be a map");
+            }
+            return (Map<String, Object>) value;
+        }
+
+        /**
+         * Returns the list of strings under key, or null if absent.
+         */
+        List<String> strings(String key) {
+            Object value = raw.get(key);
+            if (value == null) {
+                return null;
+            }
+            if (!(value instanceof List)) {
+                throw error(key, "must be a list");
+            }
+            List<String> result = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                if (!(element instanceof String)) {
+                    throw error(key, "must be a list of strings");
+                }
+                result.add((String) element);
+            }
+            return result;
+        }
+    }
 }
\ No newline at end of file
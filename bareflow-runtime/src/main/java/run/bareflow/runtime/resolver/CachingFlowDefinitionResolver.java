@@ -0,0 +1,61 @@
+package run.bareflow.runtime.resolver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.resolver.FlowDefinitionResolver;
+
+/**
+ * FlowDefinitionResolver decorator that caches resolved definitions by flow
+ * name, for resolvers that load or parse on every call.
+ *
+ * Failed resolutions are not cached. Hits and misses are counted so the hit
+ * rate can be monitored (see FlowRuntimeMonitor); clear() drops all cached
+ * definitions, so changed flow files are picked up by the next resolution.
+ *
+ * Instances are thread-safe.
+ */
+public class CachingFlowDefinitionResolver implements FlowDefinitionResolver {
+    private final FlowDefinitionResolver delegate;
+    private final Map<String, FlowDefinition> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingFlowDefinitionResolver(FlowDefinitionResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public FlowDefinition resolve(String flowName) {
+        FlowDefinition cached = cache.get(flowName);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        FlowDefinition resolved = delegate.resolve(flowName);
+        cache.put(flowName, resolved);
+        return resolved;
+    }
+
+    /**
+     * Drop all cached definitions.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
\ No newline at end of file
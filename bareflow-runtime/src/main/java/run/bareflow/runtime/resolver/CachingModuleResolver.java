@@ -0,0 +1,57 @@
+package run.bareflow.runtime.resolver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ModuleResolver decorator that caches resolved classes by module name.
+ *
+ * Failed resolutions are not cached. Hits and misses are counted so the hit
+ * rate can be monitored (see FlowRuntimeMonitor); clear() drops all cached
+ * classes, e.g. after modules have been redeployed.
+ *
+ * Instances are thread-safe.
+ */
+public class CachingModuleResolver implements ModuleResolver {
+    private final ModuleResolver delegate;
+    private final Map<String, Class<?>> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingModuleResolver(ModuleResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Class<?> resolve(String moduleName) {
+        Class<?> cached = cache.get(moduleName);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        Class<?> resolved = delegate.resolve(moduleName);
+        cache.put(moduleName, resolved);
+        return resolved;
+    }
+
+    /**
+     * Drop all cached classes.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+package run.bareflow.runtime.resolver;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.resolver.FlowDefinitionResolver;
+import run.bareflow.runtime.parser.FlowYamlParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * FlowDefinitionResolver backed by a directory of YAML flow files.
+ *
+ * All files ending in ".yaml" or ".yml" below the root directory are
+ * discovered and parsed eagerly at construction time. Parsing runs in
+ * parallel on a dedicated fork-join pool, one FlowYamlParser per worker
+ * thread. The result is an immutable index from flow name (the "name" field
+ * of each file) to FlowDefinition; resolve() is a plain map lookup.
+ *
+ * Loading fails as a whole with a SystemException if any file cannot be
+ * parsed or if two files declare the same flow name.
+ *
+ * Per-file parse times are available via getLoadStats().
+ */
+public class DirectoryFlowDefinitionResolver implements FlowDefinitionResolver {
+    private final Map<String, FlowDefinition> index;
+    private final List<FlowLoadStat> loadStats;
+    private final Duration loadTime;
+
+    /**
+     * Load all flows below the given directory, using one worker per
+     * available processor.
+     *
+     * @param directory root directory containing flow files
+     */
+    public DirectoryFlowDefinitionResolver(Path directory) {
+        this(directory, Runtime.getRuntime().availableProcessors(), FlowYamlParser.Mode.TREE);
+    }
+
+    /**
+     * @param directory   root directory containing flow files
+     * @param parallelism number of parser threads
+     * @param mode        parsing mode passed to FlowYamlParser
+     */
+    public DirectoryFlowDefinitionResolver(Path directory, int parallelism, FlowYamlParser.Mode mode) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1");
+        }
+
+        final long start = System.nanoTime();
+        final List<Loaded> loaded = load(directory, parallelism, mode);
+
+        final Map<String, FlowDefinition> definitions = new HashMap<>(loaded.size() * 2);
+        final List<FlowLoadStat> stats = new ArrayList<>(loaded.size());
+
+        for (Loaded l : loaded) {
+            if (definitions.putIfAbsent(l.definition().getName(), l.definition()) != null) {
+                throw new SystemException("Duplicate flow name '" + l.definition().getName() + "' in " + l.source());
+            }
+            stats.add(new FlowLoadStat(l.source(), l.definition().getName(), Duration.ofNanos(l.parseNanos())));
+        }
+
+        this.index = Map.copyOf(definitions);
+        this.loadStats = List.copyOf(stats);
+        this.loadTime = Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Load all flows below a classpath location, e.g. "flows".
+     * Both exploded directories and jar entries are supported.
+     *
+     * @param location    classpath directory containing flow files
+     * @param classLoader class loader used to locate the directory
+     * @return a resolver containing every flow found under the location
+     */
+    public static DirectoryFlowDefinitionResolver fromClasspath(String location, ClassLoader classLoader) {
+        final URL url = classLoader.getResource(location);
+        if (url == null) {
+            throw new SystemException("Flow location not found on classpath: " + location);
+        }
+
+        try {
+            final URI uri = url.toURI();
+            if (!"jar".equals(uri.getScheme())) {
+                return new DirectoryFlowDefinitionResolver(Path.of(uri));
+            }
+
+            FileSystem fs;
+            boolean owned;
+            try {
+                fs = FileSystems.newFileSystem(uri, Map.of());
+                owned = true;
+            } catch (FileSystemAlreadyExistsException e) {
+                fs = FileSystems.getFileSystem(uri);
+                owned = false;
+            }
+
+            try {
+                final String entry = uri.getSchemeSpecificPart();
+                return new DirectoryFlowDefinitionResolver(fs.getPath(entry.substring(entry.indexOf("!/") + 1)));
+            } finally {
+                if (owned) {
+                    fs.close();
+                }
+            }
+        } catch (URISyntaxException | IOException e) {
+            throw new SystemException("Failed to open flow location: " + location, e);
+        }
+    }
+
+    @Override
+    public FlowDefinition resolve(String flowName) {
+        final FlowDefinition definition = index.get(flowName);
+        if (definition == null) {
+            throw new SystemException("Flow definition not found: " + flowName);
+        }
+        return definition;
+    }
+
+    /**
+     * Returns the immutable name → definition index.
+     */
+    public Map<String, FlowDefinition> getDefinitions() {
+        return index;
+    }
+
+    /**
+     * Returns per-file parse statistics, ordered by file path.
+     */
+    public List<FlowLoadStat> getLoadStats() {
+        return loadStats;
+    }
+
+    /**
+     * Returns the wall-clock time spent discovering, parsing and indexing all
+     * files.
+     */
+    public Duration getLoadTime() {
+        return loadTime;
+    }
+
+    private static List<Loaded> load(Path directory, int parallelism, FlowYamlParser.Mode mode) {
+        final List<Path> files = discover(directory);
+        final ThreadLocal<FlowYamlParser> parsers = ThreadLocal.withInitial(() -> new FlowYamlParser(mode));
+
+        final List<Callable<Loaded>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            final String source = directory.relativize(file).toString();
+            tasks.add(() -> parse(parsers.get(), file, source));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<Loaded> loaded = new ArrayList<>(files.size());
+            SystemException failure = null;
+
+            for (Future<Loaded> future : pool.invokeAll(tasks)) {
+                try {
+                    loaded.add(future.get());
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (failure == null) {
+                        failure = cause instanceof SystemException
+                                ? (SystemException) cause
+                                : new SystemException("Failed to load flow definitions", cause);
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+            return loaded;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while loading flow definitions", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Loaded parse(FlowYamlParser parser, Path file, String source) {
+        final long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file)) {
+            final FlowDefinition definition = parser.parse(in);
+            return new Loaded(source, definition, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            throw new SystemException("Failed to load flow definition: " + source, e);
+        }
+    }
+
+    private static List<Path> discover(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            throw new SystemException("Flow directory not found: " + directory);
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(p -> {
+                        final String name = p.getFileName().toString();
+                        return name.endsWith(".yaml") || name.endsWith(".yml");
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new SystemException("Failed to scan flow directory: " + directory, e);
+        }
+    }
+
+    private record Loaded(String source, FlowDefinition definition, long parseNanos) {
+    }
+}
\ No newline at end of file
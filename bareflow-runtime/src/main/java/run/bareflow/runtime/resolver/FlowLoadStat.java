@@ -0,0 +1,16 @@
+package run.bareflow.runtime.resolver;
+
+import java.time.Duration;
+
+/**
+ * Load statistics for a single flow file.
+ *
+ * @param source    path of the file, relative to the scanned directory
+ * @param flowName  logical flow name declared in the file
+ * @param parseTime time spent reading and parsing the file
+ */
+public record FlowLoadStat(
+        String source,
+        String flowName,
+        Duration parseTime) {
+}
\ No newline at end of file
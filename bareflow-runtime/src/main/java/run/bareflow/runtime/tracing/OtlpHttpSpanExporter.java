@@ -0,0 +1,144 @@
+package run.bareflow.runtime.tracing;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.runtime.json.Json;
+
+/**
+ * SpanExporter sending spans to an OpenTelemetry collector with OTLP/HTTP in
+ * the JSON encoding (e.g. http://localhost:4318/v1/traces).
+ *
+ * Each batch is one ExportTraceServiceRequest with a single resource
+ * (service.name) and instrumentation scope "run.bareflow". Connection
+ * failures and non-2xx responses are reported as SystemException.
+ */
+public class OtlpHttpSpanExporter implements SpanExporter {
+    static final String SCOPE_NAME = "run.bareflow";
+
+    private final URI endpoint;
+    private final String serviceName;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    /**
+     * Export with a 10 second timeout.
+     */
+    public OtlpHttpSpanExporter(URI endpoint, String serviceName) {
+        this(endpoint, serviceName, Duration.ofSeconds(10));
+    }
+
+    /**
+     * @param endpoint    traces endpoint of the collector
+     * @param serviceName value of the service.name resource attribute
+     * @param timeout     connect and request timeout
+     */
+    public OtlpHttpSpanExporter(URI endpoint, String serviceName, Duration timeout) {
+        this.endpoint = endpoint;
+        this.serviceName = serviceName;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void export(List<Span> spans) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(encode(serviceName, spans)))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new SystemException("Failed to export spans to " + endpoint, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while exporting spans to " + endpoint, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new SystemException("Span export to " + endpoint + " failed: HTTP " + response.statusCode()
+                    + " " + response.body());
+        }
+    }
+
+    /**
+     * Encode spans as an OTLP JSON ExportTraceServiceRequest.
+     */
+    static String encode(String serviceName, List<Span> spans) {
+        StringBuilder sb = new StringBuilder(256 + spans.size() * 384);
+        sb.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        attribute(sb, "service.name", serviceName);
+        sb.append("]},\"scopeSpans\":[{\"scope\":{\"name\":");
+        Json.quote(sb, SCOPE_NAME);
+        sb.append("},\"spans\":[");
+        for (int i = 0; i < spans.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            span(sb, spans.get(i));
+        }
+        sb.append("]}]}]}");
+        return sb.toString();
+    }
+
+    private static void span(StringBuilder sb, Span span) {
+        sb.append("{\"traceId\":");
+        Json.quote(sb, span.traceId());
+        sb.append(",\"spanId\":");
+        Json.quote(sb, span.spanId());
+        if (span.parentSpanId() != null) {
+            sb.append(",\"parentSpanId\":");
+            Json.quote(sb, span.parentSpanId());
+        }
+        sb.append(",\"name\":");
+        Json.quote(sb, span.name());
+        sb.append(",\"kind\":").append(span.kind().getCode());
+        // 64-bit integers are strings in OTLP JSON
+        sb.append(",\"startTimeUnixNano\":\"").append(span.startEpochNanos()).append('"');
+        sb.append(",\"endTimeUnixNano\":\"").append(span.endEpochNanos()).append('"');
+        sb.append(",\"attributes\":[");
+        boolean first = true;
+        for (Map.Entry<String, Object> e : span.attributes().entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            attribute(sb, e.getKey(), e.getValue());
+        }
+        sb.append(']');
+        if (span.error()) {
+            sb.append(",\"status\":{\"code\":2");
+            if (span.statusMessage() != null) {
+                sb.append(",\"message\":");
+                Json.quote(sb, span.statusMessage());
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+    }
+
+    private static void attribute(StringBuilder sb, String key, Object value) {
+        sb.append("{\"key\":");
+        Json.quote(sb, key);
+        sb.append(",\"value\":{");
+        if (value instanceof Long || value instanceof Integer) {
+            sb.append("\"intValue\":\"").append(value).append('"');
+        } else if (value instanceof Boolean) {
+            sb.append("\"boolValue\":").append(value);
+        } else if (value instanceof Double d && Double.isFinite(d)) {
+            sb.append("\"doubleValue\":").append(d);
+        } else {
+            sb.append("\"stringValue\":");
+            Json.quote(sb, String.valueOf(value));
+        }
+        sb.append("}}");
+    }
+}
\ No newline at end of file
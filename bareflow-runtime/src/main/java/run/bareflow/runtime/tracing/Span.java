@@ -0,0 +1,52 @@
+package run.bareflow.runtime.tracing;
+
+import java.util.Map;
+
+/**
+ * A finished span, as produced by SpanExportListener.
+ *
+ * Ids are lower-case hex strings (32 characters for the trace id, 16 for span
+ * ids), as in the OTLP JSON encoding; times are nanoseconds since the epoch.
+ *
+ * @param traceId         id shared by all spans of a top-level flow execution
+ * @param spanId          id of this span
+ * @param parentSpanId    id of the parent span, or null for the root span
+ * @param name            flow name, step name, step[index] or
+ *                        module#operation
+ * @param kind            span kind
+ * @param startEpochNanos start time
+ * @param endEpochNanos   end time
+ * @param attributes      attributes (String, Long or Boolean values)
+ * @param error           true if the operation failed
+ * @param statusMessage   error description, or null
+ */
+public record Span(
+        String traceId,
+        String spanId,
+        String parentSpanId,
+        String name,
+        Kind kind,
+        long startEpochNanos,
+        long endEpochNanos,
+        Map<String, Object> attributes,
+        boolean error,
+        String statusMessage) {
+
+    /**
+     * Span kinds with their OTLP codes.
+     */
+    public enum Kind {
+        INTERNAL(1),
+        CLIENT(3);
+
+        private final int code;
+
+        Kind(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+}
\ No newline at end of file
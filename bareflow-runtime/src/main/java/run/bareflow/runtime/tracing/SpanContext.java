@@ -0,0 +1,68 @@
+package run.bareflow.runtime.tracing;
+
+/**
+ * Identifies a span started outside BareFlow, such as the server span of the
+ * request a flow runs for. SpanExportListener makes the flow span of a
+ * top-level flow a child of it, so the flow joins the caller's trace.
+ *
+ * Ids are lower-case hex strings, as in Span.
+ *
+ * @param traceId 32 hex characters, not all zero
+ * @param spanId  16 hex characters, not all zero
+ */
+public record SpanContext(String traceId, String spanId) {
+
+    public SpanContext {
+        if (!isId(traceId, 32)) {
+            throw new IllegalArgumentException("Invalid trace id: " + traceId);
+        }
+        if (!isId(spanId, 16)) {
+            throw new IllegalArgumentException("Invalid span id: " + spanId);
+        }
+    }
+
+    /**
+     * Parse a W3C Trace Context traceparent header
+     * (version-traceid-parentid-flags, e.g.
+     * 00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01).
+     *
+     * @return the parent span, or null if the header is null or malformed
+     */
+    public static SpanContext fromTraceparent(String header) {
+        if (header == null) {
+            return null;
+        }
+        String value = header.trim();
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-') {
+            return null;
+        }
+        String version = value.substring(0, 2);
+        if (!isHex(version) || version.equals("ff") || !isHex(value.substring(53, 55))) {
+            return null;
+        }
+        // version 00 has exactly four fields; later versions may append more
+        if (version.equals("00") ? value.length() != 55 : value.length() > 55 && value.charAt(55) != '-') {
+            return null;
+        }
+        String traceId = value.substring(3, 35);
+        String spanId = value.substring(36, 52);
+        if (!isId(traceId, 32) || !isId(spanId, 16)) {
+            return null;
+        }
+        return new SpanContext(traceId, spanId);
+    }
+
+    private static boolean isId(String value, int length) {
+        return value != null && value.length() == length && isHex(value) && value.chars().anyMatch(c -> c != '0');
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
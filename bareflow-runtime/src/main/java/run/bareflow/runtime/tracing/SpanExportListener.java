@@ -0,0 +1,448 @@
+package run.bareflow.runtime.tracing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.engine.event.FlowEngineEventListener;
+
+/**
+ * Event listener that turns engine events into spans and exports them in
+ * batches.
+ *
+ * Span tree of a top-level flow execution (one trace):
+ * - flow span (FlowStart .. FlowEnd/FlowAborted)
+ * - step span per attempt (StepStart .. StepEnd, or the attempt's error
+ * event)
+ * - invoke span (InvokeStart .. InvokeEnd), kind CLIENT; a sub-flow's flow
+ * span is a child of the invoke span of its step
+ * - forEach element span per attempt (ForEachItemStart .. ForEachItemEnd),
+ * child of the step span, also when it runs on an executor thread
+ *
+ * Attributes: bareflow.flow, bareflow.step, bareflow.attempt,
+ * bareflow.module, bareflow.operation, bareflow.subflow, bareflow.index.
+ * Spans that end with an error, and spans left open by it, get the error
+ * status.
+ *
+ * A top-level flow starts a new trace, unless a remote parent supplier is
+ * configured: it is called on the flow's thread when the flow starts and may
+ * return the SpanContext of the caller's span (e.g. parsed from an incoming
+ * traceparent header and held in a thread-local of the request), whose trace
+ * the flow then joins. Sub-flows and flows started under an open span ignore
+ * it.
+ *
+ * Spans are correlated per thread, as the engine emits the events of a flow
+ * on the thread executing it. forEach workers on executor threads inherit
+ * the innermost open span of the flow's thread through propagate(), so
+ * element spans attach to the step span of their own execution. Because of
+ * this correlation the listener must receive events on the emitting thread;
+ * it is therefore not a ThreadSafeEventListener and is never moved to an
+ * executor by CompositeFlowEngineEventListener.
+ *
+ * Finished spans are queued and exported by a daemon thread once maxBatchSize
+ * spans are queued or flushInterval has passed. When the queue is full, spans
+ * are dropped, and failed exports are discarded, so tracing never blocks or
+ * fails a flow; both are counted. close() exports the remaining spans.
+ */
+public final class SpanExportListener implements FlowEngineEventListener, AutoCloseable {
+    private static final int FLOW = 0;
+    private static final int STEP = 1;
+    private static final int INVOKE = 2;
+    private static final int ITEM = 3;
+
+    private final SpanExporter exporter;
+    private final Supplier<SpanContext> remoteParent;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<Span> queue;
+    private final Thread worker;
+    private final Object exportLock = new Object();
+
+    private final ThreadLocal<Deque<OpenSpan>> stacks = ThreadLocal.withInitial(ArrayDeque::new);
+    /** Span of the flow's thread a propagated task runs under; never closed by that task. */
+    private final ThreadLocal<OpenSpan> inherited = new ThreadLocal<>();
+
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failedExports = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Export in batches of up to 512 spans at least once per second, with up
+     * to 2048 queued spans.
+     */
+    public SpanExportListener(SpanExporter exporter) {
+        this(exporter, 512, 2048, Duration.ofSeconds(1));
+    }
+
+    /**
+     * @param exporter      receives the batches
+     * @param maxBatchSize  maximum number of spans per export
+     * @param maxQueueSize  maximum number of finished spans waiting for
+     *                      export
+     * @param flushInterval maximum time a finished span waits for export
+     */
+    public SpanExportListener(SpanExporter exporter, int maxBatchSize, int maxQueueSize, Duration flushInterval) {
+        this(exporter, maxBatchSize, maxQueueSize, flushInterval, null);
+    }
+
+    /**
+     * @param exporter      receives the batches
+     * @param maxBatchSize  maximum number of spans per export
+     * @param maxQueueSize  maximum number of finished spans waiting for
+     *                      export
+     * @param flushInterval maximum time a finished span waits for export
+     * @param remoteParent  returns the parent of a top-level flow span, or
+     *                      null to start a new trace; may itself be null
+     */
+    public SpanExportListener(SpanExporter exporter, int maxBatchSize, int maxQueueSize, Duration flushInterval,
+            Supplier<SpanContext> remoteParent) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        if (maxQueueSize < maxBatchSize) {
+            throw new IllegalArgumentException("maxQueueSize must be at least maxBatchSize");
+        }
+        if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        this.exporter = exporter;
+        this.remoteParent = remoteParent;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(maxQueueSize);
+
+        this.worker = new Thread(this::work, "bareflow-span-export");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void onEvent(FlowEngineEvent event) {
+        if (event instanceof FlowStartEvent e) {
+            OpenSpan parent = current();
+            SpanContext remote = parent == null ? remoteParent() : null;
+            OpenSpan span = remote == null
+                    ? open(FLOW, e.flow(), 0, e.flow().getName(), Span.Kind.INTERNAL, e.startTime(), parent,
+                            e.flow().getName())
+                    : open(FLOW, e.flow(), 0, e.flow().getName(), Span.Kind.INTERNAL, e.startTime(),
+                            remote.traceId(), remote.spanId(), e.flow().getName());
+            span.attributes.put("bareflow.flow", e.flow().getName());
+        } else if (event instanceof FlowEndEvent e) {
+            close(FLOW, e.flow(), 0, e.endTime(), null);
+        } else if (event instanceof FlowAbortedEvent e) {
+            close(FLOW, e.flow(), 0, e.endTime(), e.error());
+        } else if (event instanceof StepStartEvent e) {
+            OpenSpan parent = current();
+            OpenSpan span = open(STEP, e.step(), e.attempt(), e.step().getName(), Span.Kind.INTERNAL,
+                    e.startTime(), parent, parent == null ? null : parent.flow);
+            stepAttributes(span, e.step(), e.attempt());
+        } else if (event instanceof StepEndEvent e) {
+            close(STEP, e.step(), e.attempt(), e.endTime(), null);
+        } else if (event instanceof InvokeStartEvent e) {
+            StepDefinition step = e.step();
+            OpenSpan parent = current();
+            String name = step.getFlow() != null ? step.getFlow() : step.getModule() + "#" + step.getOperation();
+            OpenSpan span = open(INVOKE, step, e.attempt(), name, Span.Kind.CLIENT, e.startTime(), parent,
+                    parent == null ? null : parent.flow);
+            stepAttributes(span, step, e.attempt());
+            if (step.getFlow() != null) {
+                span.attributes.put("bareflow.subflow", step.getFlow());
+            } else {
+                span.attributes.put("bareflow.module", step.getModule());
+                span.attributes.put("bareflow.operation", step.getOperation());
+            }
+        } else if (event instanceof InvokeEndEvent e) {
+            close(INVOKE, e.step(), e.attempt(), e.endTime(), null);
+        } else if (event instanceof ForEachItemStartEvent e) {
+            OpenSpan parent = current();
+            OpenSpan span = open(ITEM, e.step(), e.attempt(), e.step().getName() + "[" + e.index() + "]",
+                    Span.Kind.INTERNAL, e.startTime(), parent, parent == null ? null : parent.flow);
+            stepAttributes(span, e.step(), e.attempt());
+            span.attributes.put("bareflow.index", (long) e.index());
+        } else if (event instanceof ForEachItemEndEvent e) {
+            close(ITEM, e.step(), e.attempt(), e.endTime(), e.entry() == null ? null : e.entry().getError());
+        } else if (event instanceof BusinessErrorEvent e) {
+            close(STEP, e.step(), e.attempt(), Instant.now(), e.error());
+        } else if (event instanceof SystemErrorEvent e) {
+            close(STEP, e.step(), e.attempt(), Instant.now(), e.error());
+        } else if (event instanceof StepExecutionErrorEvent e) {
+            close(STEP, e.step(), e.attempt(), Instant.now(), e.error());
+        } else if (event instanceof UnhandledErrorEvent e) {
+            close(STEP, e.step(), e.attempt(), Instant.now(), e.error());
+        }
+    }
+
+    /**
+     * Ask the supplier for the parent of a top-level flow span. A failing
+     * supplier starts a new trace rather than failing the flow.
+     */
+    private SpanContext remoteParent() {
+        if (remoteParent == null) {
+            return null;
+        }
+        try {
+            return remoteParent.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private OpenSpan current() {
+        OpenSpan span = stacks.get().peek();
+        return span != null ? span : inherited.get();
+    }
+
+    /**
+     * Run the task under the innermost open span of the calling thread, so
+     * the spans it opens on another thread become children of that span.
+     */
+    @Override
+    public Runnable propagate(Runnable task) {
+        OpenSpan parent = current();
+        if (parent == null) {
+            return task;
+        }
+        return () -> {
+            OpenSpan previous = inherited.get();
+            inherited.set(parent);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    inherited.remove();
+                } else {
+                    inherited.set(previous);
+                }
+            }
+        };
+    }
+
+    private OpenSpan open(int type, Object owner, int attempt, String name, Span.Kind kind, Instant start,
+            OpenSpan parent, String flow) {
+        return open(type, owner, attempt, name, kind, start, parent == null ? newTraceId() : parent.traceId,
+                parent == null ? null : parent.spanId, flow);
+    }
+
+    private OpenSpan open(int type, Object owner, int attempt, String name, Span.Kind kind, Instant start,
+            String traceId, String parentSpanId, String flow) {
+        OpenSpan span = new OpenSpan(type, owner, attempt, name, kind, nanos(start), traceId, parentSpanId, flow);
+        stacks.get().push(span);
+        return span;
+    }
+
+    private static void stepAttributes(OpenSpan span, StepDefinition step, int attempt) {
+        if (span.flow != null) {
+            span.attributes.put("bareflow.flow", span.flow);
+        }
+        span.attributes.put("bareflow.step", step.getName());
+        span.attributes.put("bareflow.attempt", (long) attempt);
+    }
+
+    /**
+     * End the innermost open span of this thread matching type, owner and
+     * attempt, and the spans opened inside it. Unmatched events are ignored.
+     */
+    private void close(int type, Object owner, int attempt, Instant end, Throwable error) {
+        Deque<OpenSpan> stack = stacks.get();
+        OpenSpan match = null;
+        for (Iterator<OpenSpan> it = stack.iterator(); it.hasNext();) {
+            OpenSpan span = it.next();
+            if (span.type == type && span.owner == owner && span.attempt == attempt) {
+                match = span;
+                break;
+            }
+        }
+        if (match == null) {
+            return;
+        }
+
+        long endNanos = nanos(end);
+        String message = error == null ? null : error.getClass().getName() + ": " + error.getMessage();
+        while (true) {
+            OpenSpan span = stack.pop();
+            finish(span, endNanos, error != null, message);
+            if (span == match) {
+                break;
+            }
+        }
+        if (stack.isEmpty()) {
+            stacks.remove();
+        }
+    }
+
+    private void finish(OpenSpan span, long endNanos, boolean error, String message) {
+        Span finished = new Span(span.traceId, span.spanId, span.parentSpanId, span.name, span.kind,
+                span.startNanos, Math.max(span.startNanos, endNanos), Collections.unmodifiableMap(span.attributes),
+                error, message);
+        if (closed || !queue.offer(finished)) {
+            dropped.increment();
+        }
+    }
+
+    // ------------------------------------------------------------
+    // Export
+    // ------------------------------------------------------------
+    private void work() {
+        List<Span> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Span span = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (span == null) {
+                        break;
+                    }
+                    batch.add(span);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts only to end the wait
+            }
+            if (!batch.isEmpty()) {
+                export(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+    }
+
+    /**
+     * Export all queued spans on the calling thread.
+     */
+    public void flush() {
+        List<Span> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            export(batch);
+            batch = new ArrayList<>(maxBatchSize);
+        }
+    }
+
+    private void export(List<Span> batch) {
+        synchronized (exportLock) {
+            try {
+                exporter.export(batch);
+                exported.add(batch.size());
+            } catch (RuntimeException e) {
+                failedExports.increment();
+                dropped.add(batch.size());
+            }
+        }
+    }
+
+    /**
+     * Stop the export thread and export the remaining spans. Spans finished
+     * afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Returns the number of spans exported successfully.
+     */
+    public long getExportedSpans() {
+        return exported.sum();
+    }
+
+    /**
+     * Returns the number of spans lost because the queue was full, the
+     * listener was closed, or their export failed.
+     */
+    public long getDroppedSpans() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of exports that failed.
+     */
+    public long getFailedExports() {
+        return failedExports.sum();
+    }
+
+    private static long nanos(Instant time) {
+        Instant t = time != null ? time : Instant.now();
+        return t.getEpochSecond() * 1_000_000_000L + t.getNano();
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high;
+        long low;
+        do {
+            high = random.nextLong();
+            low = random.nextLong();
+        } while (high == 0 && low == 0);
+        return hex(high) + hex(low);
+    }
+
+    private static String newSpanId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return hex(id);
+    }
+
+    private static String hex(long value) {
+        String s = Long.toHexString(value);
+        return "0000000000000000".substring(s.length()) + s;
+    }
+
+    /**
+     * A span that has been started but not finished.
+     */
+    private static final class OpenSpan {
+        final int type;
+        final Object owner;
+        final int attempt;
+        final String name;
+        final Span.Kind kind;
+        final long startNanos;
+        final String traceId;
+        final String spanId = newSpanId();
+        final String parentSpanId;
+        final String flow;
+        final Map<String, Object> attributes = new LinkedHashMap<>();
+
+        OpenSpan(int type, Object owner, int attempt, String name, Span.Kind kind, long startNanos, String traceId,
+                String parentSpanId, String flow) {
+            this.type = type;
+            this.owner = owner;
+            this.attempt = attempt;
+            this.name = name;
+            this.kind = kind;
+            this.startNanos = startNanos;
+            this.traceId = traceId;
+            this.parentSpanId = parentSpanId;
+            this.flow = flow;
+        }
+    }
+}
\ No newline at end of file
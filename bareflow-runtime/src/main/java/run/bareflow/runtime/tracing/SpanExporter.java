@@ -0,0 +1,14 @@
+package run.bareflow.runtime.tracing;
+
+import java.util.List;
+
+/**
+ * Sends batches of finished spans to a tracing backend.
+ *
+ * Called by SpanExportListener from a single thread at a time. Failures are
+ * reported by throwing a RuntimeException; the batch is then discarded.
+ */
+@FunctionalInterface
+public interface SpanExporter {
+    void export(List<Span> spans);
+}
\ No newline at end of file
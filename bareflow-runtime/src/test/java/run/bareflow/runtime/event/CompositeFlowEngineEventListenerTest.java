@@ -1,15 +1,27 @@
 package run.bareflow.runtime.event;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
 import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
 import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.FlowEndEvent;
 import run.bareflow.core.engine.event.FlowEngineEvent.FlowStartEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.StepStartEvent;
 import run.bareflow.core.engine.event.FlowEngineEventListener;
 
 public class CompositeFlowEngineEventListenerTest {
@@ -41,4 +53,102 @@ public class CompositeFlowEngineEventListenerTest {
         // original list should remain unchanged
         assert original.size() == 1;
     }
+
+    @Test
+    public void isolatesAndCountsListenerFailures() {
+        FlowEngineEventListener failing = mock(FlowEngineEventListener.class);
+        RuntimeException error = new RuntimeException("boom");
+        doThrow(error).when(failing).onEvent(any());
+        FlowEngineEventListener next = mock(FlowEngineEventListener.class);
+
+        CompositeFlowEngineEventListener composite = new CompositeFlowEngineEventListener(List.of(failing, next));
+
+        FlowEngineEvent event = new FlowStartEvent(mock(FlowDefinition.class), Instant.now());
+
+        composite.onEvent(event);
+        composite.onEvent(event);
+
+        verify(next, times(2)).onEvent(event);
+        ListenerStats stats = composite.getStats().get(0);
+        assertSame(failing, stats.listener());
+        assertEquals(2, stats.events());
+        assertEquals(2, stats.failures());
+        assertSame(error, stats.lastError());
+        assertEquals(0, composite.getStats().get(1).failures());
+    }
+
+    @Test
+    public void fastThreadSafeListenerStaysOnCallingThread() {
+        List<String> threads = new ArrayList<>();
+        ThreadSafeEventListener listener = event -> threads.add(Thread.currentThread().getName());
+        Executor executor = task -> fail("a fast listener must not be dispatched to the executor");
+
+        CompositeFlowEngineEventListener composite = new CompositeFlowEngineEventListener(List.of(listener),
+                executor, Duration.ofSeconds(1));
+        FlowEngineEvent event = new FlowStartEvent(mock(FlowDefinition.class), Instant.now());
+
+        composite.onEvent(event);
+        composite.onEvent(event);
+
+        assertEquals(List.of(Thread.currentThread().getName(), Thread.currentThread().getName()), threads);
+        assertEquals(2, composite.getStats().get(0).events());
+    }
+
+    @Test
+    public void executorRequiresBudget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompositeFlowEngineEventListener(List.of(), Runnable::run, null));
+    }
+
+    @Test
+    public void slowListenerMovesToExecutorAndKeepsLifecycleEvents() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<FlowEngineEvent> received = Collections.synchronizedList(new ArrayList<>());
+            ThreadSafeEventListener slow = event -> {
+                received.add(event);
+                try {
+                    if (received.size() == 1) {
+                        Thread.sleep(100);
+                    } else {
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            FlowEngineEventListener fast = mock(FlowEngineEventListener.class);
+
+            CompositeFlowEngineEventListener composite = new CompositeFlowEngineEventListener(List.of(slow, fast),
+                    executor, Duration.ofMillis(50));
+            FlowEngineEvent start = new FlowStartEvent(mock(FlowDefinition.class), Instant.now());
+            FlowEngineEvent step = new StepStartEvent(mock(StepDefinition.class), 1, Instant.now());
+            FlowEngineEvent end = new FlowEndEvent(mock(FlowDefinition.class), null, Instant.now(), Instant.now());
+
+            // the first delivery runs inline and exceeds the budget
+            composite.onEvent(start);
+
+            long begin = System.nanoTime();
+            int steps = CompositeFlowEngineEventListener.MAX_PENDING + 10;
+            for (int i = 0; i < steps; i++) {
+                composite.onEvent(step);
+            }
+            composite.onEvent(end);
+            assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(2));
+            verify(fast, times(steps)).onEvent(step);
+            assertEquals(10, composite.getStats().get(0).dropped());
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            ListenerStats stats = composite.getStats().get(0);
+            assertEquals(CompositeFlowEngineEventListener.MAX_PENDING + 2, stats.events());
+            assertTrue(stats.slow() >= 1);
+            assertSame(end, received.get(received.size() - 1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
\ No newline at end of file
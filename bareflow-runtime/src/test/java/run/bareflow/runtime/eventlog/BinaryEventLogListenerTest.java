@@ -0,0 +1,151 @@
+package run.bareflow.runtime.eventlog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTrace;
+
+public class BinaryEventLogListenerTest {
+    @TempDir
+    Path dir;
+
+    private static final StepDefinition STEP = new StepDefinition("charge", "Payment", "charge", Map.of(), Map.of(),
+            null, null);
+    private static final FlowDefinition FLOW = new FlowDefinition("checkout", List.of(STEP), null, null);
+
+    private List<EventLogRecord> readAll(final String prefix) {
+        final List<EventLogRecord> records = new ArrayList<>();
+        EventLogReader.readAll(dir, prefix, records::add);
+        return records;
+    }
+
+    // ------------------------------------------------------------
+    // 1. イベントを書き込み、同じ内容で読み戻せる
+    // ------------------------------------------------------------
+    @Test
+    public void testRoundTrip() {
+        final Instant t0 = Instant.parse("2026-01-01T00:00:00.000001Z");
+        final Instant t1 = t0.plusMillis(12);
+
+        try (BinaryEventLogListener listener = new BinaryEventLogListener(dir)) {
+            listener.onEvent(new FlowEngineEvent.FlowStartEvent(FLOW, t0));
+            listener.onEvent(new FlowEngineEvent.InvokeEndEvent(STEP, 1, Map.of(), t0, t1));
+            listener.onEvent(new FlowEngineEvent.SystemErrorEvent(STEP, 1, new SystemException("down")));
+            listener.onEvent(new FlowEngineEvent.RetryPolicyRetryEvent(STEP, 1, 250));
+            listener.onEvent(new FlowEngineEvent.ForEachItemStartEvent(STEP, 7, 2, t1));
+            listener.onEvent(new FlowEngineEvent.StepEndEvent(STEP, 2, t0, t1, null));
+            listener.onEvent(new FlowEngineEvent.FlowEndEvent(FLOW, new StepTrace(), t0, t1));
+        }
+
+        final List<EventLogRecord> records = readAll("events");
+        assertEquals(7, records.size());
+
+        assertEquals(new EventLogRecord(EventType.FLOW_START, 1_767_225_600_000_001L, "checkout", "checkout", 0, 0,
+                0, null), records.get(0));
+        assertEquals(new EventLogRecord(EventType.INVOKE_END, 1_767_225_600_012_001L, "charge", "checkout", 1, 12_000,
+                0, "Payment#charge"), records.get(1));
+        assertEquals(EventType.SYSTEM_ERROR, records.get(2).type());
+        assertEquals(SystemException.class.getName(), records.get(2).detail());
+        assertEquals(250_000, records.get(3).value());
+        assertEquals(7, records.get(4).aux());
+        assertEquals(2, records.get(4).attempt());
+        assertEquals(EventType.STEP_END, records.get(5).type());
+        assertEquals(12_000, records.get(5).value());
+        assertEquals(EventType.FLOW_END, records.get(6).type());
+
+        // events after close are ignored
+        final BinaryEventLogListener closed = new BinaryEventLogListener(dir, "closed", 16 * 1024, 0);
+        closed.close();
+        closed.onEvent(new FlowEngineEvent.FlowStartEvent(FLOW, t0));
+        assertTrue(readAll("closed").isEmpty());
+    }
+
+    // ------------------------------------------------------------
+    // 2. セグメントのローテーションと保持数
+    // ------------------------------------------------------------
+    @Test
+    public void testRotationAndRetention() throws Exception {
+        final Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+        final int events = 5_000;
+
+        try (BinaryEventLogListener listener = new BinaryEventLogListener(dir, "rot", 16 * 1024, 0)) {
+            for (int i = 0; i < events; i++) {
+                listener.onEvent(new FlowEngineEvent.StepStartEvent(STEP, 1, t0.plusNanos(i * 1000L)));
+            }
+            assertTrue(listener.getSegments().size() > 1);
+        }
+
+        // every segment is self-contained: names resolve after rotation
+        final List<EventLogRecord> records = readAll("rot");
+        assertEquals(events, records.size());
+        assertTrue(records.stream().allMatch(r -> "charge".equals(r.name())));
+        assertEquals(t0.getEpochSecond() * 1_000_000L + events - 1, records.get(events - 1).epochMicros());
+
+        try (BinaryEventLogListener listener = new BinaryEventLogListener(dir, "ret", 16 * 1024, 2)) {
+            for (int i = 0; i < events; i++) {
+                listener.onEvent(new FlowEngineEvent.StepStartEvent(STEP, 1, t0));
+            }
+            assertEquals(2, listener.getSegments().size());
+        }
+        assertEquals(2, EventLogReader.segments(dir, "ret").size());
+
+        // a new listener continues the numbering of existing segments
+        final List<Path> before = EventLogReader.segments(dir, "ret");
+        try (BinaryEventLogListener listener = new BinaryEventLogListener(dir, "ret", 16 * 1024, 0)) {
+            final List<Path> segments = listener.getSegments();
+            assertEquals(before, segments.subList(0, 2));
+            assertTrue(EventLogReader.segmentNumber(segments.get(2), "ret")
+                    > EventLogReader.segmentNumber(before.get(1), "ret"));
+        }
+        assertTrue(Files.size(before.get(0)) == 16 * 1024);
+    }
+
+    // ------------------------------------------------------------
+    // 3. 不正なファイルは SystemException
+    // ------------------------------------------------------------
+    @Test
+    public void testCorruptSegmentIsRejected() throws Exception {
+        final Path bogus = dir.resolve("bad-000000.bfe");
+        Files.write(bogus, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        assertThrows(SystemException.class, () -> EventLogReader.read(bogus, r -> {
+        }));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryEventLogListener(dir, "x", 1024, 0));
+    }
+
+    // ------------------------------------------------------------
+    // 4. 削除できない古いセグメントは例外にせず後で再試行する
+    // ------------------------------------------------------------
+    @Test
+    public void testUndeletableSegmentIsRetriedLater() throws Exception {
+        // a non-empty directory stands in for a segment that is still mapped
+        final Path busy = Files.createDirectory(dir.resolve("busy-000000.bfe"));
+        final Path lock = Files.createFile(busy.resolve("lock"));
+        final Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+
+        final BinaryEventLogListener listener = new BinaryEventLogListener(dir, "busy", 16 * 1024, 1);
+        assertEquals(1, listener.getSegments().size());
+        assertTrue(Files.exists(busy));
+
+        Files.delete(lock);
+        for (int i = 0; i < 5_000; i++) {
+            listener.onEvent(new FlowEngineEvent.StepStartEvent(STEP, 1, t0));
+        }
+        assertEquals(1, listener.getSegments().size());
+        assertFalse(Files.exists(busy));
+        listener.close();
+        assertEquals(1, EventLogReader.segments(dir, "busy").size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package run.bareflow.runtime.eventlog;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.exception.BusinessException;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTrace;
+import run.bareflow.core.trace.StepTraceEntry;
+
+public class EventLogAnalyzerTest {
+    @TempDir
+    Path dir;
+
+    // ------------------------------------------------------------
+    // 1. ステップごとのレイテンシ分布とエラー内訳
+    // ------------------------------------------------------------
+    @Test
+    public void testLatenciesAndErrors() {
+        final StepDefinition fetch = new StepDefinition("fetch", "Api", "get", Map.of(), Map.of(), null, null);
+        final StepDefinition save = new StepDefinition("save", "Db", "put", Map.of(), Map.of(), null, null);
+        final Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+
+        try (BinaryEventLogListener listener = new BinaryEventLogListener(dir)) {
+            for (int i = 1; i <= 100; i++) {
+                listener.onEvent(new FlowEngineEvent.InvokeEndEvent(fetch, 1, Map.of(), t0, t0.plusMillis(i)));
+                listener.onEvent(new FlowEngineEvent.StepEndEvent(fetch, 1, t0, t0.plusMillis(i), null));
+            }
+            listener.onEvent(new FlowEngineEvent.StepEndEvent(save, 1, t0, t0.plusMillis(5), null));
+            listener.onEvent(new FlowEngineEvent.SystemErrorEvent(fetch, 1, new SystemException("a")));
+            listener.onEvent(new FlowEngineEvent.SystemErrorEvent(fetch, 2, new SystemException("b")));
+            listener.onEvent(new FlowEngineEvent.BusinessErrorEvent(save, 1, new BusinessException("c")));
+            listener.onEvent(new FlowEngineEvent.ForEachItemEndEvent(fetch, 3, 1, t0, t0,
+                    new StepTraceEntry("fetch[3]", null, null, null, new IllegalStateException(), t0, t0, 1)));
+        }
+
+        final EventLogAnalyzer analyzer = EventLogAnalyzer.analyze(dir, "events");
+
+        final LatencySummary steps = analyzer.getStepLatencies().get("fetch");
+        assertEquals(100, steps.count());
+        assertEquals(1_000, steps.min());
+        assertEquals(50_000, steps.p50());
+        assertEquals(90_000, steps.p90());
+        assertEquals(99_000, steps.p99());
+        assertEquals(100_000, steps.max());
+        assertEquals(50_500, steps.mean(), 0.001);
+        assertEquals(List.of("fetch", "save"), List.copyOf(analyzer.getStepLatencies().keySet()));
+        assertEquals(100, analyzer.getInvokeLatencies().get("Api#get").count());
+
+        final Map<String, Map<String, Long>> errors = analyzer.getErrors();
+        assertEquals(2L, errors.get("fetch").get(SystemException.class.getName()));
+        assertEquals(1L, errors.get("fetch").get(IllegalStateException.class.getName()));
+        assertEquals(1L, errors.get("save").get(BusinessException.class.getName()));
+
+        final String report = analyzer.report();
+        assertTrue(report.contains("Api#get"));
+        assertTrue(report.contains(BusinessException.class.getName()));
+    }
+
+    // ------------------------------------------------------------
+    // 2. 同名のステップはフローごとに集計する
+    // ------------------------------------------------------------
+    @Test
+    public void testStepsAreKeyedByFlow() {
+        final StepDefinition orderFetch = new StepDefinition("fetch", "Order", "get", Map.of(), Map.of(), null,
+                null);
+        final StepDefinition userFetch = new StepDefinition("fetch", "User", "get", Map.of(), Map.of(), null, null);
+        final FlowDefinition order = new FlowDefinition("order", List.of(orderFetch), null, null);
+        final FlowDefinition user = new FlowDefinition("user", List.of(userFetch), null, null);
+        final Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+
+        try (BinaryEventLogListener listener = new BinaryEventLogListener(dir)) {
+            listener.onEvent(new FlowEngineEvent.FlowStartEvent(order, t0));
+            listener.onEvent(new FlowEngineEvent.FlowStartEvent(user, t0));
+            listener.onEvent(new FlowEngineEvent.StepEndEvent(orderFetch, 1, t0, t0.plusMillis(1), null));
+            listener.onEvent(new FlowEngineEvent.StepEndEvent(userFetch, 1, t0, t0.plusMillis(9), null));
+            listener.onEvent(new FlowEngineEvent.SystemErrorEvent(userFetch, 1, new SystemException("x")));
+            listener.onEvent(new FlowEngineEvent.FlowEndEvent(order, new StepTrace(), t0, t0.plusMillis(1)));
+            listener.onEvent(new FlowEngineEvent.FlowEndEvent(user, new StepTrace(), t0, t0.plusMillis(9)));
+            // outside any running flow
+            listener.onEvent(new FlowEngineEvent.StepEndEvent(orderFetch, 1, t0, t0.plusMillis(3), null));
+        }
+
+        final EventLogAnalyzer analyzer = EventLogAnalyzer.analyze(dir, "events");
+        assertEquals(List.of("fetch", "order/fetch", "user/fetch"),
+                List.copyOf(analyzer.getStepLatencies().keySet()));
+        assertEquals(1_000, analyzer.getStepLatencies().get("order/fetch").max());
+        assertEquals(9_000, analyzer.getStepLatencies().get("user/fetch").max());
+        assertEquals(Map.of("user/fetch", Map.of(SystemException.class.getName(), 1L)), analyzer.getErrors());
+    }
+}
\ No newline at end of file
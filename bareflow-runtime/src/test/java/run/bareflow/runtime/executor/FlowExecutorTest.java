@@ -3,12 +3,16 @@ package run.bareflow.runtime.executor;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import run.bareflow.core.context.ExecutionContext;
+import run.bareflow.core.context.SlotContextFactory;
+import run.bareflow.core.context.SlotExecutionContext;
 import run.bareflow.core.definition.FlowDefinition;
 import run.bareflow.core.engine.FlowEngine;
 import run.bareflow.core.engine.evaluator.StepEvaluator;
@@ -106,4 +110,52 @@ public class FlowExecutorTest {
 
         assertThrows(SystemException.class, () -> executor.execute("flow1", Map.of("x", 1)));
     }
+
+    // ------------------------------------------------------------
+    // 5. contextFactory で ExecutionContext を差し替えられる
+    // ------------------------------------------------------------
+    @Test
+    public void testContextFactoryIsUsed() throws Exception {
+        final FlowDefinitionResolver resolver = mock(FlowDefinitionResolver.class);
+        final StepEvaluator evaluator = mock(StepEvaluator.class);
+        final StepInvoker invoker = mock(StepInvoker.class);
+
+        final FlowDefinition definition = new FlowDefinition("flow1", List.of(), null, null);
+        final StepTrace trace = mock(StepTrace.class);
+        final FlowEngine engine = mock(FlowEngine.class);
+
+        when(resolver.resolve("flow1")).thenReturn(definition);
+        when(engine.execute(eq(definition), any(ExecutionContext.class))).thenReturn(trace);
+
+        final FlowExecutor executor = new FlowExecutor(resolver, evaluator, invoker, exec -> engine,
+                new SlotContextFactory());
+
+        final FlowResult result = executor.execute("flow1", Map.of("x", 1));
+
+        assertTrue(result.getContext() instanceof SlotExecutionContext);
+        assertEquals(1, result.getContext().get("x"));
+    }
+
+    // ------------------------------------------------------------
+    // 6. 解決した FlowDefinition を StepEvaluator に prepare させる
+    // ------------------------------------------------------------
+    @Test
+    public void testResolvedFlowIsPrepared() throws Exception {
+        final FlowDefinitionResolver resolver = mock(FlowDefinitionResolver.class);
+        final StepEvaluator evaluator = mock(StepEvaluator.class);
+        final StepInvoker invoker = mock(StepInvoker.class);
+
+        final FlowDefinition definition = new FlowDefinition("flow1", List.of(), null, null);
+        final FlowEngine engine = mock(FlowEngine.class);
+
+        when(resolver.resolve("flow1")).thenReturn(definition);
+        when(engine.execute(eq(definition), any(ExecutionContext.class))).thenReturn(mock(StepTrace.class));
+
+        final FlowExecutor executor = new FlowExecutor(resolver, evaluator, invoker, exec -> engine);
+        executor.execute("flow1", Map.of());
+
+        final InOrder order = inOrder(evaluator, engine);
+        order.verify(evaluator).prepare(definition);
+        order.verify(engine).execute(eq(definition), any(ExecutionContext.class));
+    }
 }
\ No newline at end of file
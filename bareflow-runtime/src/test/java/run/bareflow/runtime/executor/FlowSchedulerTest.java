@@ -0,0 +1,222 @@
+package run.bareflow.runtime.executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.resolver.FlowDefinitionResolver;
+
+public class FlowSchedulerTest {
+    /**
+     * "block" は release されるまでブロックし、実行順を記録する FlowExecutor
+     */
+    private static final class Fixture {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> executed = new CopyOnWriteArrayList<>();
+        final FlowExecutor executor = mock(FlowExecutor.class);
+
+        Fixture() {
+            when(executor.execute(anyString(), any())).thenAnswer(inv -> {
+                final String name = inv.getArgument(0);
+                executed.add(name);
+                if (name.equals("block")) {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return new FlowResult(null, null);
+            });
+        }
+
+        /** Occupy the single worker. */
+        CompletableFuture<FlowResult> block(final FlowScheduler scheduler) throws InterruptedException {
+            final CompletableFuture<FlowResult> f = scheduler.submit("block", Map.of(), Priority.CRITICAL, null);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            return f;
+        }
+    }
+
+    private static SystemException failure(final CompletableFuture<FlowResult> future) {
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return assertInstanceOf(SystemException.class, e.getCause());
+    }
+
+    // ------------------------------------------------------------
+    // 1. 高い優先度から実行する
+    // ------------------------------------------------------------
+    @Test
+    public void testHigherPriorityRunsFirst() throws Exception {
+        final Fixture fx = new Fixture();
+        try (FlowScheduler scheduler = new FlowScheduler(fx.executor, null, 1, Map.of())) {
+            final CompletableFuture<FlowResult> blocked = fx.block(scheduler);
+
+            final CompletableFuture<FlowResult> batch = scheduler.submit("batch", Map.of(), Priority.BATCH, null);
+            final CompletableFuture<FlowResult> normal = scheduler.submit("normal", Map.of(), Priority.NORMAL, null);
+            final CompletableFuture<FlowResult> critical = scheduler.submit("critical", Map.of(), Priority.CRITICAL,
+                    null);
+
+            fx.release.countDown();
+            CompletableFuture.allOf(blocked, batch, normal, critical).get(5, TimeUnit.SECONDS);
+
+            assertEquals(List.of("block", "critical", "normal", "batch"), fx.executed);
+            assertEquals(1, scheduler.getStats(Priority.BATCH).completed());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 2. キュー満杯なら拒否
+    // ------------------------------------------------------------
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        final Fixture fx = new Fixture();
+        try (FlowScheduler scheduler = new FlowScheduler(fx.executor, null, 1,
+                Map.of(Priority.BATCH, new PriorityClass(1, 0)))) {
+            fx.block(scheduler);
+
+            final CompletableFuture<FlowResult> first = scheduler.submit("b1", Map.of(), Priority.BATCH, null);
+            final CompletableFuture<FlowResult> second = scheduler.submit("b2", Map.of(), Priority.BATCH, null);
+
+            assertTrue(failure(second).getMessage().contains("Queue full"));
+            // other priorities are unaffected
+            final CompletableFuture<FlowResult> normal = scheduler.submit("n1", Map.of(), Priority.NORMAL, null);
+
+            fx.release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            normal.get(5, TimeUnit.SECONDS);
+
+            final SchedulerStats stats = scheduler.getStats(Priority.BATCH);
+            assertEquals(1, stats.accepted());
+            assertEquals(1, stats.rejected());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 3. 待ち時間超過: 新規は shed、古いものは取り出し時に破棄
+    // ------------------------------------------------------------
+    @Test
+    public void testQueueTimeSheddingAndExpiry() throws Exception {
+        final Fixture fx = new Fixture();
+        try (FlowScheduler scheduler = new FlowScheduler(fx.executor, null, 1,
+                Map.of(Priority.NORMAL, new PriorityClass(100, 20)))) {
+            fx.block(scheduler);
+
+            final CompletableFuture<FlowResult> stale = scheduler.submit("n1", Map.of(), Priority.NORMAL, null);
+            Thread.sleep(50);
+            final CompletableFuture<FlowResult> shed = scheduler.submit("n2", Map.of(), Priority.NORMAL, null);
+
+            assertTrue(failure(shed).getMessage().contains("Load shed"));
+
+            fx.release.countDown();
+            assertTrue(failure(stale).getMessage().contains("expired"));
+
+            final SchedulerStats stats = scheduler.getStats(Priority.NORMAL);
+            assertEquals(1, stats.shed());
+            assertEquals(1, stats.expired());
+            assertEquals(0, stats.completed());
+            assertFalse(fx.executed.contains("n1"));
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 4. 観測実行時間より短い期限は受け付けない
+    // ------------------------------------------------------------
+    @Test
+    public void testDeadlineShorterThanObservedDurationIsRefused() throws Exception {
+        final FlowExecutor executor = mock(FlowExecutor.class);
+        when(executor.execute(anyString(), any())).thenAnswer(inv -> {
+            Thread.sleep(50);
+            return new FlowResult(null, null);
+        });
+
+        try (FlowScheduler scheduler = new FlowScheduler(executor, null, 1, Map.of())) {
+            scheduler.submit("slow", Map.of(), Priority.HIGH, Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+
+            final CompletableFuture<FlowResult> tight = scheduler.submit("slow", Map.of(), Priority.HIGH,
+                    Duration.ofMillis(10));
+
+            assertTrue(failure(tight).getMessage().contains("Deadline"));
+            assertEquals(1, scheduler.getStats(Priority.HIGH).expired());
+            verify(executor, times(1)).execute(anyString(), any());
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 5. 優先度はメタデータから取得
+    // ------------------------------------------------------------
+    @Test
+    public void testPriorityFromMetadata() throws Exception {
+        final Fixture fx = new Fixture();
+        final FlowDefinitionResolver resolver = mock(FlowDefinitionResolver.class);
+        when(resolver.resolve("checkout"))
+                .thenReturn(new FlowDefinition("checkout", List.of(), null, Map.of("priority", "critical")));
+        when(resolver.resolve("report")).thenReturn(new FlowDefinition("report", List.of(), null, null));
+
+        try (FlowScheduler scheduler = new FlowScheduler(fx.executor, resolver, 1, Map.of())) {
+            final CompletableFuture<FlowResult> blocked = fx.block(scheduler);
+
+            final CompletableFuture<FlowResult> report = scheduler.submit("report", Map.of());
+            final CompletableFuture<FlowResult> checkout = scheduler.submit("checkout", Map.of());
+
+            assertEquals(1, scheduler.getStats(Priority.CRITICAL).queued());
+            assertEquals(1, scheduler.getStats(Priority.NORMAL).queued());
+
+            fx.release.countDown();
+            CompletableFuture.allOf(blocked, report, checkout).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("block", "checkout", "report"), fx.executed);
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 6. close でキュー中のリクエストは失敗
+    // ------------------------------------------------------------
+    @Test
+    public void testCloseFailsQueuedRequests() throws Exception {
+        final Fixture fx = new Fixture();
+        final FlowScheduler scheduler = new FlowScheduler(fx.executor, null, 1, Map.of());
+        fx.block(scheduler);
+
+        final CompletableFuture<FlowResult> queued = scheduler.submit("n1", Map.of(), Priority.NORMAL, null);
+        scheduler.close();
+
+        assertTrue(failure(queued).getMessage().contains("closed"));
+        assertTrue(failure(scheduler.submit("n2", Map.of(), Priority.NORMAL, null)).getMessage().contains("closed"));
+        fx.release.countDown();
+    }
+
+    // ------------------------------------------------------------
+    // 7. メタデータの優先度はフロー名ごとにキャッシュし、解決失敗は future で通知
+    // ------------------------------------------------------------
+    @Test
+    public void testPriorityIsCachedAndResolutionFailureFailsFuture() throws Exception {
+        final Fixture fx = new Fixture();
+        final FlowDefinitionResolver resolver = mock(FlowDefinitionResolver.class);
+        when(resolver.resolve("report")).thenReturn(new FlowDefinition("report", List.of(), null, null));
+        when(resolver.resolve("broken")).thenThrow(new SystemException("bad yaml"));
+
+        try (FlowScheduler scheduler = new FlowScheduler(fx.executor, resolver, 1, Map.of())) {
+            scheduler.submit("report", Map.of()).get(5, TimeUnit.SECONDS);
+            scheduler.submit("report", Map.of()).get(5, TimeUnit.SECONDS);
+            verify(resolver, times(1)).resolve("report");
+
+            final CompletableFuture<FlowResult> broken = scheduler.submit("broken", Map.of());
+            assertTrue(failure(broken).getMessage().contains("broken"));
+
+            scheduler.clearPriorities();
+            scheduler.submit("report", Map.of()).get(5, TimeUnit.SECONDS);
+            verify(resolver, times(2)).resolve("report");
+        }
+    }
+}
\ No newline at end of file
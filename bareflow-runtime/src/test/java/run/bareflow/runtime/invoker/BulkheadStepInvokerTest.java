@@ -0,0 +1,172 @@
+package run.bareflow.runtime.invoker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.engine.invoker.StepInvoker;
+import run.bareflow.core.exception.SystemException;
+
+public class BulkheadStepInvokerTest {
+    /**
+     * module "slow" は release されるまでブロックする Invoker
+     */
+    private static class SlowModuleInvoker implements StepInvoker {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+
+        @Override
+        public Map<String, Object> invoke(final String module, final String operation,
+                final Map<String, Object> input) {
+            if (module.equals("slow")) {
+                running.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Map.of("module", module);
+        }
+    }
+
+    private static void awaitCondition(final BooleanSupplier condition)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    // ------------------------------------------------------------
+    // 1. 上限到達・キュー満杯なら即座に拒否、他モジュールは影響なし
+    // ------------------------------------------------------------
+    @Test
+    public void testSaturatedModuleDoesNotBlockOthers() throws Exception {
+        final SlowModuleInvoker delegate = new SlowModuleInvoker();
+        final BulkheadStepInvoker invoker = new BulkheadStepInvoker(delegate,
+                Map.of("slow", new BulkheadConfig(2, 0, 0)), new BulkheadConfig(1, 0, 0));
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> a = pool.submit(() -> invoker.invoke("slow", "op", Map.of()));
+            final Future<?> b = pool.submit(() -> invoker.invoke("slow", "op", Map.of()));
+            awaitCondition(() -> delegate.running.get() == 2);
+
+            assertThrows(SystemException.class, () -> invoker.invoke("slow", "op", Map.of()));
+            assertEquals(Map.of("module", "fast"), invoker.invoke("fast", "op", Map.of()));
+
+            delegate.release.countDown();
+            a.get(5, TimeUnit.SECONDS);
+            b.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        final BulkheadStats stats = invoker.getStats("slow");
+        assertEquals(2, stats.limit());
+        assertEquals(0, stats.inFlight());
+        assertEquals(1, stats.rejected());
+        assertNotNull(invoker.getStats("fast"));
+    }
+
+    // ------------------------------------------------------------
+    // 2. 待機: 空きが出れば実行、タイムアウトなら SystemException
+    // ------------------------------------------------------------
+    @Test
+    public void testQueuedCallerWaitsOrTimesOut() throws Exception {
+        final SlowModuleInvoker delegate = new SlowModuleInvoker();
+        final BulkheadStepInvoker invoker = new BulkheadStepInvoker(delegate,
+                Map.of("slow", new BulkheadConfig(1, 1, 5_000)));
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final Future<?> first = pool.submit(() -> invoker.invoke("slow", "op", Map.of()));
+            awaitCondition(() -> delegate.running.get() == 1);
+
+            final Future<Map<String, Object>> queued = pool.submit(() -> invoker.invoke("slow", "op", Map.of()));
+            awaitCondition(() -> invoker.getStats("slow").waiting() == 1);
+
+            // queue (1) is full
+            assertThrows(SystemException.class, () -> invoker.invoke("slow", "op", Map.of()));
+
+            delegate.release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(Map.of("module", "slow"), queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        final SlowModuleInvoker blocked = new SlowModuleInvoker();
+        final BulkheadStepInvoker timed = new BulkheadStepInvoker(blocked,
+                Map.of("slow", new BulkheadConfig(1, 1, 20)));
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            single.submit(() -> timed.invoke("slow", "op", Map.of()));
+            awaitCondition(() -> blocked.running.get() == 1);
+
+            final SystemException e = assertThrows(SystemException.class,
+                    () -> timed.invoke("slow", "op", Map.of()));
+            assertTrue(e.getMessage().contains("timed out"));
+            assertEquals(1, timed.getStats("slow").timedOut());
+        } finally {
+            blocked.release.countDown();
+            single.shutdownNow();
+        }
+    }
+
+    // ------------------------------------------------------------
+    // 3. AIMD: 遅延超過で縮小、目標内で回復
+    // ------------------------------------------------------------
+    @Test
+    public void testAdaptiveLimit() {
+        final AtomicLong now = new AtomicLong();
+        final AtomicLong latencyMillis = new AtomicLong();
+        final StepInvoker delegate = (module, operation, input) -> {
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis.get()));
+            return Map.of();
+        };
+        final BulkheadStepInvoker invoker = new BulkheadStepInvoker(delegate,
+                Map.of("m", new BulkheadConfig(10, 0, 0, 100)), null, now::get);
+
+        latencyMillis.set(500);
+        for (int i = 0; i < 30; i++) {
+            invoker.invoke("m", "op", Map.of());
+        }
+        assertEquals(1, invoker.getStats("m").limit());
+
+        latencyMillis.set(10);
+        for (int i = 0; i < 200; i++) {
+            invoker.invoke("m", "op", Map.of());
+        }
+        assertEquals(10, invoker.getStats("m").limit());
+    }
+
+    // ------------------------------------------------------------
+    // 4. SystemException は過負荷として扱う / 設定なしのモジュールは無制限
+    // ------------------------------------------------------------
+    @Test
+    public void testFailuresShrinkLimitAndUnconfiguredModulesPassThrough() {
+        final StepInvoker delegate = (module, operation, input) -> {
+            throw new SystemException("down");
+        };
+        final BulkheadStepInvoker invoker = new BulkheadStepInvoker(delegate,
+                Map.of("m", new BulkheadConfig(4, 0, 0, 1_000)));
+
+        assertThrows(SystemException.class, () -> invoker.invoke("m", "op", Map.of()));
+        assertEquals(3, invoker.getStats("m").limit());
+        assertEquals(0, invoker.getStats("m").inFlight());
+
+        assertThrows(SystemException.class, () -> invoker.invoke("other", "op", Map.of()));
+        assertNull(invoker.getStats("other"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package run.bareflow.runtime.invoker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.engine.invoker.StepInvoker;
+import run.bareflow.core.exception.BusinessException;
+
+public class CoalescingStepInvokerTest {
+    /**
+     * release されるまでブロックする Invoker
+     */
+    private static class BlockingInvoker implements StepInvoker {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        volatile RuntimeException failure;
+
+        @Override
+        public Map<String, Object> invoke(final String module, final String operation,
+                final Map<String, Object> input) {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return Map.of("echo", input.get("id"));
+        }
+    }
+
+    private static List<Future<Map<String, Object>>> submit(final ExecutorService pool,
+            final CoalescingStepInvoker invoker, final int count, final Map<String, Object> input) {
+        final List<Future<Map<String, Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(pool.submit(() -> invoker.invoke("M", "op", input)));
+        }
+        return futures;
+    }
+
+    private static void awaitCollapsed(final CoalescingStepInvoker invoker, final long expected)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (invoker.getCollapsedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, invoker.getCollapsedCount());
+    }
+
+    // ------------------------------------------------------------
+    // 1. 同一の同時呼び出しは 1 回にまとめる
+    // ------------------------------------------------------------
+    @Test
+    public void testIdenticalConcurrentCallsCollapse() throws Exception {
+        final BlockingInvoker delegate = new BlockingInvoker();
+        final CoalescingStepInvoker invoker = new CoalescingStepInvoker(delegate);
+        final ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Map<String, Object>>> futures = submit(pool, invoker, 8, Map.of("id", 1));
+
+            awaitCollapsed(invoker, 7);
+            assertEquals(1, invoker.getInFlightCount());
+            delegate.release.countDown();
+
+            for (final Future<Map<String, Object>> f : futures) {
+                assertEquals(Map.of("echo", 1), f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, invoker.getInvocationCount());
+        assertEquals(0, invoker.getInFlightCount());
+    }
+
+    // ------------------------------------------------------------
+    // 2. 入力が異なる呼び出し・逐次呼び出しはまとめない
+    // ------------------------------------------------------------
+    @Test
+    public void testDistinctOrSequentialCallsAreNotCollapsed() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CoalescingStepInvoker invoker = new CoalescingStepInvoker(
+                (module, operation, input) -> Map.of("n", calls.incrementAndGet()));
+
+        assertEquals(Map.of("n", 1), invoker.invoke("M", "op", Map.of("id", 1)));
+        assertEquals(Map.of("n", 2), invoker.invoke("M", "op", Map.of("id", 1)));
+        assertEquals(Map.of("n", 3), invoker.invoke("M", "op", Map.of("id", 2)));
+        assertEquals(Map.of("n", 4), invoker.invoke("M", "other", Map.of("id", 2)));
+
+        assertEquals(0, invoker.getCollapsedCount());
+        assertEquals(4, invoker.getInvocationCount());
+    }
+
+    // ------------------------------------------------------------
+    // 3. リーダーの例外は待機中の呼び出しにも伝播
+    // ------------------------------------------------------------
+    @Test
+    public void testLeaderFailurePropagatesToFollowers() throws Exception {
+        final BlockingInvoker delegate = new BlockingInvoker();
+        delegate.failure = new BusinessException("out of stock");
+        final CoalescingStepInvoker invoker = new CoalescingStepInvoker(delegate);
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Map<String, Object>>> futures = submit(pool, invoker, 4, Map.of("id", 1));
+
+            awaitCollapsed(invoker, 3);
+            delegate.release.countDown();
+
+            for (final Future<Map<String, Object>> f : futures) {
+                final Exception e = assertThrows(Exception.class, () -> f.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(BusinessException.class, e.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, delegate.calls.get());
+        assertEquals(0, invoker.getInFlightCount());
+    }
+
+    // ------------------------------------------------------------
+    // 4. 対象外の operation は常に委譲
+    // ------------------------------------------------------------
+    @Test
+    public void testPredicateExcludesOperations() throws Exception {
+        final BlockingInvoker delegate = new BlockingInvoker();
+        final CoalescingStepInvoker invoker = new CoalescingStepInvoker(delegate,
+                (module, operation) -> !operation.equals("op"));
+        final ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<Map<String, Object>>> futures = submit(pool, invoker, 3, Map.of("id", 1));
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (delegate.calls.get() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            delegate.release.countDown();
+
+            for (final Future<Map<String, Object>> f : futures) {
+                assertEquals(Map.of("echo", 1), f.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(3, delegate.calls.get());
+        assertEquals(0, invoker.getCollapsedCount());
+    }
+}
\ No newline at end of file
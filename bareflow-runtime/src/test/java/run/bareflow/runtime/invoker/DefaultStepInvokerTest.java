@@ -21,6 +21,16 @@ public class DefaultStepInvokerTest {
         }
     }
 
+    /**
+     * 入力を書き換えるモジュール
+     */
+    public static class MutatingModule {
+        public Map<String, Object> op(final Map<String, Object> input) {
+            input.put("seen", true);
+            return input;
+        }
+    }
+
     /**
      * BusinessException を投げるモジュール
      */
@@ -138,4 +148,21 @@ public class DefaultStepInvokerTest {
 
         assertThrows(SystemException.class, () -> invoker.invoke("M", "op", Map.of()));
     }
+
+    // ------------------------------------------------------------
+    // 7. モジュールは変更可能な入力のコピーを受け取る
+    // ------------------------------------------------------------
+    @Test
+    public void testModuleReceivesMutableCopyOfInput() {
+        final ModuleResolver resolver = mock(ModuleResolver.class);
+        when(resolver.resolve("M")).thenAnswer(inv -> MutatingModule.class);
+
+        final DefaultStepInvoker invoker = new DefaultStepInvoker(resolver);
+        final Map<String, Object> input = Map.of("id", 1);
+
+        final Map<String, Object> result = invoker.invoke("M", "op", input);
+
+        assertEquals(Map.of("id", 1, "seen", true), result);
+        assertEquals(Map.of("id", 1), input);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package run.bareflow.runtime.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class JsonTest {
+    // ------------------------------------------------------------
+    // 1. 引用符・バックスラッシュ・制御文字をエスケープする
+    // ------------------------------------------------------------
+    @Test
+    public void testEscape() {
+        final StringBuilder sb = new StringBuilder();
+        Json.escape(sb, "a\"b\\c\nd\r\t\u0001\u001fx", 12);
+        assertEquals("a\\\"b\\\\c\\nd\\r\\t\\u0001\\u001fx", sb.toString());
+
+        sb.setLength(0);
+        Json.escape(sb, "abcdef", 3);
+        assertEquals("abc", sb.toString());
+    }
+
+    // ------------------------------------------------------------
+    // 2. quote は引用符で囲み、null は null リテラル
+    // ------------------------------------------------------------
+    @Test
+    public void testQuote() {
+        final StringBuilder sb = new StringBuilder();
+        Json.quote(sb, "x\"y");
+        sb.append(',');
+        Json.quote(sb, null);
+        assertEquals("\"x\\\"y\",null", sb.toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package run.bareflow.runtime.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTraceEntry;
+
+public class JsonLogFormatterTest {
+    private static final StepDefinition STEP = new StepDefinition("charge", "Payment", "charge", Map.of(), Map.of(),
+            null, null);
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant T1 = Instant.parse("2026-01-01T00:00:00.001500Z");
+
+    @Test
+    public void infoLevelWritesIdentifiersAndDuration() {
+        final JsonLogFormatter formatter = new JsonLogFormatter();
+        final FlowEngineEvent event = new FlowEngineEvent.InvokeEndEvent(STEP, 2, Map.of("id", 1), T0, T1);
+
+        assertEquals("{\"event\":\"InvokeEnd\",\"step\":\"charge\",\"attempt\":2,"
+                + "\"startTime\":\"2026-01-01T00:00:00Z\",\"endTime\":\"2026-01-01T00:00:00.001500Z\","
+                + "\"durationMicros\":1500}", formatter.formatInfo(event));
+        assertEquals("{\"event\":\"InvokeEnd\",\"step\":\"charge\",\"attempt\":2,"
+                + "\"startTime\":\"2026-01-01T00:00:00Z\",\"endTime\":\"2026-01-01T00:00:00.001500Z\","
+                + "\"durationMicros\":1500,\"output\":{\"id\":1}}", formatter.formatDebug(event));
+    }
+
+    @Test
+    public void debugLevelEscapesNestedValues() {
+        final Map<String, Object> input = new LinkedHashMap<>();
+        input.put("text", "a\"b\\c\nd\u0001");
+        input.put("list", List.of(1, 2.5, true));
+        input.put("none", null);
+
+        final String json = new JsonLogFormatter()
+                .formatDebug(new FlowEngineEvent.InvokeStartEvent(STEP, 1, input, T0));
+
+        assertTrue(json.endsWith(
+                ",\"input\":{\"text\":\"a\\\"b\\\\c\\nd\\u0001\",\"list\":[1,2.5,true],\"none\":null}}"), json);
+    }
+
+    @Test
+    public void errorLevelWritesOnlyErrorEvents() {
+        final JsonLogFormatter formatter = new JsonLogFormatter();
+
+        assertNull(formatter.formatError(new FlowEngineEvent.StepStartEvent(STEP, 1, T0)));
+        assertEquals("{\"event\":\"SystemError\",\"step\":\"charge\",\"attempt\":1,"
+                + "\"error\":{\"type\":\"run.bareflow.core.exception.SystemException\",\"message\":\"down\"}}",
+                formatter.formatError(new FlowEngineEvent.SystemErrorEvent(STEP, 1, new SystemException("down"))));
+    }
+
+    @Test
+    public void allowListAndTruncation() {
+        final JsonLogFormatter formatter = new JsonLogFormatter(Set.of("flow", "output"), 5);
+        final FlowDefinition flow = new FlowDefinition("checkout-flow", List.of(), null, null);
+
+        assertEquals("{\"event\":\"FlowStart\",\"flow\":\"check...\"}",
+                formatter.formatInfo(new FlowEngineEvent.FlowStartEvent(flow, T0)));
+        assertEquals("{\"event\":\"InvokeEnd\",\"output\":{\"v\":\"12345...\"}}",
+                formatter.formatDebug(new FlowEngineEvent.InvokeEndEvent(STEP, 1, Map.of("v", "1234567"), T0, T1)));
+    }
+
+    @Test
+    public void traceLevelIncludesContextAndBufferIsReused() {
+        final JsonLogFormatter formatter = new JsonLogFormatter();
+        final StepTraceEntry entry = new StepTraceEntry("charge", Map.of("k", "v"), null, null, null, T0, T1, 1);
+        final FlowEngineEvent event = new FlowEngineEvent.StepEndEvent(STEP, 1, T0, T1, entry);
+
+        final String first = formatter.formatTrace(event);
+        assertTrue(first.endsWith(",\"context\":{\"k\":\"v\"}}"), first);
+        assertFalse(formatter.formatInfo(event).contains("context"));
+        assertEquals(first, formatter.formatTrace(event));
+
+        final StringBuilder sb = new StringBuilder("> ");
+        formatter.formatTo(sb, event);
+        assertEquals("> " + first, sb.toString());
+    }
+}
\ No newline at end of file
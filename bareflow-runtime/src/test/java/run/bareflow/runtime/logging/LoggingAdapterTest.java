@@ -1,18 +1,30 @@
 package run.bareflow.runtime.logging;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
 import java.time.Instant;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
 
 import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
 import run.bareflow.core.engine.event.FlowEngineEvent;
 import run.bareflow.core.engine.event.FlowEngineEvent.FlowStartEvent;
+import run.bareflow.core.engine.event.FlowEngineEvent.InputEvaluationStartEvent;
 
 public class LoggingAdapterTest {
     @Test
@@ -104,4 +116,121 @@ public class LoggingAdapterTest {
         verify(formatter).formatError(event);
         verify(logger).error("error-log");
     }
+
+    @Test
+    public void nullMessageIsNotLogged() {
+        Logger logger = mock(Logger.class);
+        when(logger.isErrorEnabled()).thenReturn(true);
+
+        LogFormatter formatter = mock(LogFormatter.class);
+        when(formatter.formatError(any())).thenReturn(null);
+
+        LoggingAdapter adapter = new LoggingAdapter(logger, formatter);
+
+        adapter.onEvent(new FlowStartEvent(mock(FlowDefinition.class), Instant.now()));
+
+        verify(logger, never()).error(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void routedEventIsFormattedLazilyAtItsLevel() {
+        Logger logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        LoggingEventBuilder builder = mock(LoggingEventBuilder.class);
+        when(logger.atLevel(Level.INFO)).thenReturn(builder);
+        when(builder.setMessage(any(Supplier.class))).thenReturn(builder);
+
+        LogFormatter formatter = mock(LogFormatter.class);
+        when(formatter.formatInfo(any())).thenReturn("info-log");
+
+        LoggingAdapter adapter = new LoggingAdapter(logger, formatter, EventLevels.defaults());
+
+        FlowEngineEvent event = new FlowStartEvent(mock(FlowDefinition.class), Instant.now());
+
+        adapter.onEvent(event);
+
+        ArgumentCaptor<Supplier<String>> message = ArgumentCaptor.forClass(Supplier.class);
+        verify(builder).setMessage(message.capture());
+        verify(builder).log();
+        verifyNoInteractions(formatter);
+
+        assertEquals("info-log", message.getValue().get());
+        verify(formatter).formatInfo(event);
+    }
+
+    @Test
+    public void routedEventBelowEnabledLevelIsNotFormatted() {
+        Logger logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+
+        LogFormatter formatter = mock(LogFormatter.class);
+
+        LoggingAdapter adapter = new LoggingAdapter(logger, formatter, EventLevels.defaults());
+
+        adapter.onEvent(new InputEvaluationStartEvent(mock(StepDefinition.class), 1, Instant.now()));
+
+        verify(logger, never()).atLevel(any());
+        verifyNoInteractions(formatter);
+    }
+
+    @Test
+    public void unroutedEventIsNotLogged() {
+        Logger logger = mock(Logger.class);
+        when(logger.isTraceEnabled()).thenReturn(true);
+
+        LogFormatter formatter = mock(LogFormatter.class);
+
+        LoggingAdapter adapter = new LoggingAdapter(logger, formatter,
+                EventLevels.defaults().withoutLevel(FlowStartEvent.class));
+
+        adapter.onEvent(new FlowStartEvent(mock(FlowDefinition.class), Instant.now()));
+
+        verify(logger, never()).atLevel(any());
+        verifyNoInteractions(formatter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void traceModeLogsTraceDetailAtInfo() {
+        Logger logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        LoggingEventBuilder builder = mock(LoggingEventBuilder.class);
+        when(logger.atLevel(Level.INFO)).thenReturn(builder);
+        when(builder.setMessage(any(Supplier.class))).thenReturn(builder);
+
+        LogFormatter formatter = mock(LogFormatter.class);
+        when(formatter.formatTrace(any())).thenReturn("trace-log");
+
+        LoggingAdapter adapter = new LoggingAdapter(logger, formatter, EventLevels.defaults());
+        FlowEngineEvent event = new InputEvaluationStartEvent(mock(StepDefinition.class), 1, Instant.now());
+
+        adapter.onEvent(event);
+        verify(logger, never()).atLevel(any());
+
+        adapter.setTraceMode(true);
+        adapter.onEvent(event);
+
+        ArgumentCaptor<Supplier<String>> message = ArgumentCaptor.forClass(Supplier.class);
+        verify(builder).setMessage(message.capture());
+        assertEquals("trace-log", message.getValue().get());
+    }
+
+    @Test
+    public void cachedLevelsApplyAfterRefresh() {
+        Logger logger = mock(Logger.class);
+        LogFormatter formatter = mock(LogFormatter.class);
+        when(formatter.formatInfo(any())).thenReturn("info-log");
+
+        LoggingAdapter adapter = new LoggingAdapter(logger, formatter, null, Duration.ZERO);
+        FlowEngineEvent event = new FlowStartEvent(mock(FlowDefinition.class), Instant.now());
+
+        when(logger.isInfoEnabled()).thenReturn(true);
+        adapter.onEvent(event);
+        verify(logger, never()).info(anyString());
+
+        adapter.refreshLevels();
+        adapter.onEvent(event);
+        verify(logger).info("info-log");
+    }
 }
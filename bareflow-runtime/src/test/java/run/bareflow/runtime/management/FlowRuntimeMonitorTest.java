@@ -0,0 +1,149 @@
+package run.bareflow.runtime.management;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTrace;
+import run.bareflow.runtime.logging.JsonLogFormatter;
+import run.bareflow.runtime.logging.LoggingAdapter;
+import run.bareflow.runtime.resolver.CachingModuleResolver;
+
+public class FlowRuntimeMonitorTest {
+    private static final StepDefinition STEP = new StepDefinition("charge", "m", "op", Map.of(), Map.of(), null,
+            null);
+    private static final FlowDefinition FLOW = new FlowDefinition("order", List.of(STEP), null, null);
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static void step(FlowRuntimeMonitor monitor, long millis) {
+        monitor.onEvent(new StepEndEvent(STEP, 1, T0, T0.plusMillis(millis), null));
+    }
+
+    // ------------------------------------------------------------
+    // 1. イベントから実行数・実行中・レイテンシ・リトライ・エラーを集計
+    // ------------------------------------------------------------
+    @Test
+    public void testCollectsStatisticsFromEvents() {
+        FlowRuntimeMonitor monitor = new FlowRuntimeMonitor();
+
+        monitor.onEvent(new FlowStartEvent(FLOW, T0));
+        monitor.onEvent(new FlowStartEvent(FLOW, T0));
+        assertEquals(2, monitor.getInFlight());
+
+        for (int i = 1; i <= 100; i++) {
+            step(monitor, i);
+        }
+        monitor.onEvent(new RetryPolicyRetryEvent(STEP, 1, 0));
+        monitor.onEvent(new SystemErrorEvent(STEP, 1, new SystemException("fail")));
+        monitor.onEvent(new CacheHitEvent(STEP, 1, "k", Map.of(), T0));
+        monitor.onEvent(new CacheHitEvent(STEP, 1, "k", Map.of(), T0));
+        monitor.onEvent(new CacheHitEvent(STEP, 1, "k", Map.of(), T0));
+        monitor.onEvent(new CacheMissEvent(STEP, 1, "k", T0));
+
+        monitor.onEvent(new FlowEndEvent(FLOW, new StepTrace(), T0, T0));
+        monitor.onEvent(new FlowAbortedEvent(FLOW, new StepTrace(), new SystemException("x"), T0, T0));
+
+        assertEquals(0, monitor.getInFlight());
+        assertEquals(Map.of("order", 0L), monitor.getInFlightByFlow());
+        assertEquals(Map.of("order", 2L), monitor.getExecutionCounts());
+        assertEquals(Map.of("order", 1L), monitor.getAbortCounts());
+        assertEquals(Map.of("order/charge", 50_000L), monitor.getStepLatencyP50Micros());
+        assertEquals(Map.of("order/charge", 90_000L), monitor.getStepLatencyP90Micros());
+        assertEquals(Map.of("order/charge", 99_000L), monitor.getStepLatencyP99Micros());
+        assertEquals(Map.of("order/charge", 100_000L), monitor.getStepLatencyMaxMicros());
+        assertEquals(Map.of("order/charge", 1L), monitor.getRetryCounts());
+        assertEquals(Map.of("order/charge", 1L), monitor.getErrorCounts());
+        assertEquals(0.75, monitor.getStepCacheHitRate());
+
+        monitor.resetStatistics();
+        assertTrue(monitor.getExecutionCounts().isEmpty());
+        assertTrue(monitor.getStepLatencyP50Micros().isEmpty());
+        assertEquals(0.0, monitor.getStepCacheHitRate());
+    }
+
+    // ------------------------------------------------------------
+    // 2. レイテンシは直近 LATENCY_WINDOW 件で計算
+    // ------------------------------------------------------------
+    @Test
+    public void testLatencyWindowKeepsRecentExecutions() {
+        FlowRuntimeMonitor monitor = new FlowRuntimeMonitor();
+        step(monitor, 1_000);
+        for (int i = 0; i < FlowRuntimeMonitor.LATENCY_WINDOW; i++) {
+            step(monitor, 1);
+        }
+        assertEquals(Map.of("charge", 1_000L), monitor.getStepLatencyMaxMicros());
+    }
+
+    // ------------------------------------------------------------
+    // 3. MBeanServer から属性取得・操作実行ができる
+    // ------------------------------------------------------------
+    @Test
+    public void testExposedThroughJmx() throws Exception {
+        CachingModuleResolver modules = new CachingModuleResolver(name -> String.class);
+        modules.resolve("a");
+        modules.resolve("a");
+        LoggingAdapter logging = new LoggingAdapter(mock(Logger.class), new JsonLogFormatter());
+        FlowRuntimeMonitor monitor = new FlowRuntimeMonitor(null, modules, logging);
+        monitor.onEvent(new FlowEndEvent(FLOW, new StepTrace(), T0, T0));
+
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = monitor.register(server, "test");
+        assertEquals(new ObjectName("run.bareflow:type=FlowRuntime,name=\"test\""), name);
+
+        TabularData executions = (TabularData) server.getAttribute(name, "ExecutionCounts");
+        CompositeData row = executions.get(new Object[] { "order" });
+        assertEquals(1L, row.get("value"));
+        assertEquals(0.5, server.getAttribute(name, "ModuleCacheHitRate"));
+        assertEquals(0.0, server.getAttribute(name, "DefinitionCacheHitRate"));
+
+        server.setAttribute(name, new Attribute("TraceLogging", true));
+        assertTrue(logging.isTraceMode());
+
+        server.invoke(name, "clearModuleCache", null, null);
+        assertEquals(0, modules.size());
+
+        assertThrows(SystemException.class, () -> monitor.register(server, "test"));
+    }
+
+    // ------------------------------------------------------------
+    // 4. 同名ステップはフローごとに別々に集計
+    // ------------------------------------------------------------
+    @Test
+    public void testStepStatisticsAreKeyedByFlowAndStep() {
+        StepDefinition otherStep = new StepDefinition("charge", "m", "op", Map.of(), Map.of(), null, null);
+        FlowDefinition other = new FlowDefinition("refund", List.of(otherStep), null, null);
+        FlowRuntimeMonitor monitor = new FlowRuntimeMonitor();
+
+        monitor.onEvent(new FlowStartEvent(FLOW, T0));
+        monitor.onEvent(new FlowStartEvent(other, T0));
+        monitor.onEvent(new SystemErrorEvent(STEP, 1, new SystemException("fail")));
+        monitor.onEvent(new SystemErrorEvent(otherStep, 1, new SystemException("fail")));
+        monitor.onEvent(new SystemErrorEvent(otherStep, 2, new SystemException("fail")));
+        monitor.onEvent(new FlowAbortedEvent(FLOW, new StepTrace(), new SystemException("x"), T0, T0));
+        monitor.onEvent(new FlowAbortedEvent(other, new StepTrace(), new SystemException("x"), T0, T0));
+
+        assertEquals(Map.of("order/charge", 1L, "refund/charge", 2L), monitor.getErrorCounts());
+        assertEquals(0, monitor.getInFlight());
+
+        // without a running execution the flow of a step is unknown
+        step(monitor, 1);
+        assertEquals(Map.of("charge", 1_000L), monitor.getStepLatencyMaxMicros());
+    }
+}
\ No newline at end of file
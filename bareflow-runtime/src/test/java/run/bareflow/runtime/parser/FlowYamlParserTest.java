@@ -5,10 +5,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import run.bareflow.core.definition.CacheDefinition;
 import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.ForEachDefinition;
+import run.bareflow.core.definition.HedgeDefinition;
 import run.bareflow.core.definition.OnErrorDefinition;
 import run.bareflow.core.definition.RetryPolicy;
 import run.bareflow.core.definition.StepDefinition;
@@ -234,4 +238,458 @@ public class FlowYamlParserTest {
 
     assertThrows(SystemException.class, () -> parser.parse(yaml(yaml)));
   }
+
+  // ------------------------------------------------------------
+  // 11. STREAMING モードでも同じ定義が構築される
+  // ------------------------------------------------------------
+  @Test
+  public void testStreamingModeMatchesTreeMode() {
+    final String yaml = """
+        name: flow
+        metadata:
+          version: "1.0"
+          tags: [a, b]
+        onError:
+          action: STOP
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            input:
+              id: "${userId}"
+              count: 3
+              enabled: true
+              ratio: 0.5
+              nothing: null
+              nested:
+                list: [1, 2]
+            output:
+              result: "${value}"
+            retry:
+              maxAttempts: 3
+              delayMillis: 500
+            onError:
+              action: CONTINUE
+              delayMillis: 150
+              output:
+                msg: "error"
+          - name: s2
+            module: N
+            operation: op2
+        """;
+
+    final FlowDefinition tree = new FlowYamlParser().parse(yaml(yaml));
+    final FlowDefinition streamed = new FlowYamlParser(FlowYamlParser.Mode.STREAMING).parse(yaml(yaml));
+
+    assertEquals(tree.getName(), streamed.getName());
+    assertEquals(tree.getMetadata(), streamed.getMetadata());
+    assertEquals(tree.getOnError().getAction(), streamed.getOnError().getAction());
+    assertEquals(tree.getSteps().size(), streamed.getSteps().size());
+
+    for (int i = 0; i < tree.getSteps().size(); i++) {
+      final StepDefinition expected = tree.getSteps().get(i);
+      final StepDefinition actual = streamed.getSteps().get(i);
+
+      assertEquals(expected.getName(), actual.getName());
+      assertEquals(expected.getModule(), actual.getModule());
+      assertEquals(expected.getOperation(), actual.getOperation());
+      assertEquals(expected.getInput(), actual.getInput());
+      assertEquals(expected.getOutput(), actual.getOutput());
+    }
+
+    final StepDefinition s1 = streamed.getSteps().get(0);
+    assertEquals(3, s1.getInput().get("count"));
+    assertEquals(Boolean.TRUE, s1.getInput().get("enabled"));
+    assertEquals(0.5, s1.getInput().get("ratio"));
+    assertTrue(s1.getInput().containsKey("nothing"));
+    assertNull(s1.getInput().get("nothing"));
+    assertEquals(3, s1.getRetryPolicy().getMaxAttempts());
+    assertEquals(500L, s1.getRetryPolicy().getDelayMillis());
+    assertEquals(OnErrorDefinition.Action.CONTINUE, s1.getOnError().getAction());
+    assertEquals("error", s1.getOnError().getOutput().get("msg"));
+
+    // duplicate keys are rejected in both modes, at any nesting level
+    final String duplicate = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            input:
+              id: 1
+              id: 2
+        """;
+    assertThrows(SystemException.class, () -> new FlowYamlParser().parse(yaml(duplicate)));
+    assertEquals("Invalid YAML at line 8, column 7: duplicate key 'id'",
+        assertThrows(SystemException.class,
+            () -> new FlowYamlParser(FlowYamlParser.Mode.STREAMING).parse(yaml(duplicate))).getCause().getMessage());
+
+    final String duplicateStepKey = duplicate.replace("    input:\n      id: 1\n      id: 2\n", "    module: N\n");
+    assertThrows(SystemException.class, () -> new FlowYamlParser().parse(yaml(duplicateStepKey)));
+    assertEquals("Invalid YAML at line 6, column 5: duplicate key 'module'",
+        assertThrows(SystemException.class,
+            () -> new FlowYamlParser(FlowYamlParser.Mode.STREAMING).parse(yaml(duplicateStepKey))).getCause()
+            .getMessage());
+  }
+
+  // ------------------------------------------------------------
+  // 12. STREAMING モードのエラーは行・列を含む
+  // ------------------------------------------------------------
+  @Test
+  public void testStreamingModeReportsLocation() {
+    final String yaml = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+          - name: s2
+            module: M
+        """;
+
+    final FlowYamlParser parser = new FlowYamlParser(FlowYamlParser.Mode.STREAMING);
+
+    final SystemException e = assertThrows(SystemException.class, () -> parser.parse(yaml(yaml)));
+    assertEquals("Invalid YAML at line 6, column 5: Step 'operation' is required", e.getCause().getMessage());
+  }
+
+  // ------------------------------------------------------------
+  // 13. STREAMING モードの無効 YAML
+  // ------------------------------------------------------------
+  @Test
+  public void testStreamingModeInvalidYaml() {
+    final FlowYamlParser parser = new FlowYamlParser(FlowYamlParser.Mode.STREAMING);
+
+    assertThrows(SystemException.class, () -> parser.parse(yaml("- a\n- b\n")));
+    assertThrows(SystemException.class, () -> parser.parse(yaml("name: flow\n")));
+    assertThrows(SystemException.class, () -> parser.parse(yaml("""
+        steps:
+          - name: s1
+            module: M
+            operation: op
+        """)));
+    assertThrows(SystemException.class, () -> parser.parse(yaml("""
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            onError:
+              action: INVALID
+        """)));
+  }
+
+  // ------------------------------------------------------------
+  // 14. forEach ブロック（両モード・デフォルト値）
+  // ------------------------------------------------------------
+  @Test
+  public void testForEachBlock() {
+    final String yaml = """
+        name: flow
+        steps:
+          - name: charge
+            module: Payment
+            operation: charge
+            forEach:
+              items: ${orders}
+              as: order
+              maxConcurrency: 4
+              collect: charges
+          - name: notify
+            module: Mail
+            operation: send
+            forEach:
+              items: ${charges}
+              collect: sent
+        """;
+
+    for (final FlowYamlParser.Mode mode : FlowYamlParser.Mode.values()) {
+      final FlowDefinition def = new FlowYamlParser(mode).parse(yaml(yaml));
+
+      final ForEachDefinition charge = def.getSteps().get(0).getForEach();
+      assertEquals("${orders}", charge.getItems());
+      assertEquals("order", charge.getAs());
+      assertEquals(4, charge.getMaxConcurrency());
+      assertEquals("charges", charge.getCollect());
+
+      final ForEachDefinition notify = def.getSteps().get(1).getForEach();
+      assertEquals("item", notify.getAs());
+      assertEquals(1, notify.getMaxConcurrency());
+    }
+  }
+
+  // ------------------------------------------------------------
+  // 15. forEach の必須項目・値検証
+  // ------------------------------------------------------------
+  @Test
+  public void testForEachValidation() {
+    final String missingCollect = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            forEach:
+              items: ${list}
+        """;
+    final String zeroConcurrency = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            forEach:
+              items: ${list}
+              collect: out
+              maxConcurrency: 0
+        """;
+
+    for (final FlowYamlParser.Mode mode : FlowYamlParser.Mode.values()) {
+      final FlowYamlParser parser = new FlowYamlParser(mode);
+      assertThrows(SystemException.class, () -> parser.parse(yaml(missingCollect)));
+      assertThrows(SystemException.class, () -> parser.parse(yaml(zeroConcurrency)));
+    }
+  }
+
+  // ------------------------------------------------------------
+  // 16. サブフロー呼び出しステップ
+  // ------------------------------------------------------------
+  @Test
+  public void testSubFlowStep() {
+    final String yaml = """
+        name: flow
+        steps:
+          - name: authenticate
+            flow: auth
+            input:
+              token: ${token}
+            output:
+              user: ${userId}
+        """;
+    final String withModule = """
+        name: flow
+        steps:
+          - name: authenticate
+            flow: auth
+            module: M
+        """;
+
+    for (final FlowYamlParser.Mode mode : FlowYamlParser.Mode.values()) {
+      final FlowYamlParser parser = new FlowYamlParser(mode);
+
+      final StepDefinition step = parser.parse(yaml(yaml)).getSteps().get(0);
+      assertEquals("auth", step.getFlow());
+      assertNull(step.getModule());
+      assertNull(step.getOperation());
+      assertEquals("${token}", step.getInput().get("token"));
+
+      assertThrows(SystemException.class, () -> parser.parse(yaml(withModule)));
+    }
+  }
+
+  // ------------------------------------------------------------
+  // 17. when 条件（構文はロード時に検証）
+  // ------------------------------------------------------------
+  @Test
+  public void testWhenCondition() {
+    final String yaml = """
+        name: flow
+        steps:
+          - name: notify
+            module: Mail
+            operation: send
+            when: "${sendMail} == true && !${muted}"
+        """;
+    final String invalid = """
+        name: flow
+        steps:
+          - name: notify
+            module: Mail
+            operation: send
+            when: "${sendMail} =="
+        """;
+
+    for (final FlowYamlParser.Mode mode : FlowYamlParser.Mode.values()) {
+      final FlowYamlParser parser = new FlowYamlParser(mode);
+
+      assertEquals("${sendMail} == true && !${muted}", parser.parse(yaml(yaml)).getSteps().get(0).getWhen());
+      assertThrows(SystemException.class, () -> parser.parse(yaml(invalid)));
+    }
+  }
+
+  // ------------------------------------------------------------
+  // 18. cache ブロック（forEach との併用は不可）
+  // ------------------------------------------------------------
+  @Test
+  public void testCacheBlock() {
+    final String yaml = """
+        name: flow
+        steps:
+          - name: rate
+            module: Fx
+            operation: rate
+            cache:
+              ttlMillis: 60000
+              maxEntries: 500
+              keys: [from, to]
+          - name: profile
+            module: User
+            operation: get
+            cache: {}
+        """;
+    final String withForEach = """
+        name: flow
+        steps:
+          - name: rate
+            module: Fx
+            operation: rate
+            forEach:
+              items: "${pairs}"
+              collect: rates
+            cache:
+              ttlMillis: 60000
+        """;
+    final String invalid = """
+        name: flow
+        steps:
+          - name: rate
+            module: Fx
+            operation: rate
+            cache:
+              maxEntries: 0
+        """;
+
+    for (final FlowYamlParser.Mode mode : FlowYamlParser.Mode.values()) {
+      final FlowYamlParser parser = new FlowYamlParser(mode);
+      final FlowDefinition def = parser.parse(yaml(yaml));
+
+      final CacheDefinition rate = def.getSteps().get(0).getCache();
+      assertEquals(60000L, rate.getTtlMillis());
+      assertEquals(500, rate.getMaxEntries());
+      assertEquals(List.of("from", "to"), rate.getKeys());
+
+      final CacheDefinition profile = def.getSteps().get(1).getCache();
+      assertEquals(0L, profile.getTtlMillis());
+      assertEquals(1000, profile.getMaxEntries());
+      assertTrue(profile.getKeys().isEmpty());
+
+      assertThrows(SystemException.class, () -> parser.parse(yaml(withForEach)));
+      assertThrows(SystemException.class, () -> parser.parse(yaml(invalid)));
+    }
+  }
+
+  // ------------------------------------------------------------
+  // 19. hedge ブロック（デフォルト値と検証）
+  // ------------------------------------------------------------
+  @Test
+  public void testHedgeBlock() {
+    final String yaml = """
+        name: flow
+        steps:
+          - name: quote
+            module: Pricing
+            operation: quote
+            hedge:
+              percentile: 99
+              delayMillis: 40
+              budgetPercent: 5
+          - name: stock
+            module: Stock
+            operation: get
+            hedge: {}
+        """;
+    final String withFlow = """
+        name: flow
+        steps:
+          - name: quote
+            flow: pricing
+            hedge: {}
+        """;
+    final String invalid = """
+        name: flow
+        steps:
+          - name: quote
+            module: Pricing
+            operation: quote
+            hedge:
+              percentile: 100
+        """;
+
+    for (final FlowYamlParser.Mode mode : FlowYamlParser.Mode.values()) {
+      final FlowYamlParser parser = new FlowYamlParser(mode);
+      final FlowDefinition def = parser.parse(yaml(yaml));
+
+      final HedgeDefinition quote = def.getSteps().get(0).getHedge();
+      assertEquals(99.0, quote.getPercentile());
+      assertEquals(40L, quote.getDelayMillis());
+      assertEquals(5.0, quote.getBudgetPercent());
+
+      final HedgeDefinition stock = def.getSteps().get(1).getHedge();
+      assertEquals(95.0, stock.getPercentile());
+      assertEquals(100L, stock.getDelayMillis());
+      assertEquals(10.0, stock.getBudgetPercent());
+
+      assertThrows(SystemException.class, () -> parser.parse(yaml(withFlow)));
+      assertThrows(SystemException.class, () -> parser.parse(yaml(invalid)));
+    }
+  }
+
+  // ------------------------------------------------------------
+  // 20. retry/onError/forEach/cache/hedge の値検証（STREAMING は行・列を含む）
+  // ------------------------------------------------------------
+  @Test
+  public void testBlockValidationReportsLocation() {
+    final String wrongType = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            retry:
+              maxAttempts: three
+        """;
+    final String outOfRange = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            forEach:
+              items: ${ids}
+              collect: out
+              maxConcurrency: 0
+        """;
+    final String missing = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            onError:
+              delayMillis: 10
+        """;
+    final String wrongKeys = """
+        name: flow
+        steps:
+          - name: s1
+            module: M
+            operation: op
+            cache:
+              keys: [id, 1]
+        """;
+
+    final FlowYamlParser streaming = new FlowYamlParser(FlowYamlParser.Mode.STREAMING);
+    assertEquals("Invalid YAML at line 7, column 20: retry 'maxAttempts' must be an integer",
+        assertThrows(SystemException.class, () -> streaming.parse(yaml(wrongType))).getCause().getMessage());
+    assertEquals("Invalid YAML at line 9, column 23: forEach 'maxConcurrency' must be at least 1",
+        assertThrows(SystemException.class, () -> streaming.parse(yaml(outOfRange))).getCause().getMessage());
+    assertEquals("Invalid YAML at line 7, column 7: onError 'action' is required",
+        assertThrows(SystemException.class, () -> streaming.parse(yaml(missing))).getCause().getMessage());
+    assertEquals("Invalid YAML at line 7, column 13: cache 'keys' must be a list of strings",
+        assertThrows(SystemException.class, () -> streaming.parse(yaml(wrongKeys))).getCause().getMessage());
+
+    final FlowYamlParser tree = new FlowYamlParser();
+    assertEquals("Invalid YAML: retry 'maxAttempts' must be an integer",
+        assertThrows(SystemException.class, () -> tree.parse(yaml(wrongType))).getCause().getMessage());
+  }
 }
\ No newline at end of file
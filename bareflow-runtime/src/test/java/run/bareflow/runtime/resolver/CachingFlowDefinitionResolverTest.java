@@ -0,0 +1,40 @@
+package run.bareflow.runtime.resolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.exception.SystemException;
+
+public class CachingFlowDefinitionResolverTest {
+    // ------------------------------------------------------------
+    // 1. 解決済み定義はキャッシュから返し、clear() で再解決
+    // ------------------------------------------------------------
+    @Test
+    public void testCachesDefinitionsUntilCleared() {
+        AtomicInteger calls = new AtomicInteger();
+        CachingFlowDefinitionResolver resolver = new CachingFlowDefinitionResolver(name -> {
+            calls.incrementAndGet();
+            if (!"flow".equals(name)) {
+                throw new SystemException("Flow definition not found: " + name);
+            }
+            return new FlowDefinition(name, List.of(), null, null);
+        });
+
+        FlowDefinition first = resolver.resolve("flow");
+        assertSame(first, resolver.resolve("flow"));
+        assertEquals(1, resolver.getHits());
+        assertEquals(1, resolver.getMisses());
+
+        assertThrows(SystemException.class, () -> resolver.resolve("other"));
+        assertEquals(1, resolver.size());
+
+        resolver.clear();
+        assertNotSame(first, resolver.resolve("flow"));
+        assertEquals(3, calls.get());
+    }
+}
\ No newline at end of file
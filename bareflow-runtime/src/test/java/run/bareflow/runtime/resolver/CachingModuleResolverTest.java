@@ -0,0 +1,48 @@
+package run.bareflow.runtime.resolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CachingModuleResolverTest {
+    // ------------------------------------------------------------
+    // 1. 解決済みクラスはキャッシュから返す
+    // ------------------------------------------------------------
+    @Test
+    public void testCachesResolvedClasses() {
+        AtomicInteger calls = new AtomicInteger();
+        CachingModuleResolver resolver = new CachingModuleResolver(name -> {
+            calls.incrementAndGet();
+            return String.class;
+        });
+
+        assertSame(String.class, resolver.resolve("a"));
+        assertSame(String.class, resolver.resolve("a"));
+        assertEquals(1, calls.get());
+        assertEquals(1, resolver.getHits());
+        assertEquals(1, resolver.getMisses());
+
+        resolver.clear();
+        resolver.resolve("a");
+        assertEquals(2, calls.get());
+    }
+
+    // ------------------------------------------------------------
+    // 2. 解決に失敗した結果はキャッシュしない
+    // ------------------------------------------------------------
+    @Test
+    public void testFailuresAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        CachingModuleResolver resolver = new CachingModuleResolver(name -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("Module not found: " + name);
+        });
+
+        assertThrows(RuntimeException.class, () -> resolver.resolve("missing"));
+        assertThrows(RuntimeException.class, () -> resolver.resolve("missing"));
+        assertEquals(2, calls.get());
+        assertEquals(0, resolver.size());
+    }
+}
\ No newline at end of file
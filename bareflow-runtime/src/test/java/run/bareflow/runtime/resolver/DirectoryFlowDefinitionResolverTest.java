@@ -0,0 +1,123 @@
+package run.bareflow.runtime.resolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.runtime.parser.FlowYamlParser;
+
+public class DirectoryFlowDefinitionResolverTest {
+    @TempDir
+    Path dir;
+
+    private void writeFlow(final String file, final String name) throws IOException {
+        final Path path = dir.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, """
+                name: %s
+                steps:
+                  - name: s1
+                    module: M
+                    operation: op
+                """.formatted(name));
+    }
+
+    // ------------------------------------------------------------
+    // 1. ディレクトリ配下の全 YAML が読み込まれる
+    // ------------------------------------------------------------
+    @Test
+    public void testLoadsAllFlowsRecursively() throws IOException {
+        writeFlow("a.yaml", "flowA");
+        writeFlow("b.yml", "flowB");
+        writeFlow("sub/c.yaml", "flowC");
+        Files.writeString(dir.resolve("README.txt"), "ignored");
+
+        final DirectoryFlowDefinitionResolver resolver = new DirectoryFlowDefinitionResolver(dir);
+
+        assertEquals(3, resolver.getDefinitions().size());
+        assertEquals("flowA", resolver.resolve("flowA").getName());
+        assertEquals("flowC", resolver.resolve("flowC").getName());
+        assertThrows(UnsupportedOperationException.class, () -> resolver.getDefinitions().clear());
+    }
+
+    // ------------------------------------------------------------
+    // 2. ファイルごとのパース時間が報告される
+    // ------------------------------------------------------------
+    @Test
+    public void testReportsPerFileStats() throws IOException {
+        writeFlow("a.yaml", "flowA");
+        writeFlow("b.yaml", "flowB");
+
+        final DirectoryFlowDefinitionResolver resolver = new DirectoryFlowDefinitionResolver(dir, 2,
+                FlowYamlParser.Mode.STREAMING);
+
+        final List<FlowLoadStat> stats = resolver.getLoadStats();
+        assertEquals(2, stats.size());
+        assertEquals("a.yaml", stats.get(0).source());
+        assertEquals("flowA", stats.get(0).flowName());
+        assertFalse(stats.get(0).parseTime().isNegative());
+        assertNotNull(resolver.getLoadTime());
+    }
+
+    // ------------------------------------------------------------
+    // 3. 未登録のフローは SystemException
+    // ------------------------------------------------------------
+    @Test
+    public void testUnknownFlowThrows() throws IOException {
+        writeFlow("a.yaml", "flowA");
+
+        final DirectoryFlowDefinitionResolver resolver = new DirectoryFlowDefinitionResolver(dir);
+
+        assertThrows(SystemException.class, () -> resolver.resolve("missing"));
+    }
+
+    // ------------------------------------------------------------
+    // 4. 同名フローの重複はエラー
+    // ------------------------------------------------------------
+    @Test
+    public void testDuplicateFlowNameThrows() throws IOException {
+        writeFlow("a.yaml", "same");
+        writeFlow("b.yaml", "same");
+
+        assertThrows(SystemException.class, () -> new DirectoryFlowDefinitionResolver(dir));
+    }
+
+    // ------------------------------------------------------------
+    // 5. 不正なファイルがあればロード全体が失敗する
+    // ------------------------------------------------------------
+    @Test
+    public void testInvalidFileFailsLoad() throws IOException {
+        writeFlow("a.yaml", "flowA");
+        Files.writeString(dir.resolve("broken.yaml"), "name: broken\n");
+
+        final SystemException e = assertThrows(SystemException.class,
+                () -> new DirectoryFlowDefinitionResolver(dir));
+        assertTrue(e.getMessage().contains("broken.yaml"));
+    }
+
+    // ------------------------------------------------------------
+    // 6. クラスパス上のディレクトリから読み込める
+    // ------------------------------------------------------------
+    @Test
+    public void testFromClasspath() throws IOException {
+        writeFlow("flows/a.yaml", "flowA");
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, null)) {
+            final DirectoryFlowDefinitionResolver resolver = DirectoryFlowDefinitionResolver.fromClasspath("flows",
+                    loader);
+
+            final FlowDefinition def = resolver.resolve("flowA");
+            assertEquals(1, def.getSteps().size());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package run.bareflow.runtime.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTrace;
+
+public class OtlpHttpSpanExporterTest {
+    private HttpServer server;
+    private final List<String> bodies = new ArrayList<>();
+    private final List<String> contentTypes = new ArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+
+    /**
+     * Minimal in-process OTLP/HTTP collector recording request bodies.
+     */
+    private URI startCollector() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/traces", exchange -> {
+            synchronized (bodies) {
+                bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            }
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/traces");
+    }
+
+    @AfterEach
+    public void stopCollector() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private static Span span(String parent, boolean error) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("bareflow.step", "charge \"card\"");
+        attributes.put("bareflow.attempt", 2L);
+        attributes.put("bareflow.cached", true);
+        return new Span("0123456789abcdef0123456789abcdef", "00000000000000aa", parent, "payment#charge",
+                Span.Kind.CLIENT, 1_000L, 2_500L, attributes, error, error ? "boom" : null);
+    }
+
+    // ------------------------------------------------------------
+    // 1. OTLP JSON エンコーディング
+    // ------------------------------------------------------------
+    @Test
+    public void testEncode() {
+        String json = OtlpHttpSpanExporter.encode("orders", List.of(span("00000000000000bb", true)));
+
+        assertTrue(json.startsWith("{\"resourceSpans\":[{\"resource\":{\"attributes\":["
+                + "{\"key\":\"service.name\",\"value\":{\"stringValue\":\"orders\"}}]}"));
+        assertTrue(json.contains("\"scope\":{\"name\":\"run.bareflow\"}"));
+        assertTrue(json.contains("\"traceId\":\"0123456789abcdef0123456789abcdef\""));
+        assertTrue(json.contains("\"spanId\":\"00000000000000aa\""));
+        assertTrue(json.contains("\"parentSpanId\":\"00000000000000bb\""));
+        assertTrue(json.contains("\"kind\":3"));
+        assertTrue(json.contains("\"startTimeUnixNano\":\"1000\""));
+        assertTrue(json.contains("\"endTimeUnixNano\":\"2500\""));
+        assertTrue(json.contains("{\"key\":\"bareflow.step\",\"value\":{\"stringValue\":\"charge \\\"card\\\"\"}}"));
+        assertTrue(json.contains("{\"key\":\"bareflow.attempt\",\"value\":{\"intValue\":\"2\"}}"));
+        assertTrue(json.contains("{\"key\":\"bareflow.cached\",\"value\":{\"boolValue\":true}}"));
+        assertTrue(json.contains("\"status\":{\"code\":2,\"message\":\"boom\"}"));
+
+        String root = OtlpHttpSpanExporter.encode("orders", List.of(span(null, false)));
+        assertFalse(root.contains("parentSpanId"));
+        assertFalse(root.contains("\"code\":2"));
+    }
+
+    // ------------------------------------------------------------
+    // 2. リスナーからコレクタへエクスポート
+    // ------------------------------------------------------------
+    @Test
+    public void testExportsToCollector() throws Exception {
+        URI endpoint = startCollector();
+        FlowDefinition flow = new FlowDefinition("order", List.of(), null, null);
+        StepDefinition step = new StepDefinition("charge", "payment", "charge", Map.of(), Map.of(), null, null);
+        Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+
+        try (SpanExportListener listener = new SpanExportListener(
+                new OtlpHttpSpanExporter(endpoint, "orders", Duration.ofSeconds(5)))) {
+            listener.onEvent(new FlowStartEvent(flow, t0));
+            listener.onEvent(new StepStartEvent(step, 1, t0));
+            listener.onEvent(new InvokeStartEvent(step, 1, Map.of(), t0));
+            listener.onEvent(new InvokeEndEvent(step, 1, Map.of(), t0, t0));
+            listener.onEvent(new StepEndEvent(step, 1, t0, t0, null));
+            listener.onEvent(new FlowEndEvent(flow, new StepTrace(), t0, t0));
+        }
+
+        assertEquals(1, bodies.size());
+        assertEquals("application/json", contentTypes.get(0));
+        String body = bodies.get(0);
+        assertTrue(body.contains("\"name\":\"order\""));
+        assertTrue(body.contains("\"name\":\"charge\""));
+        assertTrue(body.contains("\"name\":\"payment#charge\""));
+        assertTrue(body.contains("{\"key\":\"bareflow.module\",\"value\":{\"stringValue\":\"payment\"}}"));
+    }
+
+    // ------------------------------------------------------------
+    // 3. 2xx 以外の応答は SystemException
+    // ------------------------------------------------------------
+    @Test
+    public void testRejectedExportThrows() throws Exception {
+        URI endpoint = startCollector();
+        status.set(503);
+        OtlpHttpSpanExporter exporter = new OtlpHttpSpanExporter(endpoint, "orders");
+
+        SystemException e = assertThrows(SystemException.class, () -> exporter.export(List.of(span(null, false))));
+        assertTrue(e.getMessage().contains("503"));
+    }
+
+    // ------------------------------------------------------------
+    // 4. リモートの親スパンを持つフローは呼び出し元のトレースに参加
+    // ------------------------------------------------------------
+    @Test
+    public void testFlowJoinsRemoteTrace() throws Exception {
+        URI endpoint = startCollector();
+        FlowDefinition flow = new FlowDefinition("order", List.of(), null, null);
+        Instant t0 = Instant.parse("2026-01-01T00:00:00Z");
+        ThreadLocal<String> traceparent = new ThreadLocal<>();
+
+        try (SpanExportListener listener = new SpanExportListener(
+                new OtlpHttpSpanExporter(endpoint, "orders", Duration.ofSeconds(5)), 512, 2048,
+                Duration.ofSeconds(1), () -> SpanContext.fromTraceparent(traceparent.get()))) {
+            traceparent.set("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+            listener.onEvent(new FlowStartEvent(flow, t0));
+            listener.onEvent(new FlowEndEvent(flow, new StepTrace(), t0, t0));
+            traceparent.remove();
+            listener.onEvent(new FlowStartEvent(flow, t0));
+            listener.onEvent(new FlowEndEvent(flow, new StepTrace(), t0, t0));
+        }
+
+        String body = String.join("", bodies);
+        assertTrue(body.contains("\"traceId\":\"0af7651916cd43dd8448eb211c80319c\""));
+        assertTrue(body.contains("\"parentSpanId\":\"b7ad6b7169203331\""));
+        // without a traceparent the flow starts its own trace
+        assertEquals(2, body.split("\"traceId\"", -1).length - 1);
+        assertEquals(1, body.split("\"parentSpanId\"", -1).length - 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package run.bareflow.runtime.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import run.bareflow.core.definition.FlowDefinition;
+import run.bareflow.core.definition.ForEachDefinition;
+import run.bareflow.core.definition.StepDefinition;
+import run.bareflow.core.engine.event.FlowEngineEvent.*;
+import run.bareflow.core.exception.SystemException;
+import run.bareflow.core.trace.StepTrace;
+
+public class SpanExportListenerTest {
+    private static final FlowDefinition FLOW = new FlowDefinition("order", List.of(), null, null);
+    private static final StepDefinition STEP = new StepDefinition("charge", "payment", "charge", Map.of(), Map.of(),
+            null, null);
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static Span find(List<Span> spans, String name, long attempt) {
+        return spans.stream()
+                .filter(s -> s.name().equals(name))
+                .filter(s -> attempt == 0 || Long.valueOf(attempt).equals(s.attributes().get("bareflow.attempt")))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // ------------------------------------------------------------
+    // 1. flow → step → invoke の親子関係と属性、失敗した試行のエラー状態
+    // ------------------------------------------------------------
+    @Test
+    public void testBuildsSpanTree() {
+        List<Span> exported = new CopyOnWriteArrayList<>();
+        SpanExportListener listener = new SpanExportListener(exported::addAll, 10, 100, Duration.ofMinutes(1));
+
+        listener.onEvent(new FlowStartEvent(FLOW, T0));
+        // attempt 1 fails inside the invocation
+        listener.onEvent(new StepStartEvent(STEP, 1, T0));
+        listener.onEvent(new InvokeStartEvent(STEP, 1, Map.of(), T0));
+        listener.onEvent(new SystemErrorEvent(STEP, 1, new SystemException("timeout")));
+        listener.onEvent(new RetryPolicyRetryEvent(STEP, 1, 0));
+        // attempt 2 succeeds
+        listener.onEvent(new StepStartEvent(STEP, 2, T0.plusMillis(10)));
+        listener.onEvent(new InvokeStartEvent(STEP, 2, Map.of(), T0.plusMillis(10)));
+        listener.onEvent(new InvokeEndEvent(STEP, 2, Map.of(), T0.plusMillis(10), T0.plusMillis(15)));
+        listener.onEvent(new StepEndEvent(STEP, 2, T0.plusMillis(10), T0.plusMillis(16), null));
+        listener.onEvent(new FlowEndEvent(FLOW, new StepTrace(), T0, T0.plusMillis(20)));
+        listener.close();
+
+        assertEquals(5, exported.size());
+        assertEquals(5, listener.getExportedSpans());
+        assertEquals(0, listener.getDroppedSpans());
+
+        Span flow = find(exported, "order", 0);
+        Span failedStep = find(exported, "charge", 1);
+        Span failedInvoke = find(exported, "payment#charge", 1);
+        Span step = find(exported, "charge", 2);
+        Span invoke = find(exported, "payment#charge", 2);
+
+        assertNull(flow.parentSpanId());
+        assertEquals(32, flow.traceId().length());
+        assertEquals(16, flow.spanId().length());
+        assertTrue(exported.stream().allMatch(s -> s.traceId().equals(flow.traceId())));
+
+        assertEquals(flow.spanId(), failedStep.parentSpanId());
+        assertEquals(flow.spanId(), step.parentSpanId());
+        assertEquals(failedStep.spanId(), failedInvoke.parentSpanId());
+        assertEquals(step.spanId(), invoke.parentSpanId());
+
+        assertTrue(failedStep.error());
+        assertTrue(failedInvoke.error());
+        assertTrue(failedStep.statusMessage().contains("timeout"));
+        assertFalse(step.error());
+        assertFalse(flow.error());
+
+        assertEquals(Span.Kind.CLIENT, invoke.kind());
+        assertEquals(Map.of("bareflow.flow", "order", "bareflow.step", "charge", "bareflow.attempt", 2L,
+                "bareflow.module", "payment", "bareflow.operation", "charge"), invoke.attributes());
+        long start = T0.getEpochSecond() * 1_000_000_000L + 10_000_000L;
+        assertEquals(start, invoke.startEpochNanos());
+        assertEquals(start + 5_000_000L, invoke.endEpochNanos());
+    }
+
+    // ------------------------------------------------------------
+    // 2. ワーカースレッドの forEach 要素スパンは自身の実行のステップスパンの子になる
+    // ------------------------------------------------------------
+    @Test
+    public void testForEachItemOnWorkerThread() throws Exception {
+        StepDefinition forEach = StepDefinition.builder("each")
+                .module("m")
+                .operation("op")
+                .forEach(new ForEachDefinition("items", "item", 2, null))
+                .build();
+        List<Span> exported = new CopyOnWriteArrayList<>();
+        SpanExportListener listener = new SpanExportListener(exported::addAll, 10, 100, Duration.ofMinutes(1));
+
+        // two concurrent executions of the same definition, each with a worker thread
+        CyclicBarrier bothOpen = new CyclicBarrier(2);
+        List<Thread> flows = new ArrayList<>();
+        for (int index : new int[] { 3, 4 }) {
+            flows.add(new Thread(() -> {
+                listener.onEvent(new FlowStartEvent(FLOW, T0));
+                listener.onEvent(new StepStartEvent(forEach, 1, T0));
+                Runnable task = listener.propagate(() -> {
+                    listener.onEvent(new ForEachItemStartEvent(forEach, index, 1, T0));
+                    listener.onEvent(new ForEachItemEndEvent(forEach, index, 1, T0, T0, null));
+                });
+                try {
+                    bothOpen.await(5, TimeUnit.SECONDS);
+                    Thread worker = new Thread(task);
+                    worker.start();
+                    worker.join();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                listener.onEvent(new StepEndEvent(forEach, 1, T0, T0, null));
+                listener.onEvent(new FlowEndEvent(FLOW, new StepTrace(), T0, T0));
+            }));
+        }
+        for (Thread flow : flows) {
+            flow.start();
+        }
+        for (Thread flow : flows) {
+            flow.join();
+        }
+        listener.close();
+
+        Span item3 = find(exported, "each[3]", 1);
+        Span item4 = find(exported, "each[4]", 1);
+        assertNotEquals(item3.traceId(), item4.traceId());
+        for (Span item : List.of(item3, item4)) {
+            Span step = exported.stream()
+                    .filter(s -> s.name().equals("each") && s.traceId().equals(item.traceId()))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(step.spanId(), item.parentSpanId());
+        }
+        assertEquals(3L, item3.attributes().get("bareflow.index"));
+        assertEquals(6, exported.size());
+    }
+
+    // ------------------------------------------------------------
+    // 3. バッチ分割・エクスポート失敗・クローズ後の破棄を計上
+    // ------------------------------------------------------------
+    @Test
+    public void testBatchingAndFailures() {
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        SpanExportListener listener = new SpanExportListener(spans -> {
+            batches.add(spans.size());
+            if (batches.size() == 1) {
+                throw new SystemException("collector down");
+            }
+        }, 2, 10, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            listener.onEvent(new FlowStartEvent(FLOW, T0));
+            listener.onEvent(new FlowAbortedEvent(FLOW, new StepTrace(), new SystemException("x"), T0, T0));
+        }
+        listener.close();
+        listener.onEvent(new FlowStartEvent(FLOW, T0));
+        listener.onEvent(new FlowEndEvent(FLOW, new StepTrace(), T0, T0));
+
+        assertEquals(5, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.stream().allMatch(n -> n <= 2));
+        assertEquals(1, listener.getFailedExports());
+        assertEquals(5 - batches.get(0), listener.getExportedSpans());
+        assertEquals(batches.get(0) + 1, listener.getDroppedSpans());
+    }
+
+    // ------------------------------------------------------------
+    // 4. 設定値の検証
+    // ------------------------------------------------------------
+    @Test
+    public void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SpanExportListener(spans -> {
+                }, 0, 10, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SpanExportListener(spans -> {
+                }, 10, 5, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SpanExportListener(spans -> {
+                }, 10, 10, Duration.ZERO));
+    }
+
+    // ------------------------------------------------------------
+    // 5. traceparent ヘッダの解析
+    // ------------------------------------------------------------
+    @Test
+    public void testParsesTraceparent() {
+        SpanContext parent = SpanContext.fromTraceparent("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+        assertEquals(new SpanContext("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331"), parent);
+        // later versions may append fields
+        assertNotNull(SpanContext.fromTraceparent("01-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01-x"));
+
+        assertNull(SpanContext.fromTraceparent(null));
+        assertNull(SpanContext.fromTraceparent("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01-x"));
+        assertNull(SpanContext.fromTraceparent("ff-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01"));
+        assertNull(SpanContext.fromTraceparent("00-00000000000000000000000000000000-b7ad6b7169203331-01"));
+        assertNull(SpanContext.fromTraceparent("00-0AF7651916CD43DD8448EB211C80319C-b7ad6b7169203331-01"));
+        assertThrows(IllegalArgumentException.class, () -> new SpanContext("abc", "b7ad6b7169203331"));
+    }
+}
\ No newline at end of file